@@ -4,7 +4,7 @@ public class AlarmLimitInstanceModelImpl extends InstanceModelImpl<ice.AlarmLimi
 										 implements AlarmLimitInstanceModel{
 	
     public AlarmLimitInstanceModelImpl(String topic) {
-        super(topic, ice.AlarmLimit.class, ice.AlarmLimitDataReader.class, ice.AlarmLimitDataWriter.class, ice.AlarmLimitTypeSupport.class, ice.AlarmLimitSeq.class);
+        super(topic, ice.AlarmLimit.class, ice.AlarmLimitDataReader.class, ice.AlarmLimitDataWriter.class, ice.AlarmLimitTypeSupport.class, ice.AlarmLimitSeq.class, IceReaderOps.ALARM_LIMIT);
     }
 
 }
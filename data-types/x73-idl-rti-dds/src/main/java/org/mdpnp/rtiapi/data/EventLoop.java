@@ -14,8 +14,16 @@ package org.mdpnp.rtiapi.data;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,8 +35,20 @@ import com.rti.dds.infrastructure.GuardCondition;
 import com.rti.dds.infrastructure.RETCODE_TIMEOUT;
 import com.rti.dds.infrastructure.WaitSet;
 import com.rti.dds.infrastructure.WaitSetProperty_t;
+import com.rti.dds.subscription.ReadCondition;
 
 /**
+ * By default every ConditionHandler runs on the single thread servicing the
+ * WaitSet, and many handlers rely on that (they check isCurrentServiceThread or
+ * share unsynchronized state with other handlers).  A handler that is safe to
+ * run elsewhere can opt in by implementing {@link DispatchableConditionHandler}.
+ * When a dispatch executor is configured the handlers of ReadConditions that
+ * opted in run on that executor; while a handler is in flight its condition is
+ * detached from the WaitSet so that each reader is still handled by at most one
+ * thread at a time and in order, but a slow reader (waveforms) no longer holds
+ * up the others (alarms).  Every other handler, and every GuardCondition, is
+ * still handled on the service thread.
+ * 
  * @author Jeff Plourde
  *
  */
@@ -40,18 +60,40 @@ public class EventLoop {
         void conditionChanged(Condition condition);
     }
 
+    /**
+     * A ConditionHandler that may be run on the dispatch executor rather than
+     * the service thread.  It is never run concurrently with itself but may run
+     * concurrently with any other handler, and isCurrentServiceThread is false
+     * while it runs.
+     */
+    public interface DispatchableConditionHandler extends ConditionHandler {
+    }
+
     private final Map<Condition, ConditionHandler> conditionHandlers = new HashMap<Condition, ConditionHandler>();
     private final List<Mutation> queuedMutations = new ArrayList<Mutation>();
     private final List<Runnable> queuedRunnables = new ArrayList<Runnable>();
     private final WaitSet waitSet;
     private final GuardCondition mutate = new GuardCondition();
     private final GuardCondition runnable = new GuardCondition();
+    private final GuardCondition dispatched = new GuardCondition();
+
+    private volatile Executor dispatchExecutor;
+    // The pool made by setDispatchThreads, which is ours to shut down
+    private ExecutorService dispatchThreads;
+    // Only accessed by the service thread
+    private final Set<Condition> inFlight = new HashSet<Condition>();
+    private final Map<Condition, List<Mutation>> removalsAwaitingDispatch = new HashMap<Condition, List<Mutation>>();
+    // Conditions whose dispatched handler has completed
+    private final List<Condition> completedDispatches = new ArrayList<Condition>();
+    private static final ThreadLocal<Condition> dispatchingCondition = new ThreadLocal<Condition>();
 
     protected void handleMutation(Mutation m) {
         if (m.isAdd()) {
             // log.debug("Handling an add mutation for " + m.getCondition());
             conditionHandlers.put(m.getCondition(), m.getConditionHandler());
-            waitSet.attach_condition(m.getCondition());
+            if (!inFlight.contains(m.getCondition())) {
+                waitSet.attach_condition(m.getCondition());
+            }
         } else {
             // log.debug("Handling a remove mutation for " + m.getCondition());
             if (null == conditionHandlers.remove(m.getCondition())) {
@@ -59,6 +101,15 @@ public class EventLoop {
                 for (int i = 0; i < m.getTrace().length; i++) {
                     log.warn("\tat " + m.getTrace()[i]);
                 }
+            } else if (inFlight.contains(m.getCondition())) {
+                // Callers expect the handler not to be running once removeHandler returns
+                List<Mutation> removals = removalsAwaitingDispatch.get(m.getCondition());
+                if (null == removals) {
+                    removals = new ArrayList<Mutation>();
+                    removalsAwaitingDispatch.put(m.getCondition(), removals);
+                }
+                removals.add(m);
+                return;
             } else {
                 waitSet.detach_condition(m.getCondition());
             }
@@ -66,6 +117,87 @@ public class EventLoop {
         m.done();
     }
 
+    private final ConditionHandler dispatchedHandler = new ConditionHandler() {
+        @Override
+        public void conditionChanged(Condition condition) {
+            Condition[] conditions = new Condition[0];
+            synchronized (completedDispatches) {
+                conditions = completedDispatches.toArray(conditions);
+                completedDispatches.clear();
+                ((GuardCondition) condition).set_trigger_value(false);
+            }
+            for (Condition c : conditions) {
+                inFlight.remove(c);
+                if (conditionHandlers.containsKey(c)) {
+                    waitSet.attach_condition(c);
+                }
+                List<Mutation> removals = removalsAwaitingDispatch.remove(c);
+                if (null != removals) {
+                    for (Mutation m : removals) {
+                        m.done();
+                    }
+                }
+            }
+        }
+    };
+
+    /**
+     * @param dispatchExecutor on which to run the handlers of ReadConditions; null
+     *            to run every handler on the service thread
+     */
+    public void setDispatchExecutor(Executor dispatchExecutor) {
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    public Executor getDispatchExecutor() {
+        return dispatchExecutor;
+    }
+
+    /**
+     * Convenience for configuration; dispatches to a fixed pool of daemon threads
+     * that is stopped by {@link #shutdown()}
+     * 
+     * @param threads the size of the pool or zero to run every handler on the
+     *            service thread
+     */
+    public synchronized void setDispatchThreads(int threads) {
+        ExecutorService previous = dispatchThreads;
+        if (threads <= 0) {
+            dispatchThreads = null;
+        } else {
+            dispatchThreads = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "EventLoopDispatch-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        setDispatchExecutor(dispatchThreads);
+        if (null != previous) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Stops the pool made by setDispatchThreads, if any; handlers already
+     * dispatched are allowed to finish and later ones run on the service thread.
+     * An executor passed to setDispatchExecutor belongs to the caller and is left
+     * running.
+     */
+    public synchronized void shutdown() {
+        if (null != dispatchThreads) {
+            if (dispatchExecutor == dispatchThreads) {
+                setDispatchExecutor(null);
+            }
+            dispatchThreads.shutdown();
+            dispatchThreads = null;
+        }
+    }
+
     private final ConditionHandler mutateHandler = new ConditionHandler() {
         @Override
         public void conditionChanged(Condition condition) {
@@ -151,8 +283,10 @@ public class EventLoop {
         waitSet = null == properties ? new WaitSet() : new WaitSet(properties);
         waitSet.attach_condition(mutate);
         waitSet.attach_condition(runnable);
+        waitSet.attach_condition(dispatched);
         conditionHandlers.put(mutate, mutateHandler);
         conditionHandlers.put(runnable, runnableHandler);
+        conditionHandlers.put(dispatched, dispatchedHandler);
     }
     
     private static final long WARNING_ELAPSED_TIME_NANOSECONDS = 100000000L;
@@ -188,11 +322,11 @@ public class EventLoop {
                 Condition c = (Condition) condSeq.get(i);
                 ConditionHandler ch = conditionHandlers.get(c);
                 if (null != ch) {
-                    long s = System.nanoTime();
-                    ch.conditionChanged(c);
-                    long elapsed = System.nanoTime() - s;
-                    if(elapsed >= WARNING_ELAPSED_TIME_NANOSECONDS) {
-                        log.warn(elapsed + "ns to service " + ch);
+                    Executor dispatchExecutor = this.dispatchExecutor;
+                    if (null != dispatchExecutor && c instanceof ReadCondition && ch instanceof DispatchableConditionHandler) {
+                        dispatch(dispatchExecutor, c, ch);
+                    } else {
+                        handle(c, ch);
                     }
                 } else {
                     log.warn("No ConditionHandler for Condition " + c);
@@ -209,6 +343,46 @@ public class EventLoop {
         }
     }
 
+    private static void handle(Condition c, ConditionHandler ch) {
+        long s = System.nanoTime();
+        ch.conditionChanged(c);
+        long elapsed = System.nanoTime() - s;
+        if(elapsed >= WARNING_ELAPSED_TIME_NANOSECONDS) {
+            log.warn(elapsed + "ns to service " + ch);
+        }
+    }
+
+    private void dispatch(Executor dispatchExecutor, final Condition c, final ConditionHandler ch) {
+        // Detached until the handler completes so the WaitSet does not keep
+        // waking for data the handler has yet to take
+        waitSet.detach_condition(c);
+        inFlight.add(c);
+        try {
+            dispatchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    dispatchingCondition.set(c);
+                    try {
+                        handle(c, ch);
+                    } catch (Throwable t) {
+                        log.error("Unexpected in ConditionHandler " + ch, t);
+                    } finally {
+                        dispatchingCondition.remove();
+                        synchronized (completedDispatches) {
+                            completedDispatches.add(c);
+                            dispatched.set_trigger_value(true);
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Dispatch rejected, handling on the service thread " + ch, e);
+            inFlight.remove(c);
+            waitSet.attach_condition(c);
+            handle(c, ch);
+        }
+    }
+
     public synchronized boolean isCurrentServiceThread() {
         return Thread.currentThread().equals(currentServiceThread);
     }
@@ -239,7 +413,10 @@ public class EventLoop {
                 queuedMutations.add(m);
                 mutate.set_trigger_value(true);
             }
-            m.await();
+            // A handler removing its own condition cannot wait for itself to complete
+            if (condition != dispatchingCondition.get()) {
+                m.await();
+            }
         }
         // log.debug("removeHandler complete for " + condition);
     }
@@ -4,6 +4,6 @@ public class GlobalSimulationObjectiveInstanceModelImpl extends InstanceModelImp
     public GlobalSimulationObjectiveInstanceModelImpl(String topic) {
         super(topic, ice.GlobalSimulationObjective.class, ice.GlobalSimulationObjectiveDataReader.class,
                 ice.GlobalSimulationObjectiveDataWriter.class, ice.GlobalSimulationObjectiveTypeSupport.class,
-                ice.GlobalSimulationObjectiveSeq.class);
+                ice.GlobalSimulationObjectiveSeq.class, IceReaderOps.GLOBAL_SIMULATION_OBJECTIVE);
     }
 }
@@ -0,0 +1,348 @@
+package org.mdpnp.rtiapi.data;
+
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.subscription.DataReader;
+import com.rti.dds.subscription.ReadCondition;
+import com.rti.dds.subscription.SampleInfoSeq;
+
+/**
+ * {@link ReaderOps} for the ice topic types.  These simply forward to the
+ * rtiddsgen generated readers so the calls are monomorphic and can be
+ * inlined.  When a type is added to the ice IDL and read through an
+ * {@link InstanceModelImpl} or an fx list it should be added here as well;
+ * otherwise the model falls back to {@link ReflectiveReaderOps}.
+ */
+public final class IceReaderOps {
+    private IceReaderOps() {
+    }
+
+    public static final ReaderOps<ice.AlarmLimit, ice.AlarmLimitSeq> ALARM_LIMIT = new ReaderOps<ice.AlarmLimit, ice.AlarmLimitSeq>() {
+        @Override
+        public ice.AlarmLimit createData() {
+            return new ice.AlarmLimit();
+        }
+
+        @Override
+        public ice.AlarmLimitSeq createSequence() {
+            return new ice.AlarmLimitSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.AlarmLimitSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.AlarmLimitDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.AlarmLimitSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.AlarmLimitDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.AlarmLimitSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.AlarmLimitDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.AlarmLimit key_holder, InstanceHandle_t handle) {
+            ((ice.AlarmLimitDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.Alert, ice.AlertSeq> ALERT = new ReaderOps<ice.Alert, ice.AlertSeq>() {
+        @Override
+        public ice.Alert createData() {
+            return new ice.Alert();
+        }
+
+        @Override
+        public ice.AlertSeq createSequence() {
+            return new ice.AlertSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.AlertSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.AlertDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.AlertSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.AlertDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.AlertSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.AlertDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.Alert key_holder, InstanceHandle_t handle) {
+            ((ice.AlertDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.DeviceConnectivity, ice.DeviceConnectivitySeq> DEVICE_CONNECTIVITY = new ReaderOps<ice.DeviceConnectivity, ice.DeviceConnectivitySeq>() {
+        @Override
+        public ice.DeviceConnectivity createData() {
+            return new ice.DeviceConnectivity();
+        }
+
+        @Override
+        public ice.DeviceConnectivitySeq createSequence() {
+            return new ice.DeviceConnectivitySeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.DeviceConnectivitySeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.DeviceConnectivityDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.DeviceConnectivitySeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.DeviceConnectivityDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.DeviceConnectivitySeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.DeviceConnectivityDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.DeviceConnectivity key_holder, InstanceHandle_t handle) {
+            ((ice.DeviceConnectivityDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.DeviceIdentity, ice.DeviceIdentitySeq> DEVICE_IDENTITY = new ReaderOps<ice.DeviceIdentity, ice.DeviceIdentitySeq>() {
+        @Override
+        public ice.DeviceIdentity createData() {
+            return new ice.DeviceIdentity();
+        }
+
+        @Override
+        public ice.DeviceIdentitySeq createSequence() {
+            return new ice.DeviceIdentitySeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.DeviceIdentitySeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.DeviceIdentityDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.DeviceIdentitySeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.DeviceIdentityDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.DeviceIdentitySeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.DeviceIdentityDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.DeviceIdentity key_holder, InstanceHandle_t handle) {
+            ((ice.DeviceIdentityDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.GlobalAlarmLimitObjective, ice.GlobalAlarmLimitObjectiveSeq> GLOBAL_ALARM_LIMIT_OBJECTIVE = new ReaderOps<ice.GlobalAlarmLimitObjective, ice.GlobalAlarmLimitObjectiveSeq>() {
+        @Override
+        public ice.GlobalAlarmLimitObjective createData() {
+            return new ice.GlobalAlarmLimitObjective();
+        }
+
+        @Override
+        public ice.GlobalAlarmLimitObjectiveSeq createSequence() {
+            return new ice.GlobalAlarmLimitObjectiveSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.GlobalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.GlobalAlarmLimitObjectiveDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.GlobalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.GlobalAlarmLimitObjectiveDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.GlobalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.GlobalAlarmLimitObjectiveDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.GlobalAlarmLimitObjective key_holder, InstanceHandle_t handle) {
+            ((ice.GlobalAlarmLimitObjectiveDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.GlobalSimulationObjective, ice.GlobalSimulationObjectiveSeq> GLOBAL_SIMULATION_OBJECTIVE = new ReaderOps<ice.GlobalSimulationObjective, ice.GlobalSimulationObjectiveSeq>() {
+        @Override
+        public ice.GlobalSimulationObjective createData() {
+            return new ice.GlobalSimulationObjective();
+        }
+
+        @Override
+        public ice.GlobalSimulationObjectiveSeq createSequence() {
+            return new ice.GlobalSimulationObjectiveSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.GlobalSimulationObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.GlobalSimulationObjectiveDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.GlobalSimulationObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.GlobalSimulationObjectiveDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.GlobalSimulationObjectiveSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.GlobalSimulationObjectiveDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.GlobalSimulationObjective key_holder, InstanceHandle_t handle) {
+            ((ice.GlobalSimulationObjectiveDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.InfusionStatus, ice.InfusionStatusSeq> INFUSION_STATUS = new ReaderOps<ice.InfusionStatus, ice.InfusionStatusSeq>() {
+        @Override
+        public ice.InfusionStatus createData() {
+            return new ice.InfusionStatus();
+        }
+
+        @Override
+        public ice.InfusionStatusSeq createSequence() {
+            return new ice.InfusionStatusSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.InfusionStatusSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.InfusionStatusDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.InfusionStatusSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.InfusionStatusDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.InfusionStatusSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.InfusionStatusDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.InfusionStatus key_holder, InstanceHandle_t handle) {
+            ((ice.InfusionStatusDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.LocalAlarmLimitObjective, ice.LocalAlarmLimitObjectiveSeq> LOCAL_ALARM_LIMIT_OBJECTIVE = new ReaderOps<ice.LocalAlarmLimitObjective, ice.LocalAlarmLimitObjectiveSeq>() {
+        @Override
+        public ice.LocalAlarmLimitObjective createData() {
+            return new ice.LocalAlarmLimitObjective();
+        }
+
+        @Override
+        public ice.LocalAlarmLimitObjectiveSeq createSequence() {
+            return new ice.LocalAlarmLimitObjectiveSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.LocalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.LocalAlarmLimitObjectiveDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.LocalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.LocalAlarmLimitObjectiveDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.LocalAlarmLimitObjectiveSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.LocalAlarmLimitObjectiveDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.LocalAlarmLimitObjective key_holder, InstanceHandle_t handle) {
+            ((ice.LocalAlarmLimitObjectiveDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.Numeric, ice.NumericSeq> NUMERIC = new ReaderOps<ice.Numeric, ice.NumericSeq>() {
+        @Override
+        public ice.Numeric createData() {
+            return new ice.Numeric();
+        }
+
+        @Override
+        public ice.NumericSeq createSequence() {
+            return new ice.NumericSeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.NumericSeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.NumericDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.NumericSeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.NumericDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.NumericSeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.NumericDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.Numeric key_holder, InstanceHandle_t handle) {
+            ((ice.NumericDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+
+    public static final ReaderOps<ice.SampleArray, ice.SampleArraySeq> SAMPLE_ARRAY = new ReaderOps<ice.SampleArray, ice.SampleArraySeq>() {
+        @Override
+        public ice.SampleArray createData() {
+            return new ice.SampleArray();
+        }
+
+        @Override
+        public ice.SampleArraySeq createSequence() {
+            return new ice.SampleArraySeq();
+        }
+
+        @Override
+        public void readWCondition(DataReader reader, ice.SampleArraySeq data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+            ((ice.SampleArrayDataReader) reader).read_w_condition(data_seq, info_seq, max_samples, condition);
+        }
+
+        @Override
+        public void readInstance(DataReader reader, ice.SampleArraySeq data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle,
+                int sample_states, int view_states, int instance_states) {
+            ((ice.SampleArrayDataReader) reader).read_instance(data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+        }
+
+        @Override
+        public void returnLoan(DataReader reader, ice.SampleArraySeq data_seq, SampleInfoSeq info_seq) {
+            ((ice.SampleArrayDataReader) reader).return_loan(data_seq, info_seq);
+        }
+
+        @Override
+        public void getKeyValue(DataReader reader, ice.SampleArray key_holder, InstanceHandle_t handle) {
+            ((ice.SampleArrayDataReader) reader).get_key_value(key_holder, handle);
+        }
+    };
+}
@@ -74,7 +74,7 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
         while(itr.hasNext()) {
             InstanceHandle_t handle = itr.next();
             try {
-                readInstance.invoke(reader, sa_seq, info_seq, maxSamples, handle, SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ALIVE_INSTANCE_STATE);
+                readerOps.readInstance(reader, sa_seq, info_seq, maxSamples, handle, SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ALIVE_INSTANCE_STATE);
                 boolean reportedAlive = false;
                 for(int i = 0; i < info_seq.size(); i++) {
                     if(!reportedAlive) {
@@ -85,14 +85,13 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
                         listener.instanceSample(this, reader, (D)sa_seq.get(i), (SampleInfo) info_seq.get(i));
                     }
                 }
+            } catch (RETCODE_NO_DATA noData) {
+
             } catch (Exception e) {
-                if(!(e.getCause() instanceof RETCODE_NO_DATA)) {
-                    log.error("read_instance", e);
-                }
-                
+                log.error("read_instance", e);
             } finally {
                 try {
-                    returnLoan.invoke(reader, sa_seq, info_seq);
+                    readerOps.returnLoan(reader, sa_seq, info_seq);
                 } catch (Exception e) {
                     log.error("return_loan", e);
                 }
@@ -167,20 +166,12 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
     
     protected final ThreadLocal<Sequence> sa_seq = new ThreadLocal<Sequence>() {
         protected Sequence initialValue() {
-            try {
-                return sequenceClass.newInstance();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+            return readerOps.createSequence();
         };
     };
     protected final ThreadLocal<Sequence> sa_seq1 = new ThreadLocal<Sequence>() {
         protected Sequence initialValue() {
-            try {
-                return sequenceClass.newInstance();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+            return readerOps.createSequence();
         };
     };
     protected final ThreadLocal<SampleInfoSeq> info_seq = new ThreadLocal<SampleInfoSeq>() {
@@ -216,7 +207,7 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
             SampleInfoSeq info_seq = InstanceModelImpl.this.info_seq.get();
             R reader = InstanceModelImpl.this.reader;
             try {
-                readWCondition.invoke(reader, sa_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, (ReadCondition) condition);
+                readerOps.readWCondition(reader, sa_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, (ReadCondition) condition);
                 InstanceHandle_t lastHandle = InstanceHandle_t.HANDLE_NIL;
                 
                 final int sz = info_seq.size();
@@ -226,7 +217,7 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
                     D d = (D) sa_seq.get(i);
                     if (0 != (sampleInfo.instance_state & InstanceStateKind.NOT_ALIVE_INSTANCE_STATE)) {
                         if(!sampleInfo.valid_data) {
-                            getKeyValue.invoke(reader, d, sampleInfo.instance_handle);
+                            readerOps.getKeyValue(reader, d, sampleInfo.instance_handle);
                         }
                         fireInstanceNotAlive(d, sampleInfo);
                         int idx = instances.indexOf(sampleInfo.instance_handle);
@@ -251,15 +242,13 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
                     }
                     lastHandle = sampleInfo.instance_handle;
                 }
-            } catch (InvocationTargetException ite) {
-                if(!(ite.getCause() instanceof RETCODE_NO_DATA)) {
-                    log.error("reading", ite);
-                }
+            } catch (RETCODE_NO_DATA noData) {
+
             } catch (Exception e) {
                 log.error("reading ", e);
             } finally {
                 try {
-                    returnLoan.invoke(reader, sa_seq, info_seq);
+                    readerOps.returnLoan(reader, sa_seq, info_seq);
                 } catch (Exception e) {
                     log.error("return_loan", e);
                 }
@@ -272,23 +261,28 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
     protected final Class<D> dataClass;
     protected final Class<? extends TypeSupport> typeSupportClass;
     protected final Class<? extends Sequence> sequenceClass;
+    protected final ReaderOps<D, Sequence> readerOps;
     
-    protected final Method getKeyValue, returnLoan, readWCondition, readInstance, write;
+    protected final Method write;
     
     private final LogEntityStatus logEntityStatus;
     
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public InstanceModelImpl(final String topicName, Class<D> dataClass, Class<R> readerClass, Class<W> writerClass, Class<? extends TypeSupport> typeSupportClass, Class<? extends Sequence> sequenceClass) {
+        this(topicName, dataClass, readerClass, writerClass, typeSupportClass, sequenceClass, new ReflectiveReaderOps(dataClass, readerClass, sequenceClass));
+    }
+    
+    @SuppressWarnings("unchecked")
+    public InstanceModelImpl(final String topicName, Class<D> dataClass, Class<R> readerClass, Class<W> writerClass, Class<? extends TypeSupport> typeSupportClass, Class<? extends Sequence> sequenceClass, ReaderOps<D, ? extends Sequence> readerOps) {
         this.topicName = topicName;
         this.dataClass = dataClass;
         this.typeSupportClass = typeSupportClass;
         this.sequenceClass = sequenceClass;
+        // Every sequence handed to readerOps is one it created itself
+        this.readerOps = (ReaderOps<D, Sequence>) readerOps;
         this.logEntityStatus = new LogEntityStatus(log, topicName);
         try {
-            getKeyValue = readerClass.getMethod("get_key_value", dataClass, InstanceHandle_t.class);
-            returnLoan = readerClass.getMethod("return_loan", sequenceClass, SampleInfoSeq.class);
-            readWCondition = readerClass.getMethod("read_w_condition", sequenceClass, SampleInfoSeq.class, int.class, ReadCondition.class);
-            readInstance = readerClass.getMethod("read_instance", sequenceClass, SampleInfoSeq.class, int.class, InstanceHandle_t.class, int.class, int.class, int.class);
-            write = writerClass.getMethod("write", dataClass, InstanceHandle_t.class);
+            write = null == writerClass ? null : writerClass.getMethod("write", dataClass, InstanceHandle_t.class);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -415,8 +409,8 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
 //        SampleInfoSeq info_seq = InstanceModelImpl.this.info_seq1.get();
 //        R reader = this.reader;
 //        try {
-//            readInstance.invoke(reader, sa_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, handle, SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ANY_INSTANCE_STATE);
-//            D d = dataClass.newInstance();
+//            readerOps.readInstance(reader, sa_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, handle, SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ANY_INSTANCE_STATE);
+//            D d = readerOps.createData();
 //            d.copy_from(sa_seq.get(sa_seq.size()-1));
 //            return d;
 //        } catch (Exception e) {
@@ -425,7 +419,7 @@ public class InstanceModelImpl<D extends Copyable, R extends DataReader, W exten
 //            }
 //        } finally {
 //            try {
-//                returnLoan.invoke(reader, sa_seq, info_seq);
+//                readerOps.returnLoan(reader, sa_seq, info_seq);
 //            } catch (Exception e) {
 //                log.error("return_loan", e);
 //            }
@@ -0,0 +1,36 @@
+package org.mdpnp.rtiapi.data;
+
+import com.rti.dds.infrastructure.Copyable;
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.subscription.DataReader;
+import com.rti.dds.subscription.ReadCondition;
+import com.rti.dds.subscription.SampleInfoSeq;
+import com.rti.dds.util.Sequence;
+
+/**
+ * Typed access to the type-specific operations of a generated DataReader.
+ * rtiddsgen does not give the generated readers a common generic interface
+ * so without this every call on the read path would have to go through
+ * reflection.  See {@link IceReaderOps} for the implementations of the
+ * ice topic types and {@link ReflectiveReaderOps} for the fallback.
+ *
+ * Implementations must be stateless; a single instance is shared by every
+ * model of the same type.
+ *
+ * @param <D> the data type
+ * @param <S> the sequence type of D
+ */
+public interface ReaderOps<D extends Copyable, S extends Sequence> {
+    D createData();
+
+    S createSequence();
+
+    void readWCondition(DataReader reader, S data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition);
+
+    void readInstance(DataReader reader, S data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle, int sample_states,
+            int view_states, int instance_states);
+
+    void returnLoan(DataReader reader, S data_seq, SampleInfoSeq info_seq);
+
+    void getKeyValue(DataReader reader, D key_holder, InstanceHandle_t handle);
+}
@@ -0,0 +1,90 @@
+package org.mdpnp.rtiapi.data;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import com.rti.dds.infrastructure.Copyable;
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.subscription.DataReader;
+import com.rti.dds.subscription.ReadCondition;
+import com.rti.dds.subscription.SampleInfoSeq;
+import com.rti.dds.util.Sequence;
+
+/**
+ * {@link ReaderOps} for types without a typed implementation.  Looks up the
+ * reader methods by name once and calls them reflectively.  Exceptions thrown
+ * by the reader (notably RETCODE_NO_DATA) are unwrapped so callers see the
+ * same exceptions as with a typed implementation.
+ */
+public class ReflectiveReaderOps<D extends Copyable, S extends Sequence> implements ReaderOps<D, S> {
+    private final Class<D> dataClass;
+    private final Class<S> sequenceClass;
+    private final Method getKeyValue, returnLoan, readWCondition, readInstance;
+
+    public ReflectiveReaderOps(Class<D> dataClass, Class<? extends DataReader> readerClass, Class<S> sequenceClass) {
+        this.dataClass = dataClass;
+        this.sequenceClass = sequenceClass;
+        try {
+            getKeyValue = readerClass.getMethod("get_key_value", dataClass, InstanceHandle_t.class);
+            returnLoan = readerClass.getMethod("return_loan", sequenceClass, SampleInfoSeq.class);
+            readWCondition = readerClass.getMethod("read_w_condition", sequenceClass, SampleInfoSeq.class, int.class, ReadCondition.class);
+            readInstance = readerClass.getMethod("read_instance", sequenceClass, SampleInfoSeq.class, int.class, InstanceHandle_t.class, int.class,
+                    int.class, int.class);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public D createData() {
+        try {
+            return dataClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public S createSequence() {
+        try {
+            return sequenceClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void readWCondition(DataReader reader, S data_seq, SampleInfoSeq info_seq, int max_samples, ReadCondition condition) {
+        invoke(readWCondition, reader, data_seq, info_seq, max_samples, condition);
+    }
+
+    @Override
+    public void readInstance(DataReader reader, S data_seq, SampleInfoSeq info_seq, int max_samples, InstanceHandle_t handle, int sample_states,
+            int view_states, int instance_states) {
+        invoke(readInstance, reader, data_seq, info_seq, max_samples, handle, sample_states, view_states, instance_states);
+    }
+
+    @Override
+    public void returnLoan(DataReader reader, S data_seq, SampleInfoSeq info_seq) {
+        invoke(returnLoan, reader, data_seq, info_seq);
+    }
+
+    @Override
+    public void getKeyValue(DataReader reader, D key_holder, InstanceHandle_t handle) {
+        invoke(getKeyValue, reader, key_holder, handle);
+    }
+
+    private static void invoke(Method method, DataReader reader, Object... args) {
+        try {
+            method.invoke(reader, args);
+        } catch (InvocationTargetException ite) {
+            if (ite.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ite.getCause();
+            } else {
+                throw new RuntimeException(ite.getCause());
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
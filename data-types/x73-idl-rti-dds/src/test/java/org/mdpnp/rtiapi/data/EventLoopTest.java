@@ -0,0 +1,194 @@
+package org.mdpnp.rtiapi.data;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.rti.dds.domain.DomainParticipant;
+import com.rti.dds.domain.DomainParticipantFactory;
+import com.rti.dds.infrastructure.Condition;
+import com.rti.dds.infrastructure.ConditionSeq;
+import com.rti.dds.infrastructure.Duration_t;
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.infrastructure.RETCODE_NO_DATA;
+import com.rti.dds.infrastructure.ResourceLimitsQosPolicy;
+import com.rti.dds.infrastructure.StatusKind;
+import com.rti.dds.publication.Publisher;
+import com.rti.dds.subscription.InstanceStateKind;
+import com.rti.dds.subscription.ReadCondition;
+import com.rti.dds.subscription.SampleInfoSeq;
+import com.rti.dds.subscription.SampleStateKind;
+import com.rti.dds.subscription.Subscriber;
+import com.rti.dds.subscription.ViewStateKind;
+import com.rti.dds.topic.Topic;
+
+public class EventLoopTest {
+
+    private DomainParticipant participant;
+    private EventLoop eventLoop;
+    private Thread serviceThread;
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    private ice.SampleArrayDataWriter sampleArrayWriter;
+    private ice.SampleArrayDataReader sampleArrayReader;
+    private ice.NumericDataWriter numericWriter;
+    private ice.NumericDataReader numericReader;
+    private ReadCondition sampleArrayCondition, numericCondition;
+
+    @Before
+    public void setUp() throws Exception {
+        participant = DomainParticipantFactory.get_instance().create_participant(15, DomainParticipantFactory.PARTICIPANT_QOS_DEFAULT, null,
+                StatusKind.STATUS_MASK_NONE);
+        Publisher publisher = participant.create_publisher(DomainParticipant.PUBLISHER_QOS_DEFAULT, null, StatusKind.STATUS_MASK_NONE);
+        Subscriber subscriber = participant.create_subscriber(DomainParticipant.SUBSCRIBER_QOS_DEFAULT, null, StatusKind.STATUS_MASK_NONE);
+
+        Topic sampleArrayTopic = TopicUtil.findOrCreateTopic(participant, ice.SampleArrayTopic.VALUE, ice.SampleArrayTypeSupport.class);
+        sampleArrayWriter = (ice.SampleArrayDataWriter) publisher.create_datawriter(sampleArrayTopic, Publisher.DATAWRITER_QOS_DEFAULT, null,
+                StatusKind.STATUS_MASK_NONE);
+        sampleArrayReader = (ice.SampleArrayDataReader) subscriber.create_datareader(sampleArrayTopic, Subscriber.DATAREADER_QOS_DEFAULT, null,
+                StatusKind.STATUS_MASK_NONE);
+        sampleArrayCondition = sampleArrayReader.create_readcondition(SampleStateKind.NOT_READ_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE,
+                InstanceStateKind.ANY_INSTANCE_STATE);
+
+        Topic numericTopic = TopicUtil.findOrCreateTopic(participant, ice.NumericTopic.VALUE, ice.NumericTypeSupport.class);
+        numericWriter = (ice.NumericDataWriter) publisher.create_datawriter(numericTopic, Publisher.DATAWRITER_QOS_DEFAULT, null,
+                StatusKind.STATUS_MASK_NONE);
+        numericReader = (ice.NumericDataReader) subscriber.create_datareader(numericTopic, Subscriber.DATAREADER_QOS_DEFAULT, null,
+                StatusKind.STATUS_MASK_NONE);
+        numericCondition = numericReader.create_readcondition(SampleStateKind.NOT_READ_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE,
+                InstanceStateKind.ANY_INSTANCE_STATE);
+
+        eventLoop = new EventLoop();
+        serviceThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ConditionSeq condSeq = new ConditionSeq();
+                Duration_t timeout = new Duration_t(0, 100000000);
+                while (running.get()) {
+                    eventLoop.waitAndHandle(condSeq, timeout);
+                }
+            }
+        }, "EventLoopTest");
+        serviceThread.setDaemon(true);
+        serviceThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        eventLoop.removeHandler(sampleArrayCondition);
+        eventLoop.removeHandler(numericCondition);
+        running.set(false);
+        serviceThread.join(2000L);
+        eventLoop.shutdown();
+        participant.delete_contained_entities();
+        DomainParticipantFactory.get_instance().delete_participant(participant);
+    }
+
+    @Test
+    public void testSlowHandlerDoesNotHoldUpOthers() throws Exception {
+        eventLoop.setDispatchThreads(2);
+
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        final AtomicBoolean slowOnServiceThread = new AtomicBoolean(true);
+        eventLoop.addHandler(sampleArrayCondition, new EventLoop.DispatchableConditionHandler() {
+            private final ice.SampleArraySeq data_seq = new ice.SampleArraySeq();
+            private final SampleInfoSeq info_seq = new SampleInfoSeq();
+
+            @Override
+            public void conditionChanged(Condition condition) {
+                take(sampleArrayReader, data_seq, info_seq, (ReadCondition) condition);
+                slowOnServiceThread.set(eventLoop.isCurrentServiceThread());
+                slowStarted.countDown();
+                try {
+                    // Stands in for a waveform reader that has fallen behind
+                    releaseSlow.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        final CountDownLatch numericHandled = new CountDownLatch(1);
+        eventLoop.addHandler(numericCondition, new EventLoop.ConditionHandler() {
+            private final ice.NumericSeq data_seq = new ice.NumericSeq();
+            private final SampleInfoSeq info_seq = new SampleInfoSeq();
+
+            @Override
+            public void conditionChanged(Condition condition) {
+                take(numericReader, data_seq, info_seq, (ReadCondition) condition);
+                numericHandled.countDown();
+            }
+        });
+
+        try {
+            ice.SampleArray sa = new ice.SampleArray();
+            sa.unique_device_identifier = "test";
+            sa.metric_id = "test";
+            sampleArrayWriter.write(sa, InstanceHandle_t.HANDLE_NIL);
+            Assert.assertTrue("slow handler never ran", slowStarted.await(5, TimeUnit.SECONDS));
+            Assert.assertFalse("dispatched handler ran on the service thread", slowOnServiceThread.get());
+
+            ice.Numeric n = new ice.Numeric();
+            n.unique_device_identifier = "test";
+            n.metric_id = "test";
+            numericWriter.write(n, InstanceHandle_t.HANDLE_NIL);
+            Assert.assertTrue("numeric held up behind the slow handler", numericHandled.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("slow handler still in flight", 1L, releaseSlow.getCount());
+        } finally {
+            releaseSlow.countDown();
+        }
+    }
+
+    @Test
+    public void testWithoutDispatchThreadsHandlersRunOnServiceThread() throws Exception {
+        final CountDownLatch handled = new CountDownLatch(1);
+        final AtomicBoolean onServiceThread = new AtomicBoolean(false);
+        eventLoop.addHandler(sampleArrayCondition, new EventLoop.DispatchableConditionHandler() {
+            private final ice.SampleArraySeq data_seq = new ice.SampleArraySeq();
+            private final SampleInfoSeq info_seq = new SampleInfoSeq();
+
+            @Override
+            public void conditionChanged(Condition condition) {
+                take(sampleArrayReader, data_seq, info_seq, (ReadCondition) condition);
+                onServiceThread.set(eventLoop.isCurrentServiceThread());
+                handled.countDown();
+            }
+        });
+        eventLoop.addHandler(numericCondition, new EventLoop.ConditionHandler() {
+            @Override
+            public void conditionChanged(Condition condition) {
+            }
+        });
+
+        ice.SampleArray sa = new ice.SampleArray();
+        sa.unique_device_identifier = "test";
+        sa.metric_id = "test";
+        sampleArrayWriter.write(sa, InstanceHandle_t.HANDLE_NIL);
+        Assert.assertTrue(handled.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(onServiceThread.get());
+    }
+
+    private static void take(ice.SampleArrayDataReader reader, ice.SampleArraySeq data_seq, SampleInfoSeq info_seq, ReadCondition condition) {
+        try {
+            reader.take_w_condition(data_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, condition);
+            reader.return_loan(data_seq, info_seq);
+        } catch (RETCODE_NO_DATA noData) {
+
+        }
+    }
+
+    private static void take(ice.NumericDataReader reader, ice.NumericSeq data_seq, SampleInfoSeq info_seq, ReadCondition condition) {
+        try {
+            reader.take_w_condition(data_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, condition);
+            reader.return_loan(data_seq, info_seq);
+        } catch (RETCODE_NO_DATA noData) {
+
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.mdpnp.rtiapi.data;
+
+import com.rti.dds.domain.DomainParticipant;
+import com.rti.dds.domain.DomainParticipantFactory;
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.infrastructure.ResourceLimitsQosPolicy;
+import com.rti.dds.infrastructure.StatusKind;
+import com.rti.dds.publication.Publisher;
+import com.rti.dds.subscription.InstanceStateKind;
+import com.rti.dds.subscription.ReadCondition;
+import com.rti.dds.subscription.SampleInfoSeq;
+import com.rti.dds.subscription.SampleStateKind;
+import com.rti.dds.subscription.Subscriber;
+import com.rti.dds.subscription.ViewStateKind;
+import com.rti.dds.topic.Topic;
+
+/**
+ * Compares the reflective and the typed {@link ReaderOps} on the read path
+ * used by {@link InstanceModelImpl}.  A local participant publishes a set of
+ * Numeric instances and the same reader is then repeatedly drained with
+ * read_w_condition / return_loan through each implementation.
+ *
+ * Not a unit test; run the main method with the native RTI libraries on the
+ * library path.
+ *
+ * ReaderOpsBenchmark [domainId] [instances] [iterations]
+ */
+public class ReaderOpsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int domainId = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        int instances = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+        DomainParticipant participant = DomainParticipantFactory.get_instance().create_participant(domainId,
+                DomainParticipantFactory.PARTICIPANT_QOS_DEFAULT, null, StatusKind.STATUS_MASK_NONE);
+        try {
+            Topic topic = TopicUtil.findOrCreateTopic(participant, ice.NumericTopic.VALUE, ice.NumericTypeSupport.class);
+            Publisher publisher = participant.create_publisher(DomainParticipant.PUBLISHER_QOS_DEFAULT, null, StatusKind.STATUS_MASK_NONE);
+            Subscriber subscriber = participant.create_subscriber(DomainParticipant.SUBSCRIBER_QOS_DEFAULT, null, StatusKind.STATUS_MASK_NONE);
+            ice.NumericDataWriter writer = (ice.NumericDataWriter) publisher.create_datawriter(topic, Publisher.DATAWRITER_QOS_DEFAULT, null,
+                    StatusKind.STATUS_MASK_NONE);
+            ice.NumericDataReader reader = (ice.NumericDataReader) subscriber.create_datareader(topic, Subscriber.DATAREADER_QOS_DEFAULT, null,
+                    StatusKind.STATUS_MASK_NONE);
+
+            ice.Numeric n = new ice.Numeric();
+            n.unique_device_identifier = "benchmark";
+            n.metric_id = "benchmark";
+            for (int i = 0; i < instances; i++) {
+                n.instance_id = i;
+                n.value = i;
+                writer.write(n, InstanceHandle_t.HANDLE_NIL);
+            }
+            // Give the local reader time to receive everything
+            Thread.sleep(1000L);
+
+            // ANY_SAMPLE_STATE so every iteration sees all of the samples again
+            ReadCondition condition = reader.create_readcondition(SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE,
+                    InstanceStateKind.ANY_INSTANCE_STATE);
+
+            ReaderOps<ice.Numeric, ice.NumericSeq> reflective = new ReflectiveReaderOps<ice.Numeric, ice.NumericSeq>(ice.Numeric.class,
+                    ice.NumericDataReader.class, ice.NumericSeq.class);
+            ReaderOps<ice.Numeric, ice.NumericSeq> typed = IceReaderOps.NUMERIC;
+
+            // Alternate a few rounds so both get comparable JIT treatment
+            for (int round = 0; round < 3; round++) {
+                report("reflective", run(reflective, reader, condition, iterations), iterations);
+                report("typed", run(typed, reader, condition, iterations), iterations);
+            }
+
+            reader.delete_readcondition(condition);
+        } finally {
+            participant.delete_contained_entities();
+            DomainParticipantFactory.get_instance().delete_participant(participant);
+        }
+    }
+
+    private static long run(ReaderOps<ice.Numeric, ice.NumericSeq> ops, ice.NumericDataReader reader, ReadCondition condition, int iterations) {
+        ice.NumericSeq data_seq = ops.createSequence();
+        SampleInfoSeq info_seq = new SampleInfoSeq();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            ops.readWCondition(reader, data_seq, info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, condition);
+            ops.returnLoan(reader, data_seq, info_seq);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long elapsedNanos, int iterations) {
+        System.out.println(String.format("%-10s %8.1f ns/read", name, (double) elapsedNanos / iterations));
+    }
+}
@@ -26,8 +26,37 @@ public interface DeviceClock {
         boolean hasDeviceTime();
         Instant getDeviceTime();
         Reading refineResolutionForFrequency(int hertz, int size);
+
+        /**
+         * @return {@link #getTime()} in nanoseconds since the epoch.  Implementations
+         * that hold a primitive time should override this so that publishing a
+         * sample need not create an Instant.
+         */
+        default long getTimeNanos() {
+            return toEpochNanos(getTime());
+        }
+
+        /**
+         * @return {@link #getDeviceTime()} in nanoseconds since the epoch; only meaningful
+         * if {@link #hasDeviceTime()}
+         */
+        default long getDeviceTimeNanos() {
+            return toEpochNanos(getDeviceTime());
+        }
     };
 
+    static long toEpochNanos(Instant t) {
+        return t.getEpochSecond() * 1000000000L + t.getNano();
+    }
+
+    static long toEpochNanos(long ms) {
+        return ms * 1000000L;
+    }
+
+    static Instant toInstant(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L), Math.floorMod(nanos, 1000000000L));
+    }
+
 
     public static class WallClock implements DeviceClock {
 
@@ -60,28 +89,39 @@ public interface DeviceClock {
     }
 
     public static class ReadingImpl implements DeviceClock.Reading {
-        private final Instant ms;
+        // Nanoseconds since the epoch; an Instant is only made if asked for
+        private final long nanos;
 
         public ReadingImpl(long time) {
-            this(Instant.ofEpochMilli(time));
+            nanos = toEpochNanos(time);
         }
         public ReadingImpl(Instant time) {
-            ms = time;
+            nanos = toEpochNanos(time);
         }
 
         @Override
         public String toString() {
-            return ms.toString();
+            return getTime().toString();
         }
 
         @Override
         public Instant getTime() {
-            return ms;
+            return toInstant(nanos);
         }
 
         @Override
         public Instant getDeviceTime() {
-            return ms;
+            return toInstant(nanos);
+        }
+
+        @Override
+        public long getTimeNanos() {
+            return nanos;
+        }
+
+        @Override
+        public long getDeviceTimeNanos() {
+            return nanos;
         }
 
         @Override
@@ -125,6 +165,16 @@ public interface DeviceClock {
             return dev.getTime();
         }
 
+        @Override
+        public long getTimeNanos() {
+            return ref.getTimeNanos();
+        }
+
+        @Override
+        public long getDeviceTimeNanos() {
+            return dev.getTimeNanos();
+        }
+
         @Override
         public Reading refineResolutionForFrequency(int hertz, int size) {
             ref.refineResolutionForFrequency(hertz, size);
@@ -19,6 +19,7 @@ import java.io.InputStreamReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -339,6 +340,54 @@ public class ASCIIFieldDelegate implements Runnable {
         return false;
     }
 
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final StringBuilder partialLine = new StringBuilder();
+    private boolean skipLF;
+
+    /**
+     * Parses each line completed by the chunk, as {@link #run()} does for a
+     * stream, and keeps any trailing partial line for the next chunk. Lines end
+     * with \n, \r or \r\n and bytes are taken as ASCII.
+     */
+    public void parseChunk(ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            char c = (char) (0xFF & chunk.get());
+            if (skipLF) {
+                skipLF = false;
+                if ('\n' == c) {
+                    continue;
+                }
+            }
+            if ('\n' == c || '\r' == c) {
+                skipLF = '\r' == c;
+                String line = partialLine.toString();
+                partialLine.setLength(0);
+                try {
+                    if (!parseLine(line)) {
+                        log.info("Unknown line:" + line);
+                    }
+                } catch (Throwable t) {
+                    log.error("Unable to parse line:" + line, t);
+                }
+            } else if (partialLine.length() < MAX_LINE_LENGTH) {
+                partialLine.append(c);
+            } else {
+                log.warn("Discarding a line longer than " + MAX_LINE_LENGTH + " characters");
+                partialLine.setLength(0);
+            }
+        }
+    }
+
+    /**
+     * Discards any partial line left by {@link #parseChunk(ByteBuffer)}, for
+     * instance when a new connection begins
+     */
+    public void resetChunks() {
+        partialLine.setLength(0);
+        skipLF = false;
+    }
+
     private InputStream inputStream;
 
     public void setInputStream(InputStream inputStream) {
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.io;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed capacity ring of bytes for exactly one producer thread and one
+ * consumer thread.  Neither side ever blocks; when the producer outruns the
+ * consumer the excess incoming bytes are dropped and counted as overruns.
+ * Unlike {@link FloatRingBuffer} the consumer is expected to drain whatever
+ * happens to be available so short reads are not counted.
+ */
+public class ByteRingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+
+    // Total bytes ever read (written only by the consumer)
+    private final AtomicLong head = new AtomicLong();
+    // Total bytes ever written (written only by the producer)
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong overruns = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public ByteRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new byte[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @return the number of bytes currently available to the consumer
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * Producer side.
+     *
+     * @return the number of bytes actually written
+     */
+    public int offer(byte[] src, int off, int len) {
+        final long t = tail.get();
+        final int free = buffer.length - (int) (t - head.get());
+        int n = len;
+        if (n > free) {
+            overruns.addAndGet(n - free);
+            n = free;
+        }
+        int idx = (int) (t & mask);
+        int first = Math.min(n, buffer.length - idx);
+        System.arraycopy(src, off, buffer, idx, first);
+        System.arraycopy(src, off + first, buffer, 0, n - first);
+        tail.lazySet(t + n);
+        return n;
+    }
+
+    /**
+     * Producer side; consumes the remaining bytes of src whether or not there
+     * was room for all of them.
+     *
+     * @return the number of bytes actually written
+     */
+    public int offer(ByteBuffer src) {
+        final long t = tail.get();
+        final int free = buffer.length - (int) (t - head.get());
+        int n = src.remaining();
+        if (n > free) {
+            overruns.addAndGet(n - free);
+            n = free;
+        }
+        int idx = (int) (t & mask);
+        int first = Math.min(n, buffer.length - idx);
+        int limit = src.limit();
+        src.limit(src.position() + first);
+        src.get(buffer, idx, first);
+        src.limit(src.position() + n - first);
+        src.get(buffer, 0, n - first);
+        src.limit(limit);
+        src.position(limit);
+        tail.lazySet(t + n);
+        return n;
+    }
+
+    /**
+     * Consumer side.
+     *
+     * @return the number of bytes actually read, at most len
+     */
+    public int poll(byte[] dst, int off, int len) {
+        final long h = head.get();
+        final int available = (int) (tail.get() - h);
+        int n = len > available ? available : len;
+        int idx = (int) (h & mask);
+        int first = Math.min(n, buffer.length - idx);
+        System.arraycopy(buffer, idx, dst, off, first);
+        System.arraycopy(buffer, 0, dst, off + first, n - first);
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * @return total bytes dropped because the ring was full
+     */
+    public long getOverruns() {
+        return overruns.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[size=" + size() + ",capacity=" + capacity() + ",overruns=" + getOverruns() + "]";
+    }
+}
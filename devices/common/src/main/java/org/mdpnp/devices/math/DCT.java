@@ -12,7 +12,17 @@
  ******************************************************************************/
 package org.mdpnp.devices.math;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
+ * Orthonormal discrete cosine transform (DCT-II) and its inverse (DCT-III).
+ * 
+ * Both are computed in O(n log n) by Makhoul's reordering onto a complex FFT
+ * of the same length; lengths that are not a power of two use Bluestein's
+ * chirp-z algorithm on a power of two FFT.  Twiddle factors are computed once
+ * per length and cached, scratch space once per length and thread.
+ * 
  * @author Jeff Plourde
  *
  */
@@ -34,14 +44,28 @@ public class DCT {
                 results[i] = 0.0;
             }
         }
+        if (rlen <= 0) {
+            return results;
+        }
+        if (clen > rlen) {
+            // Coefficients beyond the output length alias; not worth a fast path
+            return naiveIdct(coeffs, coff, clen, results, roff, rlen);
+        }
 
-        for (int i = 0; i < rlen; i++) {
-            double cc = Math.sqrt(1.0 / 2.0);
-            for (int j = 0; j < clen; j++) {
-                results[roff + i] += Math.sqrt(2.0 / rlen) * cc * coeffs[coff + j] * Math.cos(Math.PI * j * (i + 0.5) / rlen);
-                cc = Math.sqrt(1.0 / 1.0);
-            }
+        Plan plan = plan(rlen);
+        double[][] scratch = plan.scratch.get();
+        double[] x = scratch[0];
+        // Scale to the unnormalized DCT-II coefficients that inverse(...) expects
+        x[0] = clen > 0 ? Math.sqrt(rlen) * coeffs[coff] : 0.0;
+        double scale = Math.sqrt(rlen / 2.0);
+        for (int j = 1; j < clen; j++) {
+            x[j] = scale * coeffs[coff + j];
+        }
+        for (int j = Math.max(1, clen); j < rlen; j++) {
+            x[j] = 0.0;
         }
+        plan.inverse(x, scratch[1], scratch[2]);
+        System.arraycopy(x, 0, results, roff, rlen);
         return results;
     }
 
@@ -57,13 +81,19 @@ public class DCT {
                 r[i] = 0.0;
             }
         }
-        double cc = Math.sqrt(1.0 / d.length);
-        for (int i = 0; i < d.length; i++) {
-            for (int j = 0; j < d.length; j++) {
-                r[i] += d[j] * Math.cos(Math.PI * (j + 0.5) * i / d.length);
-            }
-            r[i] *= cc;
-            cc = Math.sqrt(2.0 / d.length);
+        final int n = d.length;
+        if (n == 0) {
+            return r;
+        }
+        Plan plan = plan(n);
+        double[][] scratch = plan.scratch.get();
+        double[] x = scratch[0];
+        System.arraycopy(d, 0, x, 0, n);
+        plan.forward(x, scratch[1], scratch[2]);
+        r[0] = Math.sqrt(1.0 / n) * x[0];
+        double cc = Math.sqrt(2.0 / n);
+        for (int i = 1; i < n; i++) {
+            r[i] = cc * x[i];
         }
         return r;
     }
@@ -72,6 +102,10 @@ public class DCT {
         return dct(d, start, r, d.length);
     }
 
+    /**
+     * DCT-II of d treated as a ring beginning at start; only the first count
+     * coefficients are stored in r.
+     */
     public static float[] dct(float[] d, int start, float[] r, int count) {
         if (null == r) {
             r = new float[d.length];
@@ -80,14 +114,254 @@ public class DCT {
                 r[i] = 0f;
             }
         }
-        double cc = Math.sqrt(1.0 / d.length);
-        for (int i = 0; i < count; i++) {
-            for (int j = 0; j < d.length; j++) {
-                r[i] += d[(start + j) % d.length] * Math.cos(Math.PI * (j + 0.5) * i / d.length);
-            }
-            r[i] *= cc;
-            cc = Math.sqrt(2.0 / d.length);
+        final int n = d.length;
+        if (n == 0 || count <= 0) {
+            return r;
+        }
+        Plan plan = plan(n);
+        double[][] scratch = plan.scratch.get();
+        double[] x = scratch[0];
+        // Unroll the ring in two runs rather than taking a modulo per element
+        start %= n;
+        int first = n - start;
+        for (int j = 0; j < first; j++) {
+            x[j] = d[start + j];
+        }
+        for (int j = first; j < n; j++) {
+            x[j] = d[j - first];
+        }
+        plan.forward(x, scratch[1], scratch[2]);
+        r[0] = (float) (Math.sqrt(1.0 / n) * x[0]);
+        double cc = Math.sqrt(2.0 / n);
+        for (int i = 1; i < count; i++) {
+            r[i] = (float) (cc * x[i]);
         }
         return r;
     }
+
+    private static double[] naiveIdct(double[] coeffs, int coff, int clen, double[] results, int roff, int rlen) {
+        double scale = Math.sqrt(2.0 / rlen);
+        for (int i = 0; i < rlen; i++) {
+            double cc = Math.sqrt(1.0 / 2.0);
+            for (int j = 0; j < clen; j++) {
+                results[roff + i] += scale * cc * coeffs[coff + j] * Math.cos(Math.PI * j * (i + 0.5) / rlen);
+                cc = 1.0;
+            }
+        }
+        return results;
+    }
+
+    private static final ConcurrentMap<Integer, Plan> plans = new ConcurrentHashMap<Integer, Plan>();
+
+    private static Plan plan(int n) {
+        Plan plan = plans.get(n);
+        if (null == plan) {
+            plan = new Plan(n);
+            Plan existing = plans.putIfAbsent(n, plan);
+            if (null != existing) {
+                plan = existing;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Everything about a transform of one length that need only be computed
+     * once.
+     */
+    private static final class Plan {
+        private final int n;
+        // cos and sin of pi*k/(2n)
+        private final double[] twiddleCos, twiddleSin;
+        private final FFT fft;
+        // x, re and im of length n for each thread
+        private final ThreadLocal<double[][]> scratch = new ThreadLocal<double[][]>() {
+            protected double[][] initialValue() {
+                return new double[][] { new double[n], new double[n], new double[n] };
+            }
+        };
+
+        Plan(int n) {
+            this.n = n;
+            twiddleCos = new double[n];
+            twiddleSin = new double[n];
+            for (int k = 0; k < n; k++) {
+                double theta = Math.PI * k / (2.0 * n);
+                twiddleCos[k] = Math.cos(theta);
+                twiddleSin[k] = Math.sin(theta);
+            }
+            fft = FFT.of(n);
+        }
+
+        /**
+         * x becomes its unnormalized DCT-II, X[k] = sum x[j] cos(pi*(j+0.5)*k/n)
+         */
+        void forward(double[] x, double[] re, double[] im) {
+            for (int j = 0, k = 0; k < n; j++, k += 2) {
+                re[j] = x[k];
+            }
+            for (int j = n - 1, k = 1; k < n; j--, k += 2) {
+                re[j] = x[k];
+            }
+            for (int k = 0; k < n; k++) {
+                im[k] = 0.0;
+            }
+            fft.transform(re, im, false);
+            for (int k = 0; k < n; k++) {
+                x[k] = re[k] * twiddleCos[k] + im[k] * twiddleSin[k];
+            }
+        }
+
+        /**
+         * The exact inverse of forward(...)
+         */
+        void inverse(double[] x, double[] re, double[] im) {
+            re[0] = x[0];
+            im[0] = 0.0;
+            for (int k = 1; k < n; k++) {
+                double a = x[k], b = x[n - k];
+                re[k] = a * twiddleCos[k] + b * twiddleSin[k];
+                im[k] = a * twiddleSin[k] - b * twiddleCos[k];
+            }
+            fft.transform(re, im, true);
+            double scale = 1.0 / n;
+            for (int j = 0, k = 0; k < n; j++, k += 2) {
+                x[k] = scale * re[j];
+            }
+            for (int j = n - 1, k = 1; k < n; j--, k += 2) {
+                x[k] = scale * re[j];
+            }
+        }
+    }
+
+    /**
+     * Unscaled complex FFT of one length, in place
+     */
+    private static abstract class FFT {
+        static FFT of(int n) {
+            return Integer.bitCount(n) == 1 ? new Radix2(n) : new Bluestein(n);
+        }
+
+        abstract void transform(double[] re, double[] im, boolean inverse);
+    }
+
+    private static final class Radix2 extends FFT {
+        private final int n;
+        // cos and sin of 2*pi*k/n
+        private final double[] cos, sin;
+        private final int[] reversed;
+
+        Radix2(int n) {
+            this.n = n;
+            cos = new double[n / 2];
+            sin = new double[n / 2];
+            for (int k = 0; k < n / 2; k++) {
+                cos[k] = Math.cos(2.0 * Math.PI * k / n);
+                sin[k] = Math.sin(2.0 * Math.PI * k / n);
+            }
+            reversed = new int[n];
+            int bits = Integer.numberOfTrailingZeros(n);
+            for (int i = 0; i < n; i++) {
+                reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            }
+        }
+
+        @Override
+        void transform(double[] re, double[] im, boolean inverse) {
+            for (int i = 0; i < n; i++) {
+                int j = reversed[i];
+                if (j > i) {
+                    double t = re[i];
+                    re[i] = re[j];
+                    re[j] = t;
+                    t = im[i];
+                    im[i] = im[j];
+                    im[j] = t;
+                }
+            }
+            final double sign = inverse ? 1.0 : -1.0;
+            for (int size = 2; size <= n; size <<= 1) {
+                int half = size >> 1, step = n / size;
+                for (int i = 0; i < n; i += size) {
+                    for (int k = 0, t = 0; k < half; k++, t += step) {
+                        double wr = cos[t], wi = sign * sin[t];
+                        int a = i + k, b = a + half;
+                        double tr = re[b] * wr - im[b] * wi;
+                        double ti = re[b] * wi + im[b] * wr;
+                        re[b] = re[a] - tr;
+                        im[b] = im[a] - ti;
+                        re[a] += tr;
+                        im[a] += ti;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Bluestein extends FFT {
+        private final int n, m;
+        // exp(-i*pi*k^2/n)
+        private final double[] chirpRe, chirpIm;
+        // The forward FFT of the conjugate chirp, wrapped for circular convolution
+        private final double[] filterRe, filterIm;
+        private final Radix2 fft;
+        private final ThreadLocal<double[][]> scratch = new ThreadLocal<double[][]>() {
+            protected double[][] initialValue() {
+                return new double[][] { new double[m], new double[m] };
+            }
+        };
+
+        Bluestein(int n) {
+            this.n = n;
+            this.m = Integer.highestOneBit(2 * n - 1) << 1;
+            chirpRe = new double[n];
+            chirpIm = new double[n];
+            for (int k = 0; k < n; k++) {
+                // k*k mod 2n keeps the angle small and so exact
+                double theta = Math.PI * (int) (((long) k * k) % (2L * n)) / n;
+                chirpRe[k] = Math.cos(theta);
+                chirpIm[k] = -Math.sin(theta);
+            }
+            filterRe = new double[m];
+            filterIm = new double[m];
+            filterRe[0] = chirpRe[0];
+            filterIm[0] = -chirpIm[0];
+            for (int k = 1; k < n; k++) {
+                filterRe[k] = filterRe[m - k] = chirpRe[k];
+                filterIm[k] = filterIm[m - k] = -chirpIm[k];
+            }
+            fft = new Radix2(m);
+            fft.transform(filterRe, filterIm, false);
+        }
+
+        @Override
+        void transform(double[] re, double[] im, boolean inverse) {
+            double[][] scratch = this.scratch.get();
+            double[] ar = scratch[0], ai = scratch[1];
+            // The inverse is the conjugate of the forward transform of the conjugate
+            final double sign = inverse ? -1.0 : 1.0;
+            for (int k = 0; k < n; k++) {
+                double xr = re[k], xi = sign * im[k];
+                ar[k] = xr * chirpRe[k] - xi * chirpIm[k];
+                ai[k] = xr * chirpIm[k] + xi * chirpRe[k];
+            }
+            for (int k = n; k < m; k++) {
+                ar[k] = 0.0;
+                ai[k] = 0.0;
+            }
+            fft.transform(ar, ai, false);
+            for (int k = 0; k < m; k++) {
+                double r = ar[k] * filterRe[k] - ai[k] * filterIm[k];
+                ai[k] = ar[k] * filterIm[k] + ai[k] * filterRe[k];
+                ar[k] = r;
+            }
+            fft.transform(ar, ai, true);
+            double scale = 1.0 / m;
+            for (int k = 0; k < n; k++) {
+                double cr = scale * ar[k], ci = scale * ai[k];
+                re[k] = cr * chirpRe[k] - ci * chirpIm[k];
+                im[k] = sign * (cr * chirpIm[k] + ci * chirpRe[k]);
+            }
+        }
+    }
 }
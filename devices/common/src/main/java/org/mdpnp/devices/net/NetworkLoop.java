@@ -276,7 +276,7 @@ public class NetworkLoop implements Runnable {
                 }
 
                 try {
-                    select(taskQueue.doExpiredTasks(System.currentTimeMillis()));
+                    select(taskQueue.doExpiredTasks());
                 } catch (IOException e) {
                     log.error("in select", e);
                     break;
@@ -401,6 +401,18 @@ public class NetworkLoop implements Runnable {
         select.wakeup();
     }
 
+    public void removeTask(TaskQueue.Task<?> task) {
+        taskQueue.remove(task);
+        select.wakeup();
+    }
+
+    /**
+     * @return the queue of scheduled tasks, chiefly for its lateness statistics
+     */
+    public TaskQueue getTaskQueue() {
+        return taskQueue;
+    }
+
     public void wakeup() {
         select.wakeup();
     }
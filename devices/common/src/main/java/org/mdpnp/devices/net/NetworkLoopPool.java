@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.net;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small fixed set of {@link NetworkLoop}s, each run by its own daemon
+ * thread, among which many connections can be shared.  Connections are
+ * handed out round robin; a connection stays on the loop it was given for its
+ * lifetime so its callbacks are never concurrent.
+ */
+public class NetworkLoopPool {
+    private static final Logger log = LoggerFactory.getLogger(NetworkLoopPool.class);
+
+    public static final String SIZE_PROPERTY = "org.mdpnp.devices.net.NetworkLoopPool.size";
+
+    private final NetworkLoop[] loops;
+    private final Thread[] threads;
+    private final AtomicInteger next = new AtomicInteger(0);
+
+    public NetworkLoopPool(String name, int size) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive; size=" + size);
+        }
+        loops = new NetworkLoop[size];
+        threads = new Thread[size];
+        for (int i = 0; i < size; i++) {
+            loops[i] = new NetworkLoop();
+        }
+        for (int i = 0; i < size; i++) {
+            final NetworkLoop loop = loops[i];
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    loop.runLoop();
+                }
+            }, name + "(" + i + ")");
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    public int size() {
+        return loops.length;
+    }
+
+    /**
+     * @return the loop on which to register the next connection
+     */
+    public NetworkLoop next() {
+        return loops[(next.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    public void shutdown() {
+        for (NetworkLoop loop : loops) {
+            loop.cancelThreadAndWait();
+        }
+    }
+
+    private static NetworkLoopPool defaultPool;
+
+    /**
+     * The pool shared by every non-blocking connection in this process.  Its
+     * size is taken from the system property {@value #SIZE_PROPERTY} and
+     * otherwise from the number of available processors, to a maximum of four.
+     */
+    public static synchronized NetworkLoopPool getDefault() {
+        if (null == defaultPool) {
+            int size = Integer.getInteger(SIZE_PROPERTY, Math.min(4, Runtime.getRuntime().availableProcessors()));
+            try {
+                defaultPool = new NetworkLoopPool("NetworkLoopPool", Math.max(1, size));
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to open a Selector", e);
+            }
+            log.info("Started " + defaultPool.size() + " shared NetworkLoop(s)");
+        }
+        return defaultPool;
+    }
+}
@@ -13,51 +13,130 @@
 package org.mdpnp.devices.net;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Tasks are kept in a binary min-heap ordered by a System.nanoTime() deadline
+ * (ties in the order they were added) so that finding expired tasks is
+ * O(1) per task and adding or removing a task is O(log n).  Removal is by
+ * identity, never by Task.compareTo or equals.
+ * 
  * @author Jeff Plourde
  *
  */
 public class TaskQueue {
-    private final ThreadLocal<List<Task<?>>> tasksToDo = new ThreadLocal<List<Task<?>>>() {
-        protected java.util.List<TaskQueue.Task<?>> initialValue() {
-            return new ArrayList<Task<?>>();
+    /**
+     * Tasks executed more than this long after their deadline are counted as late
+     */
+    public static final long LATE_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+
+    private static final class Entry {
+        private final Task<?> task;
+        private long deadline;
+        private long sequence;
+        private int index;
+
+        Entry(Task<?> task) {
+            this.task = task;
+        }
+
+        boolean before(Entry e) {
+            long diff = deadline - e.deadline;
+            return diff < 0L || (diff == 0L && sequence < e.sequence);
+        }
+    }
+
+    private Entry[] heap = new Entry[16];
+    private int size;
+    private long nextSequence;
+    private final Map<Task<?>, Entry> entries = new IdentityHashMap<Task<?>, Entry>();
+
+    private final ThreadLocal<List<Entry>> tasksToDo = new ThreadLocal<List<Entry>>() {
+        protected List<Entry> initialValue() {
+            return new ArrayList<Entry>();
         }
     };
 
+    private long executedCount, lateCount, totalLatenessNanos, maxLatenessNanos;
+
+    /**
+     * @param now ignored; deadlines are tracked with System.nanoTime()
+     * @return see {@link #doExpiredTasks()}
+     */
     public long doExpiredTasks(long now) {
-        List<Task<?>> tasksToDo = this.tasksToDo.get();
+        return doExpiredTasks();
+    }
 
-        tasksToDo.clear();
+    /**
+     * Executes every task whose deadline has passed.
+     * 
+     * @return milliseconds until the next task is due, 0L if there are no tasks
+     *         and -1L if a task is already due
+     */
+    public long doExpiredTasks() {
+        final long now = System.nanoTime();
+        List<Entry> tasksToDo = this.tasksToDo.get();
 
+        tasksToDo.clear();
         synchronized (this) {
-            for (Task<?> t : queue) {
-                if (t.getScheduledTime() <= now) {
-                    tasksToDo.add(t);
-                }
+            while (size > 0 && heap[0].deadline - now <= 0L) {
+                Entry e = heap[0];
+                removeAt(0);
+                entries.remove(e.task);
+                tasksToDo.add(e);
             }
-            queue.removeAll(tasksToDo);
             this.notifyAll();
         }
-        if (!tasksToDo.isEmpty()) {
-            for (Task<?> t : tasksToDo) {
-                t.execute(this);
+        for (int i = 0; i < tasksToDo.size(); i++) {
+            Entry e = tasksToDo.get(i);
+            recordLateness(System.nanoTime() - e.deadline);
+            e.task.execute(this);
+        }
+        tasksToDo.clear();
+        return timeToNextTask();
+    }
+
+    private synchronized void recordLateness(long lateness) {
+        executedCount++;
+        if (lateness > 0L) {
+            totalLatenessNanos += lateness;
+            if (lateness > maxLatenessNanos) {
+                maxLatenessNanos = lateness;
+            }
+            if (lateness > LATE_THRESHOLD_NANOS) {
+                lateCount++;
             }
         }
-        return timeToNextTask(now);
     }
 
-    public final synchronized long timeToNextTask(long now) {
-        if (queue.isEmpty()) {
+    /**
+     * @param now ignored; deadlines are tracked with System.nanoTime()
+     */
+    public final long timeToNextTask(long now) {
+        return timeToNextTask();
+    }
+
+    /**
+     * @return milliseconds until the next task is due (rounded up), 0L if
+     *         there are no tasks and -1L if a task is already due
+     */
+    public final synchronized long timeToNextTask() {
+        if (0 == size) {
             return 0L;
         } else {
-            return queue.first().getScheduledTime() - now;
+            long remaining = heap[0].deadline - System.nanoTime();
+            if (remaining <= 0L) {
+                return -1L;
+            } else {
+                return (remaining + 999999L) / 1000000L;
+            }
         }
     }
 
@@ -110,7 +189,7 @@ public class TaskQueue {
                 synchronized (this) {
                     if (isRecurrent()) {
                         setScheduledTime(System.currentTimeMillis() + getInterval());
-                        queue.add(this);
+                        queue.add(this, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getInterval()));
                     }
                     this.t = t;
                     this.notifyAll();
@@ -169,13 +248,128 @@ public class TaskQueue {
 
     }
 
-    private final SortedSet<Task<?>> queue = new TreeSet<Task<?>>();
+    /**
+     * Schedules the task at its {@link Task#getScheduledTime()} (milliseconds
+     * since the epoch); a task that is already queued is rescheduled.
+     */
+    public void add(Task<?> task) {
+        long delayMillis = task.getScheduledTime() - System.currentTimeMillis();
+        add(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+    }
 
-    public synchronized void add(Task<?> task) {
-        queue.add(task);
+    /**
+     * Schedules the task to run once System.nanoTime() reaches deadline; a task
+     * that is already queued is rescheduled.
+     */
+    public synchronized void add(Task<?> task, long deadline) {
+        Entry e = entries.get(task);
+        if (null == e) {
+            e = new Entry(task);
+            entries.put(task, e);
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, 2 * heap.length);
+            }
+            e.index = size;
+            heap[size++] = e;
+        }
+        e.deadline = deadline;
+        e.sequence = nextSequence++;
+        siftUp(e.index);
+        siftDown(e.index);
+    }
+
+    /**
+     * @return true if the task was queued and has been removed
+     */
+    public synchronized boolean remove(Task<?> task) {
+        Entry e = entries.remove(task);
+        if (null == e) {
+            return false;
+        }
+        removeAt(e.index);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
     }
 
     public synchronized void clear() {
-        queue.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        entries.clear();
+    }
+
+    /**
+     * @return the number of tasks executed
+     */
+    public synchronized long getExecutedCount() {
+        return executedCount;
+    }
+
+    /**
+     * @return the number of tasks executed more than LATE_THRESHOLD_NANOS after their deadline
+     */
+    public synchronized long getLateCount() {
+        return lateCount;
+    }
+
+    public synchronized long getMaxLatenessNanos() {
+        return maxLatenessNanos;
+    }
+
+    public synchronized long getTotalLatenessNanos() {
+        return totalLatenessNanos;
+    }
+
+    public synchronized void resetStatistics() {
+        executedCount = lateCount = totalLatenessNanos = maxLatenessNanos = 0L;
+    }
+
+    private void removeAt(int index) {
+        Entry last = heap[--size];
+        heap[size] = null;
+        if (index < size) {
+            heap[index] = last;
+            last.index = index;
+            siftUp(index);
+            siftDown(last.index);
+        }
+    }
+
+    private void siftUp(int index) {
+        Entry e = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            Entry p = heap[parent];
+            if (!e.before(p)) {
+                break;
+            }
+            heap[index] = p;
+            p.index = index;
+            index = parent;
+        }
+        heap[index] = e;
+        e.index = index;
+    }
+
+    private void siftDown(int index) {
+        Entry e = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right].before(heap[child])) {
+                child = right;
+            }
+            if (!heap[child].before(e)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].index = index;
+            index = child;
+        }
+        heap[index] = e;
+        e.index = index;
     }
 }
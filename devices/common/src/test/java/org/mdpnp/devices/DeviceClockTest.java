@@ -6,6 +6,7 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -117,6 +118,35 @@ public class DeviceClockTest {
 
   }
 
+  @Test
+  public void testReadingNanos() throws Exception {
+
+    DeviceClock.Reading r0 = new DeviceClock.ReadingImpl(507037153040L);
+    Assert.assertEquals(507037153040000000L, r0.getTimeNanos());
+    Assert.assertEquals(Instant.ofEpochMilli(507037153040L), r0.getTime());
+
+    Instant i1 = Instant.ofEpochSecond(507037153L, 40000123L);
+    DeviceClock.Reading r1 = new DeviceClock.ReadingImpl(i1);
+    Assert.assertEquals(i1, r1.getTime());
+    Assert.assertEquals(i1, r1.getDeviceTime());
+    Assert.assertEquals(507037153040000123L, r1.getDeviceTimeNanos());
+
+    DeviceClock.Reading r2 = new DeviceClock.CombinedReading(r0, r1);
+    Assert.assertEquals(r0.getTimeNanos(), r2.getTimeNanos());
+    Assert.assertEquals(r1.getTimeNanos(), r2.getDeviceTimeNanos());
+
+    // Readings that only implement the Instant accessors
+    DeviceClock.Reading r3 = new DeviceClock.Reading() {
+      public Instant getTime() { return Instant.ofEpochMilli(-1L); }
+      public boolean hasDeviceTime() { return true; }
+      public Instant getDeviceTime() { return Instant.ofEpochSecond(1L, 1L); }
+      public DeviceClock.Reading refineResolutionForFrequency(int hertz, int size) { return this; }
+    };
+    Assert.assertEquals(-1000000L, r3.getTimeNanos());
+    Assert.assertEquals(1000000001L, r3.getDeviceTimeNanos());
+    Assert.assertEquals(Instant.ofEpochMilli(-1L), new DeviceClock.ReadingImpl(r3.getTime()).getTime());
+  }
+
   // This was modeled after the Draeger Clock
   //
   static class DeviceClockImpl implements DeviceClock  {
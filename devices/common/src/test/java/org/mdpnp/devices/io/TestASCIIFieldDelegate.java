@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TestASCIIFieldDelegate {
+
+    private static class Recorder extends ASCIIFieldDelegate {
+        private String name;
+        private Integer value;
+        private final List<String> fired = new ArrayList<String>();
+
+        public Recorder(URL spec) throws NoSuchFieldException, SecurityException, IOException {
+            super(spec);
+        }
+
+        @SuppressWarnings("unused")
+        private void fire() {
+            fired.add(name + "=" + value);
+        }
+    }
+
+    private static URL spec() throws IOException {
+        File f = File.createTempFile("ascii", ".spec");
+        f.deleteOnExit();
+        OutputStream os = new FileOutputStream(f);
+        os.write("^(\\w+)=(\\d+)$\n\tfire\n\tname\n\tvalue\n".getBytes("US-ASCII"));
+        os.close();
+        return f.toURI().toURL();
+    }
+
+    @Test
+    public void testChunkBoundaries() throws Exception {
+        byte[] bytes = "a=1\r\nb=2\nc=3\r\rd=4\r\n\ne=5".getBytes("US-ASCII");
+        List<String> expected = Arrays.asList("a=1", "b=2", "c=3", "d=4");
+        URL spec = spec();
+
+        // Every place a line might be split between two chunks
+        for (int split = 0; split <= bytes.length; split++) {
+            Recorder r = new Recorder(spec);
+            r.parseChunk(ByteBuffer.wrap(bytes, 0, split));
+            r.parseChunk(ByteBuffer.wrap(bytes, split, bytes.length - split));
+            assertEquals("split at " + split, expected, r.fired);
+
+            // The partial last line completes with the next chunk
+            r.parseChunk(ByteBuffer.wrap("\r\n".getBytes("US-ASCII")));
+            assertEquals("e=5", r.fired.get(r.fired.size() - 1));
+        }
+
+        // One byte at a time
+        Recorder r = new Recorder(spec);
+        for (int i = 0; i < bytes.length; i++) {
+            r.parseChunk(ByteBuffer.wrap(bytes, i, 1));
+        }
+        assertEquals(expected, r.fired);
+    }
+
+    @Test
+    public void testResetChunks() throws Exception {
+        Recorder r = new Recorder(spec());
+        r.parseChunk(ByteBuffer.wrap("f=6\rg=".getBytes("US-ASCII")));
+        r.resetChunks();
+        // Neither the partial line nor the pending \r carry over
+        r.parseChunk(ByteBuffer.wrap("\nh=8\n".getBytes("US-ASCII")));
+        assertEquals(Arrays.asList("f=6", "h=8"), r.fired);
+    }
+}
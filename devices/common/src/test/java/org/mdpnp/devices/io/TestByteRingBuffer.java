@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class TestByteRingBuffer {
+
+    private static final long TIMEOUT = 2000L;
+
+    @Test
+    public void testWrapAround() {
+        ByteRingBuffer ring = new ByteRingBuffer(5);
+        assertEquals(8, ring.capacity());
+        byte[] out = new byte[8];
+
+        assertEquals(6, ring.offer(new byte[] { 1, 2, 3, 4, 5, 6 }, 0, 6));
+        assertEquals(4, ring.poll(out, 0, 4));
+
+        ByteBuffer src = ByteBuffer.wrap(new byte[] { 0, 7, 8, 9, 10, 11, 0 });
+        src.position(1).limit(6);
+        assertEquals(5, ring.offer(src));
+        assertEquals(6, src.position());
+        assertEquals(7, ring.size());
+
+        // A short read is not an error
+        assertEquals(7, ring.poll(out, 0, out.length));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(5 + i, out[i]);
+        }
+        assertEquals(0, ring.getOverruns());
+    }
+
+    @Test
+    public void testOverrun() {
+        ByteRingBuffer ring = new ByteRingBuffer(4);
+        ByteBuffer src = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5, 6 });
+        assertEquals(4, ring.offer(src));
+        assertEquals(2, ring.getOverruns());
+        assertEquals(0, src.remaining());
+
+        byte[] out = new byte[4];
+        assertEquals(4, ring.poll(out, 0, 4));
+        assertEquals(4, out[3]);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testProducerConsumer() throws InterruptedException {
+        final ByteRingBuffer ring = new ByteRingBuffer(64);
+        final int total = 100000;
+
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                byte[] chunk = new byte[7];
+                int next = 0;
+                while (next < total) {
+                    int n = Math.min(chunk.length, total - next);
+                    for (int i = 0; i < n; i++) {
+                        chunk[i] = (byte) (next + i);
+                    }
+                    // Only offer what fits so that nothing is dropped
+                    n = Math.min(n, ring.capacity() - ring.size());
+                    next += ring.offer(chunk, 0, n);
+                }
+            }
+        });
+        producer.start();
+
+        byte[] chunk = new byte[5];
+        int expected = 0;
+        while (expected < total) {
+            int n = ring.poll(chunk, 0, chunk.length);
+            for (int i = 0; i < n; i++) {
+                assertEquals((byte) expected++, chunk[i]);
+            }
+        }
+        producer.join();
+        assertEquals(0, ring.getOverruns());
+    }
+}
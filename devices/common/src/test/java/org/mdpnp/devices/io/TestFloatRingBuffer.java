@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestFloatRingBuffer {
+
+    private static final long TIMEOUT = 2000L;
+
+    @Test
+    public void testCapacityRoundsUp() {
+        assertEquals(8, new FloatRingBuffer(5).capacity());
+        assertEquals(8, new FloatRingBuffer(8).capacity());
+    }
+
+    @Test
+    public void testWrapAround() {
+        FloatRingBuffer ring = new FloatRingBuffer(4);
+        float[] out = new float[4];
+
+        assertEquals(3, ring.offer(new float[] { 1f, 2f, 3f }, 0, 3));
+        assertEquals(2, ring.poll(out, 0, 2));
+        assertArrayEquals(new float[] { 1f, 2f }, new float[] { out[0], out[1] }, 0f);
+
+        assertEquals(3, ring.offer(new float[] { 4f, 5f, 6f }, 0, 3));
+        assertEquals(4, ring.size());
+        assertEquals(4, ring.poll(out, 0, 4));
+        assertArrayEquals(new float[] { 3f, 4f, 5f, 6f }, out, 0f);
+        assertEquals(0, ring.getOverruns());
+        assertEquals(0, ring.getUnderruns());
+    }
+
+    @Test
+    public void testOverrunAndUnderrun() {
+        FloatRingBuffer ring = new FloatRingBuffer(4);
+        float[] out = new float[6];
+
+        assertEquals(4, ring.offer(new float[] { 1f, 2f, 3f, 4f, 5f, 6f }, 0, 6));
+        assertEquals(2, ring.getOverruns());
+
+        assertEquals(4, ring.poll(out, 0, 6));
+        assertEquals(2, ring.getUnderruns());
+        assertArrayEquals(new float[] { 1f, 2f, 3f, 4f }, new float[] { out[0], out[1], out[2], out[3] }, 0f);
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void testProducerConsumer() throws InterruptedException {
+        final FloatRingBuffer ring = new FloatRingBuffer(64);
+        final int total = 100000;
+
+        Thread producer = new Thread(new Runnable() {
+            public void run() {
+                float[] chunk = new float[7];
+                int next = 0;
+                while (next < total) {
+                    int n = Math.min(chunk.length, total - next);
+                    for (int i = 0; i < n; i++) {
+                        chunk[i] = next + i;
+                    }
+                    // Only offer what fits so that nothing is dropped
+                    n = Math.min(n, ring.capacity() - ring.size());
+                    next += ring.offer(chunk, 0, n);
+                }
+            }
+        });
+        producer.start();
+
+        float[] chunk = new float[5];
+        int expected = 0;
+        while (expected < total) {
+            int n = ring.poll(chunk, 0, Math.min(ring.size(), chunk.length));
+            for (int i = 0; i < n; i++) {
+                assertEquals(expected++, chunk[i], 0f);
+            }
+        }
+        producer.join();
+        assertEquals(0, ring.getOverruns());
+        assertEquals(0, ring.getUnderruns());
+    }
+}
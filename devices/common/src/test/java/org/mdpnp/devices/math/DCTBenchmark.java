@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.math;
+
+import java.util.Random;
+
+/**
+ * Compares the time per transform of the original O(n^2) DCT with
+ * {@link DCT} across a range of lengths, including the non power of two
+ * lengths the simulated devices use.
+ *
+ * Not a unit test; run the main method.
+ *
+ * DCTBenchmark [lengths...]
+ */
+public class DCTBenchmark {
+
+    public static void main(String[] args) {
+        int[] lengths = { 60, 64, 128, 310, 500, 512, 1024, 4096 };
+        if (args.length > 0) {
+            lengths = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                lengths[i] = Integer.parseInt(args[i]);
+            }
+        }
+        Random random = new Random(0L);
+        double sink = 0.0;
+        for (int round = 0; round < 3; round++) {
+            for (int n : lengths) {
+                double[] d = new double[n], r = new double[n];
+                for (int i = 0; i < n; i++) {
+                    d[i] = random.nextDouble();
+                }
+                // Aim for roughly the same amount of naive work at every length
+                int iterations = Math.max(10, 20000000 / (n * n));
+
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    sink += ReferenceDCT.dct(d, r)[i % n];
+                    sink += ReferenceDCT.idct(r, 0, n, d, 0, n)[i % n];
+                }
+                long naive = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    sink += DCT.dct(d, r)[i % n];
+                    sink += DCT.idct(r, 0, n, d, 0, n)[i % n];
+                }
+                long fast = System.nanoTime() - start;
+
+                System.out.println(String.format("n=%-6d naive %12.1f ns/pair  fft %10.1f ns/pair  %6.1fx", n, (double) naive / iterations,
+                        (double) fast / iterations, (double) naive / fast));
+            }
+        }
+        System.out.println(sink);
+    }
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestDCT {
+
+    private static final double TOLERANCE = 1e-9;
+
+    // Powers of two, primes and the lengths the simulators use
+    private static final int[] LENGTHS;
+    static {
+        int[] extra = { 128, 200, 256, 257, 310, 1000 };
+        LENGTHS = new int[70 + extra.length];
+        for (int i = 0; i < 70; i++) {
+            LENGTHS[i] = i + 1;
+        }
+        System.arraycopy(extra, 0, LENGTHS, 70, extra.length);
+    }
+
+    @Test
+    public void testDctMatchesReference() {
+        Random random = new Random(1L);
+        for (int n : LENGTHS) {
+            double[] d = random(random, n);
+            double[] expected = ReferenceDCT.dct(d, new double[n]);
+            double[] actual = DCT.dct(d);
+            assertClose("n=" + n, expected, actual, TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testIdctMatchesReference() {
+        Random random = new Random(2L);
+        for (int n : LENGTHS) {
+            double[] c = random(random, n);
+            assertClose("n=" + n, ReferenceDCT.idct(c, 0, n, new double[n], 0, n), DCT.idct(c, new double[n]), TOLERANCE);
+
+            // Truncated coefficients into a window of a larger, dirty array
+            int clen = Math.max(1, n / 3);
+            double[] expected = ReferenceDCT.idct(c, 1 % n, Math.min(clen, n - 1 % n), new double[n + 5], 2, n);
+            double[] results = random(random, n + 5);
+            assertSame(results, DCT.idct(c, 1 % n, Math.min(clen, n - 1 % n), results, 2, n));
+            assertClose("window n=" + n, expected, results, TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testMoreCoefficientsThanResults() {
+        Random random = new Random(3L);
+        double[] c = random(random, 100);
+        assertClose("", ReferenceDCT.idct(c, 0, 100, new double[60], 0, 60), DCT.idct(c, 0, 100, new double[60]), TOLERANCE);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(4L);
+        for (int n : LENGTHS) {
+            double[] d = random(random, n);
+            assertClose("n=" + n, d, DCT.idct(DCT.dct(d), new double[n]), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testFloatRing() {
+        Random random = new Random(5L);
+        for (int n : LENGTHS) {
+            float[] d = new float[n];
+            for (int i = 0; i < n; i++) {
+                d[i] = random.nextFloat() * 200f - 100f;
+            }
+            int start = random.nextInt(3 * n);
+            int count = 1 + random.nextInt(n);
+            float[] expected = ReferenceDCT.dct(d, start, new float[n], count);
+            float[] actual = DCT.dct(d, start, new float[n], count);
+            for (int i = 0; i < n; i++) {
+                // The reference accumulates in float
+                assertEquals("n=" + n + " i=" + i, expected[i], actual[i], 1e-3 * Math.sqrt(n));
+            }
+            if (count < n) {
+                assertEquals(0f, actual[count], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentLengths() throws InterruptedException {
+        final Throwable[] failure = new Throwable[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long seed = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 200; i++) {
+                            int n = LENGTHS[random.nextInt(LENGTHS.length)];
+                            double[] d = random(random, n);
+                            assertClose("n=" + n, ReferenceDCT.dct(d, new double[n]), DCT.dct(d), TOLERANCE);
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failure) {
+                            failure[0] = e;
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        synchronized (failure) {
+            if (null != failure[0]) {
+                throw new AssertionError(failure[0]);
+            }
+        }
+    }
+
+    private static double[] random(Random random, int n) {
+        double[] d = new double[n];
+        for (int i = 0; i < n; i++) {
+            d[i] = random.nextDouble() * 200.0 - 100.0;
+        }
+        return d;
+    }
+
+    private static void assertClose(String message, double[] expected, double[] actual, double tolerance) {
+        assertEquals(message, expected.length, actual.length);
+        double scale = 1.0;
+        for (double e : expected) {
+            scale = Math.max(scale, Math.abs(e));
+        }
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(message + " i=" + i, expected[i], actual[i], tolerance * scale);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TestNetworkLoopPool {
+
+    private static class CountingConnection implements NetworkConnection {
+        private final ByteBuffer buffer = ByteBuffer.allocate(64);
+        private final AtomicInteger received = new AtomicInteger(0);
+        private final CountDownLatch done;
+        private final int expected;
+
+        CountingConnection(CountDownLatch done, int expected) {
+            this.done = done;
+            this.expected = expected;
+        }
+
+        @Override
+        public void read(SelectionKey sk) throws IOException {
+            buffer.clear();
+            int n = ((SocketChannel) sk.channel()).read(buffer);
+            if (n > 0 && received.addAndGet(n) == expected) {
+                done.countDown();
+            }
+        }
+
+        @Override
+        public void write(SelectionKey sk) throws IOException {
+        }
+
+        @Override
+        public void registered(NetworkLoop networkLoop, SelectionKey sk) {
+        }
+
+        @Override
+        public void unregistered(NetworkLoop networkLoop, SelectionKey sk) {
+        }
+    }
+
+    @Test
+    public void testRoundRobin() throws IOException {
+        NetworkLoopPool pool = new NetworkLoopPool("TestNetworkLoopPool", 2);
+        try {
+            NetworkLoop a = pool.next(), b = pool.next();
+            assertNotSame(a, b);
+            assertSame(a, pool.next());
+            assertSame(b, pool.next());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testManyConnectionsFewThreads() throws Exception {
+        final int connections = 16, bytes = 1000;
+        NetworkLoopPool pool = new NetworkLoopPool("TestNetworkLoopPool", 2);
+        ServerSocketChannel server = ServerSocketChannel.open();
+        SocketChannel[] clients = new SocketChannel[connections];
+        SocketChannel[] peers = new SocketChannel[connections];
+        try {
+            server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+            CountDownLatch done = new CountDownLatch(connections);
+            CountingConnection[] counting = new CountingConnection[connections];
+            for (int i = 0; i < connections; i++) {
+                clients[i] = SocketChannel.open(server.socket().getLocalSocketAddress());
+                peers[i] = server.accept();
+                clients[i].configureBlocking(false);
+                counting[i] = new CountingConnection(done, bytes);
+                pool.next().register(counting[i], clients[i]);
+            }
+            // Dribble the data so that each connection sees several reads
+            for (int sent = 0; sent < bytes; sent += 100) {
+                for (int i = 0; i < connections; i++) {
+                    ByteBuffer bb = ByteBuffer.allocate(100);
+                    while (bb.hasRemaining()) {
+                        peers[i].write(bb);
+                    }
+                }
+            }
+            assertTrue("all bytes received", done.await(10L, TimeUnit.SECONDS));
+            for (int i = 0; i < connections; i++) {
+                assertEquals(bytes, counting[i].received.get());
+            }
+        } finally {
+            for (int i = 0; i < connections; i++) {
+                if (null != clients[i]) {
+                    clients[i].close();
+                }
+                if (null != peers[i]) {
+                    peers[i].close();
+                }
+            }
+            server.close();
+            pool.shutdown();
+        }
+    }
+}
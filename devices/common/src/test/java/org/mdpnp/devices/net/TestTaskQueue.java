@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TestTaskQueue {
+
+    private static class RecordingTask extends TaskQueue.TaskImpl<Void> {
+        private final List<String> log;
+        private final String name;
+
+        RecordingTask(List<String> log, String name) {
+            this.log = log;
+            this.name = name;
+        }
+
+        @Override
+        public Void doExecute(TaskQueue queue) {
+            log.add(name);
+            return null;
+        }
+    }
+
+    @Test
+    public void testOrderingWithEqualDeadlines() {
+        List<String> log = new ArrayList<String>();
+        TaskQueue queue = new TaskQueue();
+        long deadline = System.nanoTime() - 1L;
+        queue.add(new RecordingTask(log, "b"), deadline);
+        queue.add(new RecordingTask(log, "c"), deadline);
+        queue.add(new RecordingTask(log, "a"), deadline - 1L);
+        assertEquals(3, queue.size());
+
+        assertEquals(0L, queue.doExpiredTasks());
+        assertEquals("[a, b, c]", log.toString());
+        assertEquals(0, queue.size());
+        assertEquals(3L, queue.getExecutedCount());
+    }
+
+    @Test
+    public void testRemoveAmongEqualDeadlines() {
+        List<String> log = new ArrayList<String>();
+        TaskQueue queue = new TaskQueue();
+        long deadline = System.nanoTime() - 1L;
+        RecordingTask[] tasks = new RecordingTask[10];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new RecordingTask(log, Integer.toString(i));
+            queue.add(tasks[i], deadline);
+        }
+        assertTrue(queue.remove(tasks[3]));
+        assertTrue(queue.remove(tasks[7]));
+        assertFalse(queue.remove(tasks[7]));
+
+        queue.doExpiredTasks();
+        assertEquals("[0, 1, 2, 4, 5, 6, 8, 9]", log.toString());
+    }
+
+    @Test
+    public void testFutureTaskAndReschedule() {
+        List<String> log = new ArrayList<String>();
+        TaskQueue queue = new TaskQueue();
+        RecordingTask task = new RecordingTask(log, "x");
+        queue.add(task, System.nanoTime() + TimeUnit.HOURS.toNanos(1L));
+
+        long wait = queue.doExpiredTasks();
+        assertTrue(wait > TimeUnit.MINUTES.toMillis(59L));
+        assertTrue(log.isEmpty());
+
+        // Rescheduling an already queued task moves it rather than duplicating it
+        queue.add(task, System.nanoTime() - 1L);
+        assertEquals(1, queue.size());
+        assertEquals(-1L, queue.timeToNextTask());
+        queue.doExpiredTasks();
+        assertEquals("[x]", log.toString());
+    }
+
+    @Test
+    public void testRecurrentAndLate() {
+        List<String> log = new ArrayList<String>();
+        TaskQueue queue = new TaskQueue();
+        RecordingTask task = new RecordingTask(log, "r");
+        task.setInterval(1000L);
+        queue.add(task, System.nanoTime() - TimeUnit.SECONDS.toNanos(1L));
+
+        queue.doExpiredTasks();
+        assertEquals(1, queue.size());
+        assertEquals(1L, queue.getLateCount());
+        assertTrue(queue.getMaxLatenessNanos() >= TimeUnit.SECONDS.toNanos(1L));
+        assertTrue(queue.timeToNextTask() > 0L);
+
+        queue.resetStatistics();
+        assertEquals(0L, queue.getLateCount());
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertEquals(0L, queue.timeToNextTask());
+    }
+}
@@ -64,6 +64,11 @@ import org.slf4j.LoggerFactory;
  * receive() method as long as the receive() call returns true. When receive()
  * returns false processing has stopped and the connection is no longer viable.
  * 
+ * Inbound data is split by a {@link MedibusDemultiplexer}.  When constructed
+ * with an InputStream a daemon thread reads that stream in bulk and feeds the
+ * demultiplexer; otherwise the caller feeds received chunks to
+ * {@link #getDemultiplexer()} directly.
+ * 
  * 
  * @author Jeff Plourde
  * 
@@ -74,9 +79,11 @@ public class Medibus {
     private int versionMajor = 3;
     private int versionMinor = 0;
 
-    protected final InputStream slowIn;
+    private final MedibusDemultiplexer demultiplexer = new MedibusDemultiplexer();
     protected final ChecksumOutputStream out;
 
+    private static final int CHUNK_SIZE = 8192;
+
     /**
      * When a consumer of this API has established a connection to a Draeger
      * device they may use this constructor to create a Medibus instance for
@@ -89,53 +96,67 @@ public class Medibus {
      *            Destination of data bound for Draeger device
      * @throws IOException 
      */
-    public Medibus(InputStream in, OutputStream out) throws IOException {
-        // partition the slow and fast data
-        // fast data have the high order bit set and slow data do not
-        InputStreamPartition isp = new InputStreamPartition(new InputStreamPartition.Filter[] { 
-                new InputStreamPartition.Filter() {
-
-                    @Override
-                    public boolean passes(int b) {
-                        if(0 != (b & 0x80)) {
-                            fastByte(b);
-                            return true;
-                        } else {
-                            return false;
+    public Medibus(final InputStream in, OutputStream out) throws IOException {
+        this(out);
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                log.trace("Medibus reader begins");
+                byte[] bytes = new byte[CHUNK_SIZE];
+                ByteBuffer chunk = ByteBuffer.wrap(bytes);
+                try {
+                    int n;
+                    while ((n = in.read(bytes, 0, bytes.length)) >= 0 && !Thread.interrupted()) {
+                        // This thread can afford to wait rather than overrun a stalled consumer
+                        while (demultiplexer.getBacklog() > demultiplexer.getCapacity() - CHUNK_SIZE) {
+                            Thread.sleep(1L);
                         }
-
+                        chunk.clear();
+                        chunk.limit(n);
+                        demultiplexer.accept(chunk);
                     }
-                    // This is an optimization.  Data will be handled in the passes call and there is 
-                    // not need to enqueue data onto a pipe
-                    public boolean createPipe() { return false; }
-
-                }, new InputStreamPartition.Filter() {
-
-            @Override
-            public boolean passes(int b) {
-                switch(b) {
-                case ASCIIByte.DC1:
-                    log.warn("DC1 (0x11) ignored in stream");
-                    return false;
-                case ASCIIByte.DC3:
-                    log.warn("DC3 (0x13) ignored in stream");
-                    return false;
+                } catch (InterruptedException e) {
+                    log.error("Medibus reader interrupted", e);
+                } catch (IOException e) {
+                    log.error("Medibus reader ends with IOException", e);
+                } finally {
+                    log.trace("Medibus reader ends");
+                    demultiplexer.close();
                 }
-                return 0 == (b & 0x80);
-            }
-            
-            @Override
-            public boolean createPipe() {
-                return true;
             }
+        }, "Medibus I/O Multiplexor");
+        reader.setPriority(Thread.NORM_PRIORITY + 1);
+        reader.setDaemon(true);
+        reader.start();
+    }
 
-        },  }, in);
-        isp.getProcessingThread().setName("Medibus I/O Multiplexor");
-        this.slowIn = isp.getInputStream(1);
+    /**
+     * Constructs a Medibus instance whose inbound data will be passed in
+     * chunks to {@link #getDemultiplexer()} by the caller
+     * 
+     * @param out
+     *            Destination of data bound for Draeger device
+     */
+    public Medibus(OutputStream out) {
         this.out = new ChecksumOutputStream(out);
         log.trace("Initialized Medibus");
     }
 
+    public MedibusDemultiplexer getDemultiplexer() {
+        return demultiplexer;
+    }
+
+    /**
+     * Receives a batch of realtime bytes (those with the high order bit set)
+     * in the order they arrived.  By default each is passed to
+     * {@link #fastByte(int)}.
+     */
+    protected void fastBytes(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            fastByte(0xFF & buf[i]);
+        }
+    }
+
     protected void fastByte(int b) {
         
     }
@@ -852,64 +873,76 @@ public class Medibus {
         }
     }
 
-    public boolean receive() throws IOException {
-        int leading = 0;
-
-        List<Buffer> buffers = new ArrayList<Buffer>();
-        List<Buffer> freeBuffers = new ArrayList<Buffer>();
+    private final List<Buffer> buffers = new ArrayList<Buffer>();
+    private final List<Buffer> freeBuffers = new ArrayList<Buffer>();
+    private Buffer topBuffer = null;
 
-        Buffer topBuffer = null;
+    private final byte[] realtimeBatch = new byte[CHUNK_SIZE];
+    private final byte[] slowBatch = new byte[CHUNK_SIZE];
 
-        while (true) {
-            leading = slowIn.read();
-            if (leading < 0) {
-                log.trace("receive got " + leading + " from slowIn.read");
-                // EOF
-                return false;
+    /**
+     * Processes received data until the connection ends.
+     * 
+     * @return false when the end of the stream has been reached
+     * @throws IOException
+     */
+    public boolean receive() throws IOException {
+        while (demultiplexer.await()) {
+            int n = demultiplexer.pollRealtime(realtimeBatch, 0, realtimeBatch.length);
+            if (n > 0) {
+                fastBytes(realtimeBatch, 0, n);
             }
+            n = demultiplexer.pollSlow(slowBatch, 0, slowBatch.length);
+            for (int i = 0; i < n; i++) {
+                slowByte(slowBatch[i]);
+            }
+        }
+        log.trace("receive reached the end of the stream");
+        return false;
+    }
 
-            switch (leading) {
-            case ASCIIByte.SOH:
-                buffers.add(0, topBuffer = aFreeBuffer(Buffer.Type.Response, freeBuffers));
-                break;
-            case ASCIIByte.ESC:
-                buffers.add(0, topBuffer = aFreeBuffer(Buffer.Type.Command, freeBuffers));
-                break;
-            case ASCIIByte.CR:
-                if (null != topBuffer) {
-                    if(log.isTraceEnabled()) {
-                        String msg = topBuffer.getType() + ":"+HexUtil.dump(ByteBuffer.wrap(topBuffer.receiveBuffer, 0, topBuffer.getCount()), 80);
-                        log.trace(msg);
-                    }
-                    try {
-                        switch (topBuffer.getType()) {
-                        case Command:
-                            receiveCommand(topBuffer.getReceiveBuffer(), topBuffer.getCount());
-                            break;
-                        case Response:
-                            receiveResponse(topBuffer.getReceiveBuffer(), topBuffer.getCount());
-                            break;
-                        }
-                    } catch (CorruptMedibusException cme) {
-                        // The contents of this frame were invalid, but we will continue onto the next frame
-                        // depending on intended use this might not be a desired behaviour; or perhaps more likely
-                        // better reporting of this type of error is required.
-                        String msg = topBuffer.getType() + ":"+HexUtil.dump(ByteBuffer.wrap(topBuffer.receiveBuffer, 0, topBuffer.getCount()), 80);
-                        log.error(msg);
-                    }
-                    freeBuffers.add(topBuffer);
-                    buffers.remove(0);
-                    topBuffer = buffers.isEmpty() ? null : buffers.get(0);
-                } else {
-                    log.warn("Received a CR with no matching SOH or ESC");
+    private void slowByte(byte leading) throws IOException {
+        switch (leading) {
+        case ASCIIByte.SOH:
+            buffers.add(0, topBuffer = aFreeBuffer(Buffer.Type.Response, freeBuffers));
+            break;
+        case ASCIIByte.ESC:
+            buffers.add(0, topBuffer = aFreeBuffer(Buffer.Type.Command, freeBuffers));
+            break;
+        case ASCIIByte.CR:
+            if (null != topBuffer) {
+                if(log.isTraceEnabled()) {
+                    String msg = topBuffer.getType() + ":"+HexUtil.dump(ByteBuffer.wrap(topBuffer.receiveBuffer, 0, topBuffer.getCount()), 80);
+                    log.trace(msg);
                 }
-                break;
-            default:
-                if (topBuffer != null) {
-                    topBuffer.addByte((byte) leading);
-                } else {
-                    log.error("Unknown byte: 0x" + Integer.toHexString(leading));
+                try {
+                    switch (topBuffer.getType()) {
+                    case Command:
+                        receiveCommand(topBuffer.getReceiveBuffer(), topBuffer.getCount());
+                        break;
+                    case Response:
+                        receiveResponse(topBuffer.getReceiveBuffer(), topBuffer.getCount());
+                        break;
+                    }
+                } catch (CorruptMedibusException cme) {
+                    // The contents of this frame were invalid, but we will continue onto the next frame
+                    // depending on intended use this might not be a desired behaviour; or perhaps more likely
+                    // better reporting of this type of error is required.
+                    String msg = topBuffer.getType() + ":"+HexUtil.dump(ByteBuffer.wrap(topBuffer.receiveBuffer, 0, topBuffer.getCount()), 80);
+                    log.error(msg);
                 }
+                freeBuffers.add(topBuffer);
+                buffers.remove(0);
+                topBuffer = buffers.isEmpty() ? null : buffers.get(0);
+            } else {
+                log.warn("Received a CR with no matching SOH or ESC");
+            }
+            break;
+        default:
+            if (topBuffer != null) {
+                topBuffer.addByte(leading);
+            } else {
+                log.error("Unknown byte: 0x" + Integer.toHexString(leading));
             }
         }
     }
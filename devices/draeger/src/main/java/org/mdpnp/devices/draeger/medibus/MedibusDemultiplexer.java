@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.draeger.medibus;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.mdpnp.devices.ASCIIByte;
+import org.mdpnp.devices.io.ByteRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the bytes received from a Medibus device into the realtime stream,
+ * whose bytes have the high order bit set, and the slow stream of framed
+ * commands and responses.  Each chunk is scanned once and each stream is
+ * handed on in bulk through its own single-producer single-consumer ring; the
+ * consumer is woken at most once per chunk.
+ * 
+ * {@link #accept(ByteBuffer)} and {@link #close()} must be called by one
+ * producer (a thread reading the device or a non-blocking transport) while
+ * {@link #await()} and the poll methods are called by one consumer.
+ */
+public class MedibusDemultiplexer {
+    private static final Logger log = LoggerFactory.getLogger(MedibusDemultiplexer.class);
+
+    // Several seconds of data at the fastest Medibus baud rates
+    private static final int CAPACITY = 65536;
+    private static final int SCRATCH = 4096;
+    // Bounds the cost of a missed wakeup
+    private static final long MAX_PARK = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final ByteRingBuffer realtime = new ByteRingBuffer(CAPACITY);
+    private final ByteRingBuffer slow = new ByteRingBuffer(CAPACITY);
+
+    private final byte[] realtimeScratch = new byte[SCRATCH];
+    private final byte[] slowScratch = new byte[SCRATCH];
+
+    private volatile Thread consumer;
+    private volatile boolean closed;
+
+    /**
+     * Producer side; routes all remaining bytes of the chunk.
+     */
+    public void accept(ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            int n = Math.min(chunk.remaining(), SCRATCH);
+            int realtimeCount = 0, slowCount = 0;
+            for (int i = 0; i < n; i++) {
+                byte b = chunk.get();
+                if (b < 0) {
+                    realtimeScratch[realtimeCount++] = b;
+                } else {
+                    switch (b) {
+                    case ASCIIByte.DC1:
+                        log.warn("DC1 (0x11) ignored in stream");
+                        break;
+                    case ASCIIByte.DC3:
+                        log.warn("DC3 (0x13) ignored in stream");
+                        break;
+                    default:
+                        slowScratch[slowCount++] = b;
+                    }
+                }
+            }
+            if (realtime.offer(realtimeScratch, 0, realtimeCount) < realtimeCount) {
+                log.warn("realtime data not being drained, dropped bytes " + realtime);
+            }
+            if (slow.offer(slowScratch, 0, slowCount) < slowCount) {
+                log.warn("slow data not being drained, dropped bytes " + slow);
+            }
+        }
+        wakeup();
+    }
+
+    /**
+     * Producer side; the source has reached end of stream.
+     */
+    public void close() {
+        closed = true;
+        wakeup();
+    }
+
+    private void wakeup() {
+        Thread consumer = this.consumer;
+        if (null != consumer) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Consumer side; waits for data on either stream.
+     * 
+     * @return false once the producer has closed and everything has been
+     *         drained
+     */
+    public boolean await() {
+        consumer = Thread.currentThread();
+        while (true) {
+            // read before the rings so that everything written before close is seen
+            boolean closed = this.closed;
+            if (realtime.size() > 0 || slow.size() > 0) {
+                return true;
+            } else if (closed) {
+                return false;
+            }
+            LockSupport.parkNanos(this, MAX_PARK);
+        }
+    }
+
+    /**
+     * Consumer side.
+     * 
+     * @return the number of realtime bytes read, at most len
+     */
+    public int pollRealtime(byte[] dst, int off, int len) {
+        return realtime.poll(dst, off, len);
+    }
+
+    /**
+     * Consumer side.
+     * 
+     * @return the number of slow bytes read, at most len
+     */
+    public int pollSlow(byte[] dst, int off, int len) {
+        return slow.poll(dst, off, len);
+    }
+
+    /**
+     * @return bytes routed but not yet polled on the busier of the two
+     *         streams; a producer able to wait may use this to avoid overruns
+     */
+    public int getBacklog() {
+        return Math.max(realtime.size(), slow.size());
+    }
+
+    public int getCapacity() {
+        return CAPACITY;
+    }
+
+    public long getOverruns() {
+        return realtime.getOverruns() + slow.getOverruns();
+    }
+}
@@ -32,6 +32,10 @@ public class RTMedibus extends Medibus {
         super(in, out);
     }
 
+    public RTMedibus(OutputStream out) {
+        super(out);
+    }
+
     private static final int SYNC_BYTE = 0xD0;
     private static final int SYNC_MASK = 0xF0;
     private static final int SYNC_CMD_BYTE = 0xC0;
@@ -48,8 +52,20 @@ public class RTMedibus extends Medibus {
 
     private final boolean[] dataStreamEnabled = new boolean[12];
     private final boolean[] transmittedDataStreams = new boolean[12];
+    // The positions of the true elements of transmittedDataStreams
+    private final int[] transmittedIndex = new int[12];
+    private int transmittedCount = 0;
     private int dataCounter = 0;
 
+    private void transmittedDataStreamsChanged() {
+        transmittedCount = 0;
+        for (int i = 0; i < transmittedDataStreams.length; i++) {
+            if (transmittedDataStreams[i]) {
+                transmittedIndex[transmittedCount++] = i;
+            }
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(RTMedibus.class);
 
     public void sendEnableRealtime(int[] traces) throws IOException {
@@ -95,6 +111,7 @@ public class RTMedibus extends Medibus {
         transmittedDataStreams[1] = 0 != (0x02 & syncByte);
         transmittedDataStreams[2] = 0 != (0x04 & syncByte);
         transmittedDataStreams[3] = 0 != (0x08 & syncByte);
+        transmittedDataStreamsChanged();
         if(log.isTraceEnabled()) {
             log.trace("transmittedDataStreams(after sync byte):" + Arrays.toString(transmittedDataStreams));
         }
@@ -125,7 +142,10 @@ public class RTMedibus extends Medibus {
             transmittedDataStreams[offset + 1] = 0 != (0x02 & argument);
             transmittedDataStreams[offset + 2] = 0 != (0x04 & argument);
             transmittedDataStreams[offset + 3] = 0 != (0x08 & argument);
-            log.debug("transmittedDataStreams:" + Arrays.toString(transmittedDataStreams));
+            transmittedDataStreamsChanged();
+            if(log.isDebugEnabled()) {
+                log.debug("transmittedDataStreams:" + Arrays.toString(transmittedDataStreams));
+            }
             break;
         case SC_START_CYCLE:
             if (0 != (0x01 & argument)) {
@@ -156,18 +176,7 @@ public class RTMedibus extends Medibus {
     public void receiveData(int first, int second) {
         // which of the transmitted streams is this
         int idx = dataCounter++;
-        int i;
-
-        for (i = 0; i < transmittedDataStreams.length; i++) {
-            if (transmittedDataStreams[i]) {
-                if (idx == 0) {
-                    idx = i;
-                    break;
-                } else {
-                    idx--;
-                }
-            }
-        }
+        idx = idx < transmittedCount ? transmittedIndex[idx] : idx - transmittedCount;
 
         int binval = (first & 0x3F) | ((second & 0x3F) << 6);
         if (this.lastTransmitted != null && idx < this.lastTransmitted.length) {
@@ -190,35 +199,47 @@ public class RTMedibus extends Medibus {
 
     
     private int lastFastByte = -1;
+
+    /**
+     * Decodes a batch of realtime bytes; a data or sync command pair may
+     * straddle batches.
+     */
     @Override
-    protected void fastByte(int b) {
-        if(lastFastByte < 0) {
-            // No previous byte
-            switch(SYNC_MASK & b) {
-            case SYNC_BYTE:
-                receiveSyncByte(b);
-                return;
+    protected void fastBytes(byte[] buf, int off, int len) {
+        int last = lastFastByte;
+        for (int i = off, end = off + len; i < end; i++) {
+            int b = 0xFF & buf[i];
+            if (last >= 0) {
+                if ((RT_BYTE_MASK & last) == RT_BYTE) {
+                    receiveData(last, b);
+                    last = -1;
+                    continue;
+                } else if ((SYNC_MASK & last) == SYNC_CMD_BYTE) {
+                    receiveSyncCommand(last, b);
+                    last = -1;
+                    continue;
+                } else {
+                    log.warn("Unknown r/t byte:" + Integer.toHexString(last));
+                    // and b begins anew
+                }
             }
-            lastFastByte = b;
-        } else {
-            if ((RT_BYTE_MASK & lastFastByte) == RT_BYTE) { 
-                receiveData(lastFastByte, b);
-                lastFastByte = -1;
+            if ((SYNC_MASK & b) == SYNC_BYTE) {
+                receiveSyncByte(b);
+                last = -1;
             } else {
-                switch(SYNC_MASK&lastFastByte) {
-                case SYNC_CMD_BYTE:
-                    receiveSyncCommand(lastFastByte, b);
-                    lastFastByte = -1;
-                    break;
-                default:
-                    log.warn("Unknown r/t byte:" + Integer.toHexString(lastFastByte));
-                    lastFastByte = -1;
-                    fastByte(b);
-                    break;
-                }
+                last = b;
             }
-            
         }
+        lastFastByte = last;
+    }
+
+    // Only used by the reading thread
+    private final byte[] oneFastByte = new byte[1];
+
+    @Override
+    protected void fastByte(int b) {
+        oneFastByte[0] = (byte) b;
+        fastBytes(oneFastByte, 0, 1);
     }
     
 //    public boolean receiveFast() throws IOException {
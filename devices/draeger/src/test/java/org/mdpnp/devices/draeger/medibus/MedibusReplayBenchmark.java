@@ -0,0 +1,98 @@
+package org.mdpnp.devices.draeger.medibus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+/**
+ * Replays a captured Medibus byte stream (for instance from an Evita or V500
+ * recorded with a TeeInputStream) through the demultiplexer and RTMedibus
+ * decoding, one thread feeding serial-sized chunks and another running
+ * receive() as a driver would.  Without a capture a synthetic stream with
+ * the same mix of realtime pairs and measured data frames is used.
+ *
+ * Not a unit test; run the main method.
+ *
+ * MedibusReplayBenchmark [capture file] [passes]
+ */
+public class MedibusReplayBenchmark {
+    private static final int CHUNK = 256;
+
+    private static class CountingMedibus extends RTMedibus {
+        long values, frames;
+        double sum;
+
+        CountingMedibus() {
+            super(new ByteArrayOutputStream());
+        }
+
+        @Override
+        public void receiveDataValue(RTDataConfig config, int multiplier, int streamIndex, Object realtimeData, double data) {
+            values++;
+            sum += data;
+        }
+
+        @Override
+        protected void receiveMeasuredData(int codepage, Data[] data) {
+            frames++;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        byte[] stream = args.length > 0 && !"-".equals(args[0]) ? Files.readAllBytes(new File(args[0]).toPath()) : SyntheticMedibusStream.generate(2000, 12);
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        for (int round = 0; round < 5; round++) {
+            run(stream, passes);
+        }
+    }
+
+    private static void run(final byte[] stream, final int passes) throws Exception {
+        final CountingMedibus medibus = new CountingMedibus();
+        RTMedibus.RTTransmit[] transmits = new RTMedibus.RTTransmit[12];
+        for (int i = 0; i < transmits.length; i++) {
+            RTMedibus.RTDataConfig config = new RTMedibus.RTDataConfig();
+            config.realtimeData = i;
+            config.max = config.maxbin = 4095;
+            transmits[i] = new RTMedibus.RTTransmit(i, 1, config);
+        }
+        medibus.sendRTTransmissionCommand(transmits);
+
+        final MedibusDemultiplexer demultiplexer = medibus.getDemultiplexer();
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ByteBuffer chunk = ByteBuffer.wrap(stream);
+                for (int p = 0; p < passes; p++) {
+                    for (int off = 0; off < stream.length; off += CHUNK) {
+                        while (demultiplexer.getBacklog() > demultiplexer.getCapacity() / 2) {
+                            Thread.yield();
+                        }
+                        chunk.limit(Math.min(stream.length, off + CHUNK)).position(off);
+                        demultiplexer.accept(chunk);
+                    }
+                }
+                demultiplexer.close();
+            }
+        }, "MedibusReplayBenchmark producer");
+
+        long bytes0 = allocatedBytes();
+        long start = System.nanoTime();
+        producer.start();
+        medibus.receive();
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - bytes0;
+        producer.join();
+
+        long total = (long) stream.length * passes;
+        System.out.println(String.format("%8.1f MB/s %6.2f ns/byte %10d r/t values %8d frames %6.3f bytes allocated/byte (receive thread) %d overruns",
+                total / (nanos / 1e9) / 1e6, (double) nanos / total, medibus.values, medibus.frames, (double) allocated / total,
+                demultiplexer.getOverruns()));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
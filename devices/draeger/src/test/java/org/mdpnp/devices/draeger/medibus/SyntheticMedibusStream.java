@@ -0,0 +1,82 @@
+package org.mdpnp.devices.draeger.medibus;
+
+import java.io.ByteArrayOutputStream;
+
+import org.mdpnp.devices.ASCIIByte;
+import org.mdpnp.devices.draeger.medibus.types.Command;
+
+/**
+ * Builds a byte stream shaped like the output of an Evita or V500 with two
+ * realtime curves enabled: measured data responses every so often with
+ * realtime sync bytes and data pairs interleaved among (and within) them.
+ */
+final class SyntheticMedibusStream {
+    static final int MEASUREMENTS_PER_FRAME = 20;
+    static final int CURVES = 2;
+
+    private SyntheticMedibusStream() {
+    }
+
+    static int value(int cycle, int curve) {
+        return (cycle * 7 + curve * 1000) & 0xFFF;
+    }
+
+    /**
+     * @param frames
+     *            measured data responses to include
+     * @param cyclesPerFrame
+     *            realtime cycles (a sync byte and a pair for each curve)
+     *            spread through each frame
+     */
+    static byte[] generate(int frames, int cyclesPerFrame) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        int cycle = 0;
+        for (int f = 0; f < frames; f++) {
+            frame.reset();
+            frame.write(ASCIIByte.SOH);
+            frame.write(Command.ReqMeasuredDataCP1.toByte());
+            for (int m = 0; m < MEASUREMENTS_PER_FRAME; m++) {
+                ascii(frame, String.format("%02X%4d", m, (f + m) % 1000));
+            }
+            ascii(frame, "00");
+            frame.write(ASCIIByte.CR);
+
+            byte[] slow = frame.toByteArray();
+            int step = Math.max(1, slow.length / Math.max(1, cyclesPerFrame));
+            int c = 0;
+            for (int i = 0; i < slow.length; i++) {
+                if (c < cyclesPerFrame && 0 == i % step) {
+                    // sync byte announcing curves 1 and 2
+                    stream.write(0xD0 | 0x03);
+                    for (int curve = 0; curve < CURVES; curve++) {
+                        int v = value(cycle, curve);
+                        stream.write(0x80 | (v & 0x3F));
+                        stream.write(0x80 | ((v >> 6) & 0x3F));
+                    }
+                    cycle++;
+                    c++;
+                }
+                stream.write(slow[i]);
+            }
+        }
+        return stream.toByteArray();
+    }
+
+    static int cycles(int frames, int cyclesPerFrame) {
+        byte[] one = generate(1, cyclesPerFrame);
+        int count = 0;
+        for (byte b : one) {
+            if ((0xFF & b) == (0xD0 | 0x03)) {
+                count++;
+            }
+        }
+        return count * frames;
+    }
+
+    private static void ascii(ByteArrayOutputStream out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            out.write(s.charAt(i));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.mdpnp.devices.draeger.medibus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestMedibusDemultiplexer {
+
+    private static class RecordingMedibus extends RTMedibus {
+        final List<Integer> values = new ArrayList<Integer>();
+        int frames;
+
+        RecordingMedibus() throws IOException {
+            super(new ByteArrayOutputStream());
+            configure(this);
+        }
+
+        RecordingMedibus(byte[] stream) throws IOException {
+            super(new ByteArrayInputStream(stream), new ByteArrayOutputStream());
+            configure(this);
+        }
+
+        @Override
+        public void receiveDataValue(RTDataConfig config, int multiplier, int streamIndex, Object realtimeData, double data) {
+            values.add((int) data);
+        }
+
+        @Override
+        protected void receiveMeasuredData(int codepage, Data[] data) {
+            int n = 0;
+            for (Data d : data) {
+                if (null != d) {
+                    n++;
+                }
+            }
+            assertEquals(SyntheticMedibusStream.MEASUREMENTS_PER_FRAME, n);
+            frames++;
+        }
+    }
+
+    private static void configure(RTMedibus medibus) throws IOException {
+        RTMedibus.RTTransmit[] transmits = new RTMedibus.RTTransmit[SyntheticMedibusStream.CURVES];
+        for (int i = 0; i < transmits.length; i++) {
+            RTMedibus.RTDataConfig config = new RTMedibus.RTDataConfig();
+            config.realtimeData = i;
+            config.min = 0;
+            config.max = 4095;
+            config.maxbin = 4095;
+            transmits[i] = new RTMedibus.RTTransmit(i, 1, config);
+        }
+        medibus.sendRTTransmissionCommand(transmits);
+    }
+
+    private static void verify(RecordingMedibus medibus, int frames, int cycles) {
+        assertEquals(frames, medibus.frames);
+        assertEquals(cycles * SyntheticMedibusStream.CURVES, medibus.values.size());
+        for (int i = 0; i < medibus.values.size(); i++) {
+            int cycle = i / SyntheticMedibusStream.CURVES, curve = i % SyntheticMedibusStream.CURVES;
+            assertEquals("value #" + i, SyntheticMedibusStream.value(cycle, curve), (int) medibus.values.get(i));
+        }
+    }
+
+    @Test
+    public void testRandomChunks() throws IOException {
+        int frames = 50, cyclesPerFrame = 9;
+        byte[] stream = SyntheticMedibusStream.generate(frames, cyclesPerFrame);
+        RecordingMedibus medibus = new RecordingMedibus();
+
+        // Chunk boundaries fall within realtime pairs and slow frames alike
+        Random random = new Random(7L);
+        ByteBuffer chunk = ByteBuffer.wrap(stream);
+        int off = 0;
+        while (off < stream.length) {
+            int n = Math.min(stream.length - off, 1 + random.nextInt(17));
+            chunk.limit(off + n).position(off);
+            medibus.getDemultiplexer().accept(chunk);
+            off += n;
+        }
+        medibus.getDemultiplexer().close();
+        assertFalse(medibus.receive());
+        verify(medibus, frames, SyntheticMedibusStream.cycles(frames, cyclesPerFrame));
+        assertEquals(0L, medibus.getDemultiplexer().getOverruns());
+    }
+
+    @Test(timeout = 5000L)
+    public void testInputStream() throws IOException {
+        int frames = 200, cyclesPerFrame = 12;
+        RecordingMedibus medibus = new RecordingMedibus(SyntheticMedibusStream.generate(frames, cyclesPerFrame));
+        assertFalse(medibus.receive());
+        verify(medibus, frames, SyntheticMedibusStream.cycles(frames, cyclesPerFrame));
+    }
+}
@@ -1,5 +1,9 @@
 package org.mdpnp.devices.draeger.medibus;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 
@@ -14,4 +18,51 @@ public class TestRTMedibus {
         
         assertEquals(-80, RTMedibus.parseInt(new byte[] {'1','0','-',' ',' ','-',' ',' ','8','0','.','5'}, 3, 9));
     }
+
+    private static class RecordingMedibus extends RTMedibus {
+        final List<String> events = new ArrayList<String>();
+
+        RecordingMedibus() {
+            super(new ByteArrayOutputStream());
+        }
+
+        @Override
+        public void receiveSyncByte(int syncByte) {
+            events.add("sync " + Integer.toHexString(syncByte));
+        }
+
+        @Override
+        public void receiveSyncCommand(int command, int argument) {
+            events.add("cmd " + Integer.toHexString(command) + " " + Integer.toHexString(argument));
+        }
+
+        @Override
+        public void receiveData(int first, int second) {
+            events.add("data " + Integer.toHexString(first) + " " + Integer.toHexString(second));
+        }
+    }
+
+    @Test
+    public void testFastByteMatchesFastBytes() throws Exception {
+        // Sync, data, sync command, an unknown byte followed by sync, data and a dangling first byte
+        byte[] stream = { (byte) 0xD0, (byte) 0x81, (byte) 0x85, (byte) 0xC1, (byte) 0xC2, (byte) 0xE0, (byte) 0xD3, (byte) 0x82,
+                (byte) 0x90, (byte) 0x83 };
+
+        RecordingMedibus whole = new RecordingMedibus();
+        whole.fastBytes(stream, 0, stream.length);
+        assertEquals(5, whole.events.size());
+
+        RecordingMedibus single = new RecordingMedibus();
+        for (byte b : stream) {
+            single.fastByte(0xFF & b);
+        }
+        assertEquals(whole.events, single.events);
+
+        // Pairs straddling batches
+        RecordingMedibus split = new RecordingMedibus();
+        for (int off = 0; off < stream.length; off += 3) {
+            split.fastBytes(stream, off, Math.min(3, stream.length - off));
+        }
+        assertEquals(whole.events, split.events);
+    }
 }
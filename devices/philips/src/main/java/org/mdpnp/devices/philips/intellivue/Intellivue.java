@@ -89,6 +89,23 @@ public class Intellivue implements NetworkConnection {
     private final ByteBuffer outBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
     private final Protocol protocol = new CompoundProtocol();
 
+    /**
+     * Carries datagrams to a monitor that is not reached through a
+     * DatagramChannel, such as one on a serial port.  The transport delivers
+     * inbound datagrams to {@link Intellivue#receive(ByteBuffer)}.
+     */
+    public interface Transport {
+        /**
+         * @param datagram
+         *            the remaining bytes are one complete datagram; only valid
+         *            for the duration of the call.  Called holding the lock
+         *            of the Intellivue so must not block for long.
+         */
+        void send(ByteBuffer datagram) throws IOException;
+    }
+
+    private volatile Transport transport;
+
     public Intellivue() {
         inBuffer.order(ByteOrder.BIG_ENDIAN);
         outBuffer.order(ByteOrder.BIG_ENDIAN);
@@ -545,10 +562,7 @@ public class Intellivue implements NetworkConnection {
     private List<Message> messageQueue = new ArrayList<Message>();
 
     private final synchronized int write(DatagramChannel channel, Message message) throws IOException {
-        outBuffer.clear();
-        protocol.format(message, outBuffer);
-        outBuffer.flip();
-        outBuffer.mark();
+        format(message);
 
         int cnt = channel.write(outBuffer);
 
@@ -560,6 +574,13 @@ public class Intellivue implements NetworkConnection {
         return cnt;
     }
 
+    private final void format(Message message) {
+        outBuffer.clear();
+        protocol.format(message, outBuffer);
+        outBuffer.flip();
+        outBuffer.mark();
+    }
+
     @Override
     public synchronized void write(SelectionKey sk) throws IOException {
         @SuppressWarnings("unused")
@@ -600,6 +621,16 @@ public class Intellivue implements NetworkConnection {
             log.trace("Out Message(" + simpleDateformat.format(time) + "):\n" + lineWrap(message.toString()));
         }
 
+        Transport transport = this.transport;
+        if (null != transport) {
+            format(message);
+            if (log.isTraceEnabled()) {
+                log.trace("To " + transport + "\n" + HexUtil.dump(outBuffer, 50));
+            }
+            transport.send(outBuffer);
+            return true;
+        }
+
         // Try to write the datagram, if unavailable then set interestOps
 
         int cnt = write(registeredChannel, message);
@@ -613,6 +644,35 @@ public class Intellivue implements NetworkConnection {
         }
     }
 
+    /**
+     * Exchange datagrams through the specified transport instead of any
+     * registered DatagramChannel
+     * 
+     * @param transport
+     *            or null to revert to the registered DatagramChannel
+     */
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Called by a {@link Transport} with each inbound datagram
+     * 
+     * @param datagram
+     *            the remaining bytes are one complete datagram; only valid
+     *            for the duration of the call
+     */
+    public synchronized void receive(ByteBuffer datagram) throws IOException {
+        if (log.isTraceEnabled()) {
+            log.trace("From " + transport + "\n" + HexUtil.dump(datagram, 50));
+        }
+        handle(null, protocol.parse(datagram), null);
+    }
+
     private final Date time = new Date();
     private final DateFormat simpleDateformat = new SimpleDateFormat("HH:mm:ss.SSS");
 
@@ -15,6 +15,9 @@ package org.mdpnp.devices.philips.intellivue;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
+import org.mdpnp.devices.philips.intellivue.util.LongMap;
+
 /**
  * @author Jeff Plourde
  *
@@ -50,6 +53,22 @@ public class OrdinalEnum {
         return map;
     }
 
+    /**
+     * Like {@link #buildInt(Class)} but without boxing on lookup; large
+     * nomenclature enums are looked up for every observation parsed.
+     */
+    public static final <T extends IntType> IntMap<T> buildIntMap(Class<T> cls) {
+        T[] constants = cls.getEnumConstants();
+        IntMap<T> map = new IntMap<T>(constants.length);
+        for (T t : constants) {
+            T previous = map.put(t.asInt(), t);
+            if (null != previous) {
+                throw new IllegalStateException("" + t.asInt() + " is ordinal for " + t + " and " + previous);
+            }
+        }
+        return map;
+    }
+
     public interface LongType {
         long asLong();
     }
@@ -64,4 +83,19 @@ public class OrdinalEnum {
         }
         return map;
     }
+
+    /**
+     * Like {@link #buildLong(Class)} but without boxing on lookup.
+     */
+    public static final <T extends LongType> LongMap<T> buildLongMap(Class<T> cls) {
+        T[] constants = cls.getEnumConstants();
+        LongMap<T> map = new LongMap<T>(constants.length);
+        for (T t : constants) {
+            T previous = map.put(t.asLong(), t);
+            if (null != previous) {
+                throw new IllegalStateException("" + t.asLong() + " is ordinal for " + t + " and " + previous);
+            }
+        }
+        return map;
+    }
 }
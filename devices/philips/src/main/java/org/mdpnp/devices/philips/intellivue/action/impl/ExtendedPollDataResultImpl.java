@@ -38,6 +38,7 @@ public class ExtendedPollDataResultImpl implements ExtendedPollDataResult {
     private final Type polledObjectType = new Type();
     private OIDType polledAttributeGroup = OIDType.lookup(0);
     private final List<SingleContextPoll> pollInfoList = new ArrayList<SingleContextPoll>();
+    private final List<SingleContextPoll> sparePollInfo = new ArrayList<SingleContextPoll>();
 
     private ActionResult action;
 
@@ -68,7 +69,7 @@ public class ExtendedPollDataResultImpl implements ExtendedPollDataResult {
         absoluteTimestamp.parse(bb);
         polledObjectType.parse(bb);
         polledAttributeGroup = OIDType.parse(bb);
-        Util.PrefixLengthShort.read(bb, pollInfoList, !more, SingleContextPollImpl.class);
+        Util.PrefixLengthShort.read(bb, pollInfoList, sparePollInfo, !more, SingleContextPollImpl.BUILDER);
 
     }
 
@@ -17,6 +17,7 @@ import java.nio.ByteBuffer;
 import org.mdpnp.devices.philips.intellivue.action.ObservationPoll;
 import org.mdpnp.devices.philips.intellivue.data.AttributeValueList;
 import org.mdpnp.devices.philips.intellivue.data.Handle;
+import org.mdpnp.devices.philips.intellivue.util.Util;
 
 /**
  * @author Jeff Plourde
@@ -26,6 +27,13 @@ public class ObservationPollImpl implements ObservationPoll {
     private final Handle handle = new Handle();
     private final AttributeValueList attrList = new AttributeValueList();
 
+    static final Util.PrefixLengthShort.Builder<ObservationPoll> BUILDER = new Util.PrefixLengthShort.Builder<ObservationPoll>() {
+        @Override
+        public ObservationPoll build() {
+            return new ObservationPollImpl();
+        }
+    };
+
     @Override
     public void parse(ByteBuffer bb) {
         handle.parse(bb);
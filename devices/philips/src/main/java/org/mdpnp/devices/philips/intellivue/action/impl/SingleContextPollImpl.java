@@ -28,6 +28,14 @@ import org.mdpnp.devices.philips.intellivue.util.Util;
 public class SingleContextPollImpl implements SingleContextPoll {
     private int mdsContext;
     private final List<ObservationPoll> pollInfo = new ArrayList<ObservationPoll>();
+    private final List<ObservationPoll> sparePollInfo = new ArrayList<ObservationPoll>();
+
+    static final Util.PrefixLengthShort.Builder<SingleContextPoll> BUILDER = new Util.PrefixLengthShort.Builder<SingleContextPoll>() {
+        @Override
+        public SingleContextPoll build() {
+            return new SingleContextPollImpl();
+        }
+    };
 
     @Override
     public int getMdsContext() {
@@ -42,7 +50,7 @@ public class SingleContextPollImpl implements SingleContextPoll {
     @Override
     public void parse(ByteBuffer bb) {
         mdsContext = Bits.getUnsignedShort(bb);
-        Util.PrefixLengthShort.read(bb, pollInfo, true, ObservationPollImpl.class);
+        Util.PrefixLengthShort.read(bb, pollInfo, sparePollInfo, true, ObservationPollImpl.BUILDER);
     }
 
     @Override
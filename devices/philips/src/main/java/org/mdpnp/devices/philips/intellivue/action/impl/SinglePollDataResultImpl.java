@@ -37,6 +37,7 @@ public class SinglePollDataResultImpl implements SinglePollDataResult {
     private final Type polledObjectType = new Type();
     private OIDType polledAttrGroup;
     private final List<SingleContextPoll> pollInfoList = new ArrayList<SingleContextPoll>();
+    private final List<SingleContextPoll> sparePollInfo = new ArrayList<SingleContextPoll>();
 
     private ActionResult action;
 
@@ -57,7 +58,7 @@ public class SinglePollDataResultImpl implements SinglePollDataResult {
         polledObjectType.parse(bb);
         polledAttrGroup = OIDType.parse(bb);
 
-        Util.PrefixLengthShort.read(bb, pollInfoList, !more, SingleContextPollImpl.class);
+        Util.PrefixLengthShort.read(bb, pollInfoList, sparePollInfo, !more, SingleContextPollImpl.BUILDER);
     }
 
     @Override
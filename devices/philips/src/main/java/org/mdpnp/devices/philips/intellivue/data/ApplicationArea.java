@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -26,7 +26,7 @@ public enum ApplicationArea implements EnumMessage<ApplicationArea>, OrdinalEnum
     AREA_UNSPEC(0), AREA_OPERATING_ROOM(1), AREA_INTENSIVE_CARE(2), AREA_NEONATAL_INTENSIVE_CARE(3), AREA_CARDIOLOGY_CARE(4);
 
     private final int x;
-    private final static Map<Integer, ApplicationArea> map = OrdinalEnum.buildInt(ApplicationArea.class);
+    private final static IntMap<ApplicationArea> map = OrdinalEnum.buildIntMap(ApplicationArea.class);
 
     private ApplicationArea(int x) {
         this.x = x;
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.data;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -429,7 +428,7 @@ public enum AttributeId implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private final static Map<Integer, AttributeId> map = OrdinalEnum.buildInt(AttributeId.class);
+    private final static IntMap<AttributeId> map = OrdinalEnum.buildIntMap(AttributeId.class);
 
     public int asInt() {
         return x;
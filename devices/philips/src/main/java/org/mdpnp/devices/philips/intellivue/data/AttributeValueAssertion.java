@@ -44,8 +44,10 @@ public class AttributeValueAssertion implements Value, Attribute<ByteArray> {
         oidType = OIDType.lookup(Bits.getUnsignedShort(bb));
         int length = Bits.getUnsignedShort(bb);
         bb.position(pos);
-        // TODO this could be a memory issue
-        value = new ByteArray(new byte[length + 4]);
+        if (null == value) {
+            value = new ByteArray();
+        }
+        value.setLength(length + 4);
         value.parse(bb);
     }
 
@@ -59,7 +61,7 @@ public class AttributeValueAssertion implements Value, Attribute<ByteArray> {
 
     @Override
     public java.lang.String toString() {
-        return "[oid=" + oidType + ",value=" + HexUtil.dump(ByteBuffer.wrap(value.getArray())) + "]";
+        return "[oid=" + oidType + ",value=" + HexUtil.dump(value.asByteBuffer()) + "]";
     }
 
     @Override
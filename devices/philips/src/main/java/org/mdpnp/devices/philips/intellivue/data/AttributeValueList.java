@@ -13,7 +13,6 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -33,7 +32,6 @@ import org.slf4j.LoggerFactory;
 public class AttributeValueList implements Parseable, Formatable, Util.PrefixLengthShort.Builder<Attribute<?>> {
     private final List<Attribute<?>> list = new java.util.ArrayList<Attribute<?>>();
     private final List<AttributeValueAssertion> recycle = new java.util.ArrayList<AttributeValueAssertion>();
-    private final Map<OIDType, Attribute<?>> map = new java.util.HashMap<OIDType, Attribute<?>>();
 
     @Override
     public Attribute<?> build() {
@@ -44,18 +42,30 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
         if (recycle.isEmpty()) {
             return new AttributeValueAssertion();
         } else {
-            return recycle.remove(0);
+            return recycle.remove(recycle.size() - 1);
         }
     }
 
     public void reset() {
-        for (Formatable f : list) {
-            if (f instanceof AttributeValueAssertion) {
-                recycle.add((AttributeValueAssertion) f);
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Attribute<?> a = list.get(i);
+            if (a instanceof AttributeValueAssertion) {
+                recycle.add((AttributeValueAssertion) a);
             }
         }
         list.clear();
-        map.clear();
+    }
+
+    // Attribute lists hold a handful of entries; a scan is cheaper than
+    // keeping a hashed index current and allocates nothing
+    private int indexOf(OIDType type) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Attribute<?> a = list.get(i);
+            if (null != a && type.equals(a.getOid())) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     @Override
@@ -73,17 +83,19 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
     }
 
     private void parse(ByteBuffer bb, boolean clear) {
-        Util.PrefixLengthShort.read(bb, list, clear, this);
-
-        for (Attribute<?> a : list) {
-            map.put(a.getOid(), a);
+        if (clear) {
+            reset();
         }
-
+        Util.PrefixLengthShort.read(bb, list, false, this);
     }
 
     public void put(OIDType type, Attribute<?> a) {
-        list.add(a);
-        map.put(type, a);
+        int idx = indexOf(type);
+        if (idx < 0) {
+            list.add(a);
+        } else {
+            recycle(list.set(idx, a));
+        }
 
         // TODO this is ugly
         // ByteBuffer bb = ByteBuffer.allocate(5000);
@@ -96,18 +108,21 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
     }
 
     public boolean remove(OIDType type) {
-        Attribute<?> a = map.remove(type);
-        if (null != a) {
-            list.remove(a);
-            if (a instanceof AttributeValueAssertion) {
-                recycle.add((AttributeValueAssertion) a);
-            }
+        int idx = indexOf(type);
+        if (idx >= 0) {
+            recycle(list.remove(idx));
             return true;
         } else {
             return false;
         }
     }
 
+    private void recycle(Attribute<?> a) {
+        if (a instanceof AttributeValueAssertion) {
+            recycle.add((AttributeValueAssertion) a);
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(AttributeValueList.class);
 
     public <T extends Value> Attribute<T> getAttribute(AttributeId attrId, Class<T> valueClass) {
@@ -135,7 +150,8 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
     }
 
     public Attribute<?> get(OIDType type) {
-        return map.get(type);
+        int idx = indexOf(type);
+        return idx < 0 ? null : list.get(idx);
     }
 
     public boolean get(Attribute<?> p) {
@@ -143,28 +159,23 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
     }
 
     public boolean get(OIDType type, Attribute<?> p) {
-        Attribute<?> a = map.get(type);
+        int idx = indexOf(type);
+        Attribute<?> a = idx < 0 ? null : list.get(idx);
         if (a == null) {
             return false;
         } else if (a instanceof AttributeValueAssertion) {
             if (p == null) {
                 return false;
             } else {
-                int idx = list.indexOf(a);
-                ByteBuffer bb = ByteBuffer.wrap(((AttributeValueAssertion) a).getValue().getArray());
-                bb.order(ByteOrder.BIG_ENDIAN);
-                p.parse(bb);
+                p.parse(((AttributeValueAssertion) a).getValue().asByteBuffer());
                 list.set(idx, p);
-                map.put(type, p);
                 recycle.add((AttributeValueAssertion) a);
                 return true;
             }
         } else if (a.getValue() instanceof ByteArray) {
-            int idx = list.indexOf(a);
             ByteArray ba = (ByteArray) a.getValue();
-            p.parse(ByteBuffer.wrap(ba.getArray()).order(ByteOrder.BIG_ENDIAN));
+            p.parse(ba.asByteBuffer());
             list.set(idx, p);
-            map.put(type, p);
             return true;
         } else {
             return false;
@@ -179,8 +190,7 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
     }
 
     public void add(AttributeValueAssertion ava) {
-        list.add(ava);
-        map.put(ava.getOid(), ava);
+        put(ava.getOid(), ava);
     }
 
     public void add(Attribute<?> attr) {
@@ -191,7 +201,14 @@ public class AttributeValueList implements Parseable, Formatable, Util.PrefixLen
         return list;
     }
 
+    /**
+     * @return a snapshot of the attributes keyed by OID
+     */
     public Map<OIDType, Attribute<?>> getMap() {
+        Map<OIDType, Attribute<?>> map = new java.util.LinkedHashMap<OIDType, Attribute<?>>();
+        for (Attribute<?> a : list) {
+            map.put(a.getOid(), a);
+        }
         return map;
     }
 
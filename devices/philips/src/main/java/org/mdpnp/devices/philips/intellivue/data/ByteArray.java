@@ -13,6 +13,7 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * @author Jeff Plourde
@@ -21,31 +22,69 @@ import java.nio.ByteBuffer;
 public class ByteArray implements Value {
 
     private byte[] array;
+    private int length;
+    private ByteBuffer buffer;
 
     public ByteArray() {
         this.array = null;
     }
 
     public ByteArray(byte[] array) {
-        this.array = array;
+        setArray(array);
     }
 
+    /**
+     * The backing array; when the length has been set with
+     * {@link #setLength(int)} it may be longer than {@link #getLength()}.
+     */
     public byte[] getArray() {
         return array;
     }
 
     public void setArray(byte[] array) {
         this.array = array;
+        this.length = null == array ? 0 : array.length;
+        this.buffer = null;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Sets the number of meaningful bytes, reallocating the backing array only
+     * when it is too small so that a recycled instance stops allocating once
+     * it has seen its largest value.
+     */
+    public void setLength(int length) {
+        if (null == array || array.length < length) {
+            array = new byte[length];
+            buffer = null;
+        }
+        this.length = length;
+    }
+
+    /**
+     * A big endian view over the meaningful bytes, positioned at zero. The
+     * same view is returned until the backing array changes.
+     */
+    public ByteBuffer asByteBuffer() {
+        if (null == buffer) {
+            buffer = ByteBuffer.wrap(array).order(ByteOrder.BIG_ENDIAN);
+        }
+        buffer.clear();
+        buffer.limit(length);
+        return buffer;
     }
 
     @Override
     public void format(ByteBuffer bb) {
-        bb.put(array);
+        bb.put(array, 0, length);
     }
 
     @Override
     public void parse(ByteBuffer bb) {
-        bb.get(array);
+        bb.get(array, 0, length);
     }
 
 }
@@ -25,6 +25,14 @@ import org.mdpnp.devices.philips.intellivue.util.Util;
 public class CompoundNumericObservedValue implements Value {
 
     private final List<NumericObservedValue> list = new ArrayList<NumericObservedValue>();
+    private final List<NumericObservedValue> spare = new ArrayList<NumericObservedValue>();
+
+    private static final Util.PrefixLengthShort.Builder<NumericObservedValue> builder = new Util.PrefixLengthShort.Builder<NumericObservedValue>() {
+        @Override
+        public NumericObservedValue build() {
+            return new NumericObservedValue();
+        }
+    };
 
     @Override
     public void format(ByteBuffer bb) {
@@ -33,7 +41,7 @@ public class CompoundNumericObservedValue implements Value {
 
     @Override
     public void parse(ByteBuffer bb) {
-        Util.PrefixLengthShort.read(bb, list, true, NumericObservedValue.class);
+        Util.PrefixLengthShort.read(bb, list, spare, true, builder);
     }
 
     @Override
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.data;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.LongMap;
 
 /**
  * @author Jeff Plourde
@@ -2800,7 +2799,7 @@ public enum Label implements OrdinalEnum.LongType {
         this.x = x;
     }
 
-    private final static Map<Long, Label> map = OrdinalEnum.buildLong(Label.class);
+    private final static LongMap<Label> map = OrdinalEnum.buildLongMap(Label.class);
 
     public final long asLong() {
         return x;
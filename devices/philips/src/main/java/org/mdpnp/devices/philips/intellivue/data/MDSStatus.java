@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -41,7 +41,7 @@ public enum MDSStatus implements EnumMessage<MDSStatus>, OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, MDSStatus> map = OrdinalEnum.buildInt(MDSStatus.class);
+    private static final IntMap<MDSStatus> map = OrdinalEnum.buildIntMap(MDSStatus.class);
 
     public static MDSStatus valueOf(int x) {
         return map.get(x);
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.data;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -69,7 +68,7 @@ public enum MetricCategory implements OrdinalEnum.IntType {
 
     private final int x;
 
-    private static final Map<Integer, MetricCategory> map = OrdinalEnum.buildInt(MetricCategory.class);
+    private static final IntMap<MetricCategory> map = OrdinalEnum.buildIntMap(MetricCategory.class);
 
     private MetricCategory(int x) {
         this.x = x;
@@ -26,14 +26,40 @@ import org.mdpnp.devices.philips.intellivue.Formatable;
 public class OIDType implements Formatable {
     private final int type;
 
+    // OIDs on the wire are unsigned 16-bit; those are interned in pages of
+    // 256 so that parsing does not box the type into a map key
+    private static final OIDType[][] pages = new OIDType[256][];
     private static final Map<Integer, OIDType> values = new HashMap<Integer, OIDType>();
 
     public static OIDType lookup(int type) {
-        if (values.containsKey(type)) {
-            return values.get(type);
+        if (type >= 0 && type <= 0xFFFF) {
+            OIDType[] page = pages[type >>> 8];
+            OIDType t = null == page ? null : page[0xFF & type];
+            return null == t ? intern(type) : t;
         } else {
-            OIDType t = new OIDType(type);
-            values.put(type, t);
+            return intern(type);
+        }
+    }
+
+    private static synchronized OIDType intern(int type) {
+        if (type >= 0 && type <= 0xFFFF) {
+            OIDType[] page = pages[type >>> 8];
+            if (null == page) {
+                page = new OIDType[256];
+                pages[type >>> 8] = page;
+            }
+            OIDType t = page[0xFF & type];
+            if (null == t) {
+                t = new OIDType(type);
+                page[0xFF & type] = t;
+            }
+            return t;
+        } else {
+            OIDType t = values.get(type);
+            if (null == t) {
+                t = new OIDType(type);
+                values.put(type, t);
+            }
             return t;
         }
     }
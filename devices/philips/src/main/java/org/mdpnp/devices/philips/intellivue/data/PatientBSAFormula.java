@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -40,7 +40,7 @@ public enum PatientBSAFormula implements EnumMessage<PatientBSAFormula>, Ordinal
         this.x = x;
     }
 
-    private static final Map<Integer, PatientBSAFormula> map = OrdinalEnum.buildInt(PatientBSAFormula.class);
+    private static final IntMap<PatientBSAFormula> map = OrdinalEnum.buildIntMap(PatientBSAFormula.class);
 
     public static PatientBSAFormula valueOf(int x) {
         return map.get(x);
@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -41,7 +41,7 @@ public enum PatientDemographicState implements EnumMessage<PatientDemographicSta
         this.x = x;
     }
 
-    private static final Map<Integer, PatientDemographicState> map = OrdinalEnum.buildInt(PatientDemographicState.class);
+    private static final IntMap<PatientDemographicState> map = OrdinalEnum.buildIntMap(PatientDemographicState.class);
 
     public static PatientDemographicState valueOf(int x) {
         return map.get(x);
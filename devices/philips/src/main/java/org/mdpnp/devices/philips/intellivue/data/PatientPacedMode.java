@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -41,7 +41,7 @@ public enum PatientPacedMode implements EnumMessage<PatientPacedMode>, OrdinalEn
         this.x = x;
     }
 
-    private static final Map<Integer, PatientPacedMode> map = OrdinalEnum.buildInt(PatientPacedMode.class);
+    private static final IntMap<PatientPacedMode> map = OrdinalEnum.buildIntMap(PatientPacedMode.class);
 
     public static PatientPacedMode valueOf(int x) {
         return map.get(x);
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.data;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -29,7 +28,7 @@ public enum ProductionSpecificationType implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, ProductionSpecificationType> map = OrdinalEnum.buildInt(ProductionSpecificationType.class);
+    private static final IntMap<ProductionSpecificationType> map = OrdinalEnum.buildIntMap(ProductionSpecificationType.class);
 
     public static ProductionSpecificationType valueOf(int x) {
         return map.get(x);
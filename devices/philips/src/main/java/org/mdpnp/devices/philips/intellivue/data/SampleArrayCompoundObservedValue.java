@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.mdpnp.devices.io.util.Bits;
+import org.mdpnp.devices.philips.intellivue.util.Util;
 
 /**
  * @author Jeff Plourde
@@ -25,19 +26,19 @@ import org.mdpnp.devices.io.util.Bits;
 public class SampleArrayCompoundObservedValue implements Value {
 
     private final List<SampleArrayObservedValue> list = new ArrayList<SampleArrayObservedValue>();
+    private final List<SampleArrayObservedValue> spare = new ArrayList<SampleArrayObservedValue>();
 
-    @Override
-    public void parse(ByteBuffer bb) {
-        int count = Bits.getUnsignedShort(bb);
-        @SuppressWarnings("unused")
-        int length = Bits.getUnsignedShort(bb);
-        list.clear();
-        for (int i = 0; i < count; i++) {
-            SampleArrayObservedValue ov = new SampleArrayObservedValue();
-            ov.parse(bb);
-            list.add(ov);
+    private static final Util.PrefixLengthShort.Builder<SampleArrayObservedValue> builder = new Util.PrefixLengthShort.Builder<SampleArrayObservedValue>() {
+        @Override
+        public SampleArrayObservedValue build() {
+            return new SampleArrayObservedValue();
         }
+    };
 
+    @Override
+    public void parse(ByteBuffer bb) {
+        // Recycled values keep their sample buffers between polls
+        Util.PrefixLengthShort.read(bb, list, spare, true, builder);
     }
 
     @Override
@@ -13,10 +13,10 @@
 package org.mdpnp.devices.philips.intellivue.data;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -1313,7 +1313,7 @@ public enum UnitCode implements EnumMessage<UnitCode>, OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, UnitCode> map = OrdinalEnum.buildInt(UnitCode.class);
+    private static final IntMap<UnitCode> map = OrdinalEnum.buildIntMap(UnitCode.class);
 
     @Override
     public void format(ByteBuffer bb) {
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.dataexport;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -29,7 +28,7 @@ public enum CommandType implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, CommandType> map = OrdinalEnum.buildInt(CommandType.class);
+    private static final IntMap<CommandType> map = OrdinalEnum.buildIntMap(CommandType.class);
 
     public static final CommandType valueOf(int x) {
         return map.get(x);
@@ -22,6 +22,10 @@ public interface DataExportProtocol extends Protocol {
 
     void format(DataExportMessage message, ByteBuffer bb);
 
+    /**
+     * Result messages are decoded into instances owned by the protocol and
+     * reused by the next call; handlers must copy anything they retain.
+     */
     @Override
     DataExportMessage parse(ByteBuffer bb);
 
@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.dataexport;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -29,7 +28,7 @@ public enum ModifyOperator implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, ModifyOperator> map = OrdinalEnum.buildInt(ModifyOperator.class);
+    private static final IntMap<ModifyOperator> map = OrdinalEnum.buildIntMap(ModifyOperator.class);
 
     public static final ModifyOperator valueOf(int x) {
         return map.get(x);
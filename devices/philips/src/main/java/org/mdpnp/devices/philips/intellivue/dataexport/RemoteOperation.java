@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.dataexport;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -29,7 +28,7 @@ public enum RemoteOperation implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, RemoteOperation> map = OrdinalEnum.buildInt(RemoteOperation.class);
+    private static final IntMap<RemoteOperation> map = OrdinalEnum.buildIntMap(RemoteOperation.class);
 
     public static final RemoteOperation valueOf(int x) {
         return map.get(x);
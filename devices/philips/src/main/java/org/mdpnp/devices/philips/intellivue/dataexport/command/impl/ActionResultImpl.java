@@ -37,6 +37,10 @@ public class ActionResultImpl implements ActionResult {
     protected DataExportMessage message;
     protected DataExportAction action;
 
+    // The action built by the last parse, reused while the action type repeats
+    private OIDType parsedActionType;
+    private DataExportAction parsedAction;
+
     private static final Logger log = LoggerFactory.getLogger(ActionResultImpl.class);
 
     @Override
@@ -44,7 +48,11 @@ public class ActionResultImpl implements ActionResult {
         managedObject.parse(bb);
         actionType = OIDType.parse(bb);
         int length = Bits.getUnsignedShort(bb);
-        action = ActionFactory.buildAction(actionType, false);
+        if (null == parsedAction || !actionType.equals(parsedActionType)) {
+            parsedAction = ActionFactory.buildAction(actionType, false);
+            parsedActionType = actionType;
+        }
+        action = parsedAction;
         if (null == action) {
             log.warn("Unknown action type:" + actionType);
 
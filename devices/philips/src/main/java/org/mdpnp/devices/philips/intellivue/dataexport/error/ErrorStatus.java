@@ -12,9 +12,8 @@
  ******************************************************************************/
 package org.mdpnp.devices.philips.intellivue.dataexport.error;
 
-import java.util.Map;
-
 import org.mdpnp.devices.philips.intellivue.OrdinalEnum;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 
 /**
  * @author Jeff Plourde
@@ -29,7 +28,7 @@ public enum ErrorStatus implements OrdinalEnum.IntType {
         this.x = x;
     }
 
-    private static final Map<Integer, ErrorStatus> map = OrdinalEnum.buildInt(ErrorStatus.class);
+    private static final IntMap<ErrorStatus> map = OrdinalEnum.buildIntMap(ErrorStatus.class);
 
     public static final ErrorStatus valueOf(int x) {
         return map.get(x);
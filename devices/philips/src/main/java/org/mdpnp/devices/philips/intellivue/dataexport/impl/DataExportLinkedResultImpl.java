@@ -18,7 +18,6 @@ import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.dataexport.CommandType;
 import org.mdpnp.devices.philips.intellivue.dataexport.DataExportLinkedResult;
 import org.mdpnp.devices.philips.intellivue.dataexport.RemoteOperationLinkedState;
-import org.mdpnp.devices.philips.intellivue.dataexport.command.CommandFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -71,7 +70,7 @@ public class DataExportLinkedResultImpl extends DataExportResultImpl implements
         } else {
             switch (state) {
             case First:
-                command = CommandFactory.buildCommand(commandType, true);
+                command = buildCommand(commandType);
                 if (null == command) {
                     log.warn("Unable to build command for CommandType=" + commandType);
                     advanceOrEnd(bb, length);
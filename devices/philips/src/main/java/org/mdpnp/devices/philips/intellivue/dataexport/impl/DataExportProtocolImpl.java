@@ -13,12 +13,11 @@
 package org.mdpnp.devices.philips.intellivue.dataexport.impl;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.mdpnp.devices.io.util.Bits;
 import org.mdpnp.devices.philips.intellivue.Message;
-import org.mdpnp.devices.philips.intellivue.dataexport.DataExportLinkedResult;
 import org.mdpnp.devices.philips.intellivue.dataexport.DataExportMessage;
 import org.mdpnp.devices.philips.intellivue.dataexport.DataExportProtocol;
 import org.mdpnp.devices.philips.intellivue.dataexport.Header;
@@ -38,18 +37,39 @@ public class DataExportProtocolImpl implements DataExportProtocol {
         return header;
     }
 
-    private final Map<Integer, DataExportLinkedResult> linked = new HashMap<Integer, DataExportLinkedResult>();
+    // Results are decoded into reused instances; a message returned by parse
+    // is only valid until the next call to parse. Linked results still being
+    // assembled are few, so they are kept in a list keyed by a scan.
+    private final DataExportResultImpl result = new DataExportResultImpl();
+    private final List<DataExportLinkedResultImpl> linked = new ArrayList<DataExportLinkedResultImpl>();
+    private final List<DataExportLinkedResultImpl> spareLinked = new ArrayList<DataExportLinkedResultImpl>();
+    private DataExportLinkedResultImpl lastLinked;
+
+    private int indexOfLinked(int invokeId) {
+        for (int i = 0; i < linked.size(); i++) {
+            if (invokeId == linked.get(i).getInvoke()) {
+                return i;
+            }
+        }
+        return -1;
+    }
 
     @SuppressWarnings("unused")
     @Override
     public DataExportMessage parse(ByteBuffer bb) {
+        // The completed linked result handed out last time has been handled
+        if (null != lastLinked) {
+            spareLinked.add(lastLinked);
+            lastLinked = null;
+        }
+
         header.parse(bb);
         RemoteOperation remoteOperation = RemoteOperation.valueOf(Bits.getUnsignedShort(bb));
         int length = Bits.getUnsignedShort(bb);
 
         // Peek .. this is awful
         // int invokeId = 0xFFFF & bb.getShort(bb.position());
-        int invokeId;
+        int invokeId, idx;
 
         DataExportMessage message = null;
         switch (remoteOperation) {
@@ -63,25 +83,25 @@ public class DataExportProtocolImpl implements DataExportProtocol {
             return message;
         case Result:
             invokeId = DataExportResultImpl.peekInvokeId(bb);
-            if (linked.containsKey(invokeId)) {
-                DataExportLinkedResult r = linked.remove(invokeId);
-                r.parseMore(bb);
-                return r;
+            idx = indexOfLinked(invokeId);
+            if (idx >= 0) {
+                lastLinked = linked.remove(idx);
+                lastLinked.parseMore(bb);
+                return lastLinked;
             } else {
-                message = new DataExportResultImpl();
-                message.parse(bb);
-                return message;
+                result.parse(bb);
+                return result;
             }
         case LinkedResult:
             invokeId = DataExportLinkedResultImpl.peekInvokeId(bb);
-
-            if (linked.containsKey(invokeId)) {
-                linked.get(invokeId).parse(bb);
+            idx = indexOfLinked(invokeId);
+            if (idx >= 0) {
+                linked.get(idx).parse(bb);
                 return null;
             } else {
-                message = new DataExportLinkedResultImpl();
-                message.parse(bb);
-                linked.put(message.getInvoke(), (DataExportLinkedResult) message);
+                DataExportLinkedResultImpl r = spareLinked.isEmpty() ? new DataExportLinkedResultImpl() : spareLinked.remove(spareLinked.size() - 1);
+                r.parse(bb);
+                linked.add(r);
 
                 return null;
             }
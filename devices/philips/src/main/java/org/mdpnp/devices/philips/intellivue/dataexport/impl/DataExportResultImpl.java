@@ -32,6 +32,10 @@ public class DataExportResultImpl implements DataExportResult {
 
     protected DataExportCommand command;
 
+    // The command built by the last parse, reused while the command type repeats
+    private CommandType parsedCommandType;
+    private DataExportCommand parsedCommand;
+
     @Override
     public int getInvoke() {
         return invokeId;
@@ -57,11 +61,19 @@ public class DataExportResultImpl implements DataExportResult {
         invokeId = Bits.getUnsignedShort(bb);
         commandType = CommandType.valueOf(Bits.getUnsignedShort(bb));
         int length = Bits.getUnsignedShort(bb);
-        command = CommandFactory.buildCommand(commandType, true);
+        command = buildCommand(commandType);
         command.setMessage(this);
         command.parse(bb);
     }
 
+    protected DataExportCommand buildCommand(CommandType commandType) {
+        if (null == parsedCommand || commandType != parsedCommandType) {
+            parsedCommand = CommandFactory.buildCommand(commandType, true);
+            parsedCommandType = commandType;
+        }
+        return parsedCommand;
+    }
+
     @SuppressWarnings("unused")
     public void parseMore(ByteBuffer bb) {
         invokeId = Bits.getUnsignedShort(bb);
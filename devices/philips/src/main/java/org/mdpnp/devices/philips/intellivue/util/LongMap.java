@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.philips.intellivue.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from long keys to non-null values using open addressing with linear
+ * probing, so that neither get nor put boxes the key. The table is kept at
+ * most half full. Not thread safe.
+ *
+ * @see IntMap
+ */
+public class LongMap<T> {
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongMap() {
+        this(0);
+    }
+
+    public LongMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * expected) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int slot(long key, int mask) {
+        int h = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask);; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (null == v) {
+                return null;
+            } else if (key == keys[i]) {
+                return (T) v;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return null != get(key);
+    }
+
+    /**
+     * @return the previous value for key, if any
+     */
+    @SuppressWarnings("unchecked")
+    public T put(long key, T value) {
+        if (null == value) {
+            throw new IllegalArgumentException("null value for key " + key);
+        }
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask);; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (null == v) {
+                keys[i] = key;
+                values[i] = value;
+                if (2 * ++size > keys.length) {
+                    rehash(keys.length << 1);
+                }
+                return null;
+            } else if (key == keys[i]) {
+                values[i] = value;
+                return (T) v;
+            }
+        }
+    }
+
+    /**
+     * @return the removed value, if any
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask);; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (null == v) {
+                return null;
+            } else if (key == keys[i]) {
+                values[i] = null;
+                size--;
+                // Shift back any later entries of the run that could have
+                // lived in the slot just vacated
+                for (int j = (i + 1) & mask; null != values[j]; j = (j + 1) & mask) {
+                    int home = slot(keys[j], mask);
+                    if (((j - home) & mask) >= ((j - i) & mask)) {
+                        keys[i] = keys[j];
+                        values[i] = values[j];
+                        values[j] = null;
+                        i = j;
+                    }
+                }
+                return (T) v;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (null != oldValues[i]) {
+                put(oldKeys[i], (T) oldValues[i]);
+            }
+        }
+    }
+}
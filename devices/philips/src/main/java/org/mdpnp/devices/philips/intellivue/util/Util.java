@@ -17,6 +17,7 @@ import static org.mdpnp.devices.io.util.Bits.putUnsignedShort;
 
 import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.List;
 
 import org.mdpnp.devices.philips.intellivue.Formatable;
 import org.mdpnp.devices.philips.intellivue.Parseable;
@@ -87,6 +88,31 @@ public class Util {
             }
         }
 
+        /**
+         * Reads like {@link #read(ByteBuffer, Collection, boolean, Builder)}
+         * but recycles elements instead of building new ones. When clearing,
+         * the current elements are moved to spare such that the element
+         * previously at index i is the one parsed at index i again; the
+         * builder is only consulted when spare runs dry.
+         */
+        @SuppressWarnings("unused")
+        public static <T extends Parseable> void read(ByteBuffer bb, List<T> list, List<T> spare, boolean clear, Builder<T> b) {
+            if (clear) {
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    spare.add(list.get(i));
+                }
+                list.clear();
+            }
+
+            int count = getUnsignedShort(bb);
+            int length = getUnsignedShort(bb);
+            for (int i = 0; i < count; i++) {
+                T p = spare.isEmpty() ? b.build() : spare.remove(spare.size() - 1);
+                p.parse(bb);
+                list.add(p);
+            }
+        }
+
         public static void write(ByteBuffer bb, Collection<? extends Formatable> list) {
             if (list.isEmpty()) {
                 putUnsignedShort(bb, 0);
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.philips.intellivue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Test;
+import org.mdpnp.devices.philips.intellivue.action.ExtendedPollDataResult;
+import org.mdpnp.devices.philips.intellivue.action.ObservationPoll;
+import org.mdpnp.devices.philips.intellivue.action.SingleContextPoll;
+import org.mdpnp.devices.philips.intellivue.action.impl.ExtendedPollDataResultImpl;
+import org.mdpnp.devices.philips.intellivue.action.impl.ObservationPollImpl;
+import org.mdpnp.devices.philips.intellivue.action.impl.SingleContextPollImpl;
+import org.mdpnp.devices.philips.intellivue.attribute.Attribute;
+import org.mdpnp.devices.philips.intellivue.attribute.AttributeFactory;
+import org.mdpnp.devices.philips.intellivue.data.AttributeId;
+import org.mdpnp.devices.philips.intellivue.data.AttributeValueList;
+import org.mdpnp.devices.philips.intellivue.data.CompoundNumericObservedValue;
+import org.mdpnp.devices.philips.intellivue.data.NumericObservedValue;
+import org.mdpnp.devices.philips.intellivue.data.ObjectClass;
+import org.mdpnp.devices.philips.intellivue.data.ObservedValue;
+import org.mdpnp.devices.philips.intellivue.data.SampleArrayCompoundObservedValue;
+import org.mdpnp.devices.philips.intellivue.data.SampleArrayObservedValue;
+import org.mdpnp.devices.philips.intellivue.data.SampleArraySpecification;
+import org.mdpnp.devices.philips.intellivue.data.UnitCode;
+import org.mdpnp.devices.philips.intellivue.dataexport.CommandType;
+import org.mdpnp.devices.philips.intellivue.dataexport.DataExportMessage;
+import org.mdpnp.devices.philips.intellivue.dataexport.DataExportResult;
+import org.mdpnp.devices.philips.intellivue.dataexport.RemoteOperation;
+import org.mdpnp.devices.philips.intellivue.dataexport.RemoteOperationLinkedState;
+import org.mdpnp.devices.philips.intellivue.dataexport.command.ActionResult;
+import org.mdpnp.devices.philips.intellivue.dataexport.command.impl.ActionResultImpl;
+import org.mdpnp.devices.philips.intellivue.dataexport.impl.DataExportProtocolImpl;
+import org.mdpnp.devices.philips.intellivue.dataexport.impl.DataExportResultImpl;
+
+public class PollResultParseTest {
+    private static final int HANDLES = 8;
+    private static final int SAMPLES = 64;
+
+    // Formats an extended poll result like the one SimulatedPulseOximeterImpl sends
+    private static ByteBuffer pollResult(int invokeId) {
+        ExtendedPollDataResultImpl ePollResult = new ExtendedPollDataResultImpl();
+        ePollResult.setPolledAttributeGroup(AttributeId.NOM_ATTR_GRP_METRIC_VAL_OBS.asOid());
+        SingleContextPoll scp = new SingleContextPollImpl();
+        ePollResult.getPollInfoList().add(scp);
+
+        for (int h = 0; h < HANDLES; h++) {
+            ObservationPoll op = new ObservationPollImpl();
+            op.getHandle().setHandle(h + 1);
+
+            Attribute<SampleArraySpecification> spec = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_SA_SPECN, SampleArraySpecification.class);
+            spec.getValue().setArraySize(SAMPLES);
+            spec.getValue().setSampleSize((short) Short.SIZE);
+            spec.getValue().setSignificantBits((short) Short.SIZE);
+
+            Attribute<CompoundNumericObservedValue> cnov = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_NU_CMPD_VAL_OBS,
+                    CompoundNumericObservedValue.class);
+            NumericObservedValue pulse = new NumericObservedValue();
+            pulse.setPhysioId(ObservedValue.NOM_PLETH_PULS_RATE.asOID());
+            pulse.setUnitCode(UnitCode.NOM_DIM_BEAT_PER_MIN.asOID());
+            pulse.getValue().setFloat(60 + h);
+            cnov.getValue().getList().add(pulse);
+
+            Attribute<SampleArrayCompoundObservedValue> sacov = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_SA_CMPD_VAL_OBS,
+                    SampleArrayCompoundObservedValue.class);
+            SampleArrayObservedValue pleth = new SampleArrayObservedValue();
+            pleth.setPhysioId(ObservedValue.NOM_PLETH.asOID());
+            // waves of different lengths so that recycled buffers are resized
+            int length = (h + 1) * SAMPLES / HANDLES * Short.SIZE / Byte.SIZE;
+            short[] values = new short[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = (short) ((h + i) & 0xFF);
+            }
+            pleth.setValue(values);
+            pleth.setLength(length);
+            sacov.getValue().getList().add(pleth);
+
+            op.getAttributes().add(spec);
+            op.getAttributes().add(cnov);
+            op.getAttributes().add(sacov);
+            scp.getPollInfo().add(op);
+        }
+
+        ActionResult actionResult = new ActionResultImpl();
+        actionResult.setActionType(ObjectClass.NOM_ACT_POLL_MDIB_DATA_EXT.asOID());
+        actionResult.setAction(ePollResult);
+
+        DataExportResult der = new DataExportResultImpl();
+        der.setCommandType(CommandType.ConfirmedAction);
+        der.setCommand(actionResult);
+        der.setInvoke(invokeId);
+
+        ByteBuffer bb = ByteBuffer.allocate(65536).order(ByteOrder.BIG_ENDIAN);
+        new DataExportProtocolImpl().format(der, bb);
+        bb.flip();
+        return bb;
+    }
+
+    // The same result as the first of a linked sequence
+    private static ByteBuffer linkedResult(ByteBuffer result) {
+        ByteBuffer bb = ByteBuffer.allocate(result.remaining() + 2).order(ByteOrder.BIG_ENDIAN);
+        bb.putInt(result.getInt(0));
+        bb.putShort((short) RemoteOperation.LinkedResult.asInt());
+        bb.putShort((short) (result.getShort(6) + 2));
+        bb.put((byte) RemoteOperationLinkedState.First.asShort());
+        bb.put((byte) 1);
+        bb.put(result.array(), 8, result.remaining() - 8);
+        bb.flip();
+        return bb;
+    }
+
+    private final Attribute<CompoundNumericObservedValue> compoundObserved = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_NU_CMPD_VAL_OBS,
+            CompoundNumericObservedValue.class);
+    private final Attribute<SampleArrayCompoundObservedValue> cov = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_SA_CMPD_VAL_OBS,
+            SampleArrayCompoundObservedValue.class);
+    private final Attribute<SampleArraySpecification> spec = AttributeFactory.getAttribute(AttributeId.NOM_ATTR_SA_SPECN,
+            SampleArraySpecification.class);
+
+    // Reads the message the way AbstractDemoIntellivue does, returning a checksum
+    private long consume(DataExportMessage message) {
+        long sum = 0L;
+        ExtendedPollDataResult result = (ExtendedPollDataResult) ((ActionResult) ((DataExportResult) message).getCommand()).getAction();
+        for (int i = 0; i < result.getPollInfoList().size(); i++) {
+            SingleContextPoll sop = result.getPollInfoList().get(i);
+            for (int j = 0; j < sop.getPollInfo().size(); j++) {
+                ObservationPoll op = sop.getPollInfo().get(j);
+                AttributeValueList attrs = op.getAttributes();
+                Attribute<CompoundNumericObservedValue> numerics = attrs.getAttribute(compoundObserved);
+                Attribute<SampleArrayCompoundObservedValue> waves = attrs.getAttribute(cov);
+                Attribute<SampleArraySpecification> s = attrs.getAttribute(spec);
+                sum += op.getHandle().getHandle() + s.getValue().getArraySize();
+                for (int k = 0; k < numerics.getValue().getList().size(); k++) {
+                    sum += numerics.getValue().getList().get(k).getValue().floatValue();
+                }
+                for (int k = 0; k < waves.getValue().getList().size(); k++) {
+                    SampleArrayObservedValue v = waves.getValue().getList().get(k);
+                    for (int n = 0; n < v.getLength(); n++) {
+                        sum += v.getValue()[n];
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long expected(int polls) {
+        long sum = 0L;
+        for (int h = 0; h < HANDLES; h++) {
+            sum += h + 1 + SAMPLES + 60 + h;
+            int length = (h + 1) * SAMPLES / HANDLES * Short.SIZE / Byte.SIZE;
+            for (int i = 0; i < length; i++) {
+                sum += (h + i) & 0xFF;
+            }
+        }
+        return polls * sum;
+    }
+
+    @Test
+    public void testRecycledParse() {
+        DataExportProtocolImpl protocol = new DataExportProtocolImpl();
+        ByteBuffer result = pollResult(1);
+        ByteBuffer linked = linkedResult(result);
+
+        DataExportMessage first = protocol.parse(result.duplicate());
+        assertEquals(expected(1), consume(first));
+        ExtendedPollDataResult poll = (ExtendedPollDataResult) ((ActionResult) ((DataExportResult) first).getCommand()).getAction();
+        ObservationPoll op = poll.getPollInfoList().get(0).getPollInfo().get(0);
+
+        DataExportMessage second = protocol.parse(result.duplicate());
+        assertSame(first, second);
+        assertSame(op, poll.getPollInfoList().get(0).getPollInfo().get(0));
+        assertEquals(expected(1), consume(second));
+
+        // The linked sequence is only handed out once the final result arrives
+        assertEquals(null, protocol.parse(linked.duplicate()));
+        DataExportMessage assembled = protocol.parse(result.duplicate());
+        assertEquals(1, assembled.getInvoke());
+        assertEquals(expected(2), consume(assembled));
+
+        // and then recycled for the next one
+        assertEquals(null, protocol.parse(linked.duplicate()));
+        assertSame(assembled, protocol.parse(result.duplicate()));
+        assertEquals(expected(2), consume(assembled));
+
+        // An unrelated result in between is unaffected
+        assertEquals(expected(1), consume(protocol.parse(result.duplicate())));
+    }
+
+    @Test
+    public void testSteadyStateAllocation() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) threads;
+        long thread = Thread.currentThread().getId();
+
+        DataExportProtocolImpl protocol = new DataExportProtocolImpl();
+        ByteBuffer result = pollResult(1);
+        ByteBuffer linked = linkedResult(result);
+        ByteBuffer resultView = result.duplicate(), linkedView = linked.duplicate();
+
+        long sum = 0L;
+        for (int i = 0; i < 20000; i++) {
+            resultView.clear();
+            sum += consume(protocol.parse(resultView));
+            linkedView.clear();
+            protocol.parse(linkedView);
+            resultView.clear();
+            sum += consume(protocol.parse(resultView));
+        }
+        assertEquals(20000 * expected(3), sum);
+
+        int iterations = 1000;
+        long before = mx.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            resultView.clear();
+            sum += consume(protocol.parse(resultView));
+            linkedView.clear();
+            protocol.parse(linkedView);
+            resultView.clear();
+            sum += consume(protocol.parse(resultView));
+        }
+        long allocated = mx.getThreadAllocatedBytes(thread) - before;
+        assertEquals(20000 * expected(3) + iterations * expected(3), sum);
+        // Allow for the odd allocation by the VM itself, but not one per message
+        assertTrue("allocated " + allocated + " bytes for " + iterations + " iterations", allocated < iterations);
+    }
+}
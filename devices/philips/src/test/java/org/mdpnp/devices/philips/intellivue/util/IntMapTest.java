@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.philips.intellivue.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntMapTest {
+    // Distinct from every sign extended int key
+    private static long high(int key) {
+        return (long) key << 32 | 0x80000000L;
+    }
+
+    @Test
+    public void testAgainstHashMap() {
+        Random random = new Random(42L);
+        IntMap<String> intMap = new IntMap<String>();
+        LongMap<String> longMap = new LongMap<String>();
+        Map<Integer, String> expected = new HashMap<Integer, String>();
+
+        // A small key space so that puts, replacements and removals collide
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(512) * (random.nextBoolean() ? 1 : -65536);
+            long longKey = random.nextBoolean() ? key : high(key);
+            if (random.nextInt(3) == 0) {
+                String removed = expected.remove(key);
+                assertEquals(removed, intMap.remove(key));
+                longMap.remove(high(key));
+                longMap.remove((long) key);
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), intMap.put(key, value));
+                longMap.put((long) key, value);
+                longMap.put(high(key), value);
+            }
+            assertEquals(expected.size(), intMap.size());
+            assertEquals(2 * expected.size(), longMap.size());
+            assertEquals(expected.get(key), intMap.get(key));
+            assertEquals(expected.get(key), longMap.get(longKey));
+        }
+        for (Map.Entry<Integer, String> e : expected.entrySet()) {
+            assertEquals(e.getValue(), intMap.get(e.getKey()));
+            assertEquals(e.getValue(), longMap.get(high(e.getKey())));
+        }
+
+        intMap.clear();
+        assertEquals(0, intMap.size());
+        assertNull(intMap.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() {
+        new IntMap<String>().put(1, null);
+    }
+}
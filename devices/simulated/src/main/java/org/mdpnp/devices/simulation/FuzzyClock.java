@@ -0,0 +1,69 @@
+package org.mdpnp.devices.simulation;
+
+import org.mdpnp.devices.DeviceClock;
+
+/**
+ * Device clock of a simulated device that is not quite in step with the
+ * reference clock. Used by the simulators so that a device's timestamps can
+ * be made to behave like those of real hardware.
+ *
+ * The simulators read their policy from system properties named after the
+ * simulator, for example
+ * <pre>
+ * -DSimulatedPulseOximeter.TS_TYPE=drift -DSimulatedPulseOximeter.CLOCK_DRIFT_MS=40
+ * </pre>
+ */
+public class FuzzyClock extends DeviceClock.WallClock {
+
+    public enum TimestampType {
+        realtime,  // real clock
+        metronome, // normalized aka 0-15-30-45-0
+        drift      // real clock with possible drift
+    }
+
+    public FuzzyClock(long updatePeriod, long clockDriftMs, TimestampType timestampType) {
+        this.updatePeriod = updatePeriod;
+        this.clockDriftMs = clockDriftMs;
+        this.timestampType = timestampType;
+    }
+
+    final long updatePeriod;
+    final long clockDriftMs;
+    final TimestampType timestampType;
+
+    /**
+     *  @return time stamp for the current data sample. few possible choices depending on the timestamp policy:
+     *  if 'drift' - returns real clock with possible random drift.
+     *  if 'metronome' - normalized aka 0-15-30-45-0 based on the update period
+     *  if 'realtime' - always returns wll time, but if will (optionally if clockDrift is not 0) pause the thread for some random drift value.
+     *  Note that the pause holds up whatever else is scheduled on the same thread.
+     */
+
+    @Override
+    protected long getTimeInMillis() {
+        long now;
+        switch (timestampType) {
+            case drift:
+                long drift = clockDriftMs==0?0L:(long)((clockDriftMs - 2*clockDriftMs*Math.random()));
+                now = System.currentTimeMillis();
+                now = now + drift;
+                break;
+            case metronome:
+                now = System.currentTimeMillis();
+                now = now-now%updatePeriod;
+                break;
+            case realtime:
+            default:
+                long sleep = clockDriftMs==0?0L:(long)(clockDriftMs*Math.random());
+                if(sleep != 0)
+                    try {
+                        Thread.sleep(sleep);
+                    } catch (InterruptedException e) {
+                        // too bad, almost harmless.
+                    }
+                now = System.currentTimeMillis();
+                break;
+        }
+        return now;
+    }
+}
@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.math.DCT;
+import org.mdpnp.devices.simulation.FuzzyClock;
 import org.mdpnp.devices.simulation.NumberWithGradient;
 import org.mdpnp.devices.simulation.NumberWithJitter;
 import org.slf4j.Logger;
@@ -40,7 +41,7 @@ public class SimulatedCapnometer {
     }
 
     private final class DataPublisher implements Runnable {
-        private final Number[] values = new Number[SAMPLES_PER_UPDATE];
+        private final float[] values = new float[SAMPLES_PER_UPDATE];
 
         public DataPublisher() {
         }
@@ -49,7 +50,7 @@ public class SimulatedCapnometer {
         public void run() {
 
             for (int i = 0; i < values.length; i++) {
-                values[i] = SimulatedCapnometer.this.co2[postIncrCount()];
+                values[i] = (float) SimulatedCapnometer.this.co2[postIncrCount()];
             }
 
             DeviceClock.Reading  t = deviceClock.instant();
@@ -62,13 +63,15 @@ public class SimulatedCapnometer {
 
     };
 
-    protected void receiveCO2(DeviceClock.Reading time, Number[] co2, int respiratoryRate, int etCO2, int frequency) {
+    protected void receiveCO2(DeviceClock.Reading time, float[] co2, int respiratoryRate, int etCO2, int frequency) {
 
     }
 
     private final DeviceClock deviceClock;
 
-    protected static final long UPDATE_PERIOD = 1000L;
+    protected static final long UPDATE_PERIOD = Long.getLong("SimulatedCapnometer.UPDATE_PERIOD", 1000L);
+    private static final FuzzyClock.TimestampType TS_TYPE = FuzzyClock.TimestampType.valueOf(System.getProperty("SimulatedCapnometer.TS_TYPE", "metronome"));
+    private static final int CLOCK_DRIFT_MS = Integer.getInteger("SimulatedCapnometer.CLOCK_DRIFT_MS", 0);
     protected static final double MILLISECONDS_PER_SAMPLE = 50;
     protected static final int FREQUENCY = (int)(1000.0 / MILLISECONDS_PER_SAMPLE);
     protected static final int SAMPLES_PER_UPDATE = (int) Math.floor(UPDATE_PERIOD / MILLISECONDS_PER_SAMPLE);
@@ -118,7 +121,7 @@ public class SimulatedCapnometer {
 
     public SimulatedCapnometer(final DeviceClock referenceClock) {
         deviceClock = new DeviceClock() {
-            final DeviceClock dev=new DeviceClock.Metronome(UPDATE_PERIOD);
+            final DeviceClock dev=new FuzzyClock(UPDATE_PERIOD, CLOCK_DRIFT_MS, TS_TYPE);
             @Override
             public Reading instant() {
                 return new CombinedReading(referenceClock.instant(), dev.instant());
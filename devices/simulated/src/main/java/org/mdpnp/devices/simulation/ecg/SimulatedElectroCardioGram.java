@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.math.DCT;
+import org.mdpnp.devices.simulation.FuzzyClock;
 import org.mdpnp.devices.simulation.NumberWithGradient;
 import org.mdpnp.devices.simulation.NumberWithJitter;
 import org.slf4j.Logger;
@@ -52,9 +53,9 @@ public class SimulatedElectroCardioGram {
     }
 
     private final class DataPublisher implements Runnable {
-        private final Number[] iValues = new Number[samplesPerUpdate];
-        private final Number[] iiValues = new Number[samplesPerUpdate];
-        private final Number[] iiiValues = new Number[samplesPerUpdate];
+        private final float[] iValues = new float[samplesPerUpdate];
+        private final float[] iiValues = new float[samplesPerUpdate];
+        private final float[] iiiValues = new float[samplesPerUpdate];
 
         public DataPublisher() {
         }
@@ -63,13 +64,13 @@ public class SimulatedElectroCardioGram {
         public void run() {
 
             for (int i = 0; i < iValues.length; i++) {
-                iValues[i] = SimulatedElectroCardioGram.this.i[postIncrCounti()];
+                iValues[i] = (float) SimulatedElectroCardioGram.this.i[postIncrCounti()];
             }
             for (int i = 0; i < iiValues.length; i++) {
-                iiValues[i] = ii[postIncrCountii()];
+                iiValues[i] = (float) ii[postIncrCountii()];
             }
             for (int i = 0; i < iiiValues.length; i++) {
-                iiiValues[i] = iii[postIncrCountiii()];
+                iiiValues[i] = (float) iii[postIncrCountiii()];
             }
 
             DeviceClock.Reading  t = deviceClock.instant();
@@ -82,7 +83,7 @@ public class SimulatedElectroCardioGram {
 
     }
 
-    protected void receiveECG(DeviceClock.Reading sampleTime, Number[] i, Number[] ii, Number[] iii, int heartRate, int respiratoryRate, int frequency) {
+    protected void receiveECG(DeviceClock.Reading sampleTime, float[] i, float[] ii, float[] iii, int heartRate, int respiratoryRate, int frequency) {
 
     }
 
@@ -239,11 +240,11 @@ public class SimulatedElectroCardioGram {
 
     public SimulatedElectroCardioGram(final DeviceClock referenceClock,
                                       final long updatePeriod, final int msPerSample,
-                                      final TimestampType tsPolicy, final long clockDriftMs) {
+                                      final FuzzyClock.TimestampType tsPolicy, final long clockDriftMs) {
         this.updatePeriod = updatePeriod;
         this.msPerSample = msPerSample;
         this.deviceClock = new DeviceClock() {
-            final DeviceClock dev=new FuzzyClock(clockDriftMs, tsPolicy);
+            final DeviceClock dev=new FuzzyClock(updatePeriod, clockDriftMs, tsPolicy);
             @Override
             public Reading instant() {
                 return new CombinedReading(referenceClock.instant(), dev.instant());
@@ -263,61 +264,9 @@ public class SimulatedElectroCardioGram {
     final int samplesPerUpdate;
     final int frequency;
 
-    enum TimestampType {
-        realtime,  // real clock
-        metronome, // normalized aka 0-15-30-45-0
-        drift      // real clock with possible drift
-    }
-
     // defaults
     private static final long UPDATE_PERIOD     = Long.getLong("SimulatedElectroCardioGram.UPDATE_PERIOD", 1000L);
-    private static final int MS_PER_SAMPLE      = Integer.getInteger("SimulatedElectroCardioGram.UPDATE_PERIOD", 5);
-    private static final TimestampType TS_TYPE  = TimestampType.valueOf(System.getProperty("SimulatedElectroCardioGram.TS_TYPE", "metronome"));
+    private static final int MS_PER_SAMPLE      = Integer.getInteger("SimulatedElectroCardioGram.MS_PER_SAMPLE", 5);
+    private static final FuzzyClock.TimestampType TS_TYPE = FuzzyClock.TimestampType.valueOf(System.getProperty("SimulatedElectroCardioGram.TS_TYPE", "metronome"));
     private static final int CLOCK_DRIFT_MS     = Integer.getInteger("SimulatedElectroCardioGram.CLOCK_DRIFT_MS", 0);
-
-    class FuzzyClock extends DeviceClock.WallClock {
-
-        public FuzzyClock(long clockDriftMs, TimestampType timestampType) {
-            this.clockDriftMs = clockDriftMs;
-            this.timestampType = timestampType;
-        }
-
-        final long clockDriftMs;
-        final TimestampType timestampType;
-
-        /**
-         *  @return time stamp for the current data sample. few possible choices depending on the timestamp policy:
-         *  if 'drift' - returns real clock with possible random drift.
-         *  if 'metronome' - normalized aka 0-15-30-45-0 based on the update period
-         *  if 'realtime' - always returns wll time, but if will (optionally if clockDrift is not 0) pause the thread for some random drift value
-         */
-
-        @Override
-        protected long getTimeInMillis() {
-            long now;
-            switch (timestampType) {
-                case drift:
-                    long drift = clockDriftMs==0?0L:(long)((clockDriftMs - 2*clockDriftMs*Math.random()));
-                    now = System.currentTimeMillis();
-                    now = now + drift;
-                    break;
-                case metronome:
-                    now = System.currentTimeMillis();
-                    now = now-now%updatePeriod;
-                    break;
-                case realtime:
-                default:
-                    long sleep = clockDriftMs==0?0L:(long)(clockDriftMs*Math.random());
-                    if(sleep != 0)
-                        try {
-                            Thread.sleep(sleep);
-                        } catch (InterruptedException e) {
-                            // too bad, almost harmless.
-                        }
-                    now = System.currentTimeMillis();
-                    break;
-            }
-            return now;
-        }
-    }
 }
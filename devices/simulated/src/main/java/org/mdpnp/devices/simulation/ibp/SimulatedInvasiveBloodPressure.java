@@ -17,6 +17,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.DeviceClock;
+import org.mdpnp.devices.simulation.FuzzyClock;
 import org.mdpnp.devices.simulation.NumberWithGradient;
 import org.mdpnp.devices.simulation.NumberWithJitter;
 import org.slf4j.Logger;
@@ -37,7 +38,7 @@ public class SimulatedInvasiveBloodPressure {
     }
 
     private final class DataPublisher implements Runnable {
-        private final Number[] waveValues = new Number[SAMPLES_PER_UPDATE];
+        private final float[] waveValues = new float[SAMPLES_PER_UPDATE];
 
         public DataPublisher() {
         }
@@ -46,7 +47,7 @@ public class SimulatedInvasiveBloodPressure {
         public void run() {
             try {
                 for (int i = 0; i < waveValues.length; i++) {
-                    waveValues[i] = wave[postIncrCount()];
+                    waveValues[i] = (float) wave[postIncrCount()];
                 }
 
                 int val[] = nextDraw();
@@ -62,15 +63,17 @@ public class SimulatedInvasiveBloodPressure {
 
     };
 
-    protected void receivePressure(DeviceClock.Reading timestamp, int systolic, int diastolic, Number[] waveValues, int frequency) {
+    protected void receivePressure(DeviceClock.Reading timestamp, int systolic, int diastolic, float[] waveValues, int frequency) {
 
     }
 
     private final DeviceClock deviceClock;
 
-    protected static final long UPDATE_PERIOD = 1000L;
+    protected static final long UPDATE_PERIOD = Long.getLong("SimulatedInvasiveBloodPressure.UPDATE_PERIOD", 1000L);
+    private static final FuzzyClock.TimestampType TS_TYPE = FuzzyClock.TimestampType.valueOf(System.getProperty("SimulatedInvasiveBloodPressure.TS_TYPE", "metronome"));
+    private static final int CLOCK_DRIFT_MS = Integer.getInteger("SimulatedInvasiveBloodPressure.CLOCK_DRIFT_MS", 0);
     protected static final int FREQUENCY = 120;
-    protected static final int SAMPLES_PER_UPDATE = (int) Math.floor(1000L * FREQUENCY / UPDATE_PERIOD);
+    protected static final int SAMPLES_PER_UPDATE = (int) Math.floor(FREQUENCY * UPDATE_PERIOD / 1000L);
 
     private final double[] wave = new double[] { 594, 594, 592, 590, 587, 584, 581, 578, 574, 569, 563, 558, 552, 546, 540, 532, 524, 517, 511, 506,
             502, 499, 498, 500, 502, 504, 505, 507, 508, 507, 505, 502, 498, 492, 485, 478, 472, 466, 460, 456, 452, 449, 445, 441, 436, 433, 431,
@@ -98,7 +101,7 @@ public class SimulatedInvasiveBloodPressure {
 
     public SimulatedInvasiveBloodPressure(final DeviceClock referenceClock) {
         deviceClock = new DeviceClock() {
-            final DeviceClock dev = new DeviceClock.Metronome(UPDATE_PERIOD);
+            final DeviceClock dev = new FuzzyClock(UPDATE_PERIOD, CLOCK_DRIFT_MS, TS_TYPE);
 
             @Override
             public Reading instant() {
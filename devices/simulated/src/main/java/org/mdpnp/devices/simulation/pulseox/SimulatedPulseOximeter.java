@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.math.DCT;
+import org.mdpnp.devices.simulation.FuzzyClock;
 import org.mdpnp.devices.simulation.NumberWithGradient;
 import org.mdpnp.devices.simulation.NumberWithJitter;
 import org.slf4j.Logger;
@@ -38,7 +39,7 @@ public class SimulatedPulseOximeter {
     }
 
     private final class DataPublisher implements Runnable {
-        private final Number[] plethValues = new Number[SAMPLES_PER_UPDATE];
+        private final float[] plethValues = new float[SAMPLES_PER_UPDATE];
 
         public DataPublisher(){}
         
@@ -47,7 +48,7 @@ public class SimulatedPulseOximeter {
         public void run() {
             try {
                 for (int i = 0; i < plethValues.length; i++) {
-                    plethValues[i] = pleth[postIncrCount()];
+                    plethValues[i] = (float) pleth[postIncrCount()];
                 }
 
                 int val[] = nextDraw();
@@ -63,13 +64,15 @@ public class SimulatedPulseOximeter {
 
     };
 
-    protected void receivePulseOx(DeviceClock.Reading timestamp, int heartRate, int SpO2, Number[] plethValues, int frequency) {
+    protected void receivePulseOx(DeviceClock.Reading timestamp, int heartRate, int SpO2, float[] plethValues, int frequency) {
 
     }
 
     private final DeviceClock deviceClock;
 
-    protected static final long UPDATE_PERIOD = 1000L;
+    protected static final long UPDATE_PERIOD = Long.getLong("SimulatedPulseOximeter.UPDATE_PERIOD", 1000L);
+    private static final FuzzyClock.TimestampType TS_TYPE = FuzzyClock.TimestampType.valueOf(System.getProperty("SimulatedPulseOximeter.TS_TYPE", "metronome"));
+    private static final int CLOCK_DRIFT_MS = Integer.getInteger("SimulatedPulseOximeter.CLOCK_DRIFT_MS", 0);
     protected static final double MILLISECONDS_PER_SAMPLE = 10L;
     protected static final int FREQUENCY = (int)(1000.0 / MILLISECONDS_PER_SAMPLE);
     protected static final int SAMPLES_PER_UPDATE = (int) Math.floor(UPDATE_PERIOD / MILLISECONDS_PER_SAMPLE);
@@ -111,7 +114,7 @@ public class SimulatedPulseOximeter {
 
     public SimulatedPulseOximeter(final DeviceClock referenceClock) {
         deviceClock = new DeviceClock() {
-            final DeviceClock dev=new DeviceClock.Metronome(UPDATE_PERIOD);
+            final DeviceClock dev=new FuzzyClock(UPDATE_PERIOD, CLOCK_DRIFT_MS, TS_TYPE);
             @Override
             public Reading instant() {
                 return new CombinedReading(referenceClock.instant(), dev.instant());
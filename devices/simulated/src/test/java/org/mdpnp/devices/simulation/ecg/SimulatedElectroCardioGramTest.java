@@ -2,6 +2,7 @@ package org.mdpnp.devices.simulation.ecg;
 
 import org.junit.Test;
 import org.mdpnp.devices.DeviceClock;
+import org.mdpnp.devices.simulation.FuzzyClock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,10 +36,10 @@ public class SimulatedElectroCardioGramTest {
 
         final CountDownLatch stopOk = new CountDownLatch(10);
 
-        SimulatedElectroCardioGram srv = new SimulatedElectroCardioGram(referenceClock, 1000L, msPerSample, SimulatedElectroCardioGram.TimestampType.metronome, 0) {
+        SimulatedElectroCardioGram srv = new SimulatedElectroCardioGram(referenceClock, 1000L, msPerSample, FuzzyClock.TimestampType.metronome, 0) {
 
             @Override
-            protected void receiveECG(DeviceClock.Reading sampleTime, Number[] i, Number[] ii, Number[] iii, int heartRate, int respiratoryRate, int frequency) {
+            protected void receiveECG(DeviceClock.Reading sampleTime, float[] i, float[] ii, float[] iii, int heartRate, int respiratoryRate, int frequency) {
 
                 Date dt = new Date(sampleTime.getTime().toEpochMilli());
                 log.info(dateFormat.format(dt) + " data size=" + i.length + " heartRate=" + heartRate + " respiratoryRate=" + respiratoryRate + " frequency=" + frequency);
@@ -59,10 +60,10 @@ public class SimulatedElectroCardioGramTest {
 
         final CountDownLatch stopOk = new CountDownLatch(10);
 
-        SimulatedElectroCardioGram srv = new SimulatedElectroCardioGram(referenceClock, 1000L, 5, SimulatedElectroCardioGram.TimestampType.realtime, 10) {
+        SimulatedElectroCardioGram srv = new SimulatedElectroCardioGram(referenceClock, 1000L, 5, FuzzyClock.TimestampType.realtime, 10) {
 
             @Override
-            protected void receiveECG(DeviceClock.Reading sampleTime, Number[] i, Number[] ii, Number[] iii, int heartRate, int respiratoryRate, int frequency) {
+            protected void receiveECG(DeviceClock.Reading sampleTime, float[] i, float[] ii, float[] iii, int heartRate, int respiratoryRate, int frequency) {
 
                 Date dt = new Date(sampleTime.getTime().toEpochMilli());
                 log.info(dateFormat.format(dt) + " data size=" + i.length + " heartRate=" + heartRate + " respiratoryRate=" + respiratoryRate + " frequency=" + frequency);
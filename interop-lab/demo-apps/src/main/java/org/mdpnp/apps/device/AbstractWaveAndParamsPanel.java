@@ -14,9 +14,10 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.Priority;
 import javafx.scene.paint.Paint;
 
+import org.mdpnp.apps.fxbeans.AbstractFxList;
 import org.mdpnp.apps.fxbeans.NumericFx;
 import org.mdpnp.apps.fxbeans.SampleArrayFx;
-import org.mdpnp.guis.waveform.SampleArrayWaveformSource;
+import org.mdpnp.guis.waveform.BufferedSampleArrayWaveformSource;
 import org.mdpnp.guis.waveform.WaveformPanel;
 import org.mdpnp.guis.waveform.WaveformPanelFactory;
 import org.mdpnp.guis.waveform.javafx.JavaFXWaveformPane;
@@ -42,6 +43,8 @@ public abstract class AbstractWaveAndParamsPanel extends DevicePanel {
   
   
   private final Map<String, BorderPane> panelMap = new HashMap<String, BorderPane>();
+  // Feeds each waveform source the SampleArrays read by the list
+  private final Map<String, AbstractFxList.SampleListener<ice.SampleArray>> feedMap = new HashMap<String, AbstractFxList.SampleListener<ice.SampleArray>>();
   private final GridPane waves = new GridPane();
   
   private static final double LEFT_RIGHT_PANEL_WIDTH = 100.0;
@@ -83,6 +86,10 @@ public abstract class AbstractWaveAndParamsPanel extends DevicePanel {
       for (BorderPane wp : panelMap.values()) {
           ((WaveformPanel)wp.getCenter()).stop();
       }
+      for (AbstractFxList.SampleListener<ice.SampleArray> feed : feedMap.values()) {
+          deviceMonitor.getSampleArrayList().removeSampleListener(feed);
+      }
+      feedMap.clear();
       deviceMonitor.getNumericModel().removeListener(numericListener);
       deviceMonitor.getSampleArrayModel().removeListener(sampleArrayListener);
       super.destroy();
@@ -121,7 +128,10 @@ public abstract class AbstractWaveAndParamsPanel extends DevicePanel {
       if(waveformMetrics.contains(data.getMetric_id())) {
           BorderPane bp = panelMap.get(data.getMetric_id());
           if (null == bp) {
-              SampleArrayWaveformSource saws = new SampleArrayWaveformSource(deviceMonitor.getSampleArrayList().getReader(), data.getHandle());
+              BufferedSampleArrayWaveformSource saws = new BufferedSampleArrayWaveformSource(deviceMonitor.getSampleArrayList().getReader(), data.getHandle());
+              AbstractFxList.SampleListener<ice.SampleArray> feed = saws::append;
+              deviceMonitor.getSampleArrayList().addSampleListener(feed);
+              feedMap.put(data.getMetric_id(), feed);
               WaveformPanel wuws = new WaveformPanelFactory().createWaveformPanel();
               wuws.setSource(saws);
               final int idx = panelMap.size();
@@ -155,6 +165,10 @@ public abstract class AbstractWaveAndParamsPanel extends DevicePanel {
   protected void remove(SampleArrayFx data) {
       time.textProperty().unbind();
       BorderPane bp = panelMap.remove(data.getMetric_id());
+      AbstractFxList.SampleListener<ice.SampleArray> feed = feedMap.remove(data.getMetric_id());
+      if(null != feed) {
+          deviceMonitor.getSampleArrayList().removeSampleListener(feed);
+      }
       if(null != bp) {
           WaveformPanel wuws = (WaveformPanel) bp.getCenter();
           wuws.stop();
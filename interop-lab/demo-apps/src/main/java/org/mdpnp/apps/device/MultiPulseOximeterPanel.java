@@ -17,8 +17,9 @@ import java.util.Set;
 import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 
+import org.mdpnp.apps.fxbeans.AbstractFxList;
 import org.mdpnp.apps.fxbeans.SampleArrayFx;
-import org.mdpnp.guis.waveform.SampleArrayWaveformSource;
+import org.mdpnp.guis.waveform.BufferedSampleArrayWaveformSource;
 import org.mdpnp.guis.waveform.WaveformPanel;
 import org.mdpnp.guis.waveform.WaveformPanelFactory;
 import org.mdpnp.guis.waveform.javafx.JavaFXWaveformPane;
@@ -31,7 +32,9 @@ import org.slf4j.LoggerFactory;
  */
 public class MultiPulseOximeterPanel extends DevicePanel {
     private WaveformPanel[] plethPanel;
-    private final SampleArrayWaveformSource[] plethWave;
+    private final BufferedSampleArrayWaveformSource[] plethWave;
+    @SuppressWarnings("unchecked")
+    private final AbstractFxList.SampleListener<ice.SampleArray>[] plethFeed = new AbstractFxList.SampleListener[N];
     private final GridPane gridPane = new GridPane();
 
     private static final int N = 12;
@@ -49,7 +52,7 @@ public class MultiPulseOximeterPanel extends DevicePanel {
     public MultiPulseOximeterPanel() {
         getStyleClass().add("multi-pulse-oximeter-panel");
         buildComponents();
-        plethWave = new SampleArrayWaveformSource[N];
+        plethWave = new BufferedSampleArrayWaveformSource[N];
         for (int i = 0; i < N; i++) {
             plethPanel[i].start();
         }
@@ -60,6 +63,7 @@ public class MultiPulseOximeterPanel extends DevicePanel {
         for (int i = 0; i < N; i++) {
             plethPanel[i].setSource(null);
             plethPanel[i].stop();
+            setFeed(i, null);
         }
         deviceMonitor.getSampleArrayModel().removeListener(sampleArrayListener);
         super.destroy();
@@ -81,7 +85,20 @@ public class MultiPulseOximeterPanel extends DevicePanel {
     
     protected void sampleArrayAdd(SampleArrayFx data) {
         if (data.getInstance_id() >= 0 && data.getInstance_id() < N) {
-            plethPanel[data.getInstance_id()].setSource(new SampleArrayWaveformSource(deviceMonitor.getSampleArrayList().getReader(), data.getHandle()));
+            BufferedSampleArrayWaveformSource source = new BufferedSampleArrayWaveformSource(deviceMonitor.getSampleArrayList().getReader(), data.getHandle());
+            setFeed(data.getInstance_id(), source::append);
+            plethPanel[data.getInstance_id()].setSource(source);
+        }
+    }
+
+    // Feeds the source at i the SampleArrays read by the list, replacing any previous feed
+    private void setFeed(int i, AbstractFxList.SampleListener<ice.SampleArray> feed) {
+        if (null != plethFeed[i]) {
+            deviceMonitor.getSampleArrayList().removeSampleListener(plethFeed[i]);
+        }
+        plethFeed[i] = feed;
+        if (null != feed) {
+            deviceMonitor.getSampleArrayList().addSampleListener(feed);
         }
     }
     
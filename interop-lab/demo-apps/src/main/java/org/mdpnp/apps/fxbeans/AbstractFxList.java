@@ -1,10 +1,10 @@
 package org.mdpnp.apps.fxbeans;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javafx.application.Platform;
 import javafx.collections.ModifiableObservableListBase;
@@ -12,6 +12,8 @@ import javafx.collections.ObservableList;
 
 import org.mdpnp.rtiapi.data.EventLoop;
 import org.mdpnp.rtiapi.data.LogEntityStatus;
+import org.mdpnp.rtiapi.data.ReaderOps;
+import org.mdpnp.rtiapi.data.ReflectiveReaderOps;
 import org.mdpnp.rtiapi.data.TopicUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,12 +39,22 @@ import com.rti.dds.topic.Topic;
 import com.rti.dds.topic.TypeSupport;
 import com.rti.dds.util.Sequence;
 
+/**
+ * An observable list of the instances of a topic, for display.  Samples read
+ * from DDS are queued and applied on the FX thread when the {@link FxUpdatePump}
+ * next flushes.  Unless history is kept, samples of an instance that arrive
+ * between flushes are coalesced so that its row moves straight to the latest;
+ * the intermediate samples never reach the row or its property listeners.
+ * Recorders register a {@link SampleListener} instead, which sees every sample.
+ */
 public class AbstractFxList<D extends Copyable, R extends DataReader, F extends Updatable<D>> extends ModifiableObservableListBase<F> implements
         ObservableList<F> {
     // TODO Jeff Plourde hasn't ever tried this pattern but it seems reasonable...
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final List<F> data = new ArrayList<>();
+    // Row for each instance handle, maintained along with data; only touched on the FX thread
+    private final Map<InstanceHandle_t, F> index = new HashMap<>();
 
     private final String topicName;
 
@@ -58,30 +70,31 @@ public class AbstractFxList<D extends Copyable, R extends DataReader, F extends
     protected final Sequence dataSequence;
     protected final SampleInfoSeq sampleInfoSequence = new SampleInfoSeq();
 
-    protected final Method getKeyValue, returnLoan, readWCondition, readInstance;
+    protected final ReaderOps<D, Sequence> readerOps;
 
     private final LogEntityStatus logEntityStatus;
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
     public AbstractFxList(final String topicName, final Class<D> dataClass, final Class<R> readerClass,
             final Class<? extends TypeSupport> typeSupportClass, final Class<? extends Sequence> sequenceClass, final Class<F> fxClass) {
+        this(topicName, dataClass, readerClass, typeSupportClass, sequenceClass, fxClass, new ReflectiveReaderOps(dataClass, readerClass, sequenceClass));
+    }
+
+    @SuppressWarnings("unchecked")
+    public AbstractFxList(final String topicName, final Class<D> dataClass, final Class<R> readerClass,
+            final Class<? extends TypeSupport> typeSupportClass, final Class<? extends Sequence> sequenceClass, final Class<F> fxClass,
+            final ReaderOps<D, ? extends Sequence> readerOps) {
         this.topicName = topicName;
         this.dataClass = dataClass;
         this.readerClass = readerClass;
         this.typeSupportClass = typeSupportClass;
         this.sequenceClass = sequenceClass;
         this.fxClass = fxClass;
-        
+        // dataSequence is the only sequence ever handed to readerOps
+        this.readerOps = (ReaderOps<D, Sequence>) readerOps;
+        this.dataSequence = this.readerOps.createSequence();
+
         this.logEntityStatus = new LogEntityStatus(log, topicName);
-        try {
-            this.dataSequence = sequenceClass.newInstance();
-            getKeyValue = readerClass.getMethod("get_key_value", dataClass, InstanceHandle_t.class);
-            returnLoan = readerClass.getMethod("return_loan", sequenceClass, SampleInfoSeq.class);
-            readWCondition = readerClass.getMethod("read_w_condition", sequenceClass, SampleInfoSeq.class, int.class, ReadCondition.class);
-            readInstance = readerClass.getMethod("read_instance", sequenceClass, SampleInfoSeq.class, int.class, InstanceHandle_t.class, int.class,
-                    int.class, int.class);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
     }
 
     private Subscriber subscriber;
@@ -93,76 +106,234 @@ public class AbstractFxList<D extends Copyable, R extends DataReader, F extends
     private Topic readerTopic;
     private ContentFilteredTopic filteredTopic;
 
-    private final EventLoop.ConditionHandler handler = new EventLoop.ConditionHandler() {
-        @SuppressWarnings("unchecked")
+    /**
+     * One pending change to the list; either the latest sample of an instance
+     * or (when not alive) the removal of that instance's row.  Also holds each
+     * sample awaiting delivery to the sample listeners.  Recycled once applied.
+     */
+    private static final class Update<D> {
+        private final InstanceHandle_t handle = new InstanceHandle_t();
+        private final SampleInfo sampleInfo = new SampleInfo();
+        private D data;
+        private boolean alive;
+    }
+
+    /**
+     * Receives every sample read from DDS, in the order read.  Unlike the rows
+     * of the list, which without history show only the latest sample of each
+     * instance as of each flush, nothing is coalesced or dropped.  Called on
+     * the FX thread when the list flushes; the arguments are reused afterwards
+     * so anything kept must be copied.
+     */
+    public interface SampleListener<D> {
+        void sampleReceived(D data, SampleInfo sampleInfo);
+    }
+
+    private final List<SampleListener<D>> sampleListeners = new CopyOnWriteArrayList<>();
+
+    // Bound on recycled updates kept around after a burst
+    private static final int MAX_SPARE_UPDATES = 1024;
+
+    // Guards pending, pendingByHandle, pendingSamples, spare and samplesReceived
+    private final Object pendingLock = new Object();
+    private List<Update<D>> pending = new ArrayList<>();
+    // Only touched on the FX thread, swapped with pending under pendingLock
+    private List<Update<D>> applying = new ArrayList<>();
+    // Without history only the latest state of each instance matters
+    private final Map<InstanceHandle_t, Update<D>> pendingByHandle = new HashMap<>();
+    // Every alive sample, kept only while there are sample listeners
+    private List<Update<D>> pendingSamples = new ArrayList<>();
+    // Only touched on the FX thread, swapped with pendingSamples under pendingLock
+    private List<Update<D>> delivering = new ArrayList<>();
+    private final List<Update<D>> spare = new ArrayList<>();
+
+    private long samplesReceived;
+    private volatile long samplesApplied;
+
+    private FxUpdatePump updatePump = FxUpdatePump.getDefault();
+
+    // Only touches pending state under pendingLock so it may run off the service thread
+    private final EventLoop.ConditionHandler handler = new EventLoop.DispatchableConditionHandler() {
         @Override
         public void conditionChanged(Condition condition) {
+            int received = 0;
             try {
-                readWCondition.invoke(reader, dataSequence, sampleInfoSequence, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, (ReadCondition) condition);
-
-                final int sz = sampleInfoSequence.size();
-
-                for (int i = 0; i < sz; i++) {
-                    SampleInfo sampleInfo = (SampleInfo) sampleInfoSequence.get(i);
-                    D d = (D) dataSequence.get(i);
-                    if (0 != (sampleInfo.instance_state & InstanceStateKind.NOT_ALIVE_INSTANCE_STATE)) {
-                        // Keeping a history of samples makes the death of an instance immaterial
-                        if(!keepHistory) {
-                            InstanceHandle_t removeHandle = new InstanceHandle_t(sampleInfo.instance_handle);
-                            Platform.runLater(() -> {
-                                Iterator<F> itr = iterator();
-                                while (itr.hasNext()) {
-                                    if (itr.next().getHandle().equals(removeHandle)) {
-                                        itr.remove();
-                                    }
-                                }
-                            });
-                        }
-                    } else {
-                        final InstanceHandle_t addUpdateHandle = new InstanceHandle_t(sampleInfo.instance_handle);
-                        final SampleInfo si = new SampleInfo();
-                        si.copy_from(sampleInfo);
-                        final D sample = dataClass.newInstance();
-                        sample.copy_from(d);
-
-                        Platform.runLater(() -> {
-                            // Keeping a history means never updating any existing row; only add new rows
-                            if(!keepHistory) {
-                                Iterator<F> itr = iterator();
-                                while (itr.hasNext()) {
-                                    Updatable<D> x = itr.next();
-                                    if (x.getHandle().equals(addUpdateHandle)) {
-                                        x.update(d, si);
-                                        return;
-                                    }
-                                }
-                            }
-                            try {
-                                F x = fxClass.newInstance();
-                                x.update(d, si);
-                                add(0, x);
-                            } catch (Exception e) {
-                                log.error("Unable to create a new instance of fx object", e);
-                            }
-                        });
-                    }
-                }
-            } catch (InvocationTargetException ite) {
-                if (!(ite.getCause() instanceof RETCODE_NO_DATA)) {
-                    log.error("reading", ite);
-                }
+                readerOps.readWCondition(reader, dataSequence, sampleInfoSequence, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, (ReadCondition) condition);
+                received = enqueue(dataSequence, sampleInfoSequence);
+            } catch (RETCODE_NO_DATA noData) {
+
             } catch (Exception e) {
                 log.error("reading for " + topicName, e);
             } finally {
                 try {
-                    returnLoan.invoke(reader, dataSequence, sampleInfoSequence);
+                    readerOps.returnLoan(reader, dataSequence, sampleInfoSequence);
                 } catch (Exception e) {
                     log.error("return_loan for " + topicName, e);
                 }
             }
+            if (received > 0) {
+                updatePump.markDirty(flusher);
+            }
+        }
+    };
+
+    /**
+     * Queues the samples just read for the next flush.
+     * @return the number of samples queued
+     */
+    int enqueue(Sequence dataSeq, SampleInfoSeq infoSeq) {
+        final boolean keepHistory = this.keepHistory;
+        final boolean recordSamples = !sampleListeners.isEmpty();
+        final int sz = infoSeq.size();
+        int received = 0;
+
+        synchronized (pendingLock) {
+            for (int i = 0; i < sz; i++) {
+                SampleInfo sampleInfo = (SampleInfo) infoSeq.get(i);
+                boolean alive = 0 == (sampleInfo.instance_state & InstanceStateKind.NOT_ALIVE_INSTANCE_STATE);
+                if (alive && recordSamples) {
+                    pendingSamples.add(obtainUpdate(sampleInfo, true, dataSeq.get(i)));
+                }
+                // Keeping a history of samples makes the death of an instance immaterial
+                if (!alive && keepHistory) {
+                    continue;
+                }
+                received++;
+                Update<D> update = keepHistory ? null : pendingByHandle.get(sampleInfo.instance_handle);
+                if (null == update) {
+                    update = obtainUpdate(sampleInfo, alive, dataSeq.get(i));
+                    pending.add(update);
+                    if (!keepHistory) {
+                        pendingByHandle.put(update.handle, update);
+                    }
+                } else {
+                    fillUpdate(update, sampleInfo, alive, dataSeq.get(i));
+                }
+            }
+            samplesReceived += received;
+        }
+        return received;
+    }
+
+    // Called holding pendingLock
+    private Update<D> obtainUpdate(SampleInfo sampleInfo, boolean alive, Object data) {
+        Update<D> update = spare.isEmpty() ? new Update<D>() : spare.remove(spare.size() - 1);
+        update.handle.copy_from(sampleInfo.instance_handle);
+        fillUpdate(update, sampleInfo, alive, data);
+        return update;
+    }
+
+    private void fillUpdate(Update<D> update, SampleInfo sampleInfo, boolean alive, Object data) {
+        update.alive = alive;
+        update.sampleInfo.copy_from(sampleInfo);
+        if (alive) {
+            if (null == update.data) {
+                update.data = readerOps.createData();
+            }
+            update.data.copy_from(data);
+        }
+    }
+
+    private final FxUpdatePump.Source flusher = new FxUpdatePump.Source() {
+        @Override
+        public void flush() {
+            final boolean keepHistory = AbstractFxList.this.keepHistory;
+            synchronized (pendingLock) {
+                List<Update<D>> swap = pending;
+                pending = applying;
+                applying = swap;
+                pendingByHandle.clear();
+
+                swap = pendingSamples;
+                pendingSamples = delivering;
+                delivering = swap;
+            }
+            try {
+                if (!applying.isEmpty()) {
+                    apply(applying, keepHistory);
+                    samplesApplied += applying.size();
+                }
+            } finally {
+                try {
+                    deliver(delivering);
+                } finally {
+                    recycle(applying);
+                    recycle(delivering);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "AbstractFxList flush for " + topicName;
         }
     };
 
+    private void deliver(List<Update<D>> samples) {
+        for (Update<D> sample : samples) {
+            for (SampleListener<D> l : sampleListeners) {
+                try {
+                    l.sampleReceived(sample.data, sample.sampleInfo);
+                } catch (Throwable t) {
+                    log.error("SampleListener for " + topicName, t);
+                }
+            }
+        }
+    }
+
+    private void recycle(List<Update<D>> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            for (int i = 0; i < updates.size() && spare.size() < MAX_SPARE_UPDATES; i++) {
+                spare.add(updates.get(i));
+            }
+        }
+        updates.clear();
+    }
+
+    private void apply(List<Update<D>> updates, boolean keepHistory) {
+        beginChange();
+        try {
+            for (Update<D> update : updates) {
+                if (!update.alive) {
+                    F x = index.get(update.handle);
+                    if (null != x) {
+                        removeRow(x);
+                    }
+                    continue;
+                }
+                // Keeping a history means never updating any existing row; only add new rows
+                if (!keepHistory) {
+                    F x = index.get(update.handle);
+                    if (null != x) {
+                        x.update(update.data, update.sampleInfo);
+                        continue;
+                    }
+                }
+                try {
+                    F x = fxClass.newInstance();
+                    x.update(update.data, update.sampleInfo);
+                    add(0, x);
+                } catch (Exception e) {
+                    log.error("Unable to create a new instance of fx object", e);
+                }
+            }
+        } finally {
+            endChange();
+        }
+    }
+
+    private void removeRow(F x) {
+        for (int i = 0; i < data.size(); i++) {
+            if (data.get(i) == x) {
+                remove(i);
+                return;
+            }
+        }
+    }
+
     protected boolean keepHistory = false;
     
     public void setKeepHistory(boolean keepHistory) {
@@ -172,6 +343,58 @@ public class AbstractFxList<D extends Copyable, R extends DataReader, F extends
     public boolean isKeepHistory() {
         return keepHistory;
     }
+
+    /**
+     * Changes received from DDS are applied to the list when this pump next
+     * flushes; defaults to the shared {@link FxUpdatePump#getDefault()}.
+     */
+    public void setUpdatePump(FxUpdatePump updatePump) {
+        this.updatePump.remove(flusher);
+        this.updatePump = updatePump;
+    }
+
+    public FxUpdatePump getUpdatePump() {
+        return updatePump;
+    }
+
+    /**
+     * Recorders that must see every sample register here rather than
+     * observing the rows of the list.  Samples are only retained while at
+     * least one listener is registered.
+     */
+    public void addSampleListener(SampleListener<D> listener) {
+        sampleListeners.add(listener);
+    }
+
+    public void removeSampleListener(SampleListener<D> listener) {
+        sampleListeners.remove(listener);
+    }
+
+    /**
+     * @return samples read from DDS (instance disposals included)
+     */
+    public long getSamplesReceived() {
+        synchronized (pendingLock) {
+            return samplesReceived;
+        }
+    }
+
+    /**
+     * @return changes applied to the list; less than received when samples of an
+     *         instance were coalesced, the difference never having reached the rows
+     */
+    public long getSamplesApplied() {
+        return samplesApplied;
+    }
+
+    /**
+     * @return changes waiting for the next flush
+     */
+    public int getQueueDepth() {
+        synchronized (pendingLock) {
+            return pending.size();
+        }
+    }
     
     @SuppressWarnings("unchecked")
     public void start(final Subscriber subscriber, final EventLoop eventLoop, final String expression, final StringSeq params,
@@ -240,6 +463,12 @@ public class AbstractFxList<D extends Copyable, R extends DataReader, F extends
             }
             subscriber = null;
         }
+        updatePump.remove(flusher);
+        synchronized (pendingLock) {
+            pending.clear();
+            pendingByHandle.clear();
+            pendingSamples.clear();
+        }
         Platform.runLater(() -> clear());
     }
 
@@ -256,18 +485,37 @@ public class AbstractFxList<D extends Copyable, R extends DataReader, F extends
     @Override
     protected void doAdd(int index, F element) {
         data.add(index, element);
+        indexRow(element);
     }
 
     @Override
     protected F doSet(int index, F element) {
         F f = data.set(index, element);
+        unindexRow(f);
+        indexRow(element);
         return f;
     }
 
     @Override
     protected F doRemove(int index) {
         F f = data.remove(index);
+        unindexRow(f);
         return f;
     }
 
+    private void indexRow(F f) {
+        InstanceHandle_t handle = f.getHandle();
+        if (null != handle && !handle.is_nil()) {
+            index.put(new InstanceHandle_t(handle), f);
+        }
+    }
+
+    private void unindexRow(F f) {
+        InstanceHandle_t handle = null == f ? null : f.getHandle();
+        // With history there may be several rows per handle; only the indexed one counts
+        if (null != handle && index.get(handle) == f) {
+            index.remove(handle);
+        }
+    }
+
 }
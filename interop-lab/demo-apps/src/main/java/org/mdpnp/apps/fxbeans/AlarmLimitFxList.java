@@ -1,11 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class AlarmLimitFxList extends AbstractFxList<ice.AlarmLimit, ice.AlarmLimitDataReader, AlarmLimitFx> {
 
     public AlarmLimitFxList(String topicName) {
         super(topicName, ice.AlarmLimit.class, ice.AlarmLimitDataReader.class, ice.AlarmLimitTypeSupport.class, 
-                ice.AlarmLimitSeq.class, AlarmLimitFx.class);
+                ice.AlarmLimitSeq.class, AlarmLimitFx.class, IceReaderOps.ALARM_LIMIT);
     }
 }
@@ -1,11 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class AlertFxList extends AbstractFxList<ice.Alert, ice.AlertDataReader, AlertFx> {
 
     public AlertFxList(String topicName) {
         super(topicName, ice.Alert.class, ice.AlertDataReader.class, ice.AlertTypeSupport.class, 
-                ice.AlertSeq.class, AlertFx.class);
+                ice.AlertSeq.class, AlertFx.class, IceReaderOps.ALERT);
     }
 }
@@ -0,0 +1,185 @@
+package org.mdpnp.apps.fxbeans;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.application.Platform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rate limits the work that the fx lists put on the FX application thread.
+ * Sources accumulate their pending changes off the FX thread and mark
+ * themselves dirty here.  At most once per period, and only when the
+ * previous flush has completed, a single runnable is posted to the FX thread
+ * which flushes every dirty source.  FX thread load is therefore bounded by
+ * the frame rate rather than by the number of devices or samples.
+ * <p>
+ * The pump itself drops nothing; a source stays dirty until it is flushed.
+ * What a source keeps between flushes is up to it, and {@link AbstractFxList}
+ * keeps only the latest sample of each instance for its rows.  Anything that
+ * must see every sample, such as a recorder, should use
+ * {@link AbstractFxList.SampleListener} rather than observe the rows.
+ *
+ * @see AbstractFxList
+ */
+public class FxUpdatePump {
+
+    /**
+     * Something with pending changes to apply on the FX thread.
+     */
+    public interface Source {
+        void flush();
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(FxUpdatePump.class);
+
+    /**
+     * About 30Hz
+     */
+    public static final long DEFAULT_PERIOD_MS = 33L;
+
+    private static FxUpdatePump defaultPump;
+
+    /**
+     * @return the pump shared by all fx lists that are not given one of their own
+     */
+    public static synchronized FxUpdatePump getDefault() {
+        if (null == defaultPump) {
+            defaultPump = new FxUpdatePump(DEFAULT_PERIOD_MS);
+        }
+        return defaultPump;
+    }
+
+    private final Set<Source> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final AtomicLong pulses = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final long periodMs;
+    private final Executor fxExecutor;
+    private final ScheduledExecutorService executor;
+
+    public FxUpdatePump(long periodMs) {
+        this(periodMs, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                Platform.runLater(command);
+            }
+        });
+    }
+
+    /**
+     * @param fxExecutor runs the flush; normally Platform.runLater
+     */
+    public FxUpdatePump(long periodMs, Executor fxExecutor) {
+        if (periodMs <= 0L) {
+            throw new IllegalArgumentException("period must be positive " + periodMs);
+        }
+        this.periodMs = periodMs;
+        this.fxExecutor = fxExecutor;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "FxUpdatePump");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        executor.scheduleAtFixedRate(pulse, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Called from any thread; the source will be flushed on the next pulse.
+     */
+    public void markDirty(Source source) {
+        dirty.add(source);
+    }
+
+    public void remove(Source source) {
+        dirty.remove(source);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public long getPeriodMs() {
+        return periodMs;
+    }
+
+    /**
+     * @return sources currently waiting to be flushed
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    /**
+     * @return pulses that found pending work
+     */
+    public long getPulseCount() {
+        return pulses.get();
+    }
+
+    /**
+     * @return flushes that have run on the FX thread
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    private final Runnable pulse = new Runnable() {
+        @Override
+        public void run() {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            pulses.incrementAndGet();
+            // Never queue a second flush behind one the FX thread has not yet run
+            if (flushPending.compareAndSet(false, true)) {
+                try {
+                    fxExecutor.execute(flush);
+                } catch (RuntimeException e) {
+                    flushPending.set(false);
+                    log.error("Unable to schedule flush", e);
+                }
+            }
+        }
+    };
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            try {
+                Iterator<Source> itr = dirty.iterator();
+                while (itr.hasNext()) {
+                    Source source = itr.next();
+                    // Removed before flushing so that anything arriving meanwhile marks it again
+                    itr.remove();
+                    try {
+                        source.flush();
+                    } catch (Throwable t) {
+                        log.error("flushing " + source, t);
+                    }
+                }
+                flushes.incrementAndGet();
+            } finally {
+                flushPending.set(false);
+            }
+        }
+    };
+
+    @Override
+    public String toString() {
+        return "[periodMs=" + periodMs + ",dirty=" + getDirtyCount() + ",pulses=" + getPulseCount() + ",flushes=" + getFlushCount() + "]";
+    }
+}
@@ -1,11 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class GlobalAlarmLimitObjectiveFxList extends AbstractFxList<ice.GlobalAlarmLimitObjective, ice.GlobalAlarmLimitObjectiveDataReader, GlobalAlarmLimitObjectiveFx> {
 
     public GlobalAlarmLimitObjectiveFxList(String topicName) {
         super(topicName, ice.GlobalAlarmLimitObjective.class, ice.GlobalAlarmLimitObjectiveDataReader.class, ice.GlobalAlarmLimitObjectiveTypeSupport.class, 
-                ice.GlobalAlarmLimitObjectiveSeq.class, GlobalAlarmLimitObjectiveFx.class);
+                ice.GlobalAlarmLimitObjectiveSeq.class, GlobalAlarmLimitObjectiveFx.class, IceReaderOps.GLOBAL_ALARM_LIMIT_OBJECTIVE);
     }
 }
@@ -1,11 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class InfusionStatusFxList extends AbstractFxList<ice.InfusionStatus, ice.InfusionStatusDataReader, InfusionStatusFx>{
 
     public InfusionStatusFxList(String topicName) {
         super(topicName, ice.InfusionStatus.class, ice.InfusionStatusDataReader.class, 
-                ice.InfusionStatusTypeSupport.class, ice.InfusionStatusSeq.class, InfusionStatusFx.class);
+                ice.InfusionStatusTypeSupport.class, ice.InfusionStatusSeq.class, InfusionStatusFx.class, IceReaderOps.INFUSION_STATUS);
     }
 }
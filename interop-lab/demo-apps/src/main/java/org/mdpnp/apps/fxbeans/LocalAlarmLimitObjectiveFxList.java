@@ -1,11 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class LocalAlarmLimitObjectiveFxList extends AbstractFxList<ice.LocalAlarmLimitObjective, ice.LocalAlarmLimitObjectiveDataReader, LocalAlarmLimitObjectiveFx> {
 
     public LocalAlarmLimitObjectiveFxList(String topicName) {
         super(topicName, ice.LocalAlarmLimitObjective.class, ice.LocalAlarmLimitObjectiveDataReader.class, ice.LocalAlarmLimitObjectiveTypeSupport.class, 
-                ice.LocalAlarmLimitObjectiveSeq.class, LocalAlarmLimitObjectiveFx.class);
+                ice.LocalAlarmLimitObjectiveSeq.class, LocalAlarmLimitObjectiveFx.class, IceReaderOps.LOCAL_ALARM_LIMIT_OBJECTIVE);
     }
 }
@@ -1,10 +1,11 @@
 package org.mdpnp.apps.fxbeans;
 
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class NumericFxList extends AbstractFxList<ice.Numeric, ice.NumericDataReader, NumericFx> {
 
     public NumericFxList(final String topicName) {
-        super(topicName, ice.Numeric.class, ice.NumericDataReader.class, ice.NumericTypeSupport.class, ice.NumericSeq.class, NumericFx.class);
+        super(topicName, ice.Numeric.class, ice.NumericDataReader.class, ice.NumericTypeSupport.class, ice.NumericSeq.class, NumericFx.class, IceReaderOps.NUMERIC);
     }
 
 }
@@ -1,12 +1,12 @@
 package org.mdpnp.apps.fxbeans;
 
-
+import org.mdpnp.rtiapi.data.IceReaderOps;
 
 public class SampleArrayFxList extends AbstractFxList<ice.SampleArray, ice.SampleArrayDataReader, SampleArrayFx> {
 
     public SampleArrayFxList(final String topicName) {
         super(topicName, ice.SampleArray.class, ice.SampleArrayDataReader.class, 
-              ice.SampleArrayTypeSupport.class, ice.SampleArraySeq.class, SampleArrayFx.class);
+              ice.SampleArrayTypeSupport.class, ice.SampleArraySeq.class, SampleArrayFx.class, IceReaderOps.SAMPLE_ARRAY);
     }
 
 }
@@ -65,7 +65,9 @@ public class Configuration {
 
     enum Application {
         ICE_Supervisor(IceAppsContainer.class),
-        ICE_Device_Interface(DeviceAdapterCommand.class);
+        ICE_Device_Interface(DeviceAdapterCommand.class),
+        ICE_Device_Host(DeviceHostCommand.class),
+        ICE_Load_Generator(LoadGeneratorCommand.class);
 
         Application(Class<?> c) {
             clazz = c;
@@ -75,6 +77,10 @@ public class Configuration {
         public Class<?> getAppClass() {
             return clazz;
         }
+
+        public boolean isHeadlessOnly() {
+            return !IceApplication.class.isAssignableFrom(clazz) && !GUICommand.class.isAssignableFrom(clazz);
+        }
     }
     
     interface HeadlessCommand {
@@ -280,6 +286,8 @@ public class Configuration {
 
         StringBuilder ps = new StringBuilder();
         ps.append("DeviceTypes marked with * are serial devices which require port specification.");
+        ps.append(" If Application is ").append(Application.ICE_Device_Host.name())
+          .append(" or ").append(Application.ICE_Load_Generator.name()).append(" then address is the file listing the devices to host.");
         List<String> l = SerialProviderFactory.getDefaultProvider().getPortNames();
         if(!l.isEmpty()) {
             ps.append(" The following address values are currently valid:");
@@ -330,6 +338,10 @@ public class Configuration {
                     throw new IllegalArgumentException("Missing address specification");
                 address = line.getOptionValue("address");
             }
+        } else if (Application.ICE_Device_Host.equals(app) || Application.ICE_Load_Generator.equals(app)) {
+            if(!line.hasOption("address"))
+                throw new IllegalArgumentException("Missing address specification");
+            address = line.getOptionValue("address");
         }
         
         if(line.hasOption("fhirServerName")) {
@@ -0,0 +1,217 @@
+package org.mdpnp.apps.testapp;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.mdpnp.devices.DeviceDriverProvider;
+import org.mdpnp.devices.DeviceDriverProvider.DeviceAdapter;
+import org.mdpnp.devices.DeviceDriverProvider.SpringLoadedDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.AbstractApplicationContext;
+
+/**
+ * Runs many device adapters in one headless process. Unlike starting each with
+ * {@link DeviceAdapterCommand} the adapters share a single DomainParticipant, EventLoop
+ * and scheduler; see HostedDriverContext.xml. Each adapter still has its own publisher,
+ * subscriber, partitions and heartbeat.
+ *
+ * The adapters are listed in the file given as the address, one line per device type
+ * <pre>
+ * # deviceType [count=n] [address=address] [partition=p1,p2]
+ * PO_Simulator count=20 partition=ICU-1
+ * Ivy450C address=/dev/ttyUSB0
+ * </pre>
+ * The size of the shared scheduler is set by the mdpnp.host.poolSize property.
+ */
+public class DeviceHostCommand implements Configuration.HeadlessCommand {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceHostCommand.class);
+
+    private final List<DeviceAdapter> adapters = new ArrayList<DeviceAdapter>();
+    private final CountDownLatch stopOk = new CountDownLatch(1);
+
+    @Override
+    public int execute(Configuration config) throws Exception {
+
+        if (null == config.getAddress()) {
+            throw new IllegalArgumentException("Missing host configuration file");
+        }
+        List<HostedDevice> devices;
+        try (Reader r = new FileReader(new File(config.getAddress()))) {
+            devices = HostedDevice.read(r);
+        }
+
+        final AbstractApplicationContext context = config.createContext("DeviceHostContext.xml");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                log.info("Stopping hosted devices from shutdown hook");
+                stop();
+            }
+        }));
+
+        try {
+            start(context, devices);
+        } catch (Exception e) {
+            log.error("Failed to start hosted devices", e);
+            stop();
+            context.destroy();
+            return 1;
+        }
+
+        List<DeviceAdapter> started;
+        synchronized (this) {
+            started = new ArrayList<DeviceAdapter>(adapters);
+        }
+        try {
+            host(started);
+        } finally {
+            stop();
+            context.destroy();
+        }
+        return 0;
+    }
+
+    /**
+     * Called once the adapters have been started and returns when they should be
+     * stopped. By default that is when the process is asked to exit.
+     */
+    protected void host(List<DeviceAdapter> adapters) throws Exception {
+        // Blocks until the shutdown hook has stopped every adapter
+        stopOk.await();
+    }
+
+    /**
+     * @return true if the adapters were stopped before the timeout
+     */
+    protected boolean awaitStop(long timeout, TimeUnit unit) throws InterruptedException {
+        return stopOk.await(timeout, unit);
+    }
+
+    private void start(AbstractApplicationContext context, List<HostedDevice> devices) throws Exception {
+        for (HostedDevice d : devices) {
+            DeviceDriverProvider ddp = DeviceFactory.getDeviceDriverProvider(d.getDeviceType());
+            for (int i = 0; i < d.getCount(); i++) {
+                DeviceAdapter adapter = ddp instanceof SpringLoadedDriver ?
+                        ((SpringLoadedDriver) ddp).createHosted(context) : ddp.create(context);
+                synchronized (this) {
+                    if (0L == stopOk.getCount()) {
+                        // Stopped while starting up
+                        adapter.stop();
+                        return;
+                    }
+                    adapters.add(adapter);
+                }
+                if (null != d.getPartition()) {
+                    adapter.setPartition(d.getPartition());
+                }
+                if (null != d.getAddress()) {
+                    adapter.setAddress(d.getAddress());
+                }
+                if (!adapter.connect()) {
+                    log.warn("Hosted " + ddp.getDeviceType() + " #" + (i + 1) + " failed to connect");
+                }
+            }
+        }
+        log.info("Hosting " + adapters.size() + " devices");
+    }
+
+    protected synchronized void stop() {
+        try {
+            for (int i = adapters.size() - 1; i >= 0; i--) {
+                DeviceAdapter adapter = adapters.get(i);
+                try {
+                    adapter.disconnect();
+                    adapter.stop();
+                } catch (Exception e) {
+                    log.error("Failed to stop hosted device", e);
+                }
+            }
+            adapters.clear();
+        } finally {
+            stopOk.countDown();
+        }
+    }
+
+    /**
+     * One line of the host configuration file
+     */
+    static class HostedDevice {
+        private final String deviceType;
+        private final int count;
+        private final String address;
+        private final String[] partition;
+
+        HostedDevice(String deviceType, int count, String address, String[] partition) {
+            this.deviceType = deviceType;
+            this.count = count;
+            this.address = address;
+            this.partition = partition;
+        }
+
+        public String getDeviceType() {
+            return deviceType;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public String[] getPartition() {
+            return partition;
+        }
+
+        static List<HostedDevice> read(Reader reader) throws IOException {
+            List<HostedDevice> devices = new ArrayList<HostedDevice>();
+            BufferedReader br = new BufferedReader(reader);
+            String line;
+            int lineNumber = 0;
+            while (null != (line = br.readLine())) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] tokens = line.split("\\s+");
+                int count = 1;
+                String address = null;
+                String[] partition = null;
+                for (int i = 1; i < tokens.length; i++) {
+                    int eq = tokens[i].indexOf('=');
+                    String key = eq < 0 ? tokens[i] : tokens[i].substring(0, eq);
+                    String value = eq < 0 ? "" : tokens[i].substring(eq + 1);
+                    if ("count".equals(key)) {
+                        try {
+                            count = Integer.parseInt(value);
+                        } catch (NumberFormatException e) {
+                            count = -1;
+                        }
+                        if (count < 1) {
+                            throw new IllegalArgumentException("Line " + lineNumber + ": invalid count '" + value + "'");
+                        }
+                    } else if ("address".equals(key)) {
+                        address = value;
+                    } else if ("partition".equals(key)) {
+                        partition = value.isEmpty() ? new String[0] : value.split(",");
+                    } else {
+                        throw new IllegalArgumentException("Line " + lineNumber + ": unknown setting '" + tokens[i] + "'");
+                    }
+                }
+                devices.add(new HostedDevice(tokens[0], count, address, partition));
+            }
+            return devices;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package org.mdpnp.apps.testapp;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.mdpnp.devices.AbstractDevice;
+import org.mdpnp.devices.DeviceDriverProvider.DeviceAdapter;
+import org.mdpnp.devices.PublishStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Puts a known synthetic load on the domain so that supervisors can be sized before
+ * rollout. The devices are listed in the address file and hosted in this process just
+ * as by {@link DeviceHostCommand}; for a load test these would be simulators in the mix
+ * expected on a unit
+ * <pre>
+ * PO_Simulator count=200
+ * ECG_Simulator count=100
+ * CO2_Simulator count=50
+ * IBP_Simulator count=50
+ * </pre>
+ * The devices run for mdpnp.load.warmup seconds (default 10) and are then measured for
+ * mdpnp.load.duration seconds (default 60). The report printed at the end has, per
+ * device type, the samples published per second, percentiles of the time taken by each
+ * DataWriter write and the numerics held back by the NumericPublicationPolicy, followed
+ * by the garbage collection and allocation of the process per device.
+ *
+ * How often the simulators publish and how their clocks drift is set with their system
+ * properties, for instance
+ * <pre>
+ * -DSimulatedPulseOximeter.UPDATE_PERIOD=250 -DSimulatedPulseOximeter.TS_TYPE=drift -DSimulatedPulseOximeter.CLOCK_DRIFT_MS=40
+ * </pre>
+ * see FuzzyClock for the timestamp types.
+ */
+public class LoadGeneratorCommand extends DeviceHostCommand {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGeneratorCommand.class);
+
+    private final long warmupSeconds = Long.getLong("mdpnp.load.warmup", 10L);
+    private final long durationSeconds = Long.getLong("mdpnp.load.duration", 60L);
+
+    @Override
+    protected void host(List<DeviceAdapter> adapters) throws Exception {
+        log.info("Warming up " + adapters.size() + " devices for " + warmupSeconds + "s");
+        if (awaitStop(warmupSeconds, TimeUnit.SECONDS)) {
+            return;
+        }
+
+        List<Measurement> measurements = new ArrayList<Measurement>();
+        for (DeviceAdapter adapter : adapters) {
+            AbstractDevice device = adapter.getDevice();
+            if (null != device) {
+                measurements.add(new Measurement(device));
+            }
+        }
+        long gcCount = gcCount(), gcMillis = gcMillis(), allocated = allocatedBytes();
+        long start = System.nanoTime();
+
+        log.info("Measuring " + measurements.size() + " devices for " + durationSeconds + "s");
+        boolean stopped = awaitStop(durationSeconds, TimeUnit.SECONDS);
+
+        long elapsed = System.nanoTime() - start;
+        for (Measurement m : measurements) {
+            m.finish();
+        }
+        gcCount = gcCount() - gcCount;
+        gcMillis = gcMillis() - gcMillis;
+        allocated = allocated < 0L ? -1L : allocatedBytes() - allocated;
+
+        if (stopped) {
+            log.warn("Stopped before the end of the run; reporting " + TimeUnit.NANOSECONDS.toSeconds(elapsed) + "s");
+        }
+        report(System.out, measurements, elapsed, gcCount, gcMillis, allocated);
+    }
+
+    /**
+     * What one device published while it was measured
+     */
+    static class Measurement {
+        private final AbstractDevice device;
+        private final String deviceType;
+        private final PublishStatistics statistics;
+        private final long suppressedAtStart;
+        private long suppressed;
+
+        Measurement(AbstractDevice device) {
+            this.device = device;
+            this.deviceType = null == device.getModel() ? device.getClass().getSimpleName() : device.getModel();
+            this.statistics = new PublishStatistics();
+            this.suppressedAtStart = device.getNumericSamplesSuppressed();
+            device.setPublishStatistics(statistics);
+        }
+
+        Measurement(String deviceType, PublishStatistics statistics, long suppressed) {
+            this.device = null;
+            this.deviceType = deviceType;
+            this.statistics = statistics;
+            this.suppressedAtStart = 0L;
+            this.suppressed = suppressed;
+        }
+
+        void finish() {
+            device.setPublishStatistics(null);
+            suppressed = device.getNumericSamplesSuppressed() - suppressedAtStart;
+        }
+
+        String getDeviceType() {
+            return deviceType;
+        }
+
+        PublishStatistics getStatistics() {
+            return statistics;
+        }
+
+        long getSuppressed() {
+            return suppressed;
+        }
+    }
+
+    /**
+     * @param allocatedBytes -1 if the JVM does not count allocations per thread
+     */
+    static void report(PrintStream out, List<Measurement> measurements, long elapsedNanos,
+                       long gcCount, long gcMillis, long allocatedBytes) {
+        double seconds = elapsedNanos / 1e9;
+
+        Map<String, List<Measurement>> byType = new LinkedHashMap<String, List<Measurement>>();
+        for (Measurement m : measurements) {
+            List<Measurement> l = byType.get(m.getDeviceType());
+            if (null == l) {
+                l = new ArrayList<Measurement>();
+                byType.put(m.getDeviceType(), l);
+            }
+            l.add(m);
+        }
+
+        out.printf(Locale.US, "Load of %d devices over %.1fs%n", measurements.size(), seconds);
+        out.printf(Locale.US, "%-32s %7s %10s %10s %10s %8s %8s %8s %8s %8s %10s%n",
+                   "Device type", "Devices", "Samples/s", "Min/dev", "Mean/dev",
+                   "p50 us", "p90 us", "p99 us", "p99.9 us", "Max us", "Suppressed");
+        PublishStatistics all = new PublishStatistics();
+        long allSuppressed = 0L;
+        double allMin = Double.NaN;
+        for (Map.Entry<String, List<Measurement>> e : byType.entrySet()) {
+            PublishStatistics type = new PublishStatistics();
+            long suppressed = 0L;
+            double min = Double.NaN;
+            for (Measurement m : e.getValue()) {
+                type.add(m.getStatistics());
+                suppressed += m.getSuppressed();
+                double rate = m.getStatistics().getCount() / seconds;
+                min = Double.isNaN(min) ? rate : Math.min(min, rate);
+            }
+            reportRow(out, e.getKey(), e.getValue().size(), type, min, suppressed, seconds);
+            all.add(type);
+            allSuppressed += suppressed;
+            allMin = Double.isNaN(allMin) ? min : Math.min(allMin, min);
+        }
+        reportRow(out, "All", measurements.size(), all, allMin, allSuppressed, seconds);
+
+        int devices = Math.max(1, measurements.size());
+        out.printf(Locale.US, "GC: %d collections taking %d ms; per device %.3f collections taking %.3f ms%n",
+                   gcCount, gcMillis, (double) gcCount / devices, (double) gcMillis / devices);
+        if (allocatedBytes < 0L) {
+            out.println("Allocation: not measured by this JVM");
+        } else {
+            out.printf(Locale.US, "Allocation: %.1f MB at %.1f KB/s; per device %.2f KB/s; %.0f bytes per sample%n",
+                       allocatedBytes / 1048576.0, allocatedBytes / 1024.0 / seconds,
+                       allocatedBytes / 1024.0 / seconds / devices,
+                       0L == all.getCount() ? 0.0 : (double) allocatedBytes / all.getCount());
+        }
+    }
+
+    private static void reportRow(PrintStream out, String name, int devices, PublishStatistics s,
+                                  double minRate, long suppressed, double seconds) {
+        double rate = s.getCount() / seconds;
+        out.printf(Locale.US, "%-32s %7d %10.1f %10.2f %10.2f %8.1f %8.1f %8.1f %8.1f %8.1f %10d%n",
+                   name, devices, rate, Double.isNaN(minRate) ? 0.0 : minRate, rate / Math.max(1, devices),
+                   s.getPercentileNanos(50.0) / 1000.0, s.getPercentileNanos(90.0) / 1000.0,
+                   s.getPercentileNanos(99.0) / 1000.0, s.getPercentileNanos(99.9) / 1000.0,
+                   s.getMaxNanos() / 1000.0, suppressed);
+    }
+
+    private static long gcCount() {
+        long count = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0L, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0L;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0L, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Bytes allocated so far by the threads alive now. The hosted devices share a
+     * scheduler whose threads live for the whole run so nothing they allocate is lost
+     * to threads exiting. Returns -1 if the JVM does not count allocations per thread.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1L;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return -1L;
+        }
+        long bytes = 0L;
+        for (long b : sunThreads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            // -1 for a thread that has exited since its id was read
+            bytes += Math.max(0L, b);
+        }
+        return bytes;
+    }
+}
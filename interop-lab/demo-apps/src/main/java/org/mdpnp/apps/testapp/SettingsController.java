@@ -213,7 +213,14 @@ public class SettingsController {
         });
         
         deviceCategory.setValue(ice.ConnectionType.Simulated);
-        applications.setItems(FXCollections.observableArrayList(Application.values()));
+        // Applications that only run headless cannot be started from here
+        ObservableList<Application> guiApplications = FXCollections.observableArrayList();
+        for (Application a : Application.values()) {
+            if (!a.isHeadlessOnly()) {
+                guiApplications.add(a);
+            }
+        }
+        applications.setItems(guiApplications);
 
         if (null != conf) {
             if (null != conf.getApplication()) {
@@ -0,0 +1,75 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import javafx.fxml.FXML;
+import javafx.scene.control.TextField;
+
+/**
+ * Records into a compact binary archive; one directory per recording
+ * session with a series of segment files per device/metric/instance.
+ * Regular waveforms cost a bit or so per timestamp and typically well under
+ * three bytes per value.  Use {@link ArchiveReader} to read a time window back.
+ *
+ * @see ArchiveWriter
+ */
+public class ArchivePersister extends FileAdapterApplicationFactory.PersisterUIController implements DataCollector.DataSampleBatchListener {
+
+    static ThreadLocal<SimpleDateFormat> dateFormats = new ThreadLocal<SimpleDateFormat>()
+    {
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat("'archive.'yyyyMMdd.HHmmss");
+        }
+    };
+
+    ArchiveWriter writer = null;
+    @FXML TextField filePathLabel;
+
+    public ArchivePersister() {
+
+    }
+
+    @Override
+    public void setup() {
+        String f = "<" + dateFormats.get().toPattern() + ">";
+        String p = (new File(f)).getAbsolutePath();
+        filePathLabel.setText(p);
+    }
+
+    @Override
+    public void handleDataSampleEvent(DataCollector.DataSampleEvent evt) throws Exception {
+        Value vital = (Value)evt.getSource();
+        if(writer != null)
+            writer.append(vital);
+    }
+
+    @Override
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        if(writer != null)
+            writer.append(evt.getBatch());
+    }
+
+    @Override
+    public String getName() {
+        return "archive (binary)";
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if(writer != null)
+            writer.close();
+        writer = null;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        File f = new File(dateFormats.get().format(new Date()));
+        f.mkdirs();
+        filePathLabel.setText(f.getAbsolutePath());
+
+        writer = new ArchiveWriter(f);
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams samples back out of a directory written by {@link ArchiveWriter}.
+ * The index and segment files are memory mapped; only blocks whose time
+ * range overlaps the requested window are decoded.  An archive that is still
+ * being written can be read; blocks written since the last read are picked
+ * up by the next one.
+ */
+public class ArchiveReader {
+
+    public interface SampleHandler {
+        void sample(Series series, long time, float value);
+    }
+
+    public static class Series {
+        private final File dir;
+        private final String uniqueDeviceIdentifier, metricId;
+        private final int instanceId;
+        private final int headerBytes;
+
+        Series(File dir, String uniqueDeviceIdentifier, String metricId, int instanceId, int headerBytes) {
+            this.dir = dir;
+            this.uniqueDeviceIdentifier = uniqueDeviceIdentifier;
+            this.metricId = metricId;
+            this.instanceId = instanceId;
+            this.headerBytes = headerBytes;
+        }
+
+        public String getUniqueDeviceIdentifier() {
+            return uniqueDeviceIdentifier;
+        }
+
+        public String getMetricId() {
+            return metricId;
+        }
+
+        public int getInstanceId() {
+            return instanceId;
+        }
+
+        @Override
+        public String toString() {
+            return ArchiveWriter.toDirectoryName(uniqueDeviceIdentifier, metricId, instanceId);
+        }
+    }
+
+    private final List<Series> series = new ArrayList<Series>();
+    private final Map<File, MappedByteBuffer> segments = new HashMap<File, MappedByteBuffer>();
+
+    public ArchiveReader(File baseDir) throws IOException {
+        File[] dirs = baseDir.listFiles();
+        if (null == dirs) {
+            throw new IOException("Not a directory " + baseDir.getAbsolutePath());
+        }
+        for (File dir : dirs) {
+            File indexFile = new File(dir, ArchiveWriter.INDEX_FILE);
+            if (indexFile.isFile()) {
+                series.add(readSeries(dir, indexFile));
+            }
+        }
+    }
+
+    public List<Series> getSeries() {
+        return Collections.unmodifiableList(series);
+    }
+
+    /**
+     * @return the series or null if the archive does not contain it
+     */
+    public Series getSeries(String uniqueDeviceIdentifier, String metricId, int instanceId) {
+        for (Series s : series) {
+            if (s.instanceId == instanceId && s.metricId.equals(metricId) && s.uniqueDeviceIdentifier.equals(uniqueDeviceIdentifier)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calls the handler for every sample of the series with fromTime &lt;= time &lt;= toTime,
+     * in the order they were written.
+     * @return the number of samples passed to the handler
+     */
+    public synchronized long read(Series s, long fromTime, long toTime, SampleHandler handler) throws IOException {
+        long n = 0L;
+        MappedByteBuffer index = map(new File(s.dir, ArchiveWriter.INDEX_FILE));
+        final int records = (index.limit() - s.headerBytes) / ArchiveWriter.INDEX_RECORD_BYTES;
+        for (int r = 0; r < records; r++) {
+            final int pos = s.headerBytes + r * ArchiveWriter.INDEX_RECORD_BYTES;
+            final long minTime = index.getLong(pos + 8);
+            final long maxTime = index.getLong(pos + 16);
+            if (maxTime < fromTime || minTime > toTime) {
+                continue;
+            }
+            final int segmentNumber = index.getInt(pos);
+            final int offset = index.getInt(pos + 4);
+
+            File segmentFile = new File(s.dir, ArchiveWriter.toSegmentName(segmentNumber));
+            MappedByteBuffer segment = segments.get(segmentFile);
+            if (null == segment || segment.limit() < offset + ArchiveWriter.BLOCK_HEADER_BYTES
+                    || segment.limit() < offset + ArchiveWriter.BLOCK_HEADER_BYTES + segment.getInt(offset)) {
+                // Not mapped yet or grown since
+                segment = map(segmentFile);
+                segments.put(segmentFile, segment);
+            }
+            final int count = segment.getInt(offset + 4);
+            final long firstTime = segment.getLong(offset + 8);
+
+            GorillaDecoder decoder = new GorillaDecoder(segment, offset + ArchiveWriter.BLOCK_HEADER_BYTES, count, firstTime);
+            while (decoder.hasNext()) {
+                decoder.next();
+                final long t = decoder.getTime();
+                if (t >= fromTime && t <= toTime) {
+                    handler.sample(s, t, decoder.getValue());
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Releases the mappings held for files that have been read.
+     */
+    public synchronized void close() {
+        segments.clear();
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static Series readSeries(File dir, File indexFile) throws IOException {
+        FileInputStream fis = new FileInputStream(indexFile);
+        // Unbuffered, so the channel position is exactly the end of the header
+        DataInputStream in = new DataInputStream(fis);
+        try {
+            if (ArchiveWriter.INDEX_MAGIC != in.readInt()) {
+                throw new IOException("Not an archive index " + indexFile.getAbsolutePath());
+            }
+            int version = in.readInt();
+            if (ArchiveWriter.INDEX_VERSION != version) {
+                throw new IOException("Unsupported archive version " + version + " in " + indexFile.getAbsolutePath());
+            }
+            String udi = in.readUTF();
+            String metricId = in.readUTF();
+            int instanceId = in.readInt();
+            return new Series(dir, udi, metricId, instanceId, (int) fis.getChannel().position());
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends samples to a compressed binary archive with one directory per
+ * (udi, metric, instance), named by {@link #toDirectoryName(String, String, int)}.
+ * Each directory holds:
+ * <ul>
+ * <li>numbered segment files (00000000.seg, ...) of blocks, each block being
+ * a header followed by a {@link GorillaEncoder} payload</li>
+ * <li>an index file describing the series followed by one fixed size record
+ * per block: segment number, offset, time range and sample count</li>
+ * </ul>
+ * Samples are encoded in memory and a block is written once it holds
+ * maxBlockSamples or spans maxBlockMs; a new segment is started once the
+ * current one exceeds maxSegmentBytes.  Nothing is ever rewritten, so a crash
+ * loses at most the block being encoded for each series.
+ *
+ * @see ArchiveReader
+ */
+public class ArchiveWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveWriter.class);
+
+    static final int INDEX_MAGIC = 0x4D445041; // "MDPA"
+    static final int INDEX_VERSION = 1;
+    static final String INDEX_FILE = "index";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    // int payloadBytes, int count, long firstTime, long minTime, long maxTime
+    static final int BLOCK_HEADER_BYTES = 32;
+    // int segment, int offset, long minTime, long maxTime, int count
+    static final int INDEX_RECORD_BYTES = 28;
+
+    public static final int DEFAULT_MAX_BLOCK_SAMPLES = 4096;
+    public static final long DEFAULT_MAX_BLOCK_MS = 60000L;
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 8L * 1024L * 1024L;
+
+    private final File baseDir;
+    private final int maxBlockSamples;
+    private final long maxBlockMs;
+    private final long maxSegmentBytes;
+
+    private final Map<SeriesKey, Series> series = new HashMap<SeriesKey, Series>();
+
+    public ArchiveWriter(File baseDir) {
+        this(baseDir, DEFAULT_MAX_BLOCK_SAMPLES, DEFAULT_MAX_BLOCK_MS, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    public ArchiveWriter(File baseDir, int maxBlockSamples, long maxBlockMs, long maxSegmentBytes) {
+        this.baseDir = baseDir;
+        this.maxBlockSamples = maxBlockSamples;
+        this.maxBlockMs = maxBlockMs;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    public synchronized void append(Value value) throws IOException {
+        series(value.getUniqueDeviceIdentifier(), value.getMetricId(), value.getInstanceId()).append(value.getDevTime(), (float) value.getValue());
+    }
+
+    public synchronized void append(ValueBatch batch) throws IOException {
+        Series s = series(batch.getUniqueDeviceIdentifier(), batch.getMetricId(), batch.getInstanceId());
+        final int sz = batch.size();
+        for (int j = 0; j < sz; j++) {
+            s.append(batch.getDevTime(j), batch.getValue(j));
+        }
+    }
+
+    /**
+     * Writes every partially filled block so that readers can see it.
+     */
+    public synchronized void flush() throws IOException {
+        for (Series s : series.values()) {
+            s.writeBlock();
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Series s : series.values()) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                log.error("closing " + s.dir, e);
+                failure = e;
+            }
+        }
+        series.clear();
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    public File getBaseDir() {
+        return baseDir;
+    }
+
+    /**
+     * @return the components percent-encoded and joined by '-'; distinct series
+     *         always get distinct names
+     */
+    static String toDirectoryName(String udi, String metricId, int instanceId) {
+        StringBuilder sb = new StringBuilder();
+        escape(sb, udi);
+        sb.append('-');
+        escape(sb, metricId);
+        sb.append('-').append(instanceId);
+        return sb.toString();
+    }
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Escapes everything but ASCII letters, digits, '_' and '.', including the '-' separator
+    private static void escape(StringBuilder sb, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.') {
+                sb.append((char) c);
+            } else {
+                sb.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+    }
+
+    static String toSegmentName(int segment) {
+        return String.format("%08d", segment) + SEGMENT_SUFFIX;
+    }
+
+    private Series series(String udi, String metricId, int instanceId) throws IOException {
+        SeriesKey key = new SeriesKey(udi, metricId, instanceId);
+        Series s = series.get(key);
+        if (null == s) {
+            s = new Series(new File(baseDir, toDirectoryName(udi, metricId, instanceId)), udi, metricId, instanceId);
+            series.put(key, s);
+        }
+        return s;
+    }
+
+    private static final class SeriesKey {
+        final String udi, metricId;
+        final int instanceId;
+
+        SeriesKey(String udi, String metricId, int instanceId) {
+            this.udi = udi;
+            this.metricId = metricId;
+            this.instanceId = instanceId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SeriesKey)) {
+                return false;
+            }
+            SeriesKey k = (SeriesKey) obj;
+            return instanceId == k.instanceId && udi.equals(k.udi) && metricId.equals(k.metricId);
+        }
+
+        @Override
+        public int hashCode() {
+            return (udi.hashCode() * 31 + metricId.hashCode()) * 31 + instanceId;
+        }
+    }
+
+    private class Series {
+        final File dir;
+        final GorillaEncoder encoder = new GorillaEncoder(8192);
+        final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+        final ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_BYTES);
+        final FileChannel index;
+
+        FileChannel segment;
+        int segmentNumber = -1;
+
+        Series(File dir, String udi, String metricId, int instanceId) throws IOException {
+            this.dir = dir;
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Unable to create " + dir.getAbsolutePath());
+            }
+            File indexFile = new File(dir, INDEX_FILE);
+            boolean exists = indexFile.exists() && indexFile.length() > 0L;
+            index = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (exists) {
+                // Carry on after whatever a previous writer left behind
+                while (new File(dir, toSegmentName(segmentNumber + 1)).exists()) {
+                    segmentNumber++;
+                }
+            } else {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(INDEX_VERSION);
+                out.writeUTF(udi);
+                out.writeUTF(metricId);
+                out.writeInt(instanceId);
+                out.flush();
+                writeFully(index, ByteBuffer.wrap(bytes.toByteArray()));
+            }
+            log.info("Archiving to " + dir.getAbsolutePath());
+        }
+
+        void append(long time, float value) throws IOException {
+            encoder.add(time, value);
+            if (encoder.getCount() >= maxBlockSamples || encoder.getMaxTime() - encoder.getMinTime() >= maxBlockMs) {
+                writeBlock();
+            }
+        }
+
+        void writeBlock() throws IOException {
+            if (0 == encoder.getCount()) {
+                return;
+            }
+            if (null == segment || segment.size() >= maxSegmentBytes) {
+                if (null != segment) {
+                    segment.close();
+                }
+                segmentNumber++;
+                segment = FileChannel.open(new File(dir, toSegmentName(segmentNumber)).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            final long offset = segment.size();
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large " + offset);
+            }
+
+            header.clear();
+            header.putInt(encoder.getByteLength());
+            header.putInt(encoder.getCount());
+            header.putLong(encoder.getFirstTime());
+            header.putLong(encoder.getMinTime());
+            header.putLong(encoder.getMaxTime());
+            header.flip();
+            writeFully(segment, header);
+            writeFully(segment, ByteBuffer.wrap(encoder.getBuffer(), 0, encoder.getByteLength()));
+
+            // Only indexed once the block itself is in place
+            record.clear();
+            record.putInt(segmentNumber);
+            record.putInt((int) offset);
+            record.putLong(encoder.getMinTime());
+            record.putLong(encoder.getMaxTime());
+            record.putInt(encoder.getCount());
+            record.flip();
+            writeFully(index, record);
+
+            encoder.reset();
+        }
+
+        void close() throws IOException {
+            try {
+                writeBlock();
+            } finally {
+                if (null != segment) {
+                    segment.close();
+                }
+                index.close();
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.mdpnp.apps.testapp.export;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -12,9 +13,7 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.stage.FileChooser;
 
-import org.apache.log4j.Level;
-
-public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIController implements DataCollector.DataSampleEventListener  {
+public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIController implements DataCollector.DataSampleBatchListener  {
 
     static ThreadLocal<SimpleDateFormat> dateFormats = new ThreadLocal<SimpleDateFormat>()
     {
@@ -38,14 +37,19 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
 
     @Override
     public void stop() throws Exception {
-        appender.rollOver();
+        if(writer != null)
+            writer.rollOver();
     }
     
-    private static NumberFormat valueFormat = NumberFormat.getNumberInstance();
-    static {
-        valueFormat.setMaximumFractionDigits(2);
-        valueFormat.setMinimumFractionDigits(2);
-    }
+    static ThreadLocal<NumberFormat> valueFormats = new ThreadLocal<NumberFormat>()
+    {
+        protected NumberFormat initialValue() {
+            NumberFormat valueFormat = NumberFormat.getNumberInstance();
+            valueFormat.setMaximumFractionDigits(2);
+            valueFormat.setMinimumFractionDigits(2);
+            return valueFormat;
+        }
+    };
 
     static String toCSVLine(Value value) {
         StringBuilder sb = new StringBuilder();
@@ -57,7 +61,7 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
             .append(value.getMetricId()).append(",")
             .append(value.getInstanceId()).append(",")
             .append(devTime).append(",")
-            .append(valueFormat.format(value.getValue()));
+            .append(valueFormats.get().format(value.getValue()));
 
         return sb.toString();
     }
@@ -66,10 +70,14 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
     public void handleDataSampleEvent(DataCollector.DataSampleEvent evt) throws Exception {
         Value vital = (Value)evt.getSource();
 
-        String s = toCSVLine(vital);
+        if(writer != null)
+            writer.write(vital);
+    }
 
-        // LoggingEvent le = new LoggingEvent("", null, Level.ALL, sb.toString(), null);
-        cat.info(s);
+    @Override
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        if(writer != null)
+            writer.write(evt.getBatch());
     }
 
     public CSVPersister() {
@@ -78,21 +86,19 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
     
     @FXML public void clickBackupIndex(ActionEvent evt) {
         String s = backupIndex.getSelectionModel().getSelectedItem();
-        if(appender != null) {
-            appender.setMaxBackupIndex(Integer.parseInt(s));
-            appender.activateOptions();
+        if(writer != null) {
+            writer.setMaxBackupIndex(Integer.parseInt(s));
         }
     }
     
     @FXML public void clickFSize(ActionEvent evt) {
         String s = fSize.getSelectionModel().getSelectedItem();
-        if(appender != null) {
-            appender.setMaxFileSize(s);
-            appender.activateOptions();
+        if(writer != null) {
+            writer.setMaxFileSize(CSVWriter.parseFileSize(s));
         }
     }
     
-    @FXML public void clickChange(ActionEvent evt) {
+    @FXML public void clickChange(ActionEvent evt) throws IOException {
         FileChooser fc = new FileChooser();
         fc.setTitle("Choose a file");
         fc.setInitialDirectory(defaultLogFileName.getParentFile());
@@ -100,8 +106,12 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
         File f = fc.showSaveDialog(null);
         if(null != f) {
             filePathLabel.setText(f.getAbsolutePath());
-            appender.setFile(f.getAbsolutePath());
-            appender.activateOptions();
+            if(writer != null) {
+                writer.setFile(f.getAbsoluteFile());
+            } else {
+                // Not set up yet; setup will open the chosen file
+                defaultLogFileName = f;
+            }
         }
     }
     
@@ -149,20 +159,14 @@ public class CSVPersister extends FileAdapterApplicationFactory.PersisterUIContr
 
 
         // add file size controls.
-        appender = new org.apache.log4j.RollingFileAppender();
-        appender.setFile(defaultLogFileName.getAbsolutePath());
-        appender.setMaxBackupIndex(Integer.parseInt(backupIndex.getSelectionModel().getSelectedItem()));
-        appender.setMaxFileSize(fSize.getSelectionModel().getSelectedItem());
-        appender.setAppend(true);
-        appender.setLayout(new org.apache.log4j.PatternLayout("%m%n"));
-        appender.setThreshold(Level.ALL);
-        appender.activateOptions();
-        cat.setAdditivity(false);
-        cat.setLevel(Level.ALL);
-        cat.addAppender(appender);
-
+        try {
+            writer = new CSVWriter(defaultLogFileName.getAbsoluteFile(),
+                                   CSVWriter.parseFileSize(fSize.getSelectionModel().getSelectedItem()),
+                                   Integer.parseInt(backupIndex.getSelectionModel().getSelectedItem()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open " + defaultLogFileName.getAbsolutePath(), e);
+        }
     }
 
-    private org.apache.log4j.RollingFileAppender appender = null;
-    private org.apache.log4j.Category cat = org.apache.log4j.Logger.getLogger("VitalSimpleTable.CVS");
+    private CSVWriter writer = null;
 }
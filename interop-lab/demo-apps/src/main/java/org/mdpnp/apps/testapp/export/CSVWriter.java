@@ -0,0 +1,437 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the same lines as {@link CSVPersister#toCSVLine(Value)} without
+ * producing any garbage per sample:
+ * <pre>
+ *   udi,metric,instance,yyyyMMddHHmmssZ,value
+ * </pre>
+ * Each line is encoded straight into a reusable byte buffer, which is
+ * written to a FileChannel when it fills up, when it has been holding data
+ * for maxLatencyMs, or on flush.  A background task checks the age of the
+ * buffer every maxLatencyMs so lines are written even once samples stop
+ * arriving.  Rolling over follows log4j's RollingFileAppender: once the file
+ * reaches maxFileSize it becomes file.1, file.1 becomes file.2 and so on up
+ * to maxBackupIndex.
+ *
+ * Values always have exactly two decimals, rounded half-even like
+ * NumberFormat.  Unlike the NumberFormat of the default locale there is
+ * never a grouping separator, so values of 1000 or more do not match
+ * toCSVLine, which would split them across two columns.
+ */
+public class CSVWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(CSVWriter.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final long DEFAULT_MAX_LATENCY_MS = 1000L;
+
+    // yyyyMMddHHmmss+ZZZZ
+    private static final int TIME_BYTES = 19;
+    // Anything longer than this beyond the udi and metric will not fit in a line
+    private static final int MAX_FIXED_LINE_BYTES = 128;
+
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+
+    // Shared by every writer to flush buffers that have gone stale
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "CSVWriter flush");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final TimeZone timeZone;
+    private final long maxLatencyMs;
+
+    private File file;
+    private long maxFileSize;
+    private int maxBackupIndex;
+
+    private FileChannel channel;
+    private long fileSize;
+    private byte[] buf;
+    private ByteBuffer byteBuffer;
+    private int pos;
+    private long oldestUnwritten = -1L;
+    private final ScheduledFuture<?> flushTask;
+
+    // The timestamp text only changes once a second
+    private final byte[] timeBytes = new byte[TIME_BYTES];
+    private long timeSecond = Long.MIN_VALUE;
+
+    public CSVWriter(File file, long maxFileSize, int maxBackupIndex) throws IOException {
+        this(file, maxFileSize, maxBackupIndex, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_LATENCY_MS, TimeZone.getDefault());
+    }
+
+    public CSVWriter(File file, long maxFileSize, int maxBackupIndex, int bufferSize, long maxLatencyMs, TimeZone timeZone) throws IOException {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.maxBackupIndex = maxBackupIndex;
+        this.maxLatencyMs = maxLatencyMs;
+        this.timeZone = timeZone;
+        this.buf = new byte[Math.max(bufferSize, 2 * MAX_FIXED_LINE_BYTES)];
+        this.byteBuffer = ByteBuffer.wrap(buf);
+        open();
+        if (maxLatencyMs > 0L) {
+            flushTask = flusher.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flushIdle();
+                }
+            }, maxLatencyMs, maxLatencyMs, TimeUnit.MILLISECONDS);
+        } else {
+            // Every write flushes
+            flushTask = null;
+        }
+    }
+
+    public synchronized void write(Value value) throws IOException {
+        writeLine(value.getUniqueDeviceIdentifier(), value.getMetricId(), value.getInstanceId(), value.getDevTime(), value.getValue());
+        flushIfStale();
+    }
+
+    public synchronized void write(ValueBatch batch) throws IOException {
+        final int sz = batch.size();
+        for (int j = 0; j < sz; j++) {
+            writeLine(batch.getUniqueDeviceIdentifier(), batch.getMetricId(), batch.getInstanceId(), batch.getDevTime(j), batch.getValue(j));
+        }
+        flushIfStale();
+    }
+
+    public synchronized void flush() throws IOException {
+        writeBuffer();
+        if (fileSize >= maxFileSize) {
+            roll();
+        }
+    }
+
+    /**
+     * Writes anything buffered and starts a new file, keeping the current one as a backup.
+     */
+    public synchronized void rollOver() throws IOException {
+        writeBuffer();
+        roll();
+    }
+
+    public synchronized void close() throws IOException {
+        if (null != flushTask) {
+            flushTask.cancel(false);
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Continues in the given file, appending to it if it exists.
+     */
+    public synchronized void setFile(File file) throws IOException {
+        flush();
+        channel.close();
+        this.file = file;
+        open();
+    }
+
+    public synchronized File getFile() {
+        return file;
+    }
+
+    public synchronized void setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public synchronized long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public synchronized void setMaxBackupIndex(int maxBackupIndex) {
+        this.maxBackupIndex = maxBackupIndex;
+    }
+
+    public synchronized int getMaxBackupIndex() {
+        return maxBackupIndex;
+    }
+
+    /**
+     * Parses sizes the way log4j does ("5MB", "1GB", "500KB"); units are powers of 1024.
+     */
+    public static long parseFileSize(String s) {
+        String v = s.trim().toUpperCase();
+        long multiplier = 1L;
+        if (v.endsWith("KB")) {
+            multiplier = 1024L;
+        } else if (v.endsWith("MB")) {
+            multiplier = 1024L * 1024L;
+        } else if (v.endsWith("GB")) {
+            multiplier = 1024L * 1024L * 1024L;
+        }
+        if (multiplier > 1L) {
+            v = v.substring(0, v.length() - 2).trim();
+        }
+        return Long.parseLong(v) * multiplier;
+    }
+
+    private void writeBuffer() throws IOException {
+        if (pos > 0) {
+            byteBuffer.clear();
+            byteBuffer.limit(pos);
+            while (byteBuffer.hasRemaining()) {
+                fileSize += channel.write(byteBuffer);
+            }
+            pos = 0;
+            oldestUnwritten = -1L;
+        }
+    }
+
+    private void roll() throws IOException {
+        channel.close();
+        if (maxBackupIndex > 0) {
+            File oldest = backup(maxBackupIndex);
+            if (oldest.exists() && !oldest.delete()) {
+                log.warn("Unable to delete " + oldest.getAbsolutePath());
+            }
+            for (int i = maxBackupIndex - 1; i >= 1; i--) {
+                File f = backup(i);
+                if (f.exists()) {
+                    f.renameTo(backup(i + 1));
+                }
+            }
+            if (!file.renameTo(backup(1))) {
+                log.warn("Unable to rename " + file.getAbsolutePath());
+            }
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        fileSize = 0L;
+    }
+
+    private File backup(int i) {
+        return new File(file.getPath() + "." + i);
+    }
+
+    private void open() throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (null != parent) {
+            parent.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+
+    private void flushIfStale() throws IOException {
+        if (oldestUnwritten >= 0L && System.currentTimeMillis() - oldestUnwritten >= maxLatencyMs) {
+            flush();
+        }
+    }
+
+    private synchronized void flushIdle() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flushIfStale();
+        } catch (IOException e) {
+            log.warn("Unable to flush " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private void writeLine(String udi, String metricId, int instanceId, long time, double value) throws IOException {
+        final int needed = 3 * (udi.length() + metricId.length()) + MAX_FIXED_LINE_BYTES;
+        if (buf.length - pos < needed) {
+            flush();
+            if (buf.length < needed) {
+                buf = Arrays.copyOf(buf, needed);
+                byteBuffer = ByteBuffer.wrap(buf);
+            }
+        }
+        if (oldestUnwritten < 0L) {
+            oldestUnwritten = System.currentTimeMillis();
+        }
+        putString(udi);
+        buf[pos++] = ',';
+        putString(metricId);
+        buf[pos++] = ',';
+        putLong(instanceId);
+        buf[pos++] = ',';
+        putTime(time);
+        buf[pos++] = ',';
+        putValue(value);
+        buf[pos++] = '\n';
+    }
+
+    private void putString(String s) {
+        final int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[pos++] = (byte) (0xC0 | (c >> 6));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                // Surrogate pairs come out as two three byte sequences; not expected in device identifiers
+                buf[pos++] = (byte) (0xE0 | (c >> 12));
+                buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void putLong(long v) {
+        if (v < 0L) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        // Digits are produced backwards, then reversed in place
+        final int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + (v % 10L));
+            v /= 10L;
+        } while (v > 0L);
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte b = buf[i];
+            buf[i] = buf[j];
+            buf[j] = b;
+        }
+    }
+
+    private void putFixed(long v, int digits) {
+        pos = putFixed(buf, pos, v, digits);
+    }
+
+    /**
+     * Writes v as exactly the given number of digits, zero padded.
+     * @return the position after the last digit
+     */
+    private static int putFixed(byte[] b, int at, long v, int digits) {
+        for (int i = at + digits - 1; i >= at; i--) {
+            b[i] = (byte) ('0' + (v % 10L));
+            v /= 10L;
+        }
+        return at + digits;
+    }
+
+    private void putValue(double value) {
+        if (Double.isNaN(value)) {
+            System.arraycopy(NAN, 0, buf, pos, NAN.length);
+            pos += NAN.length;
+            return;
+        }
+        if (Double.isInfinite(value)) {
+            if (value < 0.0) {
+                buf[pos++] = '-';
+            }
+            System.arraycopy(INFINITY, 0, buf, pos, INFINITY.length);
+            pos += INFINITY.length;
+            return;
+        }
+        // Like DecimalFormat, negative values that round to zero (and -0) keep their sign
+        if (Double.doubleToRawLongBits(value) < 0L) {
+            buf[pos++] = '-';
+        }
+        final double scaled = Math.abs(value) * 100.0;
+        final double whole = Math.floor(scaled);
+        final double fraction = scaled - whole;
+        // NumberFormat rounds the shortest decimal that reads back as value,
+        // breaking ties by the exact binary value.  Away from a tie that is the
+        // same as rounding scaled; near one (or when scaled is too large to have
+        // a fraction) leave it to BigDecimal
+        if (Math.abs(fraction - 0.5) <= 4.0 * Math.ulp(scaled)) {
+            byte[] b = roundLikeNumberFormat(Math.abs(value)).toPlainString().getBytes(StandardCharsets.US_ASCII);
+            if (buf.length - pos < b.length + 1) {
+                // Only for values far outside anything a device reports
+                buf = Arrays.copyOf(buf, pos + b.length + 1);
+                byteBuffer = ByteBuffer.wrap(buf);
+            }
+            System.arraycopy(b, 0, buf, pos, b.length);
+            pos += b.length;
+            return;
+        }
+        long hundredths = (long) whole + (fraction > 0.5 ? 1L : 0L);
+        putLong(hundredths / 100L);
+        buf[pos++] = '.';
+        putFixed(hundredths % 100L, 2);
+    }
+
+    /**
+     * Two decimals of abs exactly as NumberFormat would print them; allocates
+     */
+    private static BigDecimal roundLikeNumberFormat(double abs) {
+        BigDecimal shortest = new BigDecimal(Double.toString(abs));
+        if (shortest.scale() <= 2) {
+            return shortest.setScale(2);
+        }
+        BigDecimal rounded = shortest.setScale(2, RoundingMode.HALF_EVEN);
+        if (shortest.subtract(rounded).abs().movePointRight(3).compareTo(BigDecimal.valueOf(5L)) == 0) {
+            // A tie in the shortest digits
+            rounded = new BigDecimal(abs).setScale(2, RoundingMode.HALF_EVEN);
+        }
+        return rounded;
+    }
+
+    private void putTime(long time) {
+        final long second = Math.floorDiv(time, 1000L);
+        if (second != timeSecond) {
+            encodeTime(time);
+            timeSecond = second;
+        }
+        System.arraycopy(timeBytes, 0, buf, pos, TIME_BYTES);
+        pos += TIME_BYTES;
+    }
+
+    /**
+     * Fills timeBytes with yyyyMMddHHmmssZ in the writer's time zone.
+     */
+    private void encodeTime(long time) {
+        final int offsetMs = timeZone.getOffset(time);
+        final long local = Math.floorDiv(time + offsetMs, 1000L);
+        final long days = Math.floorDiv(local, 86400L);
+        final int secondOfDay = (int) (local - days * 86400L);
+
+        // Days since 1970-01-01 to a proleptic Gregorian date (Hinnant's civil_from_days)
+        final long z = days + 719468L;
+        final long era = Math.floorDiv(z, 146097L);
+        final long doe = z - era * 146097L;
+        final long yoe = (doe - doe / 1460L + doe / 36524L - doe / 146096L) / 365L;
+        final long doy = doe - (365L * yoe + yoe / 4L - yoe / 100L);
+        final long mp = (5L * doy + 2L) / 153L;
+        final long day = doy - (153L * mp + 2L) / 5L + 1L;
+        final long month = mp < 10L ? mp + 3L : mp - 9L;
+        final long year = yoe + era * 400L + (month <= 2L ? 1L : 0L);
+
+        int at = putFixed(timeBytes, 0, year, 4);
+        at = putFixed(timeBytes, at, month, 2);
+        at = putFixed(timeBytes, at, day, 2);
+        at = putFixed(timeBytes, at, secondOfDay / 3600, 2);
+        at = putFixed(timeBytes, at, (secondOfDay / 60) % 60, 2);
+        at = putFixed(timeBytes, at, secondOfDay % 60, 2);
+        int offsetMinutes = offsetMs / 60000;
+        timeBytes[at++] = (byte) (offsetMinutes < 0 ? '-' : '+');
+        offsetMinutes = Math.abs(offsetMinutes);
+        putFixed(timeBytes, at, (offsetMinutes / 60) * 100 + offsetMinutes % 60, 4);
+    }
+}
@@ -5,22 +5,17 @@ import java.util.*;
 
 import ice.MDSConnectivity;
 import ice.Patient;
-import javafx.beans.InvalidationListener;
-import javafx.beans.Observable;
-import javafx.collections.ListChangeListener;
-import javafx.util.Callback;
-
 import javax.swing.event.EventListenerList;
 
-import org.mdpnp.apps.fxbeans.ElementObserver;
-import org.mdpnp.apps.fxbeans.NumericFx;
+import org.mdpnp.apps.fxbeans.AbstractFxList;
 import org.mdpnp.apps.fxbeans.NumericFxList;
-import org.mdpnp.apps.fxbeans.SampleArrayFx;
 import org.mdpnp.apps.fxbeans.SampleArrayFxList;
 import org.mdpnp.devices.MDSHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.rti.dds.subscription.SampleInfo;
+
 public class DataCollector implements MDSHandler.Connectivity.MDSListener {
 
     private static final Logger log = LoggerFactory.getLogger(DataCollector.class);
@@ -54,6 +49,71 @@ public class DataCollector implements MDSHandler.Connectivity.MDSListener {
         public void handleDataSampleEvent(DataSampleEvent evt) throws Exception;
     }
 
+    /**
+     * All of the samples of one SampleArray in a single event.  The source is
+     * a {@link ValueBatch}.
+     */
+    @SuppressWarnings("serial")
+    public static class DataSampleBatchEvent extends EventObject {
+
+        private final Patient patient; // optional; could be null
+
+        public DataSampleBatchEvent(ValueBatch source, Patient p) {
+            super(source);
+            patient = p;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public ValueBatch getBatch() {
+            return (ValueBatch) getSource();
+        }
+
+        /**
+         * @return one event per sample, as delivered to listeners that do not handle batches
+         */
+        public DataSampleEvent[] toDataSampleEvents() {
+            ValueBatch batch = getBatch();
+            DataSampleEvent[] events = new DataSampleEvent[batch.size()];
+            for (int j = 0; j < events.length; j++) {
+                events[j] = new DataSampleEvent(batch.toValue(j), patient);
+            }
+            return events;
+        }
+    }
+
+    /**
+     * Listeners that implement this receive waveform data one array at a time
+     * rather than one sample at a time.  Numerics are still delivered through
+     * {@link DataSampleEventListener#handleDataSampleEvent(DataSampleEvent)}.
+     * Registration is the same as for any other DataSampleEventListener.
+     */
+    public interface DataSampleBatchListener extends DataSampleEventListener {
+        public void handleDataSampleBatchEvent(DataSampleBatchEvent evt) throws Exception;
+    }
+
+    /**
+     * Delivers a batch to each listener; batch listeners get it whole and
+     * everyone else gets the individual samples, exploded at most once.
+     */
+    static void fireDataSampleBatchEvent(DataSampleEventListener[] listeners, DataSampleBatchEvent data) throws Exception {
+        DataSampleEvent[] exploded = null;
+        for(DataSampleEventListener l : listeners) {
+            if(l instanceof DataSampleBatchListener) {
+                ((DataSampleBatchListener) l).handleDataSampleBatchEvent(data);
+            } else {
+                if(null == exploded) {
+                    exploded = data.toDataSampleEvents();
+                }
+                for(DataSampleEvent ev : exploded) {
+                    l.handleDataSampleEvent(ev);
+                }
+            }
+        }
+    }
+
     private final Map<String, Patient> deviceUdiToPatientMRN = Collections.synchronizedMap(new HashMap<String, Patient>());
 
     private final EventListenerList listenerList = new EventListenerList();
@@ -73,14 +133,19 @@ public class DataCollector implements MDSHandler.Connectivity.MDSListener {
         }
     }
 
+    void fireDataSampleBatchEvent(DataSampleBatchEvent data) throws Exception {
+        fireDataSampleBatchEvent(listenerList.getListeners(DataSampleEventListener.class), data);
+    }
+
     private final NumericFxList numericList;
     private final SampleArrayFxList sampleArrayList;
     
-    public void add(NumericFx fx) {
+    public void add(ice.Numeric n) {
         try {
+            long presentationTime = toMilliseconds(n.presentation_time);
             if (log.isTraceEnabled())
-                log.trace(dateFormats.get().format(fx.getPresentation_time()) + " " + fx.getMetric_id() + "=" + fx.getValue());
-            Value v = toValue(fx);
+                log.trace(dateFormats.get().format(new Date(presentationTime)) + " " + n.metric_id + "=" + n.value);
+            Value v = toValue(n.unique_device_identifier, n.metric_id, n.instance_id, presentationTime, n.value);
             Patient patient = resolvePatient(v.getUniqueDeviceIdentifier());
             DataSampleEvent ev = new DataSampleEvent(v, patient);
             fireDataSampleEvent(ev);
@@ -89,135 +154,62 @@ public class DataCollector implements MDSHandler.Connectivity.MDSListener {
         }
     }
     
-    private ElementObserver<SampleArrayFx> sampleArrayObserver;
-    private ElementObserver<NumericFx> numericObserver;
-    public void add(SampleArrayFx fx) {
-        Number[] values = fx.getValues();
-        Date presentationTime = fx.getPresentation_time();
-        long baseTime = presentationTime.getTime();
-
-        final int sz = values.length;
-        if (0 < fx.getFrequency()) {
-            int msPerSample = (int) (1000 / fx.getFrequency());
+    public void add(ice.SampleArray sa) {
+        long baseTime = toMilliseconds(sa.presentation_time);
+
+        final int sz = sa.values.userData.size();
+        if (0 < sa.frequency) {
+            float[] floats = new float[sz];
             for (int j = 0; j < sz; j++) {
-                long tm = baseTime - (sz - j) * msPerSample;
-                float value = values[j].floatValue();
-
-                if (log.isTraceEnabled())
-                    log.trace(dateFormats.get().format(new Date(tm)) + " " + fx.getMetric_id() + "=" + value);
-
-                Value v = toValue(fx.getUnique_device_identifier(), fx.getMetric_id(), fx.getInstance_id(), tm, value);
-                Patient patient = resolvePatient(v.getUniqueDeviceIdentifier());
-                DataSampleEvent ev = new DataSampleEvent(v, patient);
-                try {
-                    fireDataSampleEvent(ev);
-                } catch (Exception e) {
-                    log.error("firing data sample event", e);
-                }
+                floats[j] = sa.values.userData.getFloat(j);
+            }
+            ValueBatch batch = new ValueBatch(sa.unique_device_identifier, sa.metric_id, sa.instance_id,
+                                              baseTime, sa.frequency, floats, sz);
 
+            if (log.isTraceEnabled())
+                log.trace(dateFormats.get().format(new Date(baseTime)) + " " + batch);
+
+            Patient patient = resolvePatient(batch.getUniqueDeviceIdentifier());
+            DataSampleBatchEvent ev = new DataSampleBatchEvent(batch, patient);
+            try {
+                fireDataSampleBatchEvent(ev);
+            } catch (Exception e) {
+                log.error("firing data sample batch event", e);
             }
         } else {
-            log.warn("Invalid frequency " + fx.getFrequency() +
-                    " for " + fx.getUnique_device_identifier() + " " +
-                    fx.getMetric_id() + " " + fx.getInstance_id());
+            log.warn("Invalid frequency " + sa.frequency +
+                    " for " + sa.unique_device_identifier + " " +
+                    sa.metric_id + " " + sa.instance_id);
         }
 
     }
     
-    private final ListChangeListener<NumericFx> numericListener = new ListChangeListener<NumericFx>() {
+    // The rows of the lists coalesce samples for display; recording needs every one
+    private final AbstractFxList.SampleListener<ice.Numeric> numericListener = new AbstractFxList.SampleListener<ice.Numeric>() {
         @Override
-        public void onChanged(javafx.collections.ListChangeListener.Change<? extends NumericFx> c) {
-            while(c.next()) {
-                if(c.wasAdded()) c.getAddedSubList().forEach((fx) -> numericObserver.attachListener(fx));
-                if(c.wasRemoved()) c.getRemoved().forEach((fx) -> numericObserver.detachListener(fx));
-            }
-        }
-    };
-    
-    private static final Callback<NumericFx, Observable[]> numericExtractor = new Callback<NumericFx, Observable[]>() {
-
-        @Override
-        public Observable[] call(NumericFx param) {
-            return new Observable[] {
-                    param.presentation_timeProperty()
-            };
-        }
-        
-    };
-    
-    
-    private final Callback<NumericFx, InvalidationListener> numericListenerGenerator = new Callback<NumericFx, InvalidationListener>() {
-
-        @Override
-        public InvalidationListener call(final NumericFx param) {
-            return new InvalidationListener() {
-
-                @Override
-                public void invalidated(Observable observable) {
-                    add(param);
-                }
-                
-            };
-        }
-        
-    };
-    
-    private final ListChangeListener<SampleArrayFx> sampleArrayListener = new ListChangeListener<SampleArrayFx>() {
-        @Override
-        public void onChanged(javafx.collections.ListChangeListener.Change<? extends SampleArrayFx> c) {
-            while(c.next()) {
-                if(c.wasAdded()) c.getAddedSubList().forEach((fx) -> sampleArrayObserver.attachListener(fx));
-                if(c.wasRemoved()) c.getRemoved().forEach((fx)->sampleArrayObserver.detachListener(fx));
-            }
+        public void sampleReceived(ice.Numeric data, SampleInfo sampleInfo) {
+            add(data);
         }
     };
     
-    private static final Callback<SampleArrayFx, Observable[]> sampleArrayExtractor = new Callback<SampleArrayFx, Observable[]>() {
+    private final AbstractFxList.SampleListener<ice.SampleArray> sampleArrayListener = new AbstractFxList.SampleListener<ice.SampleArray>() {
         @Override
-        public Observable[] call(SampleArrayFx param) {
-            return new Observable[] {
-                    param.presentation_timeProperty()
-            };
+        public void sampleReceived(ice.SampleArray data, SampleInfo sampleInfo) {
+            add(data);
         }
     };
     
-    private final Callback<SampleArrayFx, InvalidationListener> sampleArrayListenerGenerator = new Callback<SampleArrayFx, InvalidationListener>() {
-
-        @Override
-        public InvalidationListener call(final SampleArrayFx param) {
-            return new InvalidationListener() {
-
-                @Override
-                public void invalidated(Observable observable) {
-                    add(param);
-                }
-                
-            };
-        }
-        
-    };
-    
     public DataCollector(SampleArrayFxList sampleArrayList, NumericFxList numericList) {
         this.numericList = numericList;
         this.sampleArrayList = sampleArrayList;
-        sampleArrayObserver = new ElementObserver<>(sampleArrayExtractor, sampleArrayListenerGenerator, sampleArrayList);
-        numericObserver = new ElementObserver<>(numericExtractor, numericListenerGenerator, numericList);
-        
         
-        this.numericList.addListener(numericListener);
-        numericList.forEach((fx)->numericObserver.attachListener(fx));
-        
-        this.sampleArrayList.addListener(sampleArrayListener);
-        sampleArrayList.forEach((fx)->sampleArrayObserver.attachListener(fx));
+        this.numericList.addSampleListener(numericListener);
+        this.sampleArrayList.addSampleListener(sampleArrayListener);
     }
     
     public void destroy() {
-        
-        numericList.removeListener(numericListener);
-        numericList.forEach((fx)->numericObserver.detachListener(fx));
-        
-        sampleArrayList.removeListener(sampleArrayListener);
-        sampleArrayList.forEach((fx)->sampleArrayObserver.detachListener(fx));
+        numericList.removeSampleListener(numericListener);
+        sampleArrayList.removeSampleListener(sampleArrayListener);
     }
 
     @Override
@@ -237,10 +229,8 @@ public class DataCollector implements MDSHandler.Connectivity.MDSListener {
         return deviceUdiToPatientMRN.get(deviceUID);
     }
 
-    static Value toValue(NumericFx fx) {
-        Value v = new Value(fx.getUnique_device_identifier(), fx.getMetric_id(), fx.getInstance_id());
-        v.updateFrom(fx.getPresentation_time().getTime(), fx.getValue());
-        return v;
+    static long toMilliseconds(ice.Time_t t) {
+        return t.sec * 1000L + t.nanosec / 1000000L;
     }
     
     static Value toValue(String dev, String metric, int instance_id, long tMs, double val) {
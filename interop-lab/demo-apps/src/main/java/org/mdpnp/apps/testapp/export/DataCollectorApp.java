@@ -40,7 +40,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
-public class DataCollectorApp implements DataCollector.DataSampleEventListener {
+public class DataCollectorApp implements DataCollector.DataSampleBatchListener {
 
     private static final Logger log = LoggerFactory.getLogger(DataCollectorApp.class);
 
@@ -53,6 +53,8 @@ public class DataCollectorApp implements DataCollector.DataSampleEventListener {
     
     protected ObservableList<Row> tblModel = FXCollections.observableArrayList();
 
+    private static final int MAX_ROWS = 250;
+
     protected static class Row {
         private final String uniqueDeviceIdentifier, instanceId, metricId, devTime;
         private final float value;
@@ -141,6 +143,7 @@ public class DataCollectorApp implements DataCollector.DataSampleEventListener {
         supportedPersisterURLs.add(CSVPersister.class.getResource("CSVPersister.fxml"));
         supportedPersisterURLs.add(JdbcPersister.class.getResource("JdbcPersister.fxml"));
         supportedPersisterURLs.add(VerilogVCDPersister.class.getResource("VerilogVCDPersister.fxml"));
+        supportedPersisterURLs.add(ArchivePersister.class.getResource("ArchivePersister.fxml"));
         supportedPersisterURLs.add(MongoPersister.class.getResource("MongoPersister.fxml"));
 
         final ToggleGroup group = new ToggleGroup();
@@ -274,14 +277,37 @@ public class DataCollectorApp implements DataCollector.DataSampleEventListener {
         Platform.runLater(new Runnable() {
             public void run() {
                 tblModel.add(0, row);
-                if(tblModel.size()>250) {
-                    tblModel.subList(250, tblModel.size()).clear();
+                if(tblModel.size()>MAX_ROWS) {
+                    tblModel.subList(MAX_ROWS, tblModel.size()).clear();
                 }
                 
             }
         });
     }
 
+    @Override
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        // Only the newest rows of the array could survive the trim below; build just those
+        // and hand them to the FX thread at once, newest first.
+        final ValueBatch batch = evt.getBatch();
+        final int n = Math.min(batch.size(), MAX_ROWS);
+        final List<Row> rows = new ArrayList<Row>(n);
+        final String instanceId = ""+batch.getInstanceId();
+        for(int j = batch.size() - 1; j >= batch.size() - n; j--) {
+            String devTime = DataCollector.dateFormats.get().format(new Date(batch.getDevTime(j)));
+            rows.add(new Row(batch.getUniqueDeviceIdentifier(), instanceId,
+                             batch.getMetricId(), devTime, batch.getValue(j)));
+        }
+        Platform.runLater(new Runnable() {
+            public void run() {
+                tblModel.addAll(0, rows);
+                if(tblModel.size()>MAX_ROWS) {
+                    tblModel.subList(MAX_ROWS, tblModel.size()).clear();
+                }
+            }
+        });
+    }
+
     public static void main(String[] args) throws Exception {
 
         final AbstractApplicationContext context =
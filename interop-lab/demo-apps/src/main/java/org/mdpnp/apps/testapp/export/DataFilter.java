@@ -2,7 +2,7 @@ package org.mdpnp.apps.testapp.export;
 
 import javax.swing.event.EventListenerList;
 
-public class DataFilter implements DataCollector.DataSampleEventListener {
+public class DataFilter implements DataCollector.DataSampleBatchListener {
 
     private final DeviceTreeModel controller;
     private boolean enabled = true;
@@ -17,6 +17,12 @@ public class DataFilter implements DataCollector.DataSampleEventListener {
             fireDataSampleEvent(evt);
     }
 
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        // One lookup for the whole array
+        if(enabled && controller.isEnabled(evt.getBatch()))
+            fireDataSampleBatchEvent(evt);
+    }
+
     private boolean isEnabledFor(Value value) {
         return enabled && controller.isEnabled(value);
     }
@@ -45,4 +51,8 @@ public class DataFilter implements DataCollector.DataSampleEventListener {
             l.handleDataSampleEvent(data);
         }
     }
+
+    public void fireDataSampleBatchEvent(DataCollector.DataSampleBatchEvent data) throws Exception {
+        DataCollector.fireDataSampleBatchEvent(listenerList.getListeners(DataCollector.DataSampleEventListener.class), data);
+    }
 }
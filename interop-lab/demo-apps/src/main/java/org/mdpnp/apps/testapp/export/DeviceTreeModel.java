@@ -14,7 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.MapMaker;
 
-public class DeviceTreeModel extends SelectableNode implements ListChangeListener<Device>, DataCollector.DataSampleEventListener {
+public class DeviceTreeModel extends SelectableNode implements ListChangeListener<Device>, DataCollector.DataSampleBatchListener {
 
     private static final Logger log = LoggerFactory.getLogger(DeviceTreeModel.class);
 
@@ -62,16 +62,24 @@ public class DeviceTreeModel extends SelectableNode implements ListChangeListene
         // And only of we see this for the first timer burden the FX thread with
         // tree model modifications.
         //
-        final String key = toKey(value);
+        ensureNode(toKey(value), value.getUniqueDeviceIdentifier(), value.getMetricId(), value.getInstanceId());
+    }
+
+    @Override
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        final ValueBatch batch = evt.getBatch();
+        ensureNode(toKey(batch), batch.getUniqueDeviceIdentifier(), batch.getMetricId(), batch.getInstanceId());
+    }
 
+    private void ensureNode(String key, String udi, String metricId, int instanceId) {
         if (nodeLookup.get(key) == null) {
             Iterator<TreeItem<Object>> iter = getChildren().iterator();
             while (iter.hasNext()) {
                 TreeItem<Object> dn = (TreeItem<Object>) iter.next();
                 Device d = (Device) dn.getValue();
-                if (d.getUDI().equals(value.getUniqueDeviceIdentifier())) {
-                    final TreeItem<Object> mn = ensureMetricNode(dn, value);
-                    final TreeItem<Object> in = ensureInstanceNode(mn, value);
+                if (d.getUDI().equals(udi)) {
+                    final TreeItem<Object> mn = ensureMetricNode(dn, metricId);
+                    final TreeItem<Object> in = ensureInstanceNode(mn, instanceId);
 
                     nodeLookup.put(key, in);
 
@@ -82,35 +90,43 @@ public class DeviceTreeModel extends SelectableNode implements ListChangeListene
     }
 
     static String toKey(Value value) {
-        return value.getUniqueDeviceIdentifier() + "/" + value.getMetricId() + "/" + value.getInstanceId();
+        return toKey(value.getUniqueDeviceIdentifier(), value.getMetricId(), value.getInstanceId());
+    }
+
+    static String toKey(ValueBatch batch) {
+        return toKey(batch.getUniqueDeviceIdentifier(), batch.getMetricId(), batch.getInstanceId());
+    }
+
+    static String toKey(String udi, String metricId, int instanceId) {
+        return udi + "/" + metricId + "/" + instanceId;
     }
 
-    TreeItem<Object> ensureMetricNode(TreeItem<Object> d, Value value)
+    TreeItem<Object> ensureMetricNode(TreeItem<Object> d, String metricId)
     {
         Iterator<TreeItem<Object>> iter = d.getChildren().iterator();
         while (iter.hasNext()) {
             TreeItem<Object> tn = (TreeItem<Object>) iter.next();
-            if (tn.getValue().equals(value.getMetricId())) {
+            if (tn.getValue().equals(metricId)) {
                     return tn;
             }
         }
 
-        TreeItem<Object> tn = makeNewNodeFactory(d, value.getMetricId());
+        TreeItem<Object> tn = makeNewNodeFactory(d, metricId);
         d.getChildren().add(tn);
         return tn;
     }
 
-    TreeItem<Object> ensureInstanceNode(TreeItem<Object> d, Value value)
+    TreeItem<Object> ensureInstanceNode(TreeItem<Object> d, int instanceId)
     {
         Iterator<TreeItem<Object>> iter = d.getChildren().iterator();
         while (iter.hasNext()) {
             TreeItem<Object> tn = (TreeItem<Object>) iter.next();
-            if (tn.getValue().equals(value.getInstanceId())) {
+            if (tn.getValue().equals(instanceId)) {
                 return tn;
             }
         }
 
-        TreeItem<Object> tn = makeNewNodeFactory(d, value.getInstanceId());
+        TreeItem<Object> tn = makeNewNodeFactory(d, instanceId);
         d.getChildren().add(tn);
         return tn;
     }
@@ -119,7 +135,16 @@ public class DeviceTreeModel extends SelectableNode implements ListChangeListene
     {
         // this call back is going to happen A LOT. need fast lookup of the nodes.
         //
-        final String key = toKey(value);
+        return isEnabled(toKey(value));
+    }
+
+    public boolean isEnabled(ValueBatch batch)
+    {
+        return isEnabled(toKey(batch));
+    }
+
+    private boolean isEnabled(String key)
+    {
         TreeItem<Object> node = nodeLookup.get(key);
         if(node instanceof SelectableNode) {
             return ((SelectableNode)node).isSelected();
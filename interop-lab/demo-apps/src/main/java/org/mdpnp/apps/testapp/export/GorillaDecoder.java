@@ -0,0 +1,104 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads back a block written by {@link GorillaEncoder}.  Works directly on
+ * the (typically memory mapped) buffer without copying it.
+ */
+class GorillaDecoder {
+
+    private final ByteBuffer buf;
+    private final int base;
+    private final int count;
+    private final long firstTime;
+
+    private int bitPos;
+    private int index;
+
+    private long time, delta;
+    private int bits;
+    private int prevLeading, prevTrailing;
+
+    /**
+     * @param offset absolute position of the first payload byte in buf
+     */
+    GorillaDecoder(ByteBuffer buf, int offset, int count, long firstTime) {
+        this.buf = buf;
+        this.base = offset;
+        this.count = count;
+        this.firstTime = firstTime;
+    }
+
+    boolean hasNext() {
+        return index < count;
+    }
+
+    /**
+     * Advances to the next sample; read it with getTime() and getValue()
+     */
+    void next() {
+        if (0 == index) {
+            time = firstTime;
+            delta = 0L;
+            bits = (int) readBits(32);
+        } else {
+            delta += readDeltaOfDelta();
+            time += delta;
+            bits ^= readXor();
+        }
+        index++;
+    }
+
+    long getTime() {
+        return time;
+    }
+
+    float getValue() {
+        return Float.intBitsToFloat(bits);
+    }
+
+    private long readDeltaOfDelta() {
+        if (0L == readBits(1)) {
+            return 0L;
+        } else if (0L == readBits(1)) {
+            return signed(readBits(7), 7);
+        } else if (0L == readBits(1)) {
+            return signed(readBits(9), 9);
+        } else if (0L == readBits(1)) {
+            return signed(readBits(12), 12);
+        } else {
+            return readBits(64);
+        }
+    }
+
+    private int readXor() {
+        if (0L == readBits(1)) {
+            return 0;
+        }
+        if (1L == readBits(1)) {
+            prevLeading = (int) readBits(5);
+            int length = (int) readBits(5) + 1;
+            prevTrailing = 32 - prevLeading - length;
+        }
+        int length = 32 - prevLeading - prevTrailing;
+        return (int) readBits(length) << prevTrailing;
+    }
+
+    private static long signed(long value, int n) {
+        return (value << (64 - n)) >> (64 - n);
+    }
+
+    private long readBits(int n) {
+        long value = 0L;
+        while (n > 0) {
+            final int available = 8 - (bitPos & 7);
+            final int take = Math.min(available, n);
+            final int b = buf.get(base + (bitPos >>> 3)) & 0xFF;
+            value = (value << take) | ((b >>> (available - take)) & ((1 << take) - 1));
+            bitPos += take;
+            n -= take;
+        }
+        return value;
+    }
+}
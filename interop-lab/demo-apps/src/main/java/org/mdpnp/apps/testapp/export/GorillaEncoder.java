@@ -0,0 +1,159 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.util.Arrays;
+
+/**
+ * Packs (time, value) pairs into a bit stream after the scheme described in
+ * "Gorilla: A Fast, Scalable, In-Memory Time Series Database" (Pelkonen et al, VLDB 2015),
+ * adapted to millisecond timestamps and 32-bit float values.
+ *
+ * Timestamps are stored as the difference between consecutive deltas:
+ * <pre>
+ *   0                      delta unchanged (every sample of a regular waveform)
+ *   10   + 7 bits          -64 .. 63
+ *   110  + 9 bits          -256 .. 255
+ *   1110 + 12 bits         -2048 .. 2047
+ *   1111 + 64 bits         anything else
+ * </pre>
+ * Values are stored as the XOR of their bits with the previous value's bits:
+ * <pre>
+ *   0                      same value
+ *   10 + meaningful bits   fits within the previous leading/trailing zero window
+ *   11 + 5 bits leading zeros + 5 bits (length - 1) + meaningful bits
+ * </pre>
+ * The first time of a block is kept by the caller; the first value is
+ * stored as 32 raw bits.
+ *
+ * @see GorillaDecoder
+ */
+class GorillaEncoder {
+
+    private byte[] buf;
+    private int bitPos;
+    private int count;
+
+    private long firstTime, prevTime, prevDelta, minTime, maxTime;
+    private int prevBits;
+    private int prevLeading, prevTrailing;
+
+    GorillaEncoder(int initialBytes) {
+        buf = new byte[Math.max(16, initialBytes)];
+        reset();
+    }
+
+    /**
+     * Starts a new block, keeping the buffer.
+     */
+    void reset() {
+        Arrays.fill(buf, 0, getByteLength(), (byte) 0);
+        bitPos = 0;
+        count = 0;
+        prevLeading = -1;
+    }
+
+    void add(long time, float value) {
+        final int bits = Float.floatToRawIntBits(value);
+        if (0 == count) {
+            firstTime = prevTime = minTime = maxTime = time;
+            prevDelta = 0L;
+            writeBits(bits, 32);
+        } else {
+            final long delta = time - prevTime;
+            writeDeltaOfDelta(delta - prevDelta);
+            prevDelta = delta;
+            prevTime = time;
+            if (time < minTime) {
+                minTime = time;
+            } else if (time > maxTime) {
+                maxTime = time;
+            }
+            writeXor(bits ^ prevBits);
+        }
+        prevBits = bits;
+        count++;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getFirstTime() {
+        return firstTime;
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * @return valid from 0 to getByteLength()-1
+     */
+    byte[] getBuffer() {
+        return buf;
+    }
+
+    int getByteLength() {
+        return (bitPos + 7) >>> 3;
+    }
+
+    private void writeDeltaOfDelta(long dod) {
+        if (0L == dod) {
+            writeBits(0L, 1);
+        } else if (dod >= -64L && dod <= 63L) {
+            writeBits(0x2L, 2);
+            writeBits(dod, 7);
+        } else if (dod >= -256L && dod <= 255L) {
+            writeBits(0x6L, 3);
+            writeBits(dod, 9);
+        } else if (dod >= -2048L && dod <= 2047L) {
+            writeBits(0xEL, 4);
+            writeBits(dod, 12);
+        } else {
+            writeBits(0xFL, 4);
+            writeBits(dod, 64);
+        }
+    }
+
+    private void writeXor(int xor) {
+        if (0 == xor) {
+            writeBits(0L, 1);
+            return;
+        }
+        final int leading = Integer.numberOfLeadingZeros(xor);
+        final int trailing = Integer.numberOfTrailingZeros(xor);
+        if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+            writeBits(0x2L, 2);
+            writeBits(xor >>> prevTrailing, 32 - prevLeading - prevTrailing);
+        } else {
+            final int length = 32 - leading - trailing;
+            writeBits(0x3L, 2);
+            writeBits(leading, 5);
+            writeBits(length - 1, 5);
+            writeBits(xor >>> trailing, length);
+            prevLeading = leading;
+            prevTrailing = trailing;
+        }
+    }
+
+    /**
+     * Writes the low n bits of value, most significant first.
+     */
+    private void writeBits(long value, int n) {
+        final int needed = (bitPos + n + 7) >>> 3;
+        if (needed > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(needed, buf.length * 2));
+        }
+        while (n > 0) {
+            final int free = 8 - (bitPos & 7);
+            final int take = Math.min(free, n);
+            final int chunk = (int) (value >>> (n - take)) & ((1 << take) - 1);
+            buf[bitPos >>> 3] |= chunk << (free - take);
+            bitPos += take;
+            n -= take;
+        }
+    }
+}
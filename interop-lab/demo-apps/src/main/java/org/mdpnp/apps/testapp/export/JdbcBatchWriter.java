@@ -0,0 +1,305 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts samples into VITAL_VALUES from a background thread so that the
+ * threads delivering data never wait on the database.
+ *
+ * Callers hand over a {@link Value} or a whole {@link ValueBatch}; either is
+ * one entry in a bounded queue.  The writer thread adds rows to a JDBC batch
+ * and executes and commits it once it holds at least batchSize rows or its
+ * oldest row has waited maxLatencyMs.  When the queue is full the entry is
+ * dropped rather than blocking the caller; both events are counted.
+ */
+class JdbcBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcBatchWriter.class);
+
+    static final String INSERT = "INSERT INTO VITAL_VALUES (DEVICE_ID, METRIC_ID, INSTANCE_ID, TIME_TICK, VITAL_VALUE) VALUES(?,?,?,?,?)";
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final long DEFAULT_MAX_LATENCY_MS = 250L;
+    /**
+     * In entries; a waveform entry is a whole array
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    // How long an idle writer sleeps before checking whether it has been stopped
+    private static final long IDLE_POLL_MS = 100L;
+
+    private final Connection conn;
+    private final PreparedStatement ps;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final long maxLatencyMs;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong backpressure = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicInteger drainWaiters = new AtomicInteger();
+
+    // entries taken off the queue and committed (or failed); guarded by this
+    private long completed;
+
+    JdbcBatchWriter(Connection conn, int batchSize, long maxLatencyMs, int queueCapacity) throws SQLException {
+        if (batchSize <= 0 || maxLatencyMs < 0L || queueCapacity <= 0) {
+            throw new IllegalArgumentException("batchSize=" + batchSize + " maxLatencyMs=" + maxLatencyMs + " queueCapacity=" + queueCapacity);
+        }
+        this.conn = conn;
+        this.batchSize = batchSize;
+        this.maxLatencyMs = maxLatencyMs;
+        this.queue = new ArrayBlockingQueue<Object>(queueCapacity);
+        conn.setAutoCommit(false);
+        this.ps = conn.prepareStatement(INSERT);
+        this.thread = new Thread(writer, "JdbcBatchWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Never blocks.
+     * @return false if the queue was full or the writer stopped and the sample was dropped
+     */
+    public boolean offer(Value value) {
+        return offer(value, 1);
+    }
+
+    /**
+     * Never blocks.  The batch must not be modified afterward.
+     * @return false if the queue was full or the writer stopped and the samples were dropped
+     */
+    public boolean offer(ValueBatch batch) {
+        return offer(batch, batch.size());
+    }
+
+    private boolean offer(Object entry, int samples) {
+        if (running && queue.offer(entry)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        backpressure.incrementAndGet();
+        dropped.addAndGet(samples);
+        return false;
+    }
+
+    /**
+     * Waits until everything accepted before the call has been committed
+     * (or has failed); any partial batch is committed without waiting for
+     * maxLatencyMs.
+     * @return false if that did not happen within the timeout
+     */
+    public boolean drain(long timeoutMs) throws InterruptedException {
+        final long target = accepted.get();
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        drainWaiters.incrementAndGet();
+        try {
+            synchronized (this) {
+                while (completed < target) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0L || !thread.isAlive()) {
+                        return false;
+                    }
+                    wait(remaining);
+                }
+                return true;
+            }
+        } finally {
+            drainWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting entries, writes what is already queued and closes the
+     * statement.  The connection is left open for its owner to close.
+     */
+    public void shutdown(long timeoutMs) throws InterruptedException {
+        running = false;
+        thread.join(timeoutMs);
+        if (thread.isAlive()) {
+            log.warn("Writer did not finish within " + timeoutMs + "ms; " + queue.size() + " entries abandoned");
+            thread.interrupt();
+            thread.join(timeoutMs);
+        }
+        try {
+            ps.close();
+        } catch (SQLException e) {
+            log.warn("closing statement", e);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * @return offers refused because the queue was full (or the writer stopped)
+     */
+    public long getBackpressureCount() {
+        return backpressure.get();
+    }
+
+    /**
+     * @return samples discarded by refused offers
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return samples committed
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return samples that could not be added to a batch, or were in batches that failed to execute or commit
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * Rows are counted as they are added so that those ahead of a failure are
+     * committed and counted as written with the rest of the JDBC batch.
+     * @return rows added to the JDBC batch; any others are counted as failed
+     */
+    private int add(Object entry) {
+        int added = 0, samples = 1;
+        try {
+            if (entry instanceof ValueBatch) {
+                ValueBatch batch = (ValueBatch) entry;
+                samples = batch.size();
+                for (int j = 0; j < samples; j++) {
+                    add(batch.getUniqueDeviceIdentifier(), batch.getMetricId(), batch.getInstanceId(), batch.getDevTime(j), batch.getValue(j));
+                    added++;
+                }
+            } else {
+                Value value = (Value) entry;
+                add(value.getUniqueDeviceIdentifier(), value.getMetricId(), value.getInstanceId(), value.getDevTime(), value.getValue());
+                added++;
+            }
+        } catch (SQLException e) {
+            failed.addAndGet(samples - added);
+            log.error("Unable to add " + entry + " after " + added + " of " + samples + " samples", e);
+        }
+        return added;
+    }
+
+    private void add(String udi, String metricId, int instanceId, long devTime, double value) throws SQLException {
+        ps.setString   (1, udi);
+        ps.setString   (2, metricId);
+        ps.setInt      (3, instanceId);
+        // Not reused; drivers may hold on to parameter objects until executeBatch
+        ps.setTimestamp(4, new Timestamp(devTime));
+        ps.setDouble   (5, value);
+        ps.addBatch();
+    }
+
+    private void commit(int rows, int entries) {
+        try {
+            ps.executeBatch();
+            conn.commit();
+            written.addAndGet(rows);
+            batches.incrementAndGet();
+        } catch (SQLException e) {
+            failed.addAndGet(rows);
+            log.error("Failed to write " + rows + " samples", e);
+            try {
+                ps.clearBatch();
+                conn.rollback();
+            } catch (SQLException e1) {
+                log.error("rolling back", e1);
+            }
+        }
+        synchronized (this) {
+            completed += entries;
+            notifyAll();
+        }
+    }
+
+    private final Runnable writer = new Runnable() {
+        @Override
+        public void run() {
+            int rows = 0, entries = 0;
+            long batchStarted = 0L;
+            try {
+                while (running || !queue.isEmpty()) {
+                    long wait;
+                    if (0 == rows) {
+                        wait = IDLE_POLL_MS;
+                    } else if (drainWaiters.get() > 0) {
+                        wait = 0L;
+                    } else {
+                        wait = Math.min(IDLE_POLL_MS, Math.max(0L, batchStarted + maxLatencyMs - System.currentTimeMillis()));
+                    }
+                    Object entry = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    while (null != entry) {
+                        if (0 == rows) {
+                            batchStarted = System.currentTimeMillis();
+                        }
+                        rows += add(entry);
+                        entries++;
+                        if (rows >= batchSize) {
+                            break;
+                        }
+                        entry = queue.poll();
+                    }
+                    if (rows > 0 || entries > 0) {
+                        if (rows >= batchSize || !running || (drainWaiters.get() > 0 && queue.isEmpty())
+                                || System.currentTimeMillis() - batchStarted >= maxLatencyMs) {
+                            commit(rows, entries);
+                            rows = 0;
+                            entries = 0;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.warn("Writer interrupted with " + rows + " samples uncommitted");
+            } finally {
+                if (rows > 0 || entries > 0) {
+                    commit(rows, entries);
+                }
+                synchronized (JdbcBatchWriter.this) {
+                    JdbcBatchWriter.this.notifyAll();
+                }
+            }
+        }
+    };
+
+    @Override
+    public String toString() {
+        return "[written=" + getWrittenCount() + ",batches=" + getBatchCount() + ",queued=" + getQueueDepth() + ",backpressure="
+                + getBackpressureCount() + ",dropped=" + getDroppedCount() + ",failed=" + getFailedCount() + "]";
+    }
+}
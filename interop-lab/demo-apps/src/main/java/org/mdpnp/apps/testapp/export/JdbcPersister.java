@@ -2,33 +2,45 @@ package org.mdpnp.apps.testapp.export;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 
-public class JdbcPersister extends FileAdapterApplicationFactory.PersisterUIController implements DataCollector.DataSampleEventListener  {
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JdbcPersister extends FileAdapterApplicationFactory.PersisterUIController implements DataCollector.DataSampleBatchListener  {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcPersister.class);
+
+    private static final long DRAIN_TIMEOUT_MS = 10000L;
 
     private Connection conn = null;
-    private PreparedStatement ps = null;
+    private JdbcBatchWriter writer = null;
 
-    @FXML TextField fDriver, fURL, fUser;
+    private int batchSize = JdbcBatchWriter.DEFAULT_BATCH_SIZE;
+    private long maxLatencyMs = JdbcBatchWriter.DEFAULT_MAX_LATENCY_MS;
+    private int queueCapacity = JdbcBatchWriter.DEFAULT_QUEUE_CAPACITY;
+
+    @FXML TextField fDriver, fURL, fUser, fBatchSize, fMaxLatency;
     @FXML PasswordField fPassword;
 
+    /**
+     * Queues the value for the writer thread; returns without touching the database.
+     */
     public void persist(Value value) throws Exception {
 
-        if(ps != null) {
-            ps.setString   (1, value.getUniqueDeviceIdentifier());
-            ps.setString   (2, value.getMetricId());
-            ps.setInt      (3, value.getInstanceId());
-            ps.setTimestamp(4, new java.sql.Timestamp(value.getDevTime()));
-            ps.setDouble   (5, value.getValue());
+        if(writer != null) {
+            writer.offer(value);
+        }
+    }
 
-            ps.execute();
+    public void persist(ValueBatch batch) throws Exception {
 
-            conn.commit();
+        if(writer != null) {
+            writer.offer(batch);
         }
     }
 
@@ -38,6 +50,72 @@ public class JdbcPersister extends FileAdapterApplicationFactory.PersisterUICont
         persist(vital);
     }
 
+    @Override
+    public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+        persist(evt.getBatch());
+    }
+
+    /**
+     * Waits for everything persisted so far to be committed.
+     */
+    public boolean flush() throws InterruptedException {
+        return writer == null || writer.drain(DRAIN_TIMEOUT_MS);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Rows per executeBatch/commit; takes effect on the next start.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * Longest a queued row waits for its batch to fill; takes effect on the next start.
+     */
+    public void setMaxLatencyMs(long maxLatencyMs) {
+        this.maxLatencyMs = maxLatencyMs;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getQueueDepth() {
+        return writer == null ? 0 : writer.getQueueDepth();
+    }
+
+    public long getBackpressureCount() {
+        return writer == null ? 0L : writer.getBackpressureCount();
+    }
+
+    public long getDroppedCount() {
+        return writer == null ? 0L : writer.getDroppedCount();
+    }
+
+    public long getWrittenCount() {
+        return writer == null ? 0L : writer.getWrittenCount();
+    }
+
+    public long getFailedCount() {
+        return writer == null ? 0L : writer.getFailedCount();
+    }
+
+    public long getBatchCount() {
+        return writer == null ? 0L : writer.getBatchCount();
+    }
+
     static void createSchema(Connection conn) throws SQLException {
         conn.createStatement().execute( "CREATE TABLE VITAL_VALUES " +
                                         "(DEVICE_ID VARCHAR(25), " +
@@ -54,17 +132,23 @@ public class JdbcPersister extends FileAdapterApplicationFactory.PersisterUICont
 
     @Override
     public boolean start() throws Exception {
+        batchSize = parse(fBatchSize, batchSize);
+        maxLatencyMs = parse(fMaxLatency, maxLatencyMs);
+
         conn = createConnection();
         if(conn != null)
-            ps = conn.prepareStatement("INSERT INTO VITAL_VALUES (DEVICE_ID, METRIC_ID, INSTANCE_ID, TIME_TICK, VITAL_VALUE) VALUES(?,?,?,?,?)");
+            writer = new JdbcBatchWriter(conn, batchSize, maxLatencyMs, queueCapacity);
         return conn != null;
     }
 
     @Override
     public void stop() throws Exception {
-        if(ps != null) ps.close();
+        if(writer != null) {
+            writer.shutdown(DRAIN_TIMEOUT_MS);
+            log.info("sql persister stopped " + writer);
+        }
         if(conn != null) conn.close();
-        ps = null;
+        writer = null;
         conn = null;
     }
 
@@ -96,13 +180,30 @@ public class JdbcPersister extends FileAdapterApplicationFactory.PersisterUICont
         return conn;
     }
 
-    Connection getConnection() {
+    /**
+     * The writer thread is drained first so that the connection reflects
+     * everything persisted so far.
+     */
+    Connection getConnection() throws InterruptedException {
+        flush();
         return conn;
     }
 
+    JdbcBatchWriter getWriter() {
+        return writer;
+    }
+
     private static boolean isEmpty(String s) {
         return s == null || s.trim().length()==0;
     }
+
+    private static int parse(TextField field, int dflt) {
+        return field == null || isEmpty(field.getText()) ? dflt : Integer.parseInt(field.getText().trim());
+    }
+
+    private static long parse(TextField field, long dflt) {
+        return field == null || isEmpty(field.getText()) ? dflt : Long.parseLong(field.getText().trim());
+    }
     
     @Override
     public void setup() {
@@ -0,0 +1,95 @@
+package org.mdpnp.apps.testapp.export;
+
+/**
+ * One whole SampleArray worth of values for a single device/metric/instance.
+ * The samples are evenly spaced; the last one is one sample period before
+ * the base (presentation) time of the array.
+ */
+public class ValueBatch {
+    private final String uniqueDeviceIdentifier, metricId;
+    private final int instanceId;
+    private final long baseTime;
+    private final long frequency;
+    private final int msPerSample;
+    private final float[] values;
+    private final int count;
+
+    /**
+     * @param values not copied; only the first count are part of the batch
+     */
+    public ValueBatch(final String uniqueDeviceIdentifier, final String metricId, final int instanceId, long baseTime, long frequency,
+            float[] values, int count) {
+        if (frequency <= 0) {
+            throw new IllegalArgumentException("frequency must be positive " + frequency);
+        }
+        this.uniqueDeviceIdentifier = uniqueDeviceIdentifier;
+        this.metricId = metricId;
+        this.instanceId = instanceId;
+        this.baseTime = baseTime;
+        this.frequency = frequency;
+        this.msPerSample = (int) (1000 / frequency);
+        this.values = values;
+        this.count = count;
+    }
+
+    public String getUniqueDeviceIdentifier() {
+        return uniqueDeviceIdentifier;
+    }
+
+    public String getMetricId() {
+        return metricId;
+    }
+
+    public int getInstanceId() {
+        return instanceId;
+    }
+
+    public long getBaseTime() {
+        return baseTime;
+    }
+
+    public long getFrequency() {
+        return frequency;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the backing array; valid from 0 to size()-1
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    public float getValue(int i) {
+        return values[i];
+    }
+
+    public long getDevTime(int i) {
+        return baseTime - (count - i) * msPerSample;
+    }
+
+    /**
+     * @return the i-th sample as a standalone Value for per-sample consumers
+     */
+    public Value toValue(int i) {
+        Value v = new Value(uniqueDeviceIdentifier, metricId, instanceId);
+        v.updateFrom(getDevTime(i), values[i]);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ValueBatch {");
+        sb.append("baseTime=").append(baseTime);
+        sb.append(", uid='").append(uniqueDeviceIdentifier).append('\'');
+        sb.append(", metricId='").append(metricId).append('\'');
+        sb.append(", instanceId=").append(instanceId);
+        sb.append(", frequency=").append(frequency);
+        sb.append(", size=").append(count);
+        sb.append('}');
+        return sb.toString();
+    }
+}
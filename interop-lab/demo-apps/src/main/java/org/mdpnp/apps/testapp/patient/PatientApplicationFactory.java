@@ -133,7 +133,7 @@ public class PatientApplicationFactory implements IceApplicationProvider {
 
 
     @SuppressWarnings("serial")
-    static class EmbeddedDB extends JDBCDataSource {
+    public static class EmbeddedDB extends JDBCDataSource {
         private String schemaDef;
         private String dataDef;
 
@@ -82,11 +82,7 @@ public class RBSApplicationFactory implements IceApplicationProvider {
                 // Warnings do not count for this application. We only care when all
                 // conditions become red.
                 //
-                if (!isEmpty() && advisories.size() == size()) {
-                    for (Advisory a : advisories.values()) {
-                        if (a.state != State.Alarm)
-                            return State.Normal;
-                    }
+                if (!isEmpty() && getAlarmCount() == size()) {
                     return State.Alarm;
                 }
                 return State.Normal;
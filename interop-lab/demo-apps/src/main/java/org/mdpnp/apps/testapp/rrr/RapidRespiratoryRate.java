@@ -37,6 +37,7 @@ import javafx.scene.control.Slider;
 import javafx.util.Callback;
 import javafx.util.Duration;
 
+import org.mdpnp.apps.fxbeans.AbstractFxList;
 import org.mdpnp.apps.fxbeans.SampleArrayFx;
 import org.mdpnp.apps.fxbeans.SampleArrayFxList;
 import org.mdpnp.apps.testapp.*;
@@ -44,7 +45,7 @@ import org.mdpnp.devices.AbstractDevice;
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.DeviceDriverProvider;
 import org.mdpnp.devices.simulation.AbstractSimulatedDevice;
-import org.mdpnp.guis.waveform.SampleArrayWaveformSource;
+import org.mdpnp.guis.waveform.BufferedSampleArrayWaveformSource;
 import org.mdpnp.guis.waveform.WaveformCanvas;
 import org.mdpnp.guis.waveform.WaveformRenderer;
 import org.mdpnp.guis.waveform.WaveformSource.WaveformIterator;
@@ -194,7 +195,13 @@ public class RapidRespiratoryRate implements Runnable {
                 if (model != null && newValue != null) {
                     ice.SampleArray keyHolder = new ice.SampleArray();
                     model.getReader().get_key_value(keyHolder, newValue.getHandle());
-                    source = new SampleArrayWaveformSource(model.getReader(), keyHolder);
+                    BufferedSampleArrayWaveformSource source = new BufferedSampleArrayWaveformSource(model.getReader(), keyHolder);
+                    if (null != feed) {
+                        model.removeSampleListener(feed);
+                    }
+                    feed = source::append;
+                    model.addSampleListener(feed);
+                    RapidRespiratoryRate.this.source = source;
                 }
 //                wavePanel.getData().clear();
 //                Series<Number,Number> series = data.getSeries(newValue.getHandle());
@@ -219,7 +226,9 @@ public class RapidRespiratoryRate implements Runnable {
     private SampleArrayFxList model;
     private ObservableList<SampleArrayFx> filteredModel;
     
-    private SampleArrayWaveformSource source;
+    private BufferedSampleArrayWaveformSource source;
+    // Feeds source the SampleArrays read by model
+    private AbstractFxList.SampleListener<ice.SampleArray> feed;
     private final WaveformRenderer renderer = new WaveformRenderer();
     private WaveformCanvas canvas;
     private Timeline waveformRender;
@@ -246,7 +255,7 @@ public class RapidRespiratoryRate implements Runnable {
     
     @Override
     public void run() {
-        SampleArrayWaveformSource source = this.source;
+        BufferedSampleArrayWaveformSource source = this.source;
         if(source != null) {
             source.iterate(new WaveformIterator() {
 
@@ -322,6 +331,10 @@ public class RapidRespiratoryRate implements Runnable {
         }
     };
     public void stop() {
+        if (null != feed) {
+            model.removeSampleListener(feed);
+            feed = null;
+        }
         model.stop();
         waveformRender.stop();
         executor.shutdownNow();
@@ -0,0 +1,229 @@
+package org.mdpnp.apps.testapp.validate;
+
+/**
+ * Counts of the integer values in a sliding window of the most recent
+ * samples.  The window is a circular array and the counts a dense array
+ * indexed by value so adding a sample and evicting the oldest are both O(1).
+ * Values are clamped to the range of a short so that one wild sample cannot
+ * blow up the bins.
+ * <p>
+ * Accessed by the Fx App Thread, which adds samples and publishes the
+ * counts, and by the thread that periodically recomputes statistics.
+ */
+class RollingHistogram {
+    private static final int MIN_VALUE = Short.MIN_VALUE, MAX_VALUE = Short.MAX_VALUE;
+
+    private int[] window;
+    // Index of the oldest sample in the window
+    private int head;
+    private int n;
+    private long sum;
+
+    // bins[value - offset] is the count of value
+    private int[] bins = new int[0];
+    private int offset;
+    // No value outside of [lowest, highest] has a count; tightened lazily
+    private int lowest = Integer.MAX_VALUE, highest = Integer.MIN_VALUE;
+
+    // Incremented on every change so a consumer can tell whether to republish
+    private long modCount;
+
+    RollingHistogram(int windowSize) {
+        window = new int[Math.max(1, windowSize)];
+    }
+
+    synchronized void add(int value) {
+        value = Math.max(MIN_VALUE, Math.min(MAX_VALUE, value));
+        if (n == window.length) {
+            evict();
+        }
+        window[(head + n) % window.length] = value;
+        n++;
+        sum += value;
+        bin(value);
+        modCount++;
+    }
+
+    /**
+     * Resize the window, keeping the most recent samples
+     */
+    synchronized void setWindowSize(int windowSize) {
+        windowSize = Math.max(1, windowSize);
+        if (windowSize == window.length) {
+            return;
+        }
+        while (n > windowSize) {
+            evict();
+        }
+        int[] resized = new int[windowSize];
+        for (int i = 0; i < n; i++) {
+            resized[i] = window[(head + i) % window.length];
+        }
+        window = resized;
+        head = 0;
+        modCount++;
+    }
+
+    synchronized int getWindowSize() {
+        return window.length;
+    }
+
+    synchronized int getN() {
+        return n;
+    }
+
+    synchronized int getCount(int value) {
+        int i = value - offset;
+        return i >= 0 && i < bins.length ? bins[i] : 0;
+    }
+
+    /**
+     * @return a value no greater than the smallest in the window
+     */
+    synchronized int getLowest() {
+        return lowest;
+    }
+
+    /**
+     * @return a value no less than the largest in the window
+     */
+    synchronized int getHighest() {
+        return highest;
+    }
+
+    synchronized long getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Pool the samples currently in the window into the specified moments
+     */
+    synchronized void addTo(Moments moments) {
+        if (0 == n) {
+            return;
+        }
+        while (bins[lowest - offset] == 0) {
+            lowest++;
+        }
+        while (bins[highest - offset] == 0) {
+            highest--;
+        }
+        double mean = (double) sum / n;
+        double m2 = 0.0, m3 = 0.0, m4 = 0.0;
+        for (int v = lowest; v <= highest; v++) {
+            int c = bins[v - offset];
+            if (c > 0) {
+                double d = v - mean, d2 = d * d;
+                m2 += c * d2;
+                m3 += c * d2 * d;
+                m4 += c * d2 * d2;
+            }
+        }
+        moments.add(n, mean, m2, m3, m4);
+    }
+
+    private void evict() {
+        int value = window[head];
+        head = (head + 1) % window.length;
+        n--;
+        sum -= value;
+        bins[value - offset]--;
+    }
+
+    private void bin(int value) {
+        if (value < offset || value - offset >= bins.length) {
+            // Grow to cover the new value with as much room again to spare
+            int low = Math.min(value, bins.length == 0 ? value : offset);
+            int high = Math.max(value, bins.length == 0 ? value : offset + bins.length - 1);
+            int span = high - low + 1;
+            int newLow = Math.max(MIN_VALUE, value < offset ? low - span : low);
+            int newHigh = Math.min(MAX_VALUE, value < offset ? high : high + span);
+            int[] grown = new int[newHigh - newLow + 1];
+            if (bins.length > 0) {
+                System.arraycopy(bins, 0, grown, offset - newLow, bins.length);
+            }
+            bins = grown;
+            offset = newLow;
+        }
+        bins[value - offset]++;
+        lowest = Math.min(lowest, value);
+        highest = Math.max(highest, value);
+    }
+
+    /**
+     * Central moments of the samples of one or more windows, pooled with the
+     * pairwise update of Chan et al.  The statistics follow the definitions
+     * of commons-math DescriptiveStatistics; in particular
+     * {@link #getKurtosis()} is already the excess kurtosis.
+     */
+    static class Moments {
+        private long n;
+        private double mean, m2, m3, m4;
+
+        void clear() {
+            n = 0L;
+            mean = m2 = m3 = m4 = 0.0;
+        }
+
+        void add(long nb, double meanb, double m2b, double m3b, double m4b) {
+            if (0L == nb) {
+                return;
+            }
+            if (0L == n) {
+                n = nb;
+                mean = meanb;
+                m2 = m2b;
+                m3 = m3b;
+                m4 = m4b;
+                return;
+            }
+            double na = n, nbd = nb, nt = na + nbd;
+            double delta = meanb - mean, delta2 = delta * delta;
+            m4 += m4b + delta2 * delta2 * na * nbd * (na * na - na * nbd + nbd * nbd) / (nt * nt * nt)
+                    + 6.0 * delta2 * (na * na * m2b + nbd * nbd * m2) / (nt * nt) + 4.0 * delta * (na * m3b - nbd * m3) / nt;
+            m3 += m3b + delta2 * delta * na * nbd * (na - nbd) / (nt * nt) + 3.0 * delta * (na * m2b - nbd * m2) / nt;
+            m2 += m2b + delta2 * na * nbd / nt;
+            mean += delta * nbd / nt;
+            n += nb;
+        }
+
+        long getN() {
+            return n;
+        }
+
+        double getMean() {
+            return 0L == n ? Double.NaN : mean;
+        }
+
+        double getVariance() {
+            return 0L == n ? Double.NaN : 1L == n ? 0.0 : m2 / (n - 1);
+        }
+
+        double getStandardDeviation() {
+            return Math.sqrt(getVariance());
+        }
+
+        double getSkewness() {
+            if (n < 3L) {
+                return Double.NaN;
+            }
+            double variance = getVariance();
+            if (variance < 10E-20) {
+                return 0.0;
+            }
+            return (n * m3) / ((n - 1.0) * (n - 2.0) * Math.sqrt(variance) * variance);
+        }
+
+        double getKurtosis() {
+            if (n <= 3L) {
+                return Double.NaN;
+            }
+            double variance = getVariance();
+            if (variance < 10E-20) {
+                return 0.0;
+            }
+            double nd = n;
+            return (nd * (nd + 1.0) * m4 - 3.0 * m2 * m2 * (nd - 1.0)) / ((nd - 1.0) * (nd - 2.0) * (nd - 3.0) * variance * variance);
+        }
+    }
+}
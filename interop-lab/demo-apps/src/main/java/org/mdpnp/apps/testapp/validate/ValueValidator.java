@@ -1,9 +1,7 @@
 package org.mdpnp.apps.testapp.validate;
 
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.IntegerProperty;
@@ -14,32 +12,33 @@ import javafx.collections.ObservableList;
 import javafx.scene.chart.XYChart;
 import javafx.scene.chart.XYChart.Data;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.mdpnp.apps.testapp.vital.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ValueValidator implements ChangeListener<Date> {
-    private final List<Integer> dataPoints = new LinkedList<Integer>();
-    
+    // Samples are binned as they arrive but the chart is redrawn at most this often
+    private static final long PUBLISH_INTERVAL_MS = 500L;
+
     public XYChart.Series<String, Number> getSeries() {
         return series;
     }
     
-    private final DescriptiveStatistics stats = new DescriptiveStatistics();
+    private final RollingHistogram histogram;
     
     
     private final Value value;
     private final ObservableList<Data<String,Number>> data = FXCollections.observableArrayList();
+    // The value of each category in data, ascending
+    private int[] categories;
     private final XYChart.Series<String, Number> series;
-    private final IntegerProperty maxDataPoints;
+    private long publishedModCount = -1L, lastPublish;
     
-    public DescriptiveStatistics getStats() {
-        return stats;
+    RollingHistogram getHistogram() {
+        return histogram;
     }
     private static final Logger log = LoggerFactory.getLogger(ValueValidator.class);
     public ValueValidator(final VitalValidator vitalValidator, final IntegerProperty maxDataPoints, final Value value, final ValidationOracle validationOracle) {
-        this.maxDataPoints = maxDataPoints;
         this.value = value;
         
         Validation validation = validationOracle.getByNumeric(value.getNumeric());
@@ -48,12 +47,17 @@ public class ValueValidator implements ChangeListener<Date> {
         } else {
             validation.validatedProperty().bind(vitalValidator.validatedProperty());
         }
-        maxDataPoints.addListener((t)->stats.setWindowSize(maxDataPoints.get()));
-        stats.setWindowSize(maxDataPoints.get());
+        histogram = new RollingHistogram(maxDataPoints.get());
+        maxDataPoints.addListener((t)->{
+            histogram.setWindowSize(maxDataPoints.get());
+            publish(false);
+        });
         
         int low = (int) (value.getParent().getCriticalLow()==null?value.getParent().getMinimum():value.getParent().getCriticalLow());
         int high = (int) (value.getParent().getCriticalHigh()==null?value.getParent().getMaximum():value.getParent().getCriticalHigh());
+        categories = new int[Math.max(0, high - low + 1)];
         for(int i = low; i <= high; i++) {
+            categories[i - low] = i;
             data.add(new Data<String,Number>(""+i, 0));
         }
         series = new XYChart.Series<String,Number>(data);
@@ -62,47 +66,51 @@ public class ValueValidator implements ChangeListener<Date> {
         newTimestamp(value.getTimestamp());
     }
     
-    private void addToBins(int value, int count) {
-        Iterator<Data<String,Number>> itr = data.iterator();
-        while(itr.hasNext()) {
-            Data<String,Number> d = itr.next();
-            if(d.getXValue().equals(""+value)) {
-                Number y = d.getYValue();
-                count += y.intValue();
-                d.setYValue(count);
-                return;
-            }
+    /**
+     * Copy the current counts into the chart series; on the Fx App Thread.
+     * 
+     * @param throttle if true do nothing when the chart was redrawn recently
+     */
+    void publish(boolean throttle) {
+        long now = System.currentTimeMillis();
+        if(throttle && now - lastPublish < PUBLISH_INTERVAL_MS) {
+            return;
         }
-        if(data.isEmpty() || 
-           value > Integer.parseInt(data.get(data.size()-1).getXValue())) {
-            // Add after
-            data.add(new Data<String,Number>(""+value, count));
-        } else if(value < Integer.parseInt(data.get(0).getXValue())) {
-            // Add before
-            data.add(0, new Data<String,Number>(""+value, count));
-        } else {
-            int i;
-            for(i = 0; i < data.size(); i++) {
-                if(value < Integer.parseInt(data.get(i).getXValue())) {
-                    data.add(i, new Data<String,Number>(""+value, count));
-                    break;
+        long modCount = histogram.getModCount();
+        if(modCount == publishedModCount) {
+            return;
+        }
+        lastPublish = now;
+        publishedModCount = modCount;
+
+        // Categories for values outside of the expected range are inserted in order as they are first seen
+        int highest = histogram.getHighest();
+        for(int v = histogram.getLowest(); v <= highest; v++) {
+            if(histogram.getCount(v) > 0) {
+                int i = Arrays.binarySearch(categories, v);
+                if(i < 0) {
+                    i = -i - 1;
+                    int[] grown = new int[categories.length + 1];
+                    System.arraycopy(categories, 0, grown, 0, i);
+                    System.arraycopy(categories, i, grown, i + 1, categories.length - i);
+                    grown[i] = v;
+                    categories = grown;
+                    data.add(i, new Data<String,Number>(""+v, 0));
                 }
             }
         }
+        for(int i = 0; i < categories.length; i++) {
+            Data<String,Number> d = data.get(i);
+            int count = histogram.getCount(categories[i]);
+            if(d.getYValue().intValue() != count) {
+                d.setYValue(count);
+            }
+        }
     }
 
     public void newTimestamp(Date newValue) {
-        int value = (int) this.value.getValue();
-        dataPoints.add(value);
-        stats.addValue(value);
-
-        final int max = maxDataPoints.get();
-        while(dataPoints.size()>max) {
-            Integer x = dataPoints.remove((int)0);
-            addToBins(x, -1);
-        }        
-        addToBins(value, 1);        
-
+        histogram.add((int) this.value.getValue());
+        publish(true);
     }
     
     @Override
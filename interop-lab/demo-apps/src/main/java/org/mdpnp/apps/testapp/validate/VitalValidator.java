@@ -20,7 +20,6 @@ import javafx.beans.property.SimpleLongProperty;
 import javafx.collections.ObservableList;
 import javafx.scene.chart.XYChart.Series;
 
-import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.mdpnp.apps.device.OnListChange;
 import org.mdpnp.apps.testapp.vital.Value;
 import org.mdpnp.apps.testapp.vital.Vital;
@@ -30,7 +29,7 @@ import org.slf4j.LoggerFactory;
 public class VitalValidator {
     private final Vital vital;
     
-    private final DescriptiveStatistics stats = new DescriptiveStatistics();
+    private final RollingHistogram.Moments stats = new RollingHistogram.Moments();
     
     private final Map<Value, ValueValidator> valueValidators = Collections.synchronizedMap(new HashMap<Value, ValueValidator>());
     private final ObservableList<Series<String, Number>> data;
@@ -81,11 +80,11 @@ public class VitalValidator {
 //        double max = 0.0;
 //        double sumsigma = 0.0;
         
-        for(ValueValidator v : valueValidators.values()) {
-            stats.clear();
-            for(double d : v.getStats().getValues()) {
-                 stats.addValue(d);
-            }
+        // Pool the samples of every source
+        final ValueValidator[] validators = valueValidators.values().toArray(new ValueValidator[0]);
+        stats.clear();
+        for(ValueValidator v : validators) {
+            v.getHistogram().addTo(stats);
 //            v.getStats().getValues()
 //            basis += v.getStats().getMean() * v.getStats().getN();
 //            count += v.getStats().getN();
@@ -94,17 +93,26 @@ public class VitalValidator {
         }
         
         
+        // Catch the charts up with any samples that arrived since they were last drawn
+        Platform.runLater( ()-> {
+            for(ValueValidator v : validators) {
+                v.publish(false);
+            }
+        });
+
         if(stats.getN() <= 0L || stats.getStandardDeviation() <= 0.0) {
             return;
         }
-        log.trace("max="+stats.getMax()+" sum="+stats.getSum()+" count="+stats.getN()+" stdev="+stats.getStandardDeviation());
+        log.trace("mean="+stats.getMean()+" count="+stats.getN()+" stdev="+stats.getStandardDeviation());
+
+        final double statsMean = stats.getMean();
+        final double std = stats.getStandardDeviation();
+        final double skew = stats.getSkewness();
+        final double kurt = stats.getKurtosis() - 3.0; // excess kurtosis
+        final long N = stats.getN();
 
         Platform.runLater( ()-> {
-            double mu = stats.getMean();
-            final double std = stats.getStandardDeviation();
-            final double skew = stats.getSkewness();
-            final double kurt = stats.getKurtosis() - 3.0; // excess kurtosis
-            final long N = stats.getN();
+            double mu = statsMean;
             
             n.set(N);
             mean.set(mu);
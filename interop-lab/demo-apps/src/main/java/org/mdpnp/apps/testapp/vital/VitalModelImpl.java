@@ -17,6 +17,8 @@ import java.beans.PropertyChangeSupport;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javafx.application.Platform;
 import javafx.beans.InvalidationListener;
@@ -51,6 +53,11 @@ import com.rti.dds.publication.Publisher;
 import com.rti.dds.topic.Topic;
 
 /**
+ * Alarm state is maintained incrementally.  Each change re-evaluates only the
+ * vital that changed; the advisory of every vital is kept along with a count
+ * of alarms so that deriving the overall {@link State} does not re-scan the
+ * model.  Numerics are routed to vitals through an index by metric id.
+ * 
  * @author Jeff Plourde
  *
  */
@@ -69,7 +76,9 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
                     param.ignoreZeroProperty(),
                     param.noValueWarningProperty(),
                     param.valueMsWarningHighProperty(),
-                    param.valueMsWarningLowProperty()
+                    param.valueMsWarningLowProperty(),
+                    param.requiredProperty(),
+                    param.modelStateTransitionConditionProperty()
             };
         }
         
@@ -79,6 +88,15 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
     
     private final List<Vital> vitals = Collections.synchronizedList(new ArrayList<Vital>());
 
+    // Vitals by each of their metric ids; changes only as vitals are added or removed
+    private final Map<String, List<Vital>> vitalsByMetricId = new ConcurrentHashMap<String, List<Vital>>();
+
+    // The current advisory of each vital that has one; only accessed on the Fx App Thread
+    private final Map<Vital, Advisory> advisoryByVital = new IdentityHashMap<Vital, Advisory>();
+    private int alarmCount;
+    private boolean advisoriesChanged;
+    private Map<String, Advisory> advisories = Collections.emptyMap();
+
     protected Publisher publisher;
     protected EventLoop eventLoop;
 
@@ -89,17 +107,13 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
 
     @Override
     public void removeNumeric(NumericFx numeric) {
-        final String metric_id = numeric.getMetric_id();
-        for (Vital v : this) {
-            if (v != null) {
-                for (String x : v.getMetricIds()) {
-                    if (x.equals(metric_id)) {
-                        ListIterator<Value> li = v.listIterator();
-                        while (li.hasNext()) {
-                            if(numeric.equals(li.next().getNumeric())) {
-                                li.remove();
-                            }
-                        }
+        List<Vital> vitals = vitalsByMetricId.get(numeric.getMetric_id());
+        if (null != vitals) {
+            for (Vital v : vitals) {
+                ListIterator<Value> li = v.listIterator();
+                while (li.hasNext()) {
+                    if(numeric.equals(li.next().getNumeric())) {
+                        li.remove();
                     }
                 }
             }
@@ -120,32 +134,80 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
 
     @Override
     public void addNumeric(final NumericFx numeric) {
+        List<Vital> vitals = vitalsByMetricId.get(numeric.getMetric_id());
+        if (null != vitals) {
+            for (Vital v : vitals) {
+                addNumeric(v, numeric);
+            }
+        }
+    }
+
+    private void addNumeric(final Vital v, final NumericFx numeric) {
         final String metric_id = numeric.getMetric_id();
         final String udi = numeric.getUnique_device_identifier();
-        final String unit_id = numeric.getUnit_id();
         final int instance_id = numeric.getInstance_id();
-        for (Vital v : this) {
-            if (v != null) {
-                for (String x : v.getMetricIds()) {
-                    // Change to this vital from a source
-                    if (x.equals(metric_id)) {
-                        for (Value va : v) {
-                            if (va.getInstanceId() == instance_id && va.getMetricId().equals(metric_id)
-                                    && va.getUniqueDeviceIdentifier().equals(udi)) {
-                                if(!numeric.equals(va.getNumeric())) {
-                                    log.warn("duplicate numeric added {} {}", va.getNumeric(), numeric);
-                                    
-                                }
-                                return;
-                            }
-                        }
-                        final Value va = new ValueImpl(numeric, v);
-                        v.add(va);
-                    }
+        for (Value va : v) {
+            if (va.getInstanceId() == instance_id && va.getMetricId().equals(metric_id)
+                    && va.getUniqueDeviceIdentifier().equals(udi)) {
+                if(!numeric.equals(va.getNumeric())) {
+                    log.warn("duplicate numeric added {} {}", va.getNumeric(), numeric);
+                    
+                }
+                return;
+            }
+        }
+        final Value va = new ValueImpl(numeric, v);
+        v.add(va);
+    }
+
+    private void addNumerics(final Vital v) {
+        for (NumericFx fx : numericList) {
+            for (String x : v.getMetricIds()) {
+                if (x.equals(fx.getMetric_id())) {
+                    addNumeric(v, fx);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Vitals are lists and so compare equal by their values; the index compares identity
+
+    private void index(Vital v) {
+        for (String x : v.getMetricIds()) {
+            List<Vital> vitals = vitalsByMetricId.get(x);
+            if (null == vitals) {
+                vitals = new CopyOnWriteArrayList<Vital>();
+                vitalsByMetricId.put(x, vitals);
+            }
+            if (indexOf(vitals, v) < 0) {
+                vitals.add(v);
+            }
+        }
+    }
+
+    private void unindex(Vital v) {
+        for (String x : v.getMetricIds()) {
+            List<Vital> vitals = vitalsByMetricId.get(x);
+            if (null != vitals) {
+                int i = indexOf(vitals, v);
+                if (i >= 0) {
+                    vitals.remove(i);
+                }
+                if (vitals.isEmpty()) {
+                    vitalsByMetricId.remove(x);
                 }
             }
         }
+    }
 
+    private static int indexOf(List<Vital> vitals, Vital v) {
+        for (int i = 0; i < vitals.size(); i++) {
+            if (vitals.get(i) == v) {
+                return i;
+            }
+        }
+        return -1;
     }
     
     @Override
@@ -197,10 +259,21 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
             throw new IllegalThreadStateException("Must be on the Fx App Thread");
         }
 
-        Map<String, Advisory> advisories = evaluateState();
+        if (advisoriesChanged) {
+            Map<String, Advisory> advisories = new HashMap<>();
+            for (Advisory a : advisoryByVital.values()) {
+                advisories.put(a.cause.getLabel(), a);
+            }
+            this.advisories = advisories;
+        }
 
         State newState = evaluateAdvisories(advisories);
 
+        if (!advisoriesChanged && newState == getState()) {
+            return;
+        }
+        advisoriesChanged = false;
+
         // Advisory processing
         if(newState != State.Normal) {
 
@@ -222,42 +295,70 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
         state.set(new StateChange(newState, advisories));
     }
 
+    /**
+     * Derive the overall state from the current advisories.  Called on every
+     * change so overrides should prefer {@link #getAdvisoryCount()} and
+     * {@link #getAlarmCount()} to iterating the advisories.
+     */
     protected State evaluateAdvisories(Map<String, Advisory> advisories) {
 
-        State newState = State.Normal;
-
-        if(!advisories.isEmpty()) {
+        int count = getAdvisoryCount();
 
-            if (advisories.size() >= getCountWarningsBecomeAlarm()) {
-                newState = State.Alarm;
-            } else {
-                newState = State.Warning;
-                for (Advisory a : advisories.values()) {
-                    if (a.state == State.Alarm) {
-                        newState = State.Alarm;
-                        break;
-                    }
-                }
-            }
+        if (0 == count) {
+            return State.Normal;
+        } else if (count >= getCountWarningsBecomeAlarm() || getAlarmCount() > 0) {
+            return State.Alarm;
+        } else {
+            return State.Warning;
         }
-
-        return newState;
     }
 
-    protected Map<String, Advisory> evaluateState() {
+    /**
+     * @return the number of vitals that currently have an advisory
+     */
+    protected int getAdvisoryCount() {
+        return advisoryByVital.size();
+    }
 
-        int N = size();
+    /**
+     * @return the number of vitals whose current advisory is an alarm
+     */
+    protected int getAlarmCount() {
+        return alarmCount;
+    }
 
-        Map<String, Advisory> advisories = new HashMap<>();
+    private void reevaluate(Vital vital) {
+        Advisory a = evaluateVital(vital);
+        Advisory previous = null == a ? advisoryByVital.remove(vital) : advisoryByVital.put(vital, a);
+        if (!sameAdvisory(previous, a)) {
+            if (null != previous && previous.state == State.Alarm) {
+                alarmCount--;
+            }
+            if (null != a && a.state == State.Alarm) {
+                alarmCount++;
+            }
+            advisoriesChanged = true;
+        }
+    }
 
-        for (int i = 0; i < N; i++) {
-            Vital vital = get(i);
-            Advisory a = evaluateVital(vital);
-            if(a != null)
-                advisories.put(vital.getLabel(), a);
+    private void forget(Vital vital) {
+        Advisory previous = advisoryByVital.remove(vital);
+        if (null != previous) {
+            if (previous.state == State.Alarm) {
+                alarmCount--;
+            }
+            advisoriesChanged = true;
         }
+    }
 
-        return advisories;
+    private static boolean sameAdvisory(Advisory a, Advisory b) {
+        if (a == b) {
+            return true;
+        } else if (null == a || null == b) {
+            return false;
+        } else {
+            return a.state == b.state && a.cause == b.cause && Objects.equals(a.advise, b.advise) && Objects.equals(a.value, b.value);
+        }
     }
 
     protected Advisory evaluateVital(Vital vital) {
@@ -357,6 +458,19 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
 
             @Override
             public void onChanged(javafx.collections.ListChangeListener.Change<? extends Vital> c) {
+                // Removals are forgotten as they happen in doRemove, doSet and clear
+                while (c.next()) {
+                    if (c.wasUpdated()) {
+                        for (int i = c.getFrom(); i < c.getTo(); i++) {
+                            reevaluate(c.getList().get(i));
+                        }
+                    }
+                    if (c.wasAdded()) {
+                        for (Vital v : c.getAddedSubList()) {
+                            reevaluate(v);
+                        }
+                    }
+                }
                 updateState();
             }
             
@@ -378,7 +492,8 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
         element.addListener(this);
         elementObserver.attachListener(element);
         vitals.add(index, element);
-        numericList.forEach((fx)->addNumeric(fx));
+        index(element);
+        addNumerics(element);
     }
 
     @Override
@@ -386,9 +501,12 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
         Vital removed =  vitals.set(index, element);
         removed.removeListener(this);
         elementObserver.detachListener(removed);
+        unindex(removed);
+        forget(removed);
         elementObserver.attachListener(element);
-        removed.addListener(this);
-        numericList.forEach((fx)->addNumeric(fx));
+        element.addListener(this);
+        index(element);
+        addNumerics(element);
         return removed;
     }
 
@@ -397,6 +515,8 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
         Vital v = vitals.remove(index);
         elementObserver.detachListener(v);
         v.removeListener(this);
+        unindex(v);
+        forget(v);
         if(null != v) {
             v.destroy();
         }
@@ -417,6 +537,10 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
             nextRemove(0, this);
         }
         vitals.clear();
+        vitalsByMetricId.clear();
+        advisoriesChanged |= !advisoryByVital.isEmpty();
+        advisoryByVital.clear();
+        alarmCount = 0;
         ++modCount;
         if (hasListeners()) {
             endChange();
@@ -425,6 +549,8 @@ public class VitalModelImpl extends ModifiableObservableListBase<Vital> implemen
 
     @Override
     public void onChanged(javafx.collections.ListChangeListener.Change<? extends Value> c) {
+        // Every Vital in this model reports changes to its own values here
+        reevaluate((Vital) c.getList());
         updateState();
     }
 
@@ -0,0 +1,71 @@
+package org.mdpnp.apps.fxbeans;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.rti.dds.subscription.InstanceStateKind;
+import com.rti.dds.subscription.SampleInfo;
+import com.rti.dds.subscription.SampleInfoSeq;
+
+public class AbstractFxListTest {
+
+    // Stands in for Platform.runLater; runs flushes on the calling (pump) thread
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testSampleListenersSeeEverySample() throws Exception {
+        FxUpdatePump pump = new FxUpdatePump(20L, DIRECT);
+        try {
+            NumericFxList list = new NumericFxList(ice.NumericTopic.VALUE);
+            list.setUpdatePump(pump);
+
+            final List<Float> values = Collections.synchronizedList(new ArrayList<Float>());
+            final CountDownLatch delivered = new CountDownLatch(3);
+            list.addSampleListener(new AbstractFxList.SampleListener<ice.Numeric>() {
+                @Override
+                public void sampleReceived(ice.Numeric data, SampleInfo sampleInfo) {
+                    values.add(data.value);
+                    delivered.countDown();
+                }
+            });
+
+            // Three samples of the same instance read together
+            ice.NumericSeq dataSeq = new ice.NumericSeq();
+            SampleInfoSeq infoSeq = new SampleInfoSeq();
+            for (int i = 0; i < 3; i++) {
+                ice.Numeric n = new ice.Numeric();
+                n.unique_device_identifier = "D0";
+                n.metric_id = "M0";
+                n.value = i;
+                dataSeq.add(n);
+                SampleInfo sampleInfo = new SampleInfo();
+                sampleInfo.instance_state = InstanceStateKind.ALIVE_INSTANCE_STATE;
+                sampleInfo.valid_data = true;
+                infoSeq.add(sampleInfo);
+            }
+            Assert.assertEquals(3, list.enqueue(dataSeq, infoSeq));
+
+            Assert.assertTrue(delivered.await(2, TimeUnit.SECONDS));
+            Assert.assertEquals("every sample in order", Arrays.asList(0f, 1f, 2f), values);
+            Assert.assertEquals("rows coalesce to the latest sample", 1, list.size());
+            Assert.assertEquals(2f, list.get(0).getValue(), 0f);
+            Assert.assertEquals(3L, list.getSamplesReceived());
+            Assert.assertEquals(1L, list.getSamplesApplied());
+        } finally {
+            pump.shutdown();
+        }
+    }
+}
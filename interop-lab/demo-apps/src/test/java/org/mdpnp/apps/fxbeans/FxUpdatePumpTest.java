@@ -0,0 +1,113 @@
+package org.mdpnp.apps.fxbeans;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FxUpdatePumpTest {
+
+    // Stands in for Platform.runLater; runs flushes on the calling (pump) thread
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void testCoalescesMarks() throws Exception {
+        FxUpdatePump pump = new FxUpdatePump(20L, DIRECT);
+        try {
+            final AtomicInteger flushes = new AtomicInteger();
+            final CountDownLatch flushed = new CountDownLatch(1);
+            FxUpdatePump.Source source = new FxUpdatePump.Source() {
+                @Override
+                public void flush() {
+                    flushes.incrementAndGet();
+                    flushed.countDown();
+                }
+            };
+            for (int i = 0; i < 1000; i++) {
+                pump.markDirty(source);
+            }
+            Assert.assertTrue(flushed.await(2, TimeUnit.SECONDS));
+            Thread.sleep(100L);
+            Assert.assertEquals("one flush for many marks", 1, flushes.get());
+            Assert.assertEquals(0, pump.getDirtyCount());
+        } finally {
+            pump.shutdown();
+        }
+    }
+
+    @Test
+    public void testFlushesEverySource() throws Exception {
+        FxUpdatePump pump = new FxUpdatePump(20L, DIRECT);
+        try {
+            final CountDownLatch flushed = new CountDownLatch(3);
+            for (int i = 0; i < 3; i++) {
+                pump.markDirty(new FxUpdatePump.Source() {
+                    @Override
+                    public void flush() {
+                        flushed.countDown();
+                    }
+                });
+            }
+            Assert.assertTrue(flushed.await(2, TimeUnit.SECONDS));
+        } finally {
+            pump.shutdown();
+        }
+    }
+
+    @Test
+    public void testOneFlushInFlight() throws Exception {
+        // An FX thread that never gets around to running anything
+        final AtomicInteger posted = new AtomicInteger();
+        FxUpdatePump pump = new FxUpdatePump(10L, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                posted.incrementAndGet();
+            }
+        });
+        try {
+            FxUpdatePump.Source source = new FxUpdatePump.Source() {
+                @Override
+                public void flush() {
+                }
+            };
+            pump.markDirty(source);
+            Thread.sleep(200L);
+            Assert.assertEquals("no flush queued behind a pending one", 1, posted.get());
+            Assert.assertTrue(pump.getPulseCount() > 1);
+            Assert.assertEquals(0L, pump.getFlushCount());
+        } finally {
+            pump.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailingSourceDoesNotStopOthers() throws Exception {
+        FxUpdatePump pump = new FxUpdatePump(20L, DIRECT);
+        try {
+            final CountDownLatch flushed = new CountDownLatch(1);
+            pump.markDirty(new FxUpdatePump.Source() {
+                @Override
+                public void flush() {
+                    throw new IllegalStateException("expected");
+                }
+            });
+            pump.markDirty(new FxUpdatePump.Source() {
+                @Override
+                public void flush() {
+                    flushed.countDown();
+                }
+            });
+            Assert.assertTrue(flushed.await(2, TimeUnit.SECONDS));
+        } finally {
+            pump.shutdown();
+        }
+    }
+}
@@ -91,6 +91,32 @@ public class ConfigurationTest {
         Assert.assertEquals(v.getAddress(), "127.0.0.1:8080");
     }
 
+    @Test
+    public void testCommandLineParse5() throws Exception {
+
+        try {
+            Configuration.read(new String[]{"-app", "ICE_Device_Host", "-domain", "1"});
+        }
+        catch(IllegalArgumentException ex) {
+            Assert.assertEquals("Missing address specification", ex.getMessage());
+            return;
+        }
+        Assert.fail("Should have failed on invalid args");
+    }
+
+    @Test
+    public void testCommandLineParse6() throws Exception {
+
+        Configuration v = Configuration.read(
+                new String[]{"-app", "ICE_Device_Host", "-address", "devices.host", "-domain", "1"});
+
+        Assert.assertEquals(v.getAddress(), "devices.host");
+        Assert.assertNull(v.getDeviceFactory());
+        Assert.assertTrue(v.getApplication().isHeadlessOnly());
+        Assert.assertFalse(Configuration.Application.ICE_Device_Interface.isHeadlessOnly());
+        Assert.assertTrue(Configuration.Application.ICE_Load_Generator.isHeadlessOnly());
+    }
+
     @Test
     public void testCreateContext() throws Exception {
 
@@ -0,0 +1,52 @@
+package org.mdpnp.apps.testapp;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mdpnp.apps.testapp.DeviceHostCommand.HostedDevice;
+
+public class DeviceHostCommandTest {
+
+    @Test
+    public void testReadHostedDevices() throws Exception {
+        String config =
+                "# deviceType [count=n] [address=address] [partition=p1,p2]\n" +
+                "\n" +
+                "PO_Simulator count=20 partition=ICU-1,Bed-3\n" +
+                "  Ivy450C   address=/dev/ttyUSB0\n" +
+                "Multiparameter partition=\n";
+
+        List<HostedDevice> devices = HostedDevice.read(new StringReader(config));
+        Assert.assertEquals(3, devices.size());
+
+        HostedDevice d = devices.get(0);
+        Assert.assertEquals("PO_Simulator", d.getDeviceType());
+        Assert.assertEquals(20, d.getCount());
+        Assert.assertNull(d.getAddress());
+        Assert.assertArrayEquals(new String[] { "ICU-1", "Bed-3" }, d.getPartition());
+
+        d = devices.get(1);
+        Assert.assertEquals("Ivy450C", d.getDeviceType());
+        Assert.assertEquals(1, d.getCount());
+        Assert.assertEquals("/dev/ttyUSB0", d.getAddress());
+        Assert.assertNull(d.getPartition());
+
+        // An empty partition list moves the device to the default partition
+        Assert.assertEquals(0, devices.get(2).getPartition().length);
+    }
+
+    @Test
+    public void testReadInvalidHostedDevices() throws Exception {
+        String[] invalid = { "PO_Simulator count=0", "PO_Simulator count=many", "PO_Simulator adress=COM1" };
+        for (String config : invalid) {
+            try {
+                HostedDevice.read(new StringReader("# header\n" + config));
+                Assert.fail("Should have rejected " + config);
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2:"));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.mdpnp.apps.testapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mdpnp.apps.testapp.LoadGeneratorCommand.Measurement;
+import org.mdpnp.devices.PublishStatistics;
+
+public class LoadGeneratorCommandTest {
+
+    @Test
+    public void testReport() throws Exception {
+        List<Measurement> measurements = new ArrayList<Measurement>();
+        for (int i = 0; i < 3; i++) {
+            PublishStatistics s = new PublishStatistics();
+            // 10 seconds of 30 samples per second, one device running behind
+            for (int j = 0; j < (i == 2 ? 150 : 300); j++) {
+                s.record(20000L);
+            }
+            measurements.add(new Measurement("Pulse Ox (Simulated)", s, 10L));
+        }
+        PublishStatistics s = new PublishStatistics();
+        s.record(1000000L);
+        measurements.add(new Measurement("ECG (Simulated)", s, 0L));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, "UTF-8");
+        LoadGeneratorCommand.report(out, measurements, 10000000000L, 4L, 40L, 4L * 1024L * 1024L);
+        String[] lines = new String(bytes.toByteArray(), "UTF-8").split("\\r?\\n");
+
+        Assert.assertEquals(7, lines.length);
+        Assert.assertEquals("Load of 4 devices over 10.0s", lines[0]);
+        Assert.assertTrue(lines[1].startsWith("Device type"));
+        assertRow(lines[2], "Pulse Ox (Simulated)", "3", "75.0", "15.00", "25.00", "30");
+        assertRow(lines[3], "ECG (Simulated)", "1", "0.1", "0.10", "0.10", "0");
+        assertRow(lines[4], "All", "4", "75.1", "0.10", "18.78", "30");
+        Assert.assertEquals("GC: 4 collections taking 40 ms; per device 1.000 collections taking 10.000 ms", lines[5]);
+        Assert.assertEquals("Allocation: 4.0 MB at 409.6 KB/s; per device 102.40 KB/s; 5585 bytes per sample", lines[6]);
+    }
+
+    private static void assertRow(String line, String name, String devices, String rate, String min, String mean, String suppressed) {
+        Assert.assertTrue(line, line.startsWith(name + " "));
+        String[] f = line.substring(name.length()).trim().split("\\s+");
+        Assert.assertEquals(line, 10, f.length);
+        Assert.assertEquals(devices, f[0]);
+        Assert.assertEquals(rate, f[1]);
+        Assert.assertEquals(min, f[2]);
+        Assert.assertEquals(mean, f[3]);
+        Assert.assertEquals(suppressed, f[9]);
+    }
+}
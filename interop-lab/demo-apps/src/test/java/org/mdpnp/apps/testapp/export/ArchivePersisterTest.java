@@ -0,0 +1,192 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArchivePersisterTest {
+
+    @Test
+    public void testCodecRoundTrip() throws Exception {
+
+        // Irregular times, including gaps, repeats and going backwards, and awkward values
+        long[] times = { 1000L, 1004L, 1008L, 1012L, 1012L, 1100L, 1099L, 5000L, 100000L, -5L, 1L << 40, 1000L };
+        float[] values = { 0f, 0f, 1.5f, -1.5f, Float.NaN, Float.POSITIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE, -0f, 98.6f, 98.7f, 1e-20f };
+
+        GorillaEncoder encoder = new GorillaEncoder(4);
+        for (int i = 0; i < times.length; i++) {
+            encoder.add(times[i], values[i]);
+        }
+        Assert.assertEquals(-5L, encoder.getMinTime());
+        Assert.assertEquals(1L << 40, encoder.getMaxTime());
+
+        GorillaDecoder decoder = decoder(encoder);
+        for (int i = 0; i < times.length; i++) {
+            Assert.assertTrue(decoder.hasNext());
+            decoder.next();
+            Assert.assertEquals("time #" + i, times[i], decoder.getTime());
+            Assert.assertEquals("value #" + i, Float.floatToRawIntBits(values[i]), Float.floatToRawIntBits(decoder.getValue()));
+        }
+        Assert.assertFalse(decoder.hasNext());
+
+        // A reused encoder starts from scratch
+        encoder.reset();
+        Random random = new Random(42L);
+        float[] noise = new float[1000];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = random.nextFloat();
+            encoder.add(i * 4L, noise[i]);
+        }
+        decoder = decoder(encoder);
+        for (int i = 0; i < noise.length; i++) {
+            decoder.next();
+            Assert.assertEquals(i * 4L, decoder.getTime());
+            Assert.assertEquals(noise[i], decoder.getValue(), 0f);
+        }
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+
+        // A regularly sampled, slowly varying waveform as a device would send it
+        GorillaEncoder encoder = new GorillaEncoder(1024);
+        for (int i = 0; i < 4096; i++) {
+            encoder.add(1000000L + i * 4L, (float) Math.round(100.0 * Math.sin(i / 25.0)));
+        }
+        // 12 bytes of raw time and value per sample
+        Assert.assertTrue("Compressed to " + encoder.getByteLength(), encoder.getByteLength() < 4096 * 12 / 5);
+    }
+
+    @Test
+    public void testWindowedRead() throws Exception {
+
+        File dir = Files.createTempDirectory("ArchivePersisterTest").toFile();
+        try {
+            // Small blocks and segments so that the test covers several of each
+            ArchiveWriter writer = new ArchiveWriter(dir, 100, 60000L, 1024L);
+
+            float[] wave = new float[256];
+            for (int i = 0; i < wave.length; i++) {
+                wave[i] = i;
+            }
+            long t = 1000000L;
+            for (int n = 0; n < 10; n++) {
+                t += wave.length * 4L;
+                writer.append(new ValueBatch("DEVICE0", "WAVE", 0, t, 250L, wave, wave.length));
+                writer.append(DataCollector.toValue("DEVICE0", "NUMERIC", 1, t, n));
+            }
+            writer.flush();
+
+            ArchiveReader reader = new ArchiveReader(dir);
+            Assert.assertEquals(2, reader.getSeries().size());
+            ArchiveReader.Series waveSeries = reader.getSeries("DEVICE0", "WAVE", 0);
+            ArchiveReader.Series numericSeries = reader.getSeries("DEVICE0", "NUMERIC", 1);
+            Assert.assertNotNull(waveSeries);
+            Assert.assertNotNull(numericSeries);
+            Assert.assertNull(reader.getSeries("DEVICE0", "WAVE", 1));
+            Assert.assertTrue("expected several segments", new File(dir, "DEVICE0-WAVE-0/00000002.seg").exists());
+
+            final List<Long> times = new ArrayList<Long>();
+            final List<Float> values = new ArrayList<Float>();
+            ArchiveReader.SampleHandler handler = new ArchiveReader.SampleHandler() {
+                @Override
+                public void sample(ArchiveReader.Series series, long time, float value) {
+                    times.add(time);
+                    values.add(value);
+                }
+            };
+
+            // Everything
+            Assert.assertEquals(2560L, reader.read(waveSeries, Long.MIN_VALUE, Long.MAX_VALUE, handler));
+            Assert.assertEquals(1000000L, (long) times.get(0));
+            Assert.assertEquals(1000000L + 2559L * 4L, (long) times.get(2559));
+
+            // A window straddling block boundaries
+            times.clear();
+            values.clear();
+            long from = 1000000L + 250L * 4L, to = 1000000L + 650L * 4L;
+            Assert.assertEquals(401L, reader.read(waveSeries, from, to, handler));
+            for (int i = 0; i < times.size(); i++) {
+                Assert.assertEquals(from + i * 4L, (long) times.get(i));
+                Assert.assertEquals((250 + i) % 256, values.get(i), 0f);
+            }
+
+            times.clear();
+            values.clear();
+            Assert.assertEquals(10L, reader.read(numericSeries, Long.MIN_VALUE, Long.MAX_VALUE, handler));
+            Assert.assertEquals(9f, values.get(9), 0f);
+
+            // Written after the reader was opened
+            writer.append(DataCollector.toValue("DEVICE0", "NUMERIC", 1, t + 1000L, 10));
+            writer.close();
+            times.clear();
+            Assert.assertEquals(1L, reader.read(numericSeries, t + 1L, Long.MAX_VALUE, handler));
+            reader.close();
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void testAmbiguousNamesKeptApart() throws Exception {
+
+        // Each pair would have shared a key or a directory under the old naming
+        String[][] names = { { "A-B", "C" }, { "A", "B-C" }, { "x/y", "M" }, { "x_y", "M" }, { "x%2Fy", "M" } };
+        for (int i = 0; i < names.length; i++) {
+            for (int j = 0; j < i; j++) {
+                Assert.assertNotEquals(ArchiveWriter.toDirectoryName(names[i][0], names[i][1], 0),
+                        ArchiveWriter.toDirectoryName(names[j][0], names[j][1], 0));
+            }
+        }
+        Assert.assertEquals("DEVICE0-MDC_PULS_OXIM_PLETH-1", ArchiveWriter.toDirectoryName("DEVICE0", "MDC_PULS_OXIM_PLETH", 1));
+
+        File dir = Files.createTempDirectory("ArchivePersisterTest").toFile();
+        try {
+            ArchiveWriter writer = new ArchiveWriter(dir);
+            for (int i = 0; i < names.length; i++) {
+                writer.append(DataCollector.toValue(names[i][0], names[i][1], 0, 1000L, i));
+            }
+            writer.close();
+
+            ArchiveReader reader = new ArchiveReader(dir);
+            Assert.assertEquals(names.length, reader.getSeries().size());
+            for (int i = 0; i < names.length; i++) {
+                final List<Float> values = new ArrayList<Float>();
+                ArchiveReader.Series series = reader.getSeries(names[i][0], names[i][1], 0);
+                Assert.assertNotNull(series);
+                reader.read(series, Long.MIN_VALUE, Long.MAX_VALUE, new ArchiveReader.SampleHandler() {
+                    @Override
+                    public void sample(ArchiveReader.Series series, long time, float value) {
+                        values.add(value);
+                    }
+                });
+                Assert.assertEquals(1, values.size());
+                Assert.assertEquals(i, values.get(0), 0f);
+            }
+            reader.close();
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static GorillaDecoder decoder(GorillaEncoder encoder) {
+        ByteBuffer buf = ByteBuffer.wrap(encoder.getBuffer(), 0, encoder.getByteLength());
+        return new GorillaDecoder(buf, 0, encoder.getCount(), encoder.getFirstTime());
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (null != children) {
+            for (File c : children) {
+                delete(c);
+            }
+        }
+        f.delete();
+    }
+}
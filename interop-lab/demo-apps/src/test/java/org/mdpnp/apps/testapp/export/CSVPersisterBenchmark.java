@@ -0,0 +1,88 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.RollingFileAppender;
+
+/**
+ * Compares the line throughput and garbage of the previous CSVPersister
+ * output path (toCSVLine handed to a log4j RollingFileAppender) with
+ * {@link CSVWriter}.  Both roll over at 50MB into a temporary directory.
+ *
+ * Not a unit test; run the main method.
+ *
+ * CSVPersisterBenchmark [lines] [arraySize]
+ */
+public class CSVPersisterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int arraySize = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+
+        File dir = Files.createTempDirectory("CSVPersisterBenchmark").toFile();
+        try {
+            float[] values = new float[arraySize];
+            for (int i = 0; i < arraySize; i++) {
+                values[i] = (float) (100.0 * Math.sin(i / 10.0));
+            }
+
+            RollingFileAppender appender = new RollingFileAppender();
+            appender.setFile(new File(dir, "log4j.csv").getAbsolutePath());
+            appender.setMaxBackupIndex(1);
+            appender.setMaxFileSize("50MB");
+            appender.setAppend(true);
+            appender.setLayout(new PatternLayout("%m%n"));
+            appender.setThreshold(Level.ALL);
+            appender.activateOptions();
+            Logger cat = Logger.getLogger("CSVPersisterBenchmark");
+            cat.setAdditivity(false);
+            cat.setLevel(Level.ALL);
+            cat.addAppender(appender);
+
+            CSVWriter writer = new CSVWriter(new File(dir, "writer.csv"), CSVWriter.parseFileSize("50MB"), 1);
+
+            for (int round = 0; round < 3; round++) {
+                long bytes0 = allocatedBytes();
+                long start = System.nanoTime();
+                long t = System.currentTimeMillis();
+                for (int i = 0; i < lines; i++) {
+                    Value v = DataCollector.toValue("benchmark-udi", "MDC_PULS_OXIM_PLETH", 0, t + i * 4L, values[i % arraySize]);
+                    cat.info(CSVPersister.toCSVLine(v));
+                }
+                report("log4j", lines, System.nanoTime() - start, allocatedBytes() - bytes0);
+
+                bytes0 = allocatedBytes();
+                start = System.nanoTime();
+                for (int i = 0; i < lines; i += arraySize) {
+                    t += arraySize * 4L;
+                    writer.write(new ValueBatch("benchmark-udi", "MDC_PULS_OXIM_PLETH", 0, t, 250L, values, Math.min(arraySize, lines - i)));
+                }
+                writer.flush();
+                report("CSVWriter", lines, System.nanoTime() - start, allocatedBytes() - bytes0);
+            }
+
+            writer.close();
+            cat.removeAppender(appender);
+            appender.close();
+        } finally {
+            for (File f : dir.listFiles()) {
+                f.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(String name, int lines, long nanos, long allocated) {
+        System.out.println(String.format("%-10s %8.1f ns/line %10.0f lines/s %8.1f bytes allocated/line", name, (double) nanos / lines,
+                lines * 1e9 / nanos, (double) allocated / lines));
+    }
+}
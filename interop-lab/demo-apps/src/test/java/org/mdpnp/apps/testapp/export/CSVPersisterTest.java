@@ -8,6 +8,10 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -50,4 +54,133 @@ public class CSVPersisterTest {
 
         }
     }
+
+    @Test
+    public void testWriterMatchesCSVLine() throws Exception {
+
+        File dir = Files.createTempDirectory("CSVPersisterTest").toFile();
+        File f = new File(dir, "test.csv");
+        try {
+            CSVWriter writer = new CSVWriter(f, CSVWriter.parseFileSize("1MB"), 1);
+
+            SimpleDateFormat dateFormat = DataCollector.dateFormats.get();
+            long t0 = dateFormat.parse("20150203.235809.985-0500").getTime();
+
+            // The last ones are ties, exact or only apparent, that NumberFormat rounds half-even
+            double[] values = { 13.31, -2.5, 0.0, -0.0, 999.99, 0.004, -0.004, 12.345678,
+                                0.125, -0.125, 0.375, 2.675, 1.005, 0.015, -0.005 };
+            Value[] expected = new Value[values.length + 4];
+            for (int i = 0; i < values.length; i++) {
+                // crosses a second, a minute, a day and a month boundary along the way
+                expected[i] = DataCollector.toValue("DEVICE0", "METRIC0", i, t0 + i * 7654321L, values[i]);
+                writer.write(expected[i]);
+            }
+            float[] wave = { 1.5f, 1.25f, -1.75f, 0.33f };
+            ValueBatch batch = new ValueBatch("DEVICE1", "WAVE", 0, t0, 4L, wave, wave.length);
+            for (int j = 0; j < wave.length; j++) {
+                expected[values.length + j] = batch.toValue(j);
+            }
+            writer.write(batch);
+            writer.close();
+
+            BufferedReader reader = new BufferedReader(new FileReader(f));
+            try {
+                for (Value v : expected) {
+                    Assert.assertEquals(CSVPersister.toCSVLine(v), reader.readLine());
+                }
+                Assert.assertNull(reader.readLine());
+            } finally {
+                reader.close();
+            }
+        } finally {
+            for (File c : dir.listFiles()) {
+                c.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testWriterRoundsHalfEven() throws Exception {
+
+        File dir = Files.createTempDirectory("CSVPersisterTest").toFile();
+        File f = new File(dir, "test.csv");
+        try {
+            CSVWriter writer = new CSVWriter(f, CSVWriter.parseFileSize("1MB"), 1);
+            // Exact binary ties go to the even digit; 1.005 is really 1.00499999...
+            double[] values = { 0.125, 0.375, -0.125, 1.005, 4.5, 1234.5 };
+            String[] expected = { "0.12", "0.38", "-0.12", "1.00", "4.50", "1234.50" };
+            for (double v : values) {
+                writer.write(DataCollector.toValue("DEVICE0", "METRIC0", 0, 0L, v));
+            }
+            writer.close();
+
+            BufferedReader reader = new BufferedReader(new FileReader(f));
+            try {
+                for (String e : expected) {
+                    String line = reader.readLine();
+                    Assert.assertEquals(e, line.substring(line.lastIndexOf(',') + 1));
+                }
+                Assert.assertNull(reader.readLine());
+            } finally {
+                reader.close();
+            }
+        } finally {
+            for (File c : dir.listFiles()) {
+                c.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testWriterFlushesWhenIdle() throws Exception {
+
+        File dir = Files.createTempDirectory("CSVPersisterTest").toFile();
+        File f = new File(dir, "test.csv");
+        try {
+            CSVWriter writer = new CSVWriter(f, CSVWriter.parseFileSize("1MB"), 1, CSVWriter.DEFAULT_BUFFER_SIZE, 50L,
+                                             java.util.TimeZone.getTimeZone("UTC"));
+            writer.write(DataCollector.toValue("DEVICE0", "METRIC0", 0, System.currentTimeMillis(), 1.0));
+            // Nothing else is written, yet the line still reaches the file
+            long giveUp = System.currentTimeMillis() + 5000L;
+            while (0L == f.length() && System.currentTimeMillis() < giveUp) {
+                Thread.sleep(10L);
+            }
+            Assert.assertTrue(f.length() > 0L);
+            writer.close();
+        } finally {
+            for (File c : dir.listFiles()) {
+                c.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void testWriterRollOver() throws Exception {
+
+        File dir = Files.createTempDirectory("CSVPersisterTest").toFile();
+        File f = new File(dir, "test.csv");
+        try {
+            // Tiny buffer and file size so that every flush rolls over
+            CSVWriter writer = new CSVWriter(f, 1000L, 2, 256, 0L, java.util.TimeZone.getTimeZone("UTC"));
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < 200; i++) {
+                writer.write(DataCollector.toValue("DEVICE0", "METRIC0", 0, now + i, i));
+            }
+            writer.close();
+
+            Assert.assertTrue(f.exists());
+            Assert.assertTrue(new File(dir, "test.csv.1").exists());
+            Assert.assertTrue(new File(dir, "test.csv.2").exists());
+            Assert.assertFalse("only maxBackupIndex files are kept", new File(dir, "test.csv.3").exists());
+            Assert.assertTrue(new File(dir, "test.csv.1").length() >= 1000L);
+        } finally {
+            for (File c : dir.listFiles()) {
+                c.delete();
+            }
+            dir.delete();
+        }
+    }
 }
@@ -2,8 +2,11 @@ package org.mdpnp.apps.testapp.export;
 
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 public class DataCollectorTest {
@@ -24,4 +27,47 @@ public class DataCollectorTest {
 //        Assert.assertEquals("Invalid round-trip", s, "20150203.235809.985-0500");
 
     }
+
+    @Test
+    public void testBatchDispatch() throws Exception {
+
+        float[] values = { 1f, 2f, 3f, 4f };
+        ValueBatch batch = new ValueBatch("D0", "M0", 0, 10000L, 250L, values, values.length);
+        DataCollector.DataSampleBatchEvent evt = new DataCollector.DataSampleBatchEvent(batch, null);
+
+        final List<Value> samples = new ArrayList<>();
+        final List<ValueBatch> batches = new ArrayList<>();
+
+        DataCollector.DataSampleEventListener perSample = new DataCollector.DataSampleEventListener() {
+            @Override
+            public void handleDataSampleEvent(DataCollector.DataSampleEvent evt) throws Exception {
+                samples.add((Value) evt.getSource());
+            }
+        };
+        DataCollector.DataSampleBatchListener perBatch = new DataCollector.DataSampleBatchListener() {
+            @Override
+            public void handleDataSampleEvent(DataCollector.DataSampleEvent evt) throws Exception {
+                Assert.fail("batch listener should get the batch");
+            }
+
+            @Override
+            public void handleDataSampleBatchEvent(DataCollector.DataSampleBatchEvent evt) throws Exception {
+                batches.add(evt.getBatch());
+            }
+        };
+
+        DataCollector.fireDataSampleBatchEvent(new DataCollector.DataSampleEventListener[] { perSample, perBatch }, evt);
+
+        Assert.assertEquals(1, batches.size());
+        Assert.assertSame(batch, batches.get(0));
+
+        Assert.assertEquals(values.length, samples.size());
+        // 4ms per sample; the last one is a sample period before the base time
+        for (int j = 0; j < values.length; j++) {
+            Value v = samples.get(j);
+            Assert.assertEquals("D0", v.getUniqueDeviceIdentifier());
+            Assert.assertEquals(10000L - (values.length - j) * 4L, v.getDevTime());
+            Assert.assertEquals(values[j], v.getValue(), 0.0);
+        }
+    }
 }
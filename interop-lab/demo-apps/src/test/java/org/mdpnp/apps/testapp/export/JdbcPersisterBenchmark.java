@@ -0,0 +1,113 @@
+package org.mdpnp.apps.testapp.export;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+
+import org.mdpnp.apps.testapp.patient.PatientApplicationFactory;
+
+/**
+ * Compares committing every sample on the calling thread (what JdbcPersister
+ * used to do) with handing whole arrays to {@link JdbcBatchWriter}.  Both
+ * write to the embedded HSQLDB used by the patient app.  An in-memory
+ * database never syncs to disk, so pass a file: URL to see the cost of
+ * per-sample commits on real storage.
+ *
+ * Not a unit test; run the main method.
+ *
+ * JdbcPersisterBenchmark [samples] [arraySize] [batchSize] [url]
+ */
+public class JdbcPersisterBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 250000;
+        int arraySize = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : JdbcBatchWriter.DEFAULT_BATCH_SIZE;
+
+        PatientApplicationFactory.EmbeddedDB ds = new PatientApplicationFactory.EmbeddedDB();
+        if (args.length > 3) {
+            ds.setUrl(args[3]);
+        }
+        Connection conn = ds.getConnection();
+        try {
+            JdbcPersister.createSchema(conn);
+
+            float[] values = new float[arraySize];
+            for (int i = 0; i < arraySize; i++) {
+                values[i] = (float) Math.sin(i / 10.0);
+            }
+
+            for (int round = 0; round < 3; round++) {
+                report("per-sample", samples, perSample(conn, values, samples), -1L);
+                clear(conn);
+                long[] batched = batched(conn, values, samples, batchSize);
+                report("batched", samples, batched[0], batched[1]);
+                clear(conn);
+            }
+        } finally {
+            conn.close();
+            ds.shutdown();
+        }
+    }
+
+    /**
+     * @return nanoseconds spent on the calling thread
+     */
+    private static long perSample(Connection conn, float[] values, int samples) throws Exception {
+        conn.setAutoCommit(false);
+        PreparedStatement ps = conn.prepareStatement(JdbcBatchWriter.INSERT);
+        try {
+            long start = System.nanoTime();
+            long t = System.currentTimeMillis();
+            for (int i = 0; i < samples; i++) {
+                ps.setString(1, "benchmark");
+                ps.setString(2, "benchmark");
+                ps.setInt(3, 0);
+                ps.setTimestamp(4, new Timestamp(t + i));
+                ps.setDouble(5, values[i % values.length]);
+                ps.execute();
+                conn.commit();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            ps.close();
+        }
+    }
+
+    /**
+     * @return nanoseconds spent on the calling thread, then until everything was committed
+     */
+    private static long[] batched(Connection conn, float[] values, int samples, int batchSize) throws Exception {
+        JdbcBatchWriter writer = new JdbcBatchWriter(conn, batchSize, JdbcBatchWriter.DEFAULT_MAX_LATENCY_MS, JdbcBatchWriter.DEFAULT_QUEUE_CAPACITY);
+        try {
+            long start = System.nanoTime();
+            long t = System.currentTimeMillis();
+            for (int i = 0; i < samples; i += values.length) {
+                t += values.length;
+                writer.offer(new ValueBatch("benchmark", "benchmark", 0, t, 1000L, values, Math.min(values.length, samples - i)));
+            }
+            long offered = System.nanoTime() - start;
+            writer.drain(600000L);
+            long committed = System.nanoTime() - start;
+            if (writer.getDroppedCount() > 0L) {
+                System.out.println("dropped " + writer.getDroppedCount() + " samples; raise the queue capacity");
+            }
+            return new long[] { offered, committed };
+        } finally {
+            writer.shutdown(10000L);
+        }
+    }
+
+    private static void clear(Connection conn) throws Exception {
+        conn.setAutoCommit(true);
+        conn.createStatement().execute("DELETE FROM VITAL_VALUES");
+    }
+
+    private static void report(String name, int samples, long callerNanos, long totalNanos) {
+        if (totalNanos < 0L) {
+            totalNanos = callerNanos;
+        }
+        System.out.println(String.format("%-10s caller %8.1f ns/sample, %10.0f samples/s committed", name, (double) callerNanos / samples,
+                samples * 1e9 / totalNanos));
+    }
+}
@@ -3,8 +3,12 @@ package org.mdpnp.apps.testapp.export;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JdbcPersisterTest {
 
@@ -73,5 +77,103 @@ public class JdbcPersisterTest {
 
         p.stop();
     }
-}
 
+    @Test
+    public void testBatchedWrite() throws Exception {
+
+        JdbcPersister p = new JdbcPersister() {
+            @Override
+            Connection createConnection() throws Exception {
+                Connection c = createConnection("org.hsqldb.jdbcDriver",
+                                                "jdbc:hsqldb:mem:batch",
+                                                "sa", "");
+                JdbcPersister.createSchema(c);
+                return c;
+            }
+        };
+        p.setBatchSize(100);
+        // Long enough that only the batch size or the drain below can trigger a commit
+        p.setMaxLatencyMs(60000L);
+
+        p.start();
+
+        // Two whole waveform arrays plus a numeric
+        float[] values = new float[256];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        long now = System.currentTimeMillis();
+        p.handleDataSampleBatchEvent(new DataCollector.DataSampleBatchEvent(new ValueBatch("DEVICE", "WAVE", 0, now, 100L, values, values.length), null));
+        p.handleDataSampleBatchEvent(new DataCollector.DataSampleBatchEvent(new ValueBatch("DEVICE", "WAVE", 0, now + 2560L, 100L, values, values.length), null));
+        p.handleDataSampleEvent(new DataCollector.DataSampleEvent(DataCollector.toValue("DEVICE", "NUMERIC", 0, now, 98.0)));
+
+        Connection conn = p.getConnection();
+
+        try {
+            ResultSet rs = conn.createStatement().executeQuery("select count(*), min(TIME_TICK), max(TIME_TICK) from VITAL_VALUES where METRIC_ID='WAVE'");
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals("Database is missing records", 512, rs.getInt(1));
+            Assert.assertEquals(new Timestamp(now - 2560L), rs.getTimestamp(2));
+            Assert.assertEquals(new Timestamp(now + 2560L - 10L), rs.getTimestamp(3));
+
+            rs = conn.createStatement().executeQuery("select count(*) from VITAL_VALUES where METRIC_ID='NUMERIC'");
+            Assert.assertTrue(rs.next());
+            Assert.assertEquals(1, rs.getInt(1));
+
+            Assert.assertEquals(513L, p.getWrittenCount());
+            Assert.assertEquals(0L, p.getDroppedCount());
+            Assert.assertTrue("Expected far fewer commits than samples", p.getBatchCount() <= 3L);
+        } finally {
+            conn.createStatement().execute("SHUTDOWN");
+        }
+
+        p.stop();
+    }
+
+    @Test
+    public void testRowsCountedAsAdded() throws Exception {
+
+        // A statement that refuses the third row it is given
+        final AtomicInteger addBatchCalls = new AtomicInteger();
+        final AtomicInteger batchedRows = new AtomicInteger();
+        final AtomicInteger executedRows = new AtomicInteger();
+        final PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("addBatch".equals(method.getName())) {
+                            if (3 == addBatchCalls.incrementAndGet()) {
+                                throw new SQLException("expected");
+                            }
+                            batchedRows.incrementAndGet();
+                        } else if ("executeBatch".equals(method.getName())) {
+                            executedRows.addAndGet(batchedRows.getAndSet(0));
+                            return new int[0];
+                        }
+                        return null;
+                    }
+                });
+        Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        return "prepareStatement".equals(method.getName()) ? ps : null;
+                    }
+                });
+
+        JdbcBatchWriter writer = new JdbcBatchWriter(conn, 100, 60000L, 16);
+        try {
+            float[] values = new float[10];
+            writer.offer(new ValueBatch("DEVICE", "WAVE", 0, 10000L, 100L, values, values.length));
+            Assert.assertTrue(writer.drain(2000L));
+
+            // The two rows ahead of the failure were in the JDBC batch that was committed
+            Assert.assertEquals(2, executedRows.get());
+            Assert.assertEquals(2L, writer.getWrittenCount());
+            Assert.assertEquals(8L, writer.getFailedCount());
+            Assert.assertEquals(1L, writer.getBatchCount());
+        } finally {
+            writer.shutdown(2000L);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.mdpnp.apps.testapp.validate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RollingHistogramTest {
+
+    @Test
+    public void testWindowEvictsOldest() {
+        RollingHistogram h = new RollingHistogram(3);
+        h.add(60);
+        h.add(61);
+        h.add(60);
+        assertEquals(2, h.getCount(60));
+        assertEquals(1, h.getCount(61));
+
+        h.add(62);
+        assertEquals(3, h.getN());
+        assertEquals(1, h.getCount(60));
+        assertEquals(1, h.getCount(62));
+
+        // Well outside of the bins so far, in both directions
+        h.add(-500);
+        h.add(1000);
+        assertEquals(0, h.getCount(60));
+        assertEquals(0, h.getCount(61));
+        assertEquals(1, h.getCount(62));
+        assertEquals(1, h.getCount(-500));
+        assertEquals(1, h.getCount(1000));
+        assertTrue(h.getLowest() <= -500);
+        assertTrue(h.getHighest() >= 1000);
+    }
+
+    @Test
+    public void testResizeKeepsNewest() {
+        RollingHistogram h = new RollingHistogram(5);
+        for (int i = 0; i < 5; i++) {
+            h.add(i);
+        }
+        h.setWindowSize(2);
+        assertEquals(2, h.getN());
+        assertEquals(0, h.getCount(2));
+        assertEquals(1, h.getCount(3));
+        assertEquals(1, h.getCount(4));
+
+        h.setWindowSize(4);
+        h.add(5);
+        h.add(6);
+        assertEquals(4, h.getN());
+        assertEquals(1, h.getCount(3));
+        h.add(7);
+        assertEquals(0, h.getCount(3));
+    }
+
+    @Test
+    public void testClampsWildValues() {
+        RollingHistogram h = new RollingHistogram(2);
+        h.add(Integer.MAX_VALUE);
+        h.add(Integer.MIN_VALUE);
+        assertEquals(1, h.getCount(Short.MAX_VALUE));
+        assertEquals(1, h.getCount(Short.MIN_VALUE));
+    }
+
+    @Test
+    public void testMomentsOfWindow() {
+        Random random = new Random(7L);
+        int[] values = new int[1000];
+        RollingHistogram h = new RollingHistogram(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 60 + (int) Math.round(5.0 * random.nextGaussian());
+            h.add(values[i]);
+
+            if (i % 37 == 0 || i == values.length - 1) {
+                int from = Math.max(0, i - 99);
+                RollingHistogram.Moments m = new RollingHistogram.Moments();
+                h.addTo(m);
+                assertMoments(values, from, i + 1, m);
+            }
+        }
+    }
+
+    @Test
+    public void testPooledMoments() {
+        Random random = new Random(8L);
+        int[] values = new int[300];
+        RollingHistogram a = new RollingHistogram(100), b = new RollingHistogram(200);
+        for (int i = 0; i < values.length; i++) {
+            if (i < 100) {
+                values[i] = 95 + random.nextInt(5);
+                a.add(values[i]);
+            } else {
+                values[i] = 90 + random.nextInt(10);
+                b.add(values[i]);
+            }
+        }
+        RollingHistogram.Moments m = new RollingHistogram.Moments();
+        a.addTo(m);
+        b.addTo(m);
+        assertMoments(values, 0, values.length, m);
+
+        // An empty window contributes nothing
+        new RollingHistogram(10).addTo(m);
+        assertMoments(values, 0, values.length, m);
+    }
+
+    @Test
+    public void testDegenerate() {
+        RollingHistogram.Moments m = new RollingHistogram.Moments();
+        assertTrue(Double.isNaN(m.getMean()));
+        assertTrue(Double.isNaN(m.getVariance()));
+
+        RollingHistogram h = new RollingHistogram(10);
+        h.add(80);
+        h.addTo(m);
+        assertEquals(80.0, m.getMean(), 0.0);
+        assertEquals(0.0, m.getVariance(), 0.0);
+        assertTrue(Double.isNaN(m.getSkewness()));
+        assertTrue(Double.isNaN(m.getKurtosis()));
+
+        for (int i = 0; i < 5; i++) {
+            h.add(80);
+        }
+        m.clear();
+        h.addTo(m);
+        assertEquals(0.0, m.getSkewness(), 0.0);
+        assertEquals(0.0, m.getKurtosis(), 0.0);
+    }
+
+    // The definitions used by commons-math DescriptiveStatistics, computed directly
+    private static void assertMoments(int[] values, int from, int to, RollingHistogram.Moments m) {
+        double n = to - from;
+        double sum = 0.0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        double mean = sum / n;
+        double m2 = 0.0, m3 = 0.0, m4 = 0.0;
+        for (int i = from; i < to; i++) {
+            double d = values[i] - mean;
+            m2 += d * d;
+            m3 += d * d * d;
+            m4 += d * d * d * d;
+        }
+        double variance = m2 / (n - 1);
+        double sd = Math.sqrt(variance);
+        double skewness = n * m3 / ((n - 1) * (n - 2) * sd * variance);
+        double kurtosis = n * (n + 1) / ((n - 1) * (n - 2) * (n - 3)) * m4 / (variance * variance) - 3 * (n - 1) * (n - 1) / ((n - 2) * (n - 3));
+
+        assertEquals((long) n, m.getN());
+        assertEquals(mean, m.getMean(), 1e-9);
+        assertEquals(sd, m.getStandardDeviation(), 1e-9);
+        assertEquals(skewness, m.getSkewness(), 1e-9);
+        assertEquals(kurtosis, m.getKurtosis(), 1e-9);
+    }
+}
@@ -104,6 +104,72 @@ public class VitalModelTest {
         });
     }
 
+    @Test
+    public void testWarningClearsWhenValueReturnsToRange() throws InterruptedException {
+        testOnFxThread(() -> {
+            heartRateVital = VitalSign.HeartRate.addToModel(model);
+            heartRateVital.setWarningLow(50.0);
+            NumericFx numeric = heartRate("ABC", 40f);
+            model.addNumeric(numeric);
+            assertNotEquals(VitalModel.State.Normal, model.getState());
+            assertEquals(1, model.stateProperty().get().advisories.size());
+
+            numeric.setValue(60f);
+            assertEquals(VitalModel.State.Normal, model.getState());
+            assertEquals(0, model.stateProperty().get().advisories.size());
+            assertEquals("", model.getWarningText());
+        });
+    }
+
+    @Test
+    public void testWarningsBecomeAlarm() throws InterruptedException {
+        testOnFxThread(() -> {
+            heartRateVital = VitalSign.HeartRate.addToModel(model);
+            heartRateVital.setWarningLow(50.0);
+            Vital spo2 = VitalSign.SpO2.addToModel(model);
+            model.addNumeric(heartRate("ABC", 45f));
+            assertEquals(VitalModel.State.Warning, model.getState());
+
+            NumericFx numeric = numeric("ABC", rosetta.MDC_PULS_OXIM_SAT_O2.VALUE, 90f);
+            model.addNumeric(numeric);
+            assertEquals(1, spo2.size());
+            assertEquals(VitalModel.State.Alarm, model.getState());
+
+            model.removeNumeric(numeric);
+            assertEquals(0, spo2.size());
+            assertEquals(VitalModel.State.Warning, model.getState());
+        });
+    }
+
+    @Test
+    public void testNumericOnlyReachesVitalsForItsMetric() throws InterruptedException {
+        testOnFxThread(() -> {
+            heartRateVital = VitalSign.HeartRate.addToModel(model);
+            Vital spo2 = VitalSign.SpO2.addToModel(model);
+            NumericFx numeric = heartRate("ABC", 60f);
+            model.addNumeric(numeric);
+            model.addNumeric(numeric);
+            assertEquals(1, heartRateVital.size());
+            assertEquals(0, spo2.size());
+        });
+    }
+
+    private static NumericFx heartRate(String udi, float value) {
+        return numeric(udi, rosetta.MDC_ECG_HEART_RATE.VALUE, value);
+    }
+
+    private static NumericFx numeric(String udi, String metricId, float value) {
+        NumericFx numeric = new NumericFx();
+        numeric.setUnique_device_identifier(udi);
+        numeric.setMetric_id(metricId);
+        numeric.setInstance_id(0);
+        numeric.setPresentation_time(new Date());
+        numeric.setSource_timestamp(new Date());
+        numeric.setDevice_time(new Date());
+        numeric.setValue(value);
+        return numeric;
+    }
+
     @Test
     public void testVitalSignLookupTable() {
 
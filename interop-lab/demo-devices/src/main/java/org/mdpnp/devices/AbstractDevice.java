@@ -34,10 +34,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.mdpnp.rtiapi.data.EventLoop;
-import org.mdpnp.rtiapi.data.EventLoop.ConditionHandler;
 import org.mdpnp.rtiapi.data.QosProfiles;
 import org.mdpnp.rtiapi.data.TopicUtil;
 import org.slf4j.Logger;
@@ -51,7 +51,6 @@ import com.rti.dds.infrastructure.InstanceHandle_t;
 import com.rti.dds.infrastructure.RETCODE_NO_DATA;
 import com.rti.dds.infrastructure.ResourceLimitsQosPolicy;
 import com.rti.dds.infrastructure.StatusKind;
-import com.rti.dds.infrastructure.Time_t;
 import com.rti.dds.publication.Publisher;
 import com.rti.dds.subscription.InstanceStateKind;
 import com.rti.dds.subscription.ReadCondition;
@@ -128,6 +127,23 @@ public abstract class AbstractDevice {
         return subscriber;
     }
 
+    private NumericPublicationPolicy numericPublicationPolicy = new NumericPublicationPolicy(System.getProperties());
+    private final AtomicLong numericSamplesPublished = new AtomicLong();
+    private final AtomicLong numericSamplesSuppressed = new AtomicLong();
+    private volatile PublishStatistics publishStatistics;
+
+    /**
+     * Numeric instance that remembers what was last published so that
+     * numericSample can apply the {@link NumericPublicationPolicy}
+     */
+    private static class NumericInstanceHolder extends InstanceHolder<Numeric> {
+        private final NumericPublicationPolicy.Filter filter;
+
+        NumericInstanceHolder(NumericPublicationPolicy.Filter filter) {
+            this.filter = filter;
+        }
+    }
+
     public static class InstanceHolder<T> {
         public T data;
         public InstanceHandle_t handle;
@@ -169,7 +185,7 @@ public abstract class AbstractDevice {
             throw new IllegalStateException("Please populate deviceIdentity.unique_device_identifier before calling createNumericInstance");
         }
 
-        InstanceHolder<Numeric> holder = new InstanceHolder<Numeric>();
+        InstanceHolder<Numeric> holder = new NumericInstanceHolder(numericPublicationPolicy.newFilter(metric_id));
         holder.data = new Numeric();
         holder.data.unique_device_identifier = deviceIdentity.unique_device_identifier;
         holder.data.metric_id = metric_id;
@@ -317,22 +333,51 @@ public abstract class AbstractDevice {
         return holder;
     }
 
-    protected void numericSample(InstanceHolder<Numeric> holder, float newValue, DeviceClock.Reading time) {
-        holder.data.value = newValue;
+    /**
+     * Fills the device and presentation times of a Numeric from a reading.
+     * Called for every published Numeric so it must not create garbage.
+     */
+    static void numericTimes(DeviceClock.Reading time, ice.Time_t device_time, ice.Time_t presentation_time) {
+        deviceTime(time, device_time);
+        DomainClock.toDDSTimeNanos(time.getTimeNanos(), presentation_time);
+    }
+
+    /**
+     * Fills the device and presentation times of a SampleArray from a reading;
+     * the presentation time is truncated to the resolution of size samples at frequency.
+     * Called for every published SampleArray so it must not create garbage.
+     */
+    static void sampleArrayTimes(DeviceClock.Reading time, int frequency, int size, ice.Time_t device_time, ice.Time_t presentation_time) {
+        deviceTime(time, device_time);
+        DeviceClock.Reading adjusted = time.refineResolutionForFrequency(frequency, size);
+        DomainClock.toDDSTimeNanos(adjusted.getTimeNanos(), presentation_time);
+    }
+
+    private static void deviceTime(DeviceClock.Reading time, ice.Time_t device_time) {
         if(time.hasDeviceTime()) {
-            Time_t t = DomainClock.toDDSTime(time.getDeviceTime());
-            holder.data.device_time.sec = t.sec;
-            holder.data.device_time.nanosec = t.nanosec;
+            DomainClock.toDDSTimeNanos(time.getDeviceTimeNanos(), device_time);
         } else {
-            holder.data.device_time.sec = 0;
-            holder.data.device_time.nanosec = 0;
+            device_time.sec = 0;
+            device_time.nanosec = 0;
         }
-        
-        Time_t t = DomainClock.toDDSTime(time.getTime());
-        holder.data.presentation_time.sec = t.sec;
-        holder.data.presentation_time.nanosec = t.nanosec;
-        
+    }
+
+    protected void numericSample(InstanceHolder<Numeric> holder, float newValue, DeviceClock.Reading time) {
+        holder.data.value = newValue;
+        numericTimes(time, holder.data.device_time, holder.data.presentation_time);
+
+        if (holder instanceof NumericInstanceHolder
+                && !((NumericInstanceHolder) holder).filter.offer(newValue, System.nanoTime() / 1000000L)) {
+            numericSamplesSuppressed.incrementAndGet();
+            return;
+        }
+        PublishStatistics stats = publishStatistics;
+        long start = null == stats ? 0L : System.nanoTime();
         numericDataWriter.write(holder.data, holder.handle);
+        if (null != stats) {
+            stats.record(System.nanoTime() - start);
+        }
+        numericSamplesPublished.incrementAndGet();
     }
 
     protected void alarmLimitSample(InstanceHolder<ice.AlarmLimit> holder, String unit_id, Float newValue) {
@@ -541,6 +586,34 @@ public abstract class AbstractDevice {
         return sampleArraySample(holder, new CollectionContainer<>(newValues), metric_id, vendor_metric_id, instance_id, unit_id, frequency, timestamp);
     }
 
+    /**
+     * Primitive counterpart of the Number[] and Collection&lt;Number&gt; variants; len values starting at off are
+     * copied straight into the sample's FloatSeq without boxing.  Passing null values unregisters the instance.
+     */
+    protected InstanceHolder<ice.SampleArray> sampleArraySample(InstanceHolder<ice.SampleArray> holder,
+                                                                float[] newValues, int off, int len,
+                                                                String metric_id, String vendor_metric_id, int instance_id, String unit_id, int frequency,
+                                                                DeviceClock.Reading timestamp) {
+
+        holder = ensureHolderConsistency(holder, metric_id, vendor_metric_id, instance_id, unit_id, frequency);
+
+        if (null != newValues) {
+            // Call this now so that resolution of instance registration timestamp
+            // is reduced
+            timestamp = timestamp.refineResolutionForFrequency(frequency, len);
+            if (null == holder) {
+                holder = createSampleArrayInstance(metric_id, vendor_metric_id, instance_id, unit_id, frequency);
+            }
+            sampleArraySample(holder, newValues, off, len, timestamp);
+        } else {
+            if (holder != null) {
+                unregisterSampleArrayInstance(holder);
+                holder = null;
+            }
+        }
+        return holder;
+    }
+
     private InstanceHolder<SampleArray> sampleArraySample(InstanceHolder<SampleArray> holder,
                                                           NullSaveContainer<Number> newValues,
                                                           String metric_id, String vendor_metric_id, int instance_id, String unit_id, int frequency,
@@ -573,6 +646,11 @@ public abstract class AbstractDevice {
         sampleArraySample(holder, new CollectionContainer<>(newValues), timestamp);
     }
 
+    protected void sampleArraySample(InstanceHolder<SampleArray> holder, float[] newValues, int off, int len, DeviceClock.Reading timestamp) {
+        fill(holder, newValues, off, len);
+        publish(holder, timestamp);
+    }
+
     private void sampleArraySample(InstanceHolder<ice.SampleArray> holder, NullSaveContainer<Number> newValues, DeviceClock.Reading deviceTimestamp) {
         fill(holder, newValues);
         publish(holder, deviceTimestamp);
@@ -589,25 +667,25 @@ public abstract class AbstractDevice {
         }
     }
 
-    private void publish(InstanceHolder<ice.SampleArray> holder, DeviceClock.Reading deviceTimestamp) {
-
-        if (deviceTimestamp.hasDeviceTime()) {
-            Time_t t = DomainClock.toDDSTime(deviceTimestamp.getDeviceTime());
-            holder.data.device_time.sec = t.sec;
-            holder.data.device_time.nanosec = t.nanosec;
-        } else {
-
-            holder.data.device_time.sec = 0;
-            holder.data.device_time.nanosec = 0;
+    private void fill(InstanceHolder<SampleArray> holder, float[] newValues, int off, int len) {
+        holder.data.values.userData.clear();
+        if(null != newValues && len > 0) {
+            holder.data.values.userData.addAllFloat(newValues, off, len);
         }
+    }
 
-        DeviceClock.Reading adjusted = deviceTimestamp.refineResolutionForFrequency(holder.data.frequency,
-                                                                                    holder.data.values.userData.size());
-        
-        DomainClock.toDDSTime(adjusted.getTime(), holder.data.presentation_time);
+    private void publish(InstanceHolder<ice.SampleArray> holder, DeviceClock.Reading deviceTimestamp) {
+
+        sampleArrayTimes(deviceTimestamp, holder.data.frequency, holder.data.values.userData.size(),
+                         holder.data.device_time, holder.data.presentation_time);
 
+        PublishStatistics stats = publishStatistics;
+        long start = null == stats ? 0L : System.nanoTime();
         sampleArrayDataWriter.write(holder.data,
                                                 holder.handle==null?InstanceHandle_t.HANDLE_NIL:holder.handle);
+        if (null != stats) {
+            stats.record(System.nanoTime() - start);
+        }
     }
 
     private InstanceHolder<SampleArray> ensureHolderConsistency(InstanceHolder<SampleArray> holder,
@@ -819,7 +897,7 @@ public abstract class AbstractDevice {
             final ice.GlobalAlarmLimitObjectiveSeq data_seq = new ice.GlobalAlarmLimitObjectiveSeq();
             eventLoop.addHandler(
             		alarmLimitObjectiveCondition = alarmLimitObjectiveReader.create_readcondition(SampleStateKind.NOT_READ_SAMPLE_STATE,
-                            ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ANY_INSTANCE_STATE), new ConditionHandler() {
+                            ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ANY_INSTANCE_STATE), new EventLoop.DispatchableConditionHandler() {
                         @Override
                         public void conditionChanged(Condition condition) {
                             try {
@@ -883,6 +961,39 @@ public abstract class AbstractDevice {
         return null == deviceIdentity ? null : deviceIdentity.unique_device_identifier;
     }
 
+    @ManagedAttribute(description="Numeric samples written.")
+    public long getNumericSamplesPublished() {
+        return numericSamplesPublished.get();
+    }
+
+    @ManagedAttribute(description="Numeric samples not written under the numeric publication policy.")
+    public long getNumericSamplesSuppressed() {
+        return numericSamplesSuppressed.get();
+    }
+
+    public NumericPublicationPolicy getNumericPublicationPolicy() {
+        return numericPublicationPolicy;
+    }
+
+    /**
+     * Applies to numeric instances registered afterward
+     */
+    public void setNumericPublicationPolicy(NumericPublicationPolicy numericPublicationPolicy) {
+        this.numericPublicationPolicy = null == numericPublicationPolicy ? new NumericPublicationPolicy() : numericPublicationPolicy;
+    }
+
+    public PublishStatistics getPublishStatistics() {
+        return publishStatistics;
+    }
+
+    /**
+     * Numeric and SampleArray writes are timed into the statistics from now on;
+     * null, the default, stops timing them.
+     */
+    public void setPublishStatistics(PublishStatistics publishStatistics) {
+        this.publishStatistics = publishStatistics;
+    }
+
     public ScheduledExecutorService getExecutor() {
         return executor;
     }
@@ -25,6 +25,7 @@ import java.util.Hashtable;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -151,10 +152,30 @@ public interface DeviceDriverProvider {
             return "classpath*:/DriverContext.xml";
         }
 
+        /**
+         * @see #createHosted(AbstractApplicationContext)
+         */
+        protected String getHostedContextPath() {
+            return "classpath*:/HostedDriverContext.xml";
+        }
+
+        private static final AtomicInteger hostedCount = new AtomicInteger();
+
         @Override
         public DeviceAdapter create(AbstractApplicationContext parentContext) throws Exception {
+            return create(parentContext, getContextPath(), getDeviceType().getAlias() + hashCode());
+        }
+
+        /**
+         * Create one of many adapters sharing a host process. In addition to the usual beans the parent
+         * context must provide a 'hostExecutor' ScheduledExecutorService; the adapter schedules its work
+         * there and gets only its own publisher and subscriber so that it keeps its own partitions.
+         */
+        public DeviceAdapter createHosted(AbstractApplicationContext hostContext) throws Exception {
+            return create(hostContext, getHostedContextPath(), getDeviceType().getAlias() + "-" + hostedCount.incrementAndGet());
+        }
 
-            String contextPath = getContextPath();
+        protected DeviceAdapter create(AbstractApplicationContext parentContext, String contextPath, String id) throws Exception {
 
             AbstractApplicationContext context =
                     new ClassPathXmlApplicationContext(new String[] { contextPath }, false, parentContext);
@@ -163,7 +184,7 @@ public interface DeviceDriverProvider {
             // to create jmx names for the beans that are to be exposed for management.
             //
             context.setDisplayName(getDeviceType().toString());
-            context.setId(getDeviceType().getAlias() + hashCode());
+            context.setId(id);
 
             // create a post processor to inject a device factory with the appropriate device
             // implementation.
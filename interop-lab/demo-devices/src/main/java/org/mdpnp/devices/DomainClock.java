@@ -27,6 +27,22 @@ public class DomainClock implements DeviceClock  {
         return t;
     }
 
+    /**
+     * Unlike {@link #toDDSTime(long, Time_t)} the timestamp is in nanoseconds since the epoch
+     */
+    public static void toDDSTimeNanos(long nanos, Time_t t) {
+        t.sec = (int) Math.floorDiv(nanos, 1000000000L);
+        t.nanosec = (int) Math.floorMod(nanos, 1000000000L);
+    }
+
+    /**
+     * Unlike {@link #toDDSTime(long, ice.Time_t)} the timestamp is in nanoseconds since the epoch
+     */
+    public static void toDDSTimeNanos(long nanos, ice.Time_t t) {
+        t.sec = (int) Math.floorDiv(nanos, 1000000000L);
+        t.nanosec = (int) Math.floorMod(nanos, 1000000000L);
+    }
+
     public static void toDDSTime(Instant timestamp, Time_t t) {
         t.sec = (int)timestamp.getEpochSecond();
         t.nanosec = timestamp.getNano();
@@ -95,10 +111,9 @@ public class DomainClock implements DeviceClock  {
         return t;
     }
 
-    static Instant timeSampleArrayResolution(int resolutionNsPerSample, Instant t) {
-
-        long sec     = t.getEpochSecond();
-        long nanosec = t.getNano();
+    static long timeSampleArrayResolution(int resolutionNsPerSample, long nanos) {
+        long sec     = Math.floorDiv(nanos, 1000000000L);
+        long nanosec = Math.floorMod(nanos, 1000000000L);
 
         if(resolutionNsPerSample >=1000000000) {
             int secondsMod = resolutionNsPerSample / 1000000000;
@@ -114,28 +129,48 @@ public class DomainClock implements DeviceClock  {
         } else {
             nanosec -= 0 == resolutionNsPerSample ? 0 : (nanosec % resolutionNsPerSample);
         }
-        return Instant.ofEpochSecond(sec, nanosec);
+        return sec * 1000000000L + nanosec;
     }
 
+    // Scratch for reading the participant's clock, one per calling thread
+    private final ThreadLocal<Time_t> currentTime = new ThreadLocal<Time_t>() {
+        @Override
+        protected Time_t initialValue() {
+            return new Time_t(0, 0);
+        }
+    };
 
     Instant currentTime() {
-        Time_t dds = new Time_t(0, 0);
+        return DeviceClock.toInstant(currentTimeNanos());
+    }
+
+    long currentTimeNanos() {
+        Time_t dds = currentTime.get();
         domainParticipant.get_current_time(dds);
-        Instant t = Instant.ofEpochSecond(dds.sec, dds.nanosec);
-        return t;
+        return dds.sec * 1000000000L + dds.nanosec;
     }
 
     @Override
     public DeviceClock.Reading instant() {
         return new DeviceClock.Reading() {
 
-            private final Instant ms = currentTime();
+            private final long ns = currentTimeNanos();
+
+            @Override
+            public long getTimeNanos() {
+                return timeSampleArrayResolution(currentArrayResolutionNsPerSample, ns);
+            }
 
             @Override
             public Instant getDeviceTime() {
                 return null;
             }
 
+            @Override
+            public long getDeviceTimeNanos() {
+                return 0L;
+            }
+
             @Override
             public boolean hasDeviceTime() {
                 return false;
@@ -143,8 +178,7 @@ public class DomainClock implements DeviceClock  {
 
             @Override
             public Instant getTime() {
-                Instant adjusted = timeSampleArrayResolution(currentArrayResolutionNsPerSample, ms);
-                return adjusted;
+                return DeviceClock.toInstant(getTimeNanos());
             }
 
             @Override
@@ -0,0 +1,208 @@
+package org.mdpnp.devices;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides which samples of a Numeric instance are worth writing.  Devices
+ * often report a value far more often than it changes, and every write is a
+ * sample on the wire for every subscriber.
+ * <p>
+ * A {@link Rule} is chosen by metric_id, falling back to a default rule.  A
+ * sample is published when it differs from the last published value by more
+ * than the deadband and at least the minimum interval has passed since the
+ * last publication.  Regardless of the value a sample is published once the
+ * maximum interval has passed so that subscribers still see a live instance.
+ * The default rule publishes every sample.
+ * <p>
+ * Rules are read from properties named {@value #PROPERTY_PREFIX} followed by
+ * a metric_id or "default", each with the value
+ * <pre>absoluteDeadband,relativeDeadband,minIntervalMs,maxIntervalMs</pre>
+ * where trailing fields may be omitted.  For example
+ * <pre>-DNumericPublicationPolicy.MDC_PULS_OXIM_SAT_O2=0,0,0,5000</pre>
+ * publishes SpO2 only when it changes but at least every five seconds.
+ */
+public class NumericPublicationPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(NumericPublicationPolicy.class);
+
+    public static final String PROPERTY_PREFIX = "NumericPublicationPolicy.";
+    public static final String DEFAULT_RULE = "default";
+
+    public static class Rule {
+        /**
+         * Publishes every sample
+         */
+        public static final Rule EVERY_SAMPLE = new Rule(0f, 0f, 0L, 0L);
+
+        private final float absoluteDeadband, relativeDeadband;
+        private final long minInterval, maxInterval;
+
+        /**
+         * @param absoluteDeadband a change no larger than this is not published
+         * @param relativeDeadband a change no larger than this fraction of the last published value is not published
+         * @param minInterval milliseconds after a publication during which changes are not published; 0 for none
+         * @param maxInterval milliseconds after which the current value is published even if unchanged; 0 for never
+         */
+        public Rule(float absoluteDeadband, float relativeDeadband, long minInterval, long maxInterval) {
+            if (!(absoluteDeadband >= 0f) || !(relativeDeadband >= 0f) || minInterval < 0L || maxInterval < 0L) {
+                throw new IllegalArgumentException("Deadbands and intervals must not be negative");
+            }
+            if (maxInterval > 0L && maxInterval < minInterval) {
+                throw new IllegalArgumentException("maxInterval " + maxInterval + " is less than minInterval " + minInterval);
+            }
+            this.absoluteDeadband = absoluteDeadband;
+            this.relativeDeadband = relativeDeadband;
+            this.minInterval = minInterval;
+            this.maxInterval = maxInterval;
+        }
+
+        public static Rule parse(String s) {
+            String[] fields = s.split(",");
+            if (fields.length > 4) {
+                throw new IllegalArgumentException("Too many fields in \"" + s + "\"");
+            }
+            try {
+                return new Rule(fields.length > 0 && !fields[0].trim().isEmpty() ? Float.parseFloat(fields[0].trim()) : 0f,
+                                fields.length > 1 ? Float.parseFloat(fields[1].trim()) : 0f,
+                                fields.length > 2 ? Long.parseLong(fields[2].trim()) : 0L,
+                                fields.length > 3 ? Long.parseLong(fields[3].trim()) : 0L);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cannot parse \"" + s + "\"", e);
+            }
+        }
+
+        public float getAbsoluteDeadband() {
+            return absoluteDeadband;
+        }
+
+        public float getRelativeDeadband() {
+            return relativeDeadband;
+        }
+
+        public long getMinInterval() {
+            return minInterval;
+        }
+
+        public long getMaxInterval() {
+            return maxInterval;
+        }
+
+        @Override
+        public String toString() {
+            return this == EVERY_SAMPLE ? "every sample" : absoluteDeadband + "," + relativeDeadband + "," + minInterval + "," + maxInterval;
+        }
+    }
+
+    /**
+     * Tracks the last publication of one instance.  Not thread safe; like the
+     * InstanceHolder it belongs to it is updated by one thread at a time.
+     */
+    public static class Filter {
+        private final Rule rule;
+        private boolean published;
+        private float lastValue;
+        private long lastTime;
+
+        Filter(Rule rule) {
+            this.rule = rule;
+        }
+
+        public Rule getRule() {
+            return rule;
+        }
+
+        /**
+         * @param value the new sample
+         * @param now a monotonic time in milliseconds
+         * @return true if the sample should be published; the filter then
+         *         remembers it as the last publication
+         */
+        public boolean offer(float value, long now) {
+            if (rule != Rule.EVERY_SAMPLE && published) {
+                long elapsed = now - lastTime;
+                if (0L == rule.maxInterval || elapsed < rule.maxInterval) {
+                    if (elapsed < rule.minInterval || !changed(value)) {
+                        return false;
+                    }
+                }
+            }
+            published = true;
+            lastValue = value;
+            lastTime = now;
+            return true;
+        }
+
+        private boolean changed(float value) {
+            if (Float.isNaN(value) || Float.isNaN(lastValue)) {
+                return Float.isNaN(value) != Float.isNaN(lastValue);
+            }
+            float delta = Math.abs(value - lastValue);
+            return delta > rule.absoluteDeadband && delta > rule.relativeDeadband * Math.abs(lastValue);
+        }
+    }
+
+    private final Map<String, Rule> rules = new ConcurrentHashMap<String, Rule>();
+    private volatile Rule defaultRule = Rule.EVERY_SAMPLE;
+
+    public NumericPublicationPolicy() {
+    }
+
+    /**
+     * Reads rules from properties as described above; malformed rules are
+     * logged and ignored.
+     */
+    public NumericPublicationPolicy(Properties properties) {
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(PROPERTY_PREFIX) && name.length() > PROPERTY_PREFIX.length()) {
+                String metric_id = name.substring(PROPERTY_PREFIX.length());
+                try {
+                    Rule rule = Rule.parse(properties.getProperty(name));
+                    if (DEFAULT_RULE.equals(metric_id)) {
+                        setDefaultRule(rule);
+                    } else {
+                        setRule(metric_id, rule);
+                    }
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring numeric publication rule " + name, e);
+                }
+            }
+        }
+    }
+
+    public Rule getDefaultRule() {
+        return defaultRule;
+    }
+
+    public void setDefaultRule(Rule rule) {
+        this.defaultRule = null == rule ? Rule.EVERY_SAMPLE : rule;
+    }
+
+    public Rule getRule(String metric_id) {
+        Rule rule = null == metric_id ? null : rules.get(metric_id);
+        return null == rule ? defaultRule : rule;
+    }
+
+    /**
+     * @param rule null to fall back to the default rule
+     */
+    public void setRule(String metric_id, Rule rule) {
+        if (null == rule) {
+            rules.remove(metric_id);
+        } else {
+            rules.put(metric_id, rule);
+        }
+    }
+
+    /**
+     * The rule is fixed when the filter is created so changes only apply to
+     * instances registered afterward.
+     */
+    public Filter newFilter(String metric_id) {
+        return new Filter(getRule(metric_id));
+    }
+}
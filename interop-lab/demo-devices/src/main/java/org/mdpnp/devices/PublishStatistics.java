@@ -0,0 +1,120 @@
+package org.mdpnp.devices;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the samples a device writes and how long each write to the DataWriter
+ * takes.  Durations are kept in a fixed log-linear histogram; every power of two
+ * of nanoseconds is split into {@value #SUB_BUCKETS} buckets so a percentile is
+ * reported within an eighth of its true value.  Recording is lock free and
+ * allocates nothing so it can be left on for every write of a device under load.
+ *
+ * @see AbstractDevice#setPublishStatistics(PublishStatistics)
+ */
+public class PublishStatistics {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (nanos >>> shift);
+    }
+
+    /**
+     * @return the largest duration that falls in the bucket
+     */
+    static long highestInBucket(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long base = bucket - shift * SUB_BUCKETS;
+        return ((base + 1L) << shift) - 1L;
+    }
+
+    /**
+     * @param nanos time taken by one write
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) {
+            nanos = 0L;
+        }
+        counts.incrementAndGet(bucket(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // another writer raced us; try again
+        }
+    }
+
+    /**
+     * Adds everything recorded by other, for instance to summarize several devices
+     */
+    public void add(PublishStatistics other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0L) {
+                counts.addAndGet(i, c);
+            }
+        }
+        count.addAndGet(other.getCount());
+        totalNanos.addAndGet(other.getTotalNanos());
+        long otherMax = other.getMaxNanos(), max;
+        while (otherMax > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, otherMax)) {
+            // another writer raced us; try again
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public double getMeanNanos() {
+        long c = count.get();
+        return 0L == c ? 0.0 : (double) totalNanos.get() / c;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return an upper bound on the write time of that percentile of samples,
+     *         0 if nothing has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile " + percentile + " is not between 0 and 100");
+        }
+        long c = count.get();
+        if (0L == c) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * c));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+}
@@ -23,7 +23,6 @@ import java.io.OutputStream;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -109,8 +108,10 @@ public abstract class AbstractDraegerVent extends AbstractDelegatingSerialDevice
     // Theoretical maximum 16 streams, practical limit seems to be 3
     // Buffering ten points is for testing, size of this buffer might be
     // a function of the sampling rate
-    @SuppressWarnings("unchecked")
-    private final List<Number>[] realtimeBuffer = new List[16];
+    // Each stream keeps a sliding window of its most recent BUFFER_SAMPLES
+    // values; realtimeBufferCount tracks how much of the window is filled
+    private final float[][] realtimeBuffer = new float[16][BUFFER_SAMPLES];
+    private final int[] realtimeBufferCount = new int[16];
     private final RTMedibus.RTDataConfig[] realtimeConfig = new RTMedibus.RTDataConfig[16];
     private final int[] realtimeUpsample = new int[16];
     private final int[] realtimeFrequency = new int[16];
@@ -139,8 +140,16 @@ public abstract class AbstractDraegerVent extends AbstractDelegatingSerialDevice
             }
             realtimeFrequency[streamIndex] = 1000000 / (config.interval*multiplier/realtimeUpsample[streamIndex]);
         }
-        for(int i = 0; i < realtimeUpsample[streamIndex]; i++) {
-            realtimeBuffer[streamIndex].add(value);
+        float[] buffer = realtimeBuffer[streamIndex];
+        synchronized (buffer) {
+            for(int i = 0; i < realtimeUpsample[streamIndex]; i++) {
+                if (realtimeBufferCount[streamIndex] < buffer.length) {
+                    buffer[realtimeBufferCount[streamIndex]++] = (float) value;
+                } else {
+                    System.arraycopy(buffer, 1, buffer, 0, buffer.length - 1);
+                    buffer[buffer.length - 1] = (float) value;
+                }
+            }
         }
         startEmitFastData(realtimeFrequency[streamIndex]);
     }
@@ -490,11 +499,8 @@ public abstract class AbstractDraegerVent extends AbstractDelegatingSerialDevice
                             // requested realtime data; so we
                             // expedite here using the same preregistered instance
                             synchronized (realtimeBuffer[i]) {
-                                if (realtimeBuffer[i].size() >= BUFFER_SAMPLES) {
-                                    if (realtimeBuffer[i].size() > BUFFER_SAMPLES) {
-                                        realtimeBuffer[i].subList(0, realtimeBuffer[i].size() - BUFFER_SAMPLES).clear();
-                                    }
-                                    sampleArraySample(sa, realtimeBuffer[i], deviceClock.instant());
+                                if (realtimeBufferCount[i] >= BUFFER_SAMPLES) {
+                                    sampleArraySample(sa, realtimeBuffer[i], 0, BUFFER_SAMPLES, deviceClock.instant());
                                 }
                             }
                         } else {
@@ -516,12 +522,9 @@ public abstract class AbstractDraegerVent extends AbstractDelegatingSerialDevice
     
                             metric_id = metricOrCode(metric_id, code, "RT");
                             synchronized (realtimeBuffer[i]) {
-                                if (realtimeBuffer[i].size() >= BUFFER_SAMPLES) {
-                                    if (realtimeBuffer[i].size() > BUFFER_SAMPLES) {
-                                        realtimeBuffer[i].subList(0, realtimeBuffer[i].size() - BUFFER_SAMPLES).clear();
-                                    }
+                                if (realtimeBufferCount[i] >= BUFFER_SAMPLES) {
                                     sampleArrayUpdates.put(code,
-                                            sampleArraySample(sa, realtimeBuffer[i], metric_id, codeToString(code), 0, units(code), realtimeFrequency[i], deviceClock.instant()));
+                                            sampleArraySample(sa, realtimeBuffer[i], 0, BUFFER_SAMPLES, metric_id, codeToString(code), 0, units(code), realtimeFrequency[i], deviceClock.instant()));
                                 }
                             }
                         }
@@ -750,9 +753,6 @@ public abstract class AbstractDraegerVent extends AbstractDelegatingSerialDevice
 
     public AbstractDraegerVent(final Subscriber subscriber, final Publisher publisher, EventLoop eventLoop) {
         super(subscriber, publisher, eventLoop, RTMedibus.class);
-        for (int i = 0; i < realtimeBuffer.length; i++) {
-            realtimeBuffer[i] = Collections.synchronizedList(new ArrayList<Number>());
-        }
         loadMap(numerics, waveforms);
     }
 
@@ -15,11 +15,13 @@ package org.mdpnp.devices.nellcor.pulseox;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.serial.AbstractSerialDevice;
+import org.mdpnp.devices.serial.ChunkProcessor;
 import org.mdpnp.devices.serial.SerialProvider;
 import org.mdpnp.devices.serial.SerialSocket.DataBits;
 import org.mdpnp.devices.serial.SerialSocket.Parity;
@@ -34,7 +36,7 @@ import com.rti.dds.subscription.Subscriber;
  * @author Jeff Plourde
  *
  */
-public class DemoN595 extends AbstractSerialDevice {
+public class DemoN595 extends AbstractSerialDevice implements ChunkProcessor {
     protected InstanceHolder<ice.Numeric> pulse, spo2, pulseAmplitude;
     protected InstanceHolder<ice.AlarmLimit> pulseAlarmLimit, spo2AlarmLimit;
 
@@ -143,6 +145,17 @@ public class DemoN595 extends AbstractSerialDevice {
         fieldDelegate.run();
     }
 
+    @Override
+    public void processStarted(int idx, OutputStream outputStream) throws IOException {
+        this.outputStream = outputStream;
+        fieldDelegate.resetChunks();
+    }
+
+    @Override
+    public void process(int idx, ByteBuffer chunk) throws IOException {
+        fieldDelegate.parseChunk(chunk);
+    }
+
     private static final byte[] enterInteractiveMode = new byte[] { 0x03, 0x03 };
     private static final byte[] dumpInstrumentInfo = new byte[] { 0x31, 0x0D, 0x0A };
     private static final byte[] exitInteractiveMode = new byte[] { 0x30, 0x0D, 0x0A };
@@ -13,7 +13,6 @@
 package org.mdpnp.devices.philips.intellivue;
 
 import ice.ConnectionState;
-import ice.SampleArray;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -23,21 +22,20 @@ import java.net.*;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
 import java.text.Normalizer;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.AbstractDevice;
 import org.mdpnp.devices.DeviceClock;
 import org.mdpnp.devices.connected.AbstractConnectedDevice;
+import org.mdpnp.devices.io.FloatRingBuffer;
 import org.mdpnp.devices.io.util.StateMachine;
 import org.mdpnp.devices.net.NetworkLoop;
 import org.mdpnp.devices.net.TaskQueue;
@@ -96,10 +94,12 @@ import org.mdpnp.devices.philips.intellivue.dataexport.DataExportResult;
 import org.mdpnp.devices.philips.intellivue.dataexport.command.EventReport;
 import org.mdpnp.devices.philips.intellivue.dataexport.command.SetResult;
 import org.mdpnp.devices.philips.intellivue.dataexport.event.MdsCreateEvent;
+import org.mdpnp.devices.philips.intellivue.util.IntMap;
 import org.mdpnp.devices.simulation.AbstractSimulatedDevice;
 import org.mdpnp.rtiapi.data.EventLoop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 
 import com.rti.dds.infrastructure.Time_t;
 import com.rti.dds.publication.Publisher;
@@ -107,28 +107,6 @@ import com.rti.dds.subscription.Subscriber;
 
 public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
 
-    protected final InstanceHolder<SampleArray> getSampleArrayUpdate(ObservedValue ov, int handle) {
-        Map<Integer, InstanceHolder<SampleArray>> forObservedValue = sampleArrayUpdates.get(ov);
-        if (null == forObservedValue) {
-            return null;
-        } else {
-            return forObservedValue.get(handle);
-        }
-    }
-    
-    protected final void putSampleArrayUpdate(ObservedValue ov, int handle, InstanceHolder<SampleArray> value) {
-        Map<Integer, InstanceHolder<SampleArray>> forObservedValue = sampleArrayUpdates.get(ov);
-        if (null == forObservedValue) {
-            forObservedValue = new HashMap<Integer, InstanceHolder<SampleArray>>();
-            sampleArrayUpdates.put(ov, forObservedValue);
-        }
-        if(null == value) {
-            forObservedValue.remove(handle);
-        } else {
-            forObservedValue.put(handle, value);
-        }
-    }
-    
     @Override
     protected void stateChanged(ConnectionState newState, ConnectionState oldState, String transitionNote) {
         super.stateChanged(newState, oldState, transitionNote);
@@ -640,12 +618,13 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
                     UnitCode unit = UnitCode.valueOf(observed.getUnitCode().getType());
 
                     if (observed.getMsmtState().isUnavailable()) {
-                        putNumericUpdate(ov, handle, numericSample(getNumericUpdate(ov, handle), (Float) null, metricId, ov.toString(), handle, 
-                                RosettaUnits.units(unit), sampleTime));
+                        ObservedState state = observed(handleState(handle), ov);
+                        state.numericUpdate = numericSample(state.numericUpdate, (Float) null, metricId, ov.toString(), handle, 
+                                RosettaUnits.units(unit), sampleTime);
                     } else {
-                        putNumericUpdate(ov, handle,
-                                numericSample(getNumericUpdate(ov, handle), observed.getValue().floatValue(), metricId, ov.toString(), handle,
-                                    RosettaUnits.units(unit), sampleTime));
+                        ObservedState state = observed(handleState(handle), ov);
+                        state.numericUpdate = numericSample(state.numericUpdate, observed.getValue().floatValue(), metricId, ov.toString(), handle,
+                                    RosettaUnits.units(unit), sampleTime);
                     }
                 } else {
                     log.debug("Unknown numeric:" + observed);
@@ -656,28 +635,6 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
 
 
 
-        private final InstanceHolder<ice.Numeric> getNumericUpdate(ObservedValue ov, int handle) {
-            Map<Integer, InstanceHolder<ice.Numeric>> forObservedValue = numericUpdates.get(ov);
-            if (null == forObservedValue) {
-                return null;
-            } else {
-                return forObservedValue.get(handle);
-            }
-        }
-
-
-
-        private final void putNumericUpdate(ObservedValue ov, int handle, InstanceHolder<ice.Numeric> value) {
-            Map<Integer, InstanceHolder<ice.Numeric>> forObservedValue = numericUpdates.get(ov);
-            if (null == forObservedValue) {
-                forObservedValue = new HashMap<Integer, InstanceHolder<ice.Numeric>>();
-                numericUpdates.put(ov, forObservedValue);
-            }
-            forObservedValue.put(handle, value);
-        }
-        
-
-
         protected void handle(int handle, DeviceClock.Reading time, SampleArrayObservedValue v, long now) {
             short[] bytes = v.getValue();
             ObservedValue ov = ObservedValue.valueOf(v.getPhysioId().getType());
@@ -688,10 +645,11 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
                 if (null == metricId) {
                     log.warn("No metricId for " + ov);
                 } else {
-                    SampleArraySpecification sas = handleToSampleArraySpecification.get(handle);
-                    ScaleAndRangeSpecification sar = handleToScaleAndRangeSpecification.get(handle);
-                    UnitCode unitCode = handleToUnitCode.get(handle);
-                    RelativeTime rt = handleToUpdatePeriod.get(handle);
+                    HandleState hs = handleState(handle);
+                    SampleArraySpecification sas = hs.sampleArraySpecification;
+                    ScaleAndRangeSpecification sar = hs.scaleAndRangeSpecification;
+                    UnitCode unitCode = hs.unitCode;
+                    RelativeTime rt = hs.updatePeriod;
                     if (null == sas || null == rt || null == sar || null == unitCode) {
                         log.warn("No SampleArraySpecification or RelativeTime for handle=" + handle + " rt=" + rt + " sas=" + sas + " sar="+sar+ " unitCode="+unitCode);
                     } else {
@@ -724,18 +682,15 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
                                 w.applyValue(i, bytes);
                             }
                             
-                            Map<Integer, SampleCache> handleToSampleCache = sampleArrayCache.get(ov);
-                            if(null == handleToSampleCache) {
-                                handleToSampleCache = Collections.synchronizedMap( new HashMap<Integer, SampleCache>() );
-                                sampleArrayCache.put(ov, handleToSampleCache);
-                            }
-                            SampleCache sampleCache = handleToSampleCache.get(handle);
+                            ObservedState state = observed(hs, ov);
+                            SampleCache sampleCache = state.sampleCache;
                             if(null == sampleCache) {
                                 sampleCache = new SampleCache();
-                                handleToSampleCache.put(handle, sampleCache);
+                                state.sampleCache = sampleCache;
+                                sampleCacheStates.add(state);
                             }
                             
-                            sampleCache.addNewSamples(w.getNumbers());
+                            sampleCache.addNewSamples(w.getValues(), w.getArraySize());
                         }
                     }
                 }
@@ -744,33 +699,36 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
 
 
         protected void handle(int handle, ScaleAndRangeSpecification sar) {
-            handleToScaleAndRangeSpecification.put(handle, sar.clone());
+            handleState(handle).scaleAndRangeSpecification = sar.clone();
             if(log.isTraceEnabled()) {
                 log.trace("Received a ScaleAndRangeSpecification for " + handle + " " + sar);
             }
         }
 
         protected void handle(int handle, UnitCode unitCode) {
-            handleToUnitCode.put(handle, unitCode);
+            handleState(handle).unitCode = unitCode;
             if(log.isTraceEnabled()) {
                 log.trace("Received a unitCode for " + handle + " " + unitCode);
             }
         }
         
         protected void handle(int handle, SampleArraySpecification spec) {
-            handleToSampleArraySpecification.put(handle, spec.clone());
+            handleState(handle).sampleArraySpecification = spec.clone();
             if(log.isTraceEnabled()) {
                 log.trace("Received a SampleArraySpecification for " + handle + " " + spec);
             }
         }
 
         protected void handle(int handle, RelativeTime period) {
-            RelativeTime newPeriod = handleToUpdatePeriod.get(handle);
+            HandleState hs = handleState(handle);
+            RelativeTime newPeriod = hs.updatePeriod;
             if (null == newPeriod) {
                 newPeriod = new RelativeTime();
-                handleToUpdatePeriod.put(handle, newPeriod);
+                newPeriod.fromMicroseconds(period.toMicroseconds());
+                hs.updatePeriod = newPeriod;
+            } else {
+                newPeriod.fromMicroseconds(period.toMicroseconds());
             }
-            newPeriod.fromMicroseconds(period.toMicroseconds());
         }
     }
     private class EmitFastData implements Runnable {
@@ -778,55 +736,38 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
         public EmitFastData() {
         }
 
-        private ObservedValue[] observedValues = new ObservedValue[10];
-        private Integer[] handles = new Integer[10];
-        
         @Override
         public void run() {
             try {
-                observedValues = sampleArrayCache.keySet().toArray(observedValues);
                 DeviceClock.Reading fakeSampleTime = getClockProvider().instant();
                 
-                for(ObservedValue ov : observedValues) {
-                    if(null == ov) {
-                        break;
+                for(ObservedState state : sampleCacheStates) {
+                    ObservedValue ov = state.observedValue;
+                    int handle = state.handle.handle;
+                    SampleCache sampleCache = state.sampleCache;
+                    InstanceHolder<ice.SampleArray> sa = state.sampleArrayUpdate;
+                    RelativeTime rt = state.handle.updatePeriod;
+                    if (null == rt || null == sampleCache || null == unitCode) {
+                        log.warn("No RelativeTime for handle=" + handle + " rt=" + rt + " sampleCache=" + sampleCache + " unitCode="+unitCode);
+                        continue;
                     }
-                    Map<Integer, SampleCache> sampleCacheByHandle = sampleArrayCache.get(ov);
-                    handles = sampleCacheByHandle.keySet().toArray(handles);
-                    for(Integer handle : handles) {
-                        if(null == handle) {
-                            break;
-                        }
-                        SampleCache sampleCache = sampleCacheByHandle.get(handle);
-                        InstanceHolder<ice.SampleArray> sa = getSampleArrayUpdate(ov, handle);
-                        RelativeTime rt = handleToUpdatePeriod.get(handle);
-                        if (null == rt || null == sampleCache || null == unitCode) {
-                            log.warn("No RelativeTime for handle=" + handle + " rt=" + rt + " sampleCache=" + sampleCache + " unitCode="+unitCode);
-                            continue;
-                        }
-                        int samples = (int) (PERIOD / rt.toMilliseconds());
-
-                        if(null != sa) {
-                            synchronized(sampleCache) {
-                                Collection<Number> c = sampleCache.emitSamples(samples, sa.data.metric_id+" "+sa.data.instance_id);
-                                if(null == c) {
-                                    putSampleArrayUpdate(ov, handle, null);
-                                } else {
-                                    sampleArraySample(sa, c, fakeSampleTime);
-                                }
-                            }
+                    int samples = (int) (PERIOD / rt.toMilliseconds());
+
+                    if(null != sa) {
+                        float[] c = sampleCache.emitSamples(samples, sa.data.metric_id+" "+sa.data.instance_id);
+                        if(null == c) {
+                            state.sampleArrayUpdate = null;
                         } else {
-                            String metric_id = sampleArrayMetricIds.get(ov);
-                            UnitCode unitCode = handleToUnitCode.get(handle);
-                            synchronized(sampleCache) {
-                                putSampleArrayUpdate(
-                                        ov, handle,
-                                        sampleArraySample(getSampleArrayUpdate(ov, handle), sampleCache.emitSamples(samples, metric_id+" "+handle),
-                                        metric_id, ov.toString(), handle, 
-                                        RosettaUnits.units(unitCode),
-                                        (int)(1000L / rt.toMilliseconds()), fakeSampleTime));
-                            }
+                            sampleArraySample(sa, c, 0, samples, fakeSampleTime);
                         }
+                    } else {
+                        String metric_id = sampleArrayMetricIds.get(ov);
+                        UnitCode unitCode = state.handle.unitCode;
+                        state.sampleArrayUpdate = 
+                                sampleArraySample(sa, sampleCache.emitSamples(samples, metric_id+" "+handle), 0, samples,
+                                metric_id, ov.toString(), handle, 
+                                RosettaUnits.units(unitCode),
+                                (int)(1000L / rt.toMilliseconds()), fakeSampleTime);
                     }
                 }
 
@@ -839,13 +780,17 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
 
     @Override
     protected void unregisterAllNumericInstances() {
-        numericUpdates.clear();
+        for(ObservedState state : observedStates) {
+            state.numericUpdate = null;
+        }
         super.unregisterAllNumericInstances();
     }
 
     @Override
     protected void unregisterAllSampleArrayInstances() {
-        sampleArrayUpdates.clear();
+        for(ObservedState state : observedStates) {
+            state.sampleArrayUpdate = null;
+        }
         super.unregisterAllSampleArrayInstances();
     }
 
@@ -857,50 +802,147 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
     protected final Map<ObservedValue, Label> sampleArrayLabels = new HashMap<ObservedValue, Label>();
 
     
+    // Room for several emit periods of even the fastest waves so that a late
+    // EmitFastData run does not cause samples to be dropped
+    private static final int SAMPLE_CACHE_CAPACITY = 8192;
+
+    /**
+     * Hands samples from the network reader thread (the only producer) to the
+     * EmitFastData task (the only consumer) without either side blocking.
+     */
     private static final class SampleCache {
-        private final List<Number> newSamples = Collections.synchronizedList(new ArrayList<Number>());
-        private final List<Number> oldSamples = Collections.synchronizedList(new ArrayList<Number>());
+        private final FloatRingBuffer newSamples = new FloatRingBuffer(SAMPLE_CACHE_CAPACITY);
+        // Consumer side only; the most recently emitted samples
+        private float[] oldSamples = new float[0];
+        private float[] scratch = new float[0];
         
-        public void addNewSamples(Collection<Number> coll) {
-            newSamples.addAll(coll);
+        public void addNewSamples(float[] values, int len) {
+            int n = newSamples.offer(values, 0, len);
+            if(n < len) {
+                log.warn("dropped " + (len - n) + " samples for lack of room " + newSamples);
+            }
         }
         
-        public Collection<Number> emitSamples(int n, String s) {
-            synchronized(newSamples) {
-                if(newSamples.isEmpty()) {
-                    log.warn(s+" no new samples to emit");
-                    return null;
-                }
-                
-                if(newSamples.size() < n) {
-                    log.warn(s+" will repeat " + (n - newSamples.size()) + " old samples to make up a shortfall");
-                }
-                // Move up to n samples from the old list to the new
-                List<Number> oldestNewSamples = newSamples.subList(0, n > newSamples.size() ? newSamples.size() : n);
-                
-                oldSamples.addAll(oldestNewSamples);
-                oldestNewSamples.clear();
+        /**
+         * @return exactly n samples to emit or null if no new samples have
+         * arrived since the last call
+         */
+        public float[] emitSamples(int n, String s) {
+            if(oldSamples.length != n) {
+                // Retain the most recent samples; this is the only time zeros are filled in
+                float[] resized = new float[n];
+                int keep = Math.min(n, oldSamples.length);
+                System.arraycopy(oldSamples, oldSamples.length - keep, resized, n - keep, keep);
+                oldSamples = resized;
+                scratch = new float[n];
             }
-            synchronized(oldSamples) {
-                // If we have insufficient oldSamples (shouldn't happen except maybe at initialization) fill in values
-                if(oldSamples.size() < n) {
-                    log.warn(s+" filling in " + (n - oldSamples.size()) + " zeros; this should not continue happening");
-                    while(oldSamples.size() < n) {
-                        oldSamples.add(0, 0);
-                    }
-                }
-                // If we have extra oldSamples then remove them
-                if(oldSamples.size() > n) {
-                    oldSamples.subList(0, oldSamples.size()-n).clear();
-                }
+            int m = newSamples.poll(scratch, 0, n);
+            if(0 == m) {
+                log.warn(s+" no new samples to emit " + newSamples);
+                return null;
+            }
+            
+            if(m < n) {
+                log.warn(s+" will repeat " + (n - m) + " old samples to make up a shortfall " + newSamples);
             }
+            // Slide the window along by the m new samples
+            System.arraycopy(oldSamples, m, oldSamples, 0, n - m);
+            System.arraycopy(scratch, 0, oldSamples, n - m, m);
             return oldSamples;
         }
+
+        public long getOverruns() {
+            return newSamples.getOverruns();
+        }
+
+        public long getUnderruns() {
+            return newSamples.getUnderruns();
+        }
     }
     
-    protected final Map<ObservedValue, Map<Integer, InstanceHolder<ice.Numeric>>> numericUpdates = new HashMap<ObservedValue, Map<Integer, InstanceHolder<ice.Numeric>>>();
-    protected final Map<ObservedValue, Map<Integer, InstanceHolder<ice.SampleArray>>> sampleArrayUpdates = new HashMap<ObservedValue, Map<Integer, InstanceHolder<ice.SampleArray>>>();
-    protected final Map<ObservedValue, Map<Integer, SampleCache>> sampleArrayCache = Collections.synchronizedMap(new HashMap<ObservedValue, Map<Integer, SampleCache>>());
+    /**
+     * Everything known about one metric object, by its handle, so that each
+     * observation costs one lookup rather than one per kind of state.
+     * Written by the network reader thread; updatePeriod and unitCode are
+     * also read by EmitFastData.
+     */
+    private static final class HandleState {
+        private final int handle;
+        private volatile RelativeTime updatePeriod;
+        private SampleArraySpecification sampleArraySpecification;
+        private ScaleAndRangeSpecification scaleAndRangeSpecification;
+        private volatile UnitCode unitCode;
+        // Usually one; compound numerics report several under one handle
+        private ObservedState[] observed = new ObservedState[0];
+
+        HandleState(int handle) {
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Per observed value state of a handle
+     */
+    private static final class ObservedState {
+        private final HandleState handle;
+        private final ObservedValue observedValue;
+        private volatile InstanceHolder<ice.Numeric> numericUpdate;
+        private volatile InstanceHolder<ice.SampleArray> sampleArrayUpdate;
+        private volatile SampleCache sampleCache;
+
+        ObservedState(HandleState handle, ObservedValue observedValue) {
+            this.handle = handle;
+            this.observedValue = observedValue;
+        }
+    }
+
+    // Only accessed from the network reader thread
+    private final IntMap<HandleState> handleStates = new IntMap<HandleState>();
+    // Snapshots for other threads; appended to rarely, as handles are discovered
+    private final List<ObservedState> observedStates = new CopyOnWriteArrayList<ObservedState>();
+    private final List<ObservedState> sampleCacheStates = new CopyOnWriteArrayList<ObservedState>();
+
+    @ManagedAttribute(description="Wave samples dropped because they arrived faster than they were emitted.")
+    public long getSampleCacheOverruns() {
+        long overruns = 0L;
+        for (ObservedState state : sampleCacheStates) {
+            overruns += state.sampleCache.getOverruns();
+        }
+        return overruns;
+    }
+
+    @ManagedAttribute(description="Wave samples emitted as repeats because new ones had not arrived.")
+    public long getSampleCacheUnderruns() {
+        long underruns = 0L;
+        for (ObservedState state : sampleCacheStates) {
+            underruns += state.sampleCache.getUnderruns();
+        }
+        return underruns;
+    }
+
+    private HandleState handleState(int handle) {
+        HandleState hs = handleStates.get(handle);
+        if (null == hs) {
+            hs = new HandleState(handle);
+            handleStates.put(handle, hs);
+        }
+        return hs;
+    }
+
+    private ObservedState observed(HandleState hs, ObservedValue ov) {
+        ObservedState[] observed = hs.observed;
+        for (int i = 0; i < observed.length; i++) {
+            if (ov == observed[i].observedValue) {
+                return observed[i];
+            }
+        }
+        ObservedState state = new ObservedState(hs, ov);
+        observed = Arrays.copyOf(observed, observed.length + 1);
+        observed[observed.length - 1] = state;
+        hs.observed = observed;
+        observedStates.add(state);
+        return state;
+    }
 
     static void loadMap(Map<ObservedValue, String> numericMetricIds,
                         Map<ObservedValue, Label> numericLabels,
@@ -1005,7 +1047,10 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
         watchdogTask = new TaskQueue.TaskImpl<Object>() {
             @Override
             public Object doExecute(TaskQueue queue) {
-                watchdog();
+                // A transport may deliver messages on its own thread; Intellivue.receive holds this same lock
+                synchronized (myIntellivue) {
+                    watchdog();
+                }
                 return null;
             };
         };
@@ -1028,14 +1073,18 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
         private short sampleSize, significantBits;
         private double lowerAbsoluteValue, upperAbsoluteValue;
         private int lowerScaledValue, upperScaledValue;
-        private final List<Number> numbers = new ArrayList<Number>();
+        private float[] values = new float[0];
+        private int arraySize;
 
         public MySampleArray() {
 
         }
 
-        public List<Number> getNumbers() {
-            return numbers;
+        /**
+         * @return the scaled samples; only the first getArraySize() are valid
+         */
+        public float[] getValues() {
+            return values;
         }
 
         private int[] mask = new int[0];
@@ -1060,8 +1109,8 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
                     }
                 }
             }
-            if (sampleNumber >= numbers.size()) {
-                log.warn("Received sampleNumber=" + sampleNumber + " where expected size was " + numbers.size());
+            if (sampleNumber >= arraySize) {
+                log.warn("Received sampleNumber=" + sampleNumber + " where expected size was " + arraySize);
             } else {
                 // Scale and range the value
                 
@@ -1074,11 +1123,11 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
                             log.error("Not scaling " + value + " (proportionally " + prop+ ") between " + lowerAbsoluteValue + " and " + upperScaledValue);
                         } else {
                             prop = lowerAbsoluteValue + prop * (upperAbsoluteValue - lowerAbsoluteValue);
-                            numbers.set(sampleNumber, prop);
+                            this.values[sampleNumber] = (float) prop;
                         }
                     } 
                 } else {
-                    numbers.set(sampleNumber, value);
+                    this.values[sampleNumber] = value;
                 }
             }
         }
@@ -1133,17 +1182,22 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
         }
 
         public int getArraySize() {
-            return numbers.size();
+            return arraySize;
         }
 
         public void setArraySize(int size) {
-            if (size != numbers.size()) {
-                while (numbers.size() < size) {
-                    numbers.add(0);
-                }
-                while (numbers.size() > size) {
-                    numbers.remove(0);
-                }
+            if (size > values.length) {
+                float[] values = new float[size];
+                System.arraycopy(this.values, 0, values, 0, arraySize);
+                this.values = values;
+                arraySize = size;
+            } else if (size > arraySize) {
+                Arrays.fill(values, arraySize, size, 0f);
+                arraySize = size;
+            } else if (size < arraySize) {
+                // Retain the most recent samples as the list-based implementation did
+                System.arraycopy(values, arraySize - size, values, 0, size);
+                arraySize = size;
             }
         }
 
@@ -1174,10 +1228,6 @@ public abstract class AbstractDemoIntellivue extends AbstractConnectedDevice {
         setConnectionInfo(connectionInfo);
     }
 
-    protected final Map<Integer, RelativeTime> handleToUpdatePeriod = new HashMap<Integer, RelativeTime>();
-    protected final Map<Integer, SampleArraySpecification> handleToSampleArraySpecification = new HashMap<Integer, SampleArraySpecification>();
-    protected final Map<Integer, ScaleAndRangeSpecification> handleToScaleAndRangeSpecification = new HashMap<Integer, ScaleAndRangeSpecification>();
-    protected final Map<Integer, UnitCode> handleToUnitCode = new HashMap<Integer, UnitCode>();
 
     
 
@@ -15,9 +15,6 @@ package org.mdpnp.devices.philips.intellivue;
 import ice.ConnectionState;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.ServerSocket;
 
 import org.mdpnp.devices.AbstractDevice;
 import org.mdpnp.devices.serial.SerialProviderFactory;
@@ -42,42 +39,32 @@ public class DemoSerialIntellivue extends AbstractDemoIntellivue {
         return ice.ConnectionType.Serial;
     }
 
-    private static int[] getAvailablePorts(int cnt) throws IOException {
-        int[] twoports = new int[cnt];
-        for (int i = 0; i < cnt; i++) {
-            ServerSocket ss = new ServerSocket(0);
-            twoports[i] = ss.getLocalPort();
-            ss.close();
-        }
-        return twoports;
-    }
-
     @Override
     public void shutdown() {
-        if(null != adapter) {
-            adapter.shutdown();
+        if(null != transport) {
+            myIntellivue.setTransport(null);
+            transport.shutdown();
         }
         super.shutdown();
     }
 
-    protected RS232Adapter adapter;
+    protected RS232Transport transport;
 
     @Override
     public boolean connect(String str) {
-        if (null != adapter) {
+        if (null != transport) {
             throw new IllegalStateException("Multiple calls to connect are not currently supported");
         }
         try {
-            int[] ports = getAvailablePorts(2);
-            InetSocketAddress serialSide = new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[0]);
-            InetSocketAddress networkSide = new InetSocketAddress(InetAddress.getLoopbackAddress(), ports[1]);
-            state(ConnectionState.Connecting, "initializing RS-232 to UDP adapter");
-            adapter = new RS232Adapter(str, serialSide, networkSide, AbstractDevice.threadGroup, networkLoop);
-            connect(serialSide, networkSide);
+            state(ConnectionState.Connecting, "opening " + str);
+            transport = new RS232Transport(str, myIntellivue, AbstractDevice.threadGroup);
+            myIntellivue.setTransport(transport);
+            transport.start();
+            state(ConnectionState.Negotiating, "Requesting Association");
             return true;
         } catch (IOException e) {
-            state(ConnectionState.Terminal, "error initializing RS-232 to UDP " + e.getMessage());
-            log.error("error initializing RS-232 to UDP", e);
+            state(ConnectionState.Terminal, "error opening " + str + " " + e.getMessage());
+            log.error("error opening " + str, e);
             return false;
         }
 
@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.philips.intellivue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import org.mdpnp.devices.io.util.HexUtil;
+import org.mdpnp.devices.serial.SerialProvider;
+import org.mdpnp.devices.serial.SerialProviderFactory;
+import org.mdpnp.devices.serial.SerialSocket;
+import org.mdpnp.devices.serial.SerialSocket.DataBits;
+import org.mdpnp.devices.serial.SerialSocket.FlowControl;
+import org.mdpnp.devices.serial.SerialSocket.Parity;
+import org.mdpnp.devices.serial.SerialSocket.StopBits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exchanges Intellivue datagrams over the RS-232 (MIB) port of a monitor.
+ * 
+ * A single thread reads the serial port, removes the byte stuffing, checks
+ * the FCS of each frame and hands the body straight to
+ * {@link Intellivue#receive(ByteBuffer)}.  Outbound datagrams are framed
+ * by the sending thread.  The spec allows up to four frames in any 128ms; a
+ * frame is written at once if that allows and otherwise queued for a writer
+ * thread.  So a sender, which often holds the lock of the {@link Intellivue},
+ * never waits upon the frame rate.
+ */
+public class RS232Transport implements Intellivue.Transport {
+    private static final int BOF = 0xC0;
+    private static final int EOF = 0xC1;
+    private static final int ESCAPE = 0x7D;
+    private static final int ESCAPE_XOR = 0x20;
+
+    private static final int PROTOCOL_ID = 0x11;
+    private static final int MESSAGE_TYPE = 0x01;
+    private static final int HEADER_LENGTH = 4, FCS_LENGTH = 2;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int FRAMES_PER_PERIOD = 4;
+    private static final long FRAME_PERIOD = 128L;
+    private static final int MAX_QUEUED_FRAMES = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(RS232Transport.class);
+
+    private final Intellivue intellivue;
+    private final SerialSocket serialSocket;
+    private final InputStream serialIn;
+    private final OutputStream serialOut;
+    private final String description;
+    private final Thread reader, writer;
+    private volatile boolean running = true;
+    // guarded by this
+    private boolean started;
+
+    // Inbound; only accessed by the reader thread
+    private final byte[] readBuffer = new byte[BUFFER_SIZE];
+    private final byte[] frame = new byte[BUFFER_SIZE];
+    private final ByteBuffer frameBuffer = ByteBuffer.wrap(frame);
+    private int frameLength;
+    private boolean inFrame, escaped, overflow;
+
+    // Outbound; guarded by this
+    private final byte[] out = new byte[2 * (HEADER_LENGTH + BUFFER_SIZE + FCS_LENGTH) + 2];
+    private final long[] sendTimes = new long[FRAMES_PER_PERIOD];
+    private int sendIndex;
+    private final ArrayDeque<byte[]> queued = new ArrayDeque<byte[]>();
+    private IOException writeError;
+
+    public RS232Transport(String serialPort, Intellivue intellivue, ThreadGroup threadGroup) throws IOException {
+        this(connect(serialPort), intellivue, threadGroup);
+    }
+
+    public RS232Transport(SerialSocket serialSocket, Intellivue intellivue, ThreadGroup threadGroup) throws IOException {
+        this(serialSocket, serialSocket.getInputStream(), serialSocket.getOutputStream(), serialSocket.getPortIdentifier(), intellivue, threadGroup);
+    }
+
+    RS232Transport(SerialSocket serialSocket, InputStream serialIn, OutputStream serialOut, String description, Intellivue intellivue,
+            ThreadGroup threadGroup) {
+        this.serialSocket = serialSocket;
+        this.serialIn = serialIn;
+        this.serialOut = serialOut;
+        this.description = description;
+        this.intellivue = intellivue;
+
+        reader = new Thread(threadGroup, new Runnable() {
+            public void run() {
+                try {
+                    readSerial();
+                } catch (IOException e) {
+                    if (running) {
+                        log.error("reading " + RS232Transport.this.description, e);
+                    } else {
+                        log.debug("error but closing anyway", e);
+                    }
+                }
+                log.info("Thread Ended");
+            }
+        }, "RS232->Intellivue");
+        reader.setDaemon(true);
+
+        writer = new Thread(threadGroup, new Runnable() {
+            public void run() {
+                try {
+                    writeQueued();
+                } catch (IOException e) {
+                    if (running) {
+                        log.error("writing " + RS232Transport.this.description, e);
+                    } else {
+                        log.debug("error but closing anyway", e);
+                    }
+                }
+                log.info("Thread Ended");
+            }
+        }, "Intellivue->RS232");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Starts reading and writing the serial port.  Call once the Intellivue
+     * has been given this transport so that nothing it receives is lost.
+     */
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            reader.start();
+            writer.start();
+        }
+    }
+
+    private static SerialSocket connect(String serialPort) throws IOException {
+        SerialProvider sp = SerialProviderFactory.getDefaultProvider();
+        sp.setDefaultSerialSettings(115200, DataBits.Eight, Parity.None, StopBits.One, FlowControl.None);
+        return sp.connect(serialPort, 1000L);
+    }
+
+    public void shutdown() {
+        synchronized (this) {
+            running = false;
+            if (!queued.isEmpty()) {
+                log.debug("Discarding " + queued.size() + " queued frames");
+            }
+            this.notifyAll();
+        }
+        try {
+            if (null != serialSocket) {
+                serialSocket.close();
+            } else {
+                serialIn.close();
+                serialOut.close();
+            }
+        } catch (IOException e) {
+            log.error("closing the serial port", e);
+        }
+        try {
+            reader.join(2000L);
+            if (reader.isAlive()) {
+                log.warn("RS232->Intellivue thread did not exit");
+            }
+            writer.join(2000L);
+            if (writer.isAlive()) {
+                log.warn("Intellivue->RS232 thread did not exit");
+            }
+        } catch (InterruptedException e) {
+            log.error("interrupted", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    private void readSerial() throws IOException {
+        int n;
+        while (running && (n = serialIn.read(readBuffer)) >= 0) {
+            for (int i = 0; i < n; i++) {
+                int b = 0xFF & readBuffer[i];
+                switch (b) {
+                case BOF:
+                    if (inFrame) {
+                        log.warn("Frame not properly ended");
+                    }
+                    inFrame = true;
+                    escaped = false;
+                    overflow = false;
+                    frameLength = 0;
+                    break;
+                case EOF:
+                    if (inFrame) {
+                        inFrame = false;
+                        if (escaped) {
+                            log.info("Aborted Frame");
+                        } else if (overflow) {
+                            log.warn("Frame exceeded " + frame.length + " bytes");
+                        } else {
+                            frameReceived();
+                        }
+                    }
+                    break;
+                case ESCAPE:
+                    escaped = inFrame;
+                    break;
+                default:
+                    if (inFrame) {
+                        if (escaped) {
+                            b ^= ESCAPE_XOR;
+                            escaped = false;
+                        }
+                        if (frameLength < frame.length) {
+                            frame[frameLength++] = (byte) b;
+                        } else {
+                            overflow = true;
+                        }
+                    }
+                    // Otherwise an unknown byte between frames
+                    break;
+                }
+            }
+        }
+    }
+
+    private void frameReceived() throws IOException {
+        if (frameLength < HEADER_LENGTH + FCS_LENGTH) {
+            log.warn("Short frame of " + frameLength + " bytes");
+            return;
+        }
+        int protocolId = 0xFF & frame[0];
+        int msgType = 0xFF & frame[1];
+        int length = ((0xFF & frame[2]) << 8) | (0xFF & frame[3]);
+
+        if (length <= 0 || HEADER_LENGTH + length + FCS_LENGTH != frameLength) {
+            log.warn("Invalid frame length:" + length + " in a frame of " + frameLength + " bytes");
+            return;
+        }
+        if (PROTOCOL_ID != protocolId) {
+            log.warn("Unknown Protocol Id:" + Integer.toHexString(protocolId));
+            return;
+        }
+        if (MESSAGE_TYPE != msgType) {
+            log.warn("Unknown message type:" + Integer.toHexString(msgType));
+            return;
+        }
+        // The FCS of the frame including its own (inverted) FCS is a constant
+        int fcs = FCSOutputStream.pppfcs(FCSOutputStream.INITIAL_FCS_VALUE, frame, 0, frameLength);
+        if (FCSOutputStream.GOOD_FINAL_FCS_VALUE != fcs) {
+            log.warn("Invalid CRC Received:" + Integer.toHexString(fcs));
+            return;
+        }
+
+        frameBuffer.limit(HEADER_LENGTH + length).position(HEADER_LENGTH);
+        if (log.isTraceEnabled()) {
+            log.trace("Received frame from RS232 len=" + frameBuffer.remaining() + "\n" + HexUtil.dump(frameBuffer, 50));
+        }
+        intellivue.receive(frameBuffer.slice());
+    }
+
+    @Override
+    public synchronized void send(ByteBuffer datagram) throws IOException {
+        if (null != writeError) {
+            throw new IOException("Unable to write to " + description, writeError);
+        }
+        int length = datagram.remaining();
+        if (length > BUFFER_SIZE) {
+            throw new IOException("Datagram of " + length + " bytes exceeds " + BUFFER_SIZE);
+        }
+        int n = 0;
+        out[n++] = (byte) BOF;
+        int fcs = FCSOutputStream.INITIAL_FCS_VALUE;
+        fcs = FCSOutputStream.pppfcs(fcs, (byte) PROTOCOL_ID);
+        n = stuff(PROTOCOL_ID, n);
+        fcs = FCSOutputStream.pppfcs(fcs, (byte) MESSAGE_TYPE);
+        n = stuff(MESSAGE_TYPE, n);
+        fcs = FCSOutputStream.pppfcs(fcs, (byte) (length >> 8));
+        n = stuff(0xFF & (length >> 8), n);
+        fcs = FCSOutputStream.pppfcs(fcs, (byte) length);
+        n = stuff(0xFF & length, n);
+        for (int i = datagram.position(); i < datagram.limit(); i++) {
+            byte b = datagram.get(i);
+            fcs = FCSOutputStream.pppfcs(fcs, b);
+            n = stuff(0xFF & b, n);
+        }
+        // LSB first
+        fcs = ~fcs;
+        n = stuff(0xFF & fcs, n);
+        n = stuff(0xFF & (fcs >> 8), n);
+        out[n++] = (byte) EOF;
+
+        if (queued.isEmpty() && 0L >= frameSlotWait(System.currentTimeMillis())) {
+            write(out, n);
+        } else if (queued.size() >= MAX_QUEUED_FRAMES) {
+            throw new IOException(MAX_QUEUED_FRAMES + " frames already await " + description);
+        } else {
+            queued.add(Arrays.copyOf(out, n));
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Writes queued frames as the frame rate allows; waiting releases the lock
+     */
+    private synchronized void writeQueued() throws IOException {
+        while (running) {
+            long wait = queued.isEmpty() ? 0L : frameSlotWait(System.currentTimeMillis());
+            if (queued.isEmpty() || wait > 0L) {
+                try {
+                    this.wait(wait);
+                } catch (InterruptedException e) {
+                    log.error("interrupted", e);
+                    return;
+                }
+            } else {
+                byte[] frame = queued.poll();
+                try {
+                    write(frame, frame.length);
+                } catch (IOException e) {
+                    writeError = e;
+                    queued.clear();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Called holding this
+    private void write(byte[] frame, int n) throws IOException {
+        sendTimes[sendIndex] = System.currentTimeMillis();
+        sendIndex = (sendIndex + 1) % sendTimes.length;
+        if (log.isTraceEnabled()) {
+            log.trace("to raw RS232 len=" + n + "\n" + HexUtil.dump(ByteBuffer.wrap(frame, 0, n), 50));
+        }
+        serialOut.write(frame, 0, n);
+        serialOut.flush();
+    }
+
+    private int stuff(int b, int n) {
+        switch (b) {
+        case ESCAPE:
+        case EOF:
+        case BOF:
+            out[n++] = (byte) ESCAPE;
+            out[n++] = (byte) (ESCAPE_XOR ^ b);
+            return n;
+        default:
+            out[n++] = (byte) b;
+            return n;
+        }
+    }
+
+    /**
+     * @return how long until another frame may be written without exceeding
+     *         FRAMES_PER_PERIOD frames in any FRAME_PERIOD
+     */
+    private long frameSlotWait(long now) {
+        return sendTimes[sendIndex] + FRAME_PERIOD - now;
+    }
+}
@@ -12,15 +12,21 @@
  ******************************************************************************/
 package org.mdpnp.devices.serial;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.mdpnp.devices.connected.AbstractConnectedDevice;
 import org.mdpnp.devices.connected.TimeAwareInputStream;
+import org.mdpnp.devices.net.NetworkConnection;
+import org.mdpnp.devices.net.NetworkLoop;
+import org.mdpnp.devices.net.NetworkLoopPool;
 import org.mdpnp.rtiapi.data.EventLoop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +53,10 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
         if (null != tais) {
             tais.promoteLastReadTime();
         }
+        ChunkedConnection chunked = this.chunkedConnection[idx];
+        if (null != chunked) {
+            chunked.lastReadTime = System.currentTimeMillis();
+        }
         // TODO Come back to this for multiple serial ports
         if(idx == 0) {
             synchronized (stateMachine) {
@@ -64,6 +74,21 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
 
     protected abstract void process(int idx, InputStream inputStream, OutputStream outputStream) throws IOException;
 
+    /**
+     * Drivers that can parse their protocol incrementally implement
+     * {@link ChunkProcessor}; their connections then receive chunks in place
+     * of {@link #process(int, InputStream, OutputStream)}.  Override to keep
+     * particular connections on the stream.
+     *
+     * @return true to receive chunks for connection idx
+     */
+    protected boolean isNonBlocking(int idx) {
+        return this instanceof ChunkProcessor;
+    }
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int MAX_PENDING_WRITE = 8192;
+
     protected SerialSocket[] socket;
     protected TimeAwareInputStream[] timeAwareInputStream;
     protected Throwable[] lastError;
@@ -97,6 +122,7 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
         this.socket = new SerialSocket[countSerialPorts];
         this.timeAwareInputStream = new TimeAwareInputStream[countSerialPorts];
         this.currentThread = new Thread[countSerialPorts];
+        this.chunkedConnection = new ChunkedConnection[countSerialPorts];
         this.portIdentifier = new String[countSerialPorts];
         this.previousAttempt = new long[countSerialPorts];
         this.lastIssueInitCommands = new long[countSerialPorts];
@@ -180,6 +206,11 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
 
     private void close() {
         for(int idx = 0; idx < this.socket.length; idx++) {
+            ChunkedConnection chunked = this.chunkedConnection[idx];
+            if (null != chunked) {
+                // The connection is not replaced when closed this way
+                chunked.cancel();
+            }
             SerialSocket socket = this.socket[idx];
             if (null != socket) {
                 close(socket);
@@ -205,6 +236,8 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
 
     private final Thread[] currentThread;
 
+    private final ChunkedConnection[] chunkedConnection;
+
     private final String[] portIdentifier;
 
     private final ThreadGroup threadGroup = new ThreadGroup("AbstractSerialDevice group") {
@@ -251,92 +284,329 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
     }
     
     protected void connect(int idx) {
-        currentThread[idx] = new Thread(threadGroup, new SerialDevice(idx), "AbstractSerialDevice("+idx+") Processing");
+        if (isNonBlocking(idx)) {
+            // Wait out the reconnect interval on the executor rather than on a thread of our own
+            long delay = Math.max(0L, previousAttempt[idx] + getConnectInterval(idx) - System.currentTimeMillis());
+            if(idx == 0 && delay > 0L) {
+                setConnectionInfo("Waiting to reconnect... " + delay + "ms");
+            }
+            executor.schedule(new NonBlockingConnect(idx), delay, TimeUnit.MILLISECONDS);
+        } else {
+            startThread(idx, null);
+        }
+    }
+
+    private void startThread(int idx, SerialSocket socket) {
+        currentThread[idx] = new Thread(threadGroup, new SerialDevice(idx, socket), "AbstractSerialDevice("+idx+") Processing");
         currentThread[idx].setDaemon(true);
         currentThread[idx].start();
     }
 
     protected final long [] previousAttempt;
-    
+
+    /**
+     * Opens connection idx and, for the control connection, enters the
+     * Negotiating state.
+     * 
+     * @return the open socket or null if the attempt was abandoned
+     */
+    private SerialSocket open(int idx) {
+        if(idx == 0) {
+            setConnectionInfo("");
+        }
+        previousAttempt[idx] = System.currentTimeMillis();
+        log.trace("Invoking SerialProvider("+idx+").connect(" + portIdentifier[idx] + ")");
+        SerialSocket socket = getSerialProvider(idx).connect(portIdentifier[idx], 1000L);
+
+        if (null == socket) {
+            log.trace("socket is null after connect");
+            return null;
+        }
+        // TODO using connection 0 as the control connection
+        if(idx == 0) {
+            synchronized (stateMachine) {
+                if (ice.ConnectionState.Connecting.equals(stateMachine.getState())) {
+                    if (!stateMachine.transitionIfLegal(ice.ConnectionState.Negotiating, "serial port opened")) {
+                        close(socket);
+                        throw new IllegalStateException("Cannot begin negotiating from " + getState());
+                    }
+                } else {
+                    // Something happened, perhaps the connect request was
+                    // cancelled?
+                    log.debug("Aborting connection processing because no longer in the Connecting state");
+                    close(socket);
+                    return null;
+                }
+            }
+        }
+        return socket;
+    }
+
+    /**
+     * Cleans up after connection idx ends, for whatever reason, and begins
+     * another attempt.
+     */
+    private void processEnded(int idx, SerialSocket socket) {
+        close(socket);
+        AbstractSerialDevice.this.socket[idx] = null;
+        AbstractSerialDevice.this.timeAwareInputStream[idx] = null;
+        AbstractSerialDevice.this.chunkedConnection[idx] = null;
+
+        if(idx == 0) {
+            stateMachine.transitionIfLegal(ice.ConnectionState.Connecting, "serial port reached EOF, reconnecting...");
+            log.trace("process thread died unexpectedly, trying to reconnect");
+            AbstractSerialDevice.this.connect(idx);
+        } else {
+            AbstractSerialDevice.this.connect(idx);
+        }
+    }
+
+    private void processChunks(int idx, InputStream inputStream, OutputStream outputStream) throws IOException {
+        ChunkProcessor chunkProcessor = (ChunkProcessor) this;
+        chunkProcessor.processStarted(idx, outputStream);
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        int n;
+        while ((n = inputStream.read(chunk.array())) >= 0) {
+            if (n > 0) {
+                chunk.clear();
+                chunk.limit(n);
+                chunkProcessor.process(idx, chunk);
+            }
+        }
+    }
+
     private class SerialDevice implements Runnable {
         private final int idx;
-        public SerialDevice(final int idx) {
+        private SerialSocket socket;
+
+        public SerialDevice(final int idx, final SerialSocket socket) {
             this.idx = idx;
+            this.socket = socket;
         }
         
         public void run() {
             log.info(Thread.currentThread().getName() + " (" + Thread.currentThread().getId() + ") begins");
     
-            SerialSocket socket = null;
-    
-            long now = System.currentTimeMillis();
-    
-            // Staying in the Connecting state while awaiting another time interval
-            while (now < (previousAttempt[idx] + getConnectInterval(idx))) {
-                if(idx == 0) {
-                    setConnectionInfo("Waiting to reconnect... " + ((previousAttempt[idx] + getConnectInterval(idx)) - now) + "ms");
-                }
-                try {
-                    Thread.sleep(100L);
-                } catch (InterruptedException e) {
-                    log.error("", e);
-                }
-                now = System.currentTimeMillis();
-            }
-            if(idx == 0) {
-                setConnectionInfo("");
-            }
-            previousAttempt[idx] = now;
             try {
-                log.trace("Invoking SerialProvider("+idx+").connect(" + portIdentifier[idx] + ")");
-                socket = getSerialProvider(idx).connect(portIdentifier[idx], 1000L);
-    
                 if (null == socket) {
-                    log.trace("socket is null after connect");
-                    return;
-                } else {
-                    // TODO using connection 0 as the control connection
-                    if(idx == 0) {
-                        synchronized (stateMachine) {
-                            if (ice.ConnectionState.Connecting.equals(stateMachine.getState())) {
-                                if (!stateMachine.transitionIfLegal(ice.ConnectionState.Negotiating, "serial port opened")) {
-                                    throw new IllegalStateException("Cannot begin negotiating from " + getState());
-                                }
-                            } else {
-                                // Something happened, perhaps the connect request was
-                                // cancelled?
-                                log.debug("Aborting connection processing because no longer in the Connecting state");
-                                return;
-                            }
+                    long now = System.currentTimeMillis();
+
+                    // Staying in the Connecting state while awaiting another time interval
+                    while (now < (previousAttempt[idx] + getConnectInterval(idx))) {
+                        if(idx == 0) {
+                            setConnectionInfo("Waiting to reconnect... " + ((previousAttempt[idx] + getConnectInterval(idx)) - now) + "ms");
+                        }
+                        try {
+                            Thread.sleep(100L);
+                        } catch (InterruptedException e) {
+                            log.error("", e);
                         }
+                        now = System.currentTimeMillis();
+                    }
+                    socket = open(idx);
+                    if (null == socket) {
+                        return;
                     }
-
-    
                 }
                 AbstractSerialDevice.this.socket[idx] = socket;
-    
-                process(idx, timeAwareInputStream[idx] = new TimeAwareInputStream(socket.getInputStream()), socket.getOutputStream());
+
+                InputStream inputStream = timeAwareInputStream[idx] = new TimeAwareInputStream(socket.getInputStream());
+                if (isNonBlocking(idx)) {
+                    processChunks(idx, inputStream, socket.getOutputStream());
+                } else {
+                    process(idx, inputStream, socket.getOutputStream());
+                }
             } catch (IOException e) {
                 // Let this thread die, it will be replaced
                 log.error("processing thread ends with IOException", e);
             } finally {
                 log.info(Thread.currentThread().getName() + " (" + Thread.currentThread().getId() + ")  ends");
-                ice.ConnectionState priorState = getState();
-                close(socket);
-                AbstractSerialDevice.this.socket[idx] = null;
-                AbstractSerialDevice.this.timeAwareInputStream[idx] = null;
+                processEnded(idx, socket);
+            }
     
-                if(idx == 0) {
-                    stateMachine.transitionIfLegal(ice.ConnectionState.Connecting, "serial port reached EOF, reconnecting...");
-                    log.trace("process thread died unexpectedly, trying to reconnect");
-                    AbstractSerialDevice.this.connect(idx);
+        }
+    }
+
+    private class NonBlockingConnect implements Runnable {
+        private final int idx;
+
+        public NonBlockingConnect(final int idx) {
+            this.idx = idx;
+        }
+
+        @Override
+        public void run() {
+            SerialSocket socket = null;
+            try {
+                socket = open(idx);
+                if (null == socket) {
+                    processEnded(idx, null);
+                } else if (socket instanceof ChannelSerialSocket) {
+                    AbstractSerialDevice.this.socket[idx] = socket;
+                    ChunkedConnection chunked = new ChunkedConnection(idx, (ChannelSerialSocket) socket);
+                    ((ChunkProcessor) AbstractSerialDevice.this).processStarted(idx, chunked.outputStream);
+                    chunkedConnection[idx] = chunked;
+                    chunked.register(NetworkLoopPool.getDefault().next());
                 } else {
-                    AbstractSerialDevice.this.connect(idx);
+                    // This provider only offers blocking streams
+                    startThread(idx, socket);
                 }
+            } catch (Throwable t) {
+                log.error("connect("+idx+") failed", t);
+                processEnded(idx, socket);
             }
-    
         }
     }
+
+    /**
+     * Feeds what arrives on a {@link ChannelSerialSocket} to
+     * {@link ChunkProcessor#process(int, ByteBuffer)} from a shared
+     * {@link NetworkLoop}.  What the device writes is sent at once if the
+     * channel will take it and otherwise queued until the loop finds the
+     * channel writable; so a full send buffer holds up no other device on
+     * the loop.
+     */
+    private class ChunkedConnection implements NetworkConnection {
+        private final int idx;
+        private final ChannelSerialSocket socket;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        // Bytes awaiting OP_WRITE, guarded by this
+        private final ByteBuffer pending = ByteBuffer.allocate(MAX_PENDING_WRITE);
+        private volatile long lastReadTime = System.currentTimeMillis();
+        private NetworkLoop networkLoop;
+        private SelectionKey key;
+        private boolean ended;
+
+        private final OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                send(ByteBuffer.wrap(b, off, len));
+            }
+        };
+
+        public ChunkedConnection(final int idx, final ChannelSerialSocket socket) throws IOException {
+            this.idx = idx;
+            this.socket = socket;
+            socket.getChannel().configureBlocking(false);
+        }
+
+        public void register(NetworkLoop networkLoop) throws IOException {
+            networkLoop.register(this, socket.getChannel());
+        }
+
+        @Override
+        public void read(SelectionKey sk) throws IOException {
+            try {
+                chunk.clear();
+                int n = socket.getChannel().read(chunk);
+                if (n < 0) {
+                    throw new EOFException("connection("+idx+") reached EOF");
+                } else if (n > 0) {
+                    lastReadTime = System.currentTimeMillis();
+                    chunk.flip();
+                    ((ChunkProcessor) AbstractSerialDevice.this).process(idx, chunk);
+                }
+            } catch (Throwable t) {
+                log.error("non-blocking connection("+idx+") ends", t);
+                if (end()) {
+                    processEnded(idx, socket);
+                }
+            }
+        }
+
+        private synchronized void send(ByteBuffer bb) throws IOException {
+            if (ended) {
+                throw new IOException("connection("+idx+") has ended");
+            }
+            if (0 == pending.position()) {
+                socket.getChannel().write(bb);
+            }
+            if (bb.hasRemaining()) {
+                if (bb.remaining() > pending.remaining()) {
+                    throw new IOException("connection("+idx+") has more than " + MAX_PENDING_WRITE + " bytes awaiting the network");
+                }
+                pending.put(bb);
+                interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        @Override
+        public void write(SelectionKey sk) throws IOException {
+            try {
+                synchronized (this) {
+                    pending.flip();
+                    socket.getChannel().write(pending);
+                    pending.compact();
+                    if (0 == pending.position()) {
+                        interestOps(SelectionKey.OP_READ);
+                    }
+                }
+            } catch (Throwable t) {
+                log.error("non-blocking connection("+idx+") ends", t);
+                if (end()) {
+                    processEnded(idx, socket);
+                }
+            }
+        }
+
+        // Called holding this
+        private void interestOps(int ops) {
+            if (null != key && key.isValid()) {
+                key.interestOps(ops);
+                networkLoop.wakeup();
+            }
+        }
+
+        @Override
+        public void registered(NetworkLoop networkLoop, SelectionKey sk) {
+            synchronized (this) {
+                this.networkLoop = networkLoop;
+                this.key = sk;
+                if (!ended) {
+                    if (pending.position() > 0) {
+                        interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                    return;
+                }
+            }
+            // end() ran before there was a key to unregister
+            networkLoop.unregister(sk, this);
+        }
+
+        @Override
+        public void unregistered(NetworkLoop networkLoop, SelectionKey sk) {
+        }
+
+        /**
+         * Deregisters without replacing the connection
+         */
+        public void cancel() {
+            end();
+        }
+
+        private boolean end() {
+            NetworkLoop networkLoop;
+            SelectionKey key;
+            synchronized (this) {
+                if (ended) {
+                    return false;
+                }
+                ended = true;
+                networkLoop = this.networkLoop;
+                key = this.key;
+            }
+            if (null != key) {
+                networkLoop.unregister(key, this);
+            }
+            return true;
+        }
+    }
+
     protected final long[] lastIssueInitCommands;
 
     protected void watchdog() {
@@ -345,9 +615,9 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
             ice.ConnectionState state = getState();
             if (ice.ConnectionState.Connected.equals(state)) {
                 for(int idx = 0; idx < this.timeAwareInputStream.length; idx++) {
-                    TimeAwareInputStream tais = AbstractSerialDevice.this.timeAwareInputStream[idx];
-                    if (null != tais) {
-                        long quietTime = System.currentTimeMillis() - AbstractSerialDevice.this.timeAwareInputStream[idx].getLastReadTime();
+                    long lastReadTime = getLastReadTime(idx);
+                    if (lastReadTime >= 0L) {
+                        long quietTime = System.currentTimeMillis() - lastReadTime;
                         if (quietTime > getMaximumQuietTime(idx)) {
     
                             log.warn("WATCHDOG("+idx+") - back to Negotiating after " + quietTime + "ms quiet time (exceeds " + getMaximumQuietTime(idx) + ")");
@@ -386,6 +656,18 @@ public abstract class AbstractSerialDevice extends AbstractConnectedDevice {
         }
     }
 
+    /**
+     * @return the time of the last read on connection idx or -1 if it is not open
+     */
+    private long getLastReadTime(int idx) {
+        ChunkedConnection chunked = this.chunkedConnection[idx];
+        if (null != chunked) {
+            return chunked.lastReadTime;
+        }
+        TimeAwareInputStream tais = this.timeAwareInputStream[idx];
+        return null == tais ? -1L : tais.getLastReadTime();
+    }
+
     protected long getMaximumQuietTime(int idx) {
         return -1L;
     }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.serial;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by an {@link AbstractSerialDevice} that can parse its protocol
+ * incrementally.  Such a device receives chunks in place of
+ * {@link AbstractSerialDevice#process(int, java.io.InputStream, OutputStream)};
+ * when the {@link SerialProvider} offers {@link ChannelSerialSocket}s the
+ * connection is serviced by the shared
+ * {@link org.mdpnp.devices.net.NetworkLoopPool} and owns no thread at all,
+ * otherwise a thread reads the blocking stream and hands on what it reads.
+ */
+public interface ChunkProcessor {
+    /**
+     * Called for each new connection idx before its first chunk.  Any
+     * partially parsed state from a previous connection should be discarded
+     * here.  Writes to outputStream never block; on a shared network thread
+     * what cannot be sent at once is queued until the connection is writable.
+     */
+    void processStarted(int idx, OutputStream outputStream) throws IOException;
+
+    /**
+     * Called with each chunk of bytes received on connection idx.  Calls for
+     * a given connection are never concurrent but may arrive on a network
+     * thread shared with other devices; so this must not block.  The chunk is
+     * only valid for the duration of the call.  Throwing ends the connection
+     * and a reconnect follows.
+     */
+    void process(int idx, ByteBuffer chunk) throws IOException;
+}
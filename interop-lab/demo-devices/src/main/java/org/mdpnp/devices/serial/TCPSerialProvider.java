@@ -15,8 +15,12 @@ package org.mdpnp.devices.serial;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +34,27 @@ import org.mdpnp.devices.serial.SerialSocket.StopBits;
  *
  */
 public class TCPSerialProvider implements SerialProvider {
+    public static final String NON_BLOCKING_PROPERTY = "org.mdpnp.devices.serial.TCPSerialProvider.nonBlocking";
+
+    private final boolean nonBlocking;
+
+    public TCPSerialProvider() {
+        this(Boolean.getBoolean(NON_BLOCKING_PROPERTY));
+    }
+
+    /**
+     * @param nonBlocking
+     *            when true connections are made with a {@link SocketChannel}
+     *            and returned as {@link ChannelSerialSocket}s so that devices
+     *            which accept chunks can share a few network threads
+     */
+    public TCPSerialProvider(boolean nonBlocking) {
+        this.nonBlocking = nonBlocking;
+    }
+
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
 
     private static class TCPSerialSocket implements SerialSocket {
 
@@ -66,6 +91,84 @@ public class TCPSerialProvider implements SerialProvider {
 
     }
 
+    private static class TCPChannelSerialSocket implements ChannelSerialSocket {
+
+        private final SocketChannel channel;
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        public TCPChannelSerialSocket(final SocketChannel channel) {
+            this.channel = channel;
+            // Channels.newInputStream and newOutputStream share the channel's
+            // blockingLock so a write would wait upon a blocked read
+            this.inputStream = new InputStream() {
+                private final byte[] single = new byte[1];
+
+                @Override
+                public int read() throws IOException {
+                    int n;
+                    while (0 == (n = read(single, 0, 1))) {
+                    }
+                    return n < 0 ? -1 : (0xFF & single[0]);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (!channel.isBlocking()) {
+                        throw new IllegalBlockingModeException();
+                    }
+                    return channel.read(ByteBuffer.wrap(b, off, len));
+                }
+            };
+            this.outputStream = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    if (!channel.isBlocking()) {
+                        throw new IllegalBlockingModeException();
+                    }
+                    ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+                    while (bb.hasRemaining()) {
+                        channel.write(bb);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public SocketChannel getChannel() {
+            return channel;
+        }
+
+        @Override
+        public String getPortIdentifier() {
+            return channel.socket().getRemoteSocketAddress().toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return inputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return outputStream;
+        }
+
+        @Override
+        public void setSerialParams(int baud, DataBits dataBits, Parity parity, StopBits stopBits, FlowControl flowControl) {
+        }
+    }
+
     @Override
     public List<String> getPortNames() {
         return new ArrayList<String>();
@@ -78,6 +181,16 @@ public class TCPSerialProvider implements SerialProvider {
         int port = Integer.parseInt(parts[1]);
 
         try {
+            if (nonBlocking) {
+                SocketChannel channel = SocketChannel.open();
+                try {
+                    channel.socket().connect(new InetSocketAddress(host, port), (int) timeout);
+                } catch (IOException e) {
+                    channel.close();
+                    throw e;
+                }
+                return new TCPChannelSerialSocket(channel);
+            }
             return new TCPSerialSocket(new Socket(host, port));
         } catch (UnknownHostException e) {
             throw new RuntimeException(e);
@@ -104,6 +217,6 @@ public class TCPSerialProvider implements SerialProvider {
     
     @Override
     public SerialProvider duplicate() {
-        return new TCPSerialProvider();
+        return new TCPSerialProvider(nonBlocking);
     }
 }
@@ -26,6 +26,8 @@ public abstract class AbstractSimulatedDevice extends AbstractDevice {
     private static final Logger log = LoggerFactory.getLogger(AbstractSimulatedDevice.class);
     private static final int UDI_LENGTH = 36;
     private static final char[] UDI_CHARS = new char[26 * 2 + 10];
+    // Shared so that devices created in the same millisecond get different identifiers
+    private static final java.util.Random UDI_RANDOM = new java.util.Random();
 
     public static void main(String[] args) {
         System.out.println(randomUDI());
@@ -50,9 +52,8 @@ public abstract class AbstractSimulatedDevice extends AbstractDevice {
             return udi;
         } else {
             StringBuilder sb = new StringBuilder();
-            java.util.Random random = new java.util.Random(System.currentTimeMillis());
             for (int i = 0; i < UDI_LENGTH; i++) {
-                sb.append(UDI_CHARS[random.nextInt(UDI_CHARS.length)]);
+                sb.append(UDI_CHARS[UDI_RANDOM.nextInt(UDI_CHARS.length)]);
             }
             return sb.toString();
         }
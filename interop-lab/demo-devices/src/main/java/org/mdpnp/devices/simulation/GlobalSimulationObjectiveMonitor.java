@@ -81,7 +81,7 @@ public class GlobalSimulationObjectiveMonitor {
         final ice.GlobalSimulationObjectiveSeq data_seq = new ice.GlobalSimulationObjectiveSeq();
         final SampleInfoSeq info_seq = new SampleInfoSeq();
 
-        eventLoop.addHandler(rc, new EventLoop.ConditionHandler() {
+        eventLoop.addHandler(rc, new EventLoop.DispatchableConditionHandler() {
 
             @Override
             public void conditionChanged(Condition condition) {
@@ -34,19 +34,6 @@ public class SimElectroCardioGram extends AbstractSimulatedConnectedDevice {
 
     protected final InstanceHolder<ice.Numeric> respiratoryRate, heartRate;
 
-    // private Number[][][] ecgCache = new Number[3][4][];
-    // private int ecgCount;
-
-//    private static final Number[] copy(Number[] source, Number[] target) {
-//        if (target == null || target.length < source.length) {
-//            target = new Number[source.length];
-//        }
-//        for (int i = 0; i < source.length; i++) {
-//            target[i] = source[i];
-//        }
-//        return target;
-//    }
-
     private class SimulatedElectroCardioGramExt extends SimulatedElectroCardioGram {
 
         public SimulatedElectroCardioGramExt(DeviceClock referenceClock) {
@@ -54,33 +41,15 @@ public class SimElectroCardioGram extends AbstractSimulatedConnectedDevice {
         }
 
         @Override
-        protected void receiveECG(DeviceClock.Reading sampleTime, Number[] iValues, Number[] iiValues, Number[] iiiValues,
+        protected void receiveECG(DeviceClock.Reading sampleTime, float[] iValues, float[] iiValues, float[] iiiValues,
                                   int heartRateValue, int respiratoryRateValue, int frequency) {
-            // ecgCache[0][ecgCount] = copy(iValues, ecgCache[0][ecgCount]);
-            // ecgCache[1][ecgCount] = copy(iiValues, ecgCache[1][ecgCount]);
-            // ecgCache[2][ecgCount] = copy(iiiValues, ecgCache[2][ecgCount]);
-            //
-            // ecgCount++;
-            //
-            // if(ecgCount==4) {
-            // for(int i = 0; i < 4; i++) {
-            // sampleArraySample(SimElectroCardioGram.this.i, ecgCache[0][i],
-            // (int) msPerSample, null);
-            // sampleArraySample(SimElectroCardioGram.this.ii, ecgCache[1][i],
-            // (int) msPerSample, null);
-            // sampleArraySample(SimElectroCardioGram.this.iii, ecgCache[2][i],
-            // (int) msPerSample, null);
-            // }
-            // ecgCount = 0;
-            // }
-
             try {
                 // TODO should get better data that's actually in millivolts
-                SimElectroCardioGram.this.i = sampleArraySample(SimElectroCardioGram.this.i, iValues, ice.MDC_ECG_LEAD_I.VALUE, "", 0,
+                SimElectroCardioGram.this.i = sampleArraySample(SimElectroCardioGram.this.i, iValues, 0, iValues.length, ice.MDC_ECG_LEAD_I.VALUE, "", 0,
                         rosetta.MDC_DIM_DIMLESS.VALUE, frequency, sampleTime);
-                SimElectroCardioGram.this.ii = sampleArraySample(SimElectroCardioGram.this.ii, iiValues, ice.MDC_ECG_LEAD_II.VALUE, "", 0, 
+                SimElectroCardioGram.this.ii = sampleArraySample(SimElectroCardioGram.this.ii, iiValues, 0, iiValues.length, ice.MDC_ECG_LEAD_II.VALUE, "", 0, 
                         rosetta.MDC_DIM_DIMLESS.VALUE, frequency, sampleTime);
-                SimElectroCardioGram.this.iii = sampleArraySample(SimElectroCardioGram.this.iii, iiiValues, ice.MDC_ECG_LEAD_III.VALUE, "", 0, 
+                SimElectroCardioGram.this.iii = sampleArraySample(SimElectroCardioGram.this.iii, iiiValues, 0, iiiValues.length, ice.MDC_ECG_LEAD_III.VALUE, "", 0, 
                         rosetta.MDC_DIM_DIMLESS.VALUE, frequency, sampleTime);
 
                 numericSample(heartRate, (float) heartRateValue, sampleTime);
@@ -36,8 +36,8 @@ public class MultiSimPulseOximeter extends AbstractSimulatedConnectedDevice {
         }
 
         @Override
-        protected void receivePulseOx(DeviceClock.Reading timestamp, int heartRate, int SpO2, Number[] plethValues, int frequency) {
-            pleth[ordinal] = sampleArraySample(pleth[ordinal], plethValues,
+        protected void receivePulseOx(DeviceClock.Reading timestamp, int heartRate, int SpO2, float[] plethValues, int frequency) {
+            pleth[ordinal] = sampleArraySample(pleth[ordinal], plethValues, 0, plethValues.length,
                                                rosetta.MDC_PULS_OXIM_PLETH.VALUE, "", ordinal,
                                                rosetta.MDC_DIM_DIMLESS.VALUE, frequency, timestamp);
         }
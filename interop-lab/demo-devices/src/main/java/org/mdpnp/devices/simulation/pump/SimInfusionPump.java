@@ -17,7 +17,6 @@ import ice.InfusionStatusDataWriter;
 
 import org.mdpnp.devices.simulation.AbstractSimulatedConnectedDevice;
 import org.mdpnp.rtiapi.data.EventLoop;
-import org.mdpnp.rtiapi.data.EventLoop.ConditionHandler;
 import org.mdpnp.rtiapi.data.QosProfiles;
 import org.mdpnp.rtiapi.data.TopicUtil;
 
@@ -123,7 +122,7 @@ public class SimInfusionPump extends AbstractSimulatedConnectedDevice {
         params.add("'" + deviceIdentity.unique_device_identifier + "'");
         infusionObjectiveQueryCondition = infusionObjectiveReader.create_querycondition(SampleStateKind.NOT_READ_SAMPLE_STATE,
                 ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ALIVE_INSTANCE_STATE, "unique_device_identifier = %0", params);
-        eventLoop.addHandler(infusionObjectiveQueryCondition, new ConditionHandler() {
+        eventLoop.addHandler(infusionObjectiveQueryCondition, new EventLoop.DispatchableConditionHandler() {
             private ice.InfusionObjectiveSeq data_seq = new ice.InfusionObjectiveSeq();
             private SampleInfoSeq info_seq = new SampleInfoSeq();
 
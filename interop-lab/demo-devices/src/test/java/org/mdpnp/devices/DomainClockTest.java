@@ -4,7 +4,10 @@ package org.mdpnp.devices;
 import com.rti.dds.infrastructure.Time_t;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mdpnp.rtiapi.qos.IceQos;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.time.Instant;
 import java.util.Date;
 
@@ -26,7 +29,7 @@ public class DomainClockTest {
         long l0 = 1426017249228L; // reading of System.currentTimeMillis(); on Tue Mar 10 15:54:51 EDT 2015
 
         Time_t t0 = Time_t.from_millis(l0);
-        Instant i0 = Instant.ofEpochMilli(l0);
+        long n0 = l0 * 1000000L;
 
         for(int size = 25; size<900; size=(int)(size*1.3)) {
 
@@ -36,12 +39,92 @@ public class DomainClockTest {
             t1 = DomainClock.timeSampleArrayResolution(resolutionNsPerSample, t1);
 
             System.out.println(t0.sec + "." + t0.nanosec + " @resolutionNs=" + resolutionNsPerSample + " -> " + t1.sec + "." + t1.nanosec) ;
-            Instant i1 = DomainClock.timeSampleArrayResolution(resolutionNsPerSample, i0);
+            long n1 = DomainClock.timeSampleArrayResolution(resolutionNsPerSample, n0);
 
-            Assert.assertEquals("Failed @resolutionNs=" + resolutionNsPerSample, DomainClock.toMilliseconds(t1), i1.toEpochMilli());
+            Assert.assertEquals("Failed @resolutionNs=" + resolutionNsPerSample, t1.sec * 1000000000L + t1.nanosec, n1);
         }
     }
 
+    @Test
+    public void testDDSTimeNanos() {
+
+        long l0 = 1426017249228L;
+        Instant i0 = Instant.ofEpochSecond(1426017249L, 228000123L);
+        long n0 = 1426017249228000123L;
+
+        Time_t t0 = new Time_t(0, 0);
+        DomainClock.toDDSTimeNanos(n0, t0);
+        Time_t t1 = DomainClock.toDDSTime(i0);
+        Assert.assertEquals(t1.sec, t0.sec);
+        Assert.assertEquals(t1.nanosec, t0.nanosec);
+
+        ice.Time_t t2 = new ice.Time_t();
+        DomainClock.toDDSTimeNanos(l0 * 1000000L, t2);
+        Assert.assertEquals(l0, 1000L * t2.sec + t2.nanosec / 1000000L);
+
+        for(int size = 25; size<900; size=(int)(size*1.3)) {
+            int resolutionNsPerSample = DomainClock.ensureResolutionForFrequency(DomainClock.DEFAULT_SAMPLE_ARRAY_RESOLUTION, 333, size);
+            Time_t t3 = new Time_t(0, 0);
+            DomainClock.toDDSTimeNanos(n0, t3); // this will be in-place modification....
+            t3 = DomainClock.timeSampleArrayResolution(resolutionNsPerSample, t3);
+            long n1 = DomainClock.timeSampleArrayResolution(resolutionNsPerSample, n0);
+            Assert.assertEquals("Failed @resolutionNs=" + resolutionNsPerSample, t3.sec * 1000000000L + t3.nanosec, n1);
+            Assert.assertTrue(n1 <= n0 && n0 - n1 < resolutionNsPerSample);
+        }
+    }
+
+    /**
+     * The timestamps of every published Numeric and SampleArray are filled in
+     * by these helpers of AbstractDevice so they must not create garbage.
+     */
+    @Test
+    public void testDDSTimeNanosDoesNotAllocate() throws Exception {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if(!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) threadMXBean;
+
+        IceQos.loadAndSetIceQos();
+        DomainParticipantFactory dpf = new DomainParticipantFactory(0);
+        try {
+            DomainClock clock = new DomainClock(dpf.getObject());
+            // Creating a reading is one small object; using it must be free
+            DeviceClock.Reading reading = new DeviceClock.CombinedReading(clock.instant(), new DeviceClock.ReadingImpl(System.currentTimeMillis()));
+            DeviceClock.Reading noDeviceTime = clock.instant();
+            ice.Time_t device_time = new ice.Time_t();
+            ice.Time_t presentation_time = new ice.Time_t();
+
+            // Warm up so that the JIT is not measured
+            long sum = fillTimes(reading, noDeviceTime, device_time, presentation_time, 100000);
+
+            long tid = Thread.currentThread().getId();
+            long before = mxBean.getThreadAllocatedBytes(tid);
+            sum += fillTimes(reading, noDeviceTime, device_time, presentation_time, 1000000);
+            long allocated = mxBean.getThreadAllocatedBytes(tid) - before;
+
+            Assert.assertTrue(sum != 0L);
+            // Allow for anything getThreadAllocatedBytes itself allocates
+            Assert.assertTrue("Allocated " + allocated + " bytes", allocated < 1024L);
+        } finally {
+            dpf.destroy();
+        }
+    }
+
+    private static long fillTimes(DeviceClock.Reading reading, DeviceClock.Reading noDeviceTime,
+                                  ice.Time_t device_time, ice.Time_t presentation_time, int n) {
+        long sum = 0L;
+        for(int i = 0; i < n; i++) {
+            AbstractDevice.numericTimes(reading, device_time, presentation_time);
+            sum += device_time.sec + presentation_time.nanosec;
+            AbstractDevice.sampleArrayTimes(reading, 250, 32, device_time, presentation_time);
+            sum += device_time.sec + presentation_time.nanosec;
+            AbstractDevice.sampleArrayTimes(noDeviceTime, 500, 64, device_time, presentation_time);
+            sum += device_time.sec + presentation_time.nanosec;
+        }
+        return sum;
+    }
+
     @Test
     public void testClockDecoration() {
 
@@ -0,0 +1,95 @@
+package org.mdpnp.devices;
+
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mdpnp.devices.NumericPublicationPolicy.Filter;
+import org.mdpnp.devices.NumericPublicationPolicy.Rule;
+
+public class NumericPublicationPolicyTest {
+
+    @Test
+    public void testDefaultPublishesEverySample() throws Exception {
+        Filter filter = new NumericPublicationPolicy().newFilter("MDC_PULS_OXIM_SAT_O2");
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(filter.offer(98f, i));
+        }
+    }
+
+    @Test
+    public void testDeadbands() throws Exception {
+        NumericPublicationPolicy policy = new NumericPublicationPolicy();
+        policy.setRule("ABS", new Rule(1f, 0f, 0L, 0L));
+        policy.setRule("REL", new Rule(0f, 0.1f, 0L, 0L));
+
+        Filter abs = policy.newFilter("ABS");
+        Assert.assertTrue(abs.offer(100f, 0L));
+        Assert.assertFalse(abs.offer(100f, 1L));
+        Assert.assertFalse(abs.offer(101f, 2L));
+        Assert.assertFalse(abs.offer(99f, 3L));
+        Assert.assertTrue(abs.offer(101.5f, 4L));
+        // Compared with the last published value, not the last offered
+        Assert.assertFalse(abs.offer(100.6f, 5L));
+        Assert.assertTrue(abs.offer(100.4f, 6L));
+
+        Filter rel = policy.newFilter("REL");
+        Assert.assertTrue(rel.offer(100f, 0L));
+        Assert.assertFalse(rel.offer(109f, 1L));
+        Assert.assertTrue(rel.offer(111f, 2L));
+        Assert.assertTrue(rel.offer(Float.NaN, 3L));
+        Assert.assertFalse(rel.offer(Float.NaN, 4L));
+        Assert.assertTrue(rel.offer(0f, 5L));
+        // Any change from zero exceeds a purely relative deadband
+        Assert.assertTrue(rel.offer(0.001f, 6L));
+
+        // Unconfigured metrics get the default
+        Assert.assertSame(Rule.EVERY_SAMPLE, policy.newFilter("OTHER").getRule());
+    }
+
+    @Test
+    public void testIntervals() throws Exception {
+        NumericPublicationPolicy policy = new NumericPublicationPolicy();
+        policy.setDefaultRule(new Rule(0f, 0f, 1000L, 5000L));
+        Filter filter = policy.newFilter("MDC_PULS_OXIM_PULS_RATE");
+
+        Assert.assertTrue(filter.offer(60f, 10000L));
+        // A change too soon after the last publication
+        Assert.assertFalse(filter.offer(61f, 10500L));
+        Assert.assertTrue(filter.offer(61f, 11000L));
+        // Unchanged values until the forced refresh
+        Assert.assertFalse(filter.offer(61f, 12000L));
+        Assert.assertFalse(filter.offer(61f, 15999L));
+        Assert.assertTrue(filter.offer(61f, 16000L));
+        Assert.assertFalse(filter.offer(61f, 16001L));
+    }
+
+    @Test
+    public void testProperties() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(NumericPublicationPolicy.PROPERTY_PREFIX + "default", "0,0,0,10000");
+        properties.setProperty(NumericPublicationPolicy.PROPERTY_PREFIX + "MDC_PULS_OXIM_SAT_O2", "0.5, 0.01, 250, 5000");
+        properties.setProperty(NumericPublicationPolicy.PROPERTY_PREFIX + "MDC_CO2_RESP_RATE", "2");
+        properties.setProperty(NumericPublicationPolicy.PROPERTY_PREFIX + "MDC_BAD", "1,x");
+        properties.setProperty(NumericPublicationPolicy.PROPERTY_PREFIX + "MDC_WORSE", "0,0,5000,1000");
+        properties.setProperty("os.name", "Unrelated");
+        NumericPublicationPolicy policy = new NumericPublicationPolicy(properties);
+
+        Rule rule = policy.getRule("MDC_PULS_OXIM_SAT_O2");
+        Assert.assertEquals(0.5f, rule.getAbsoluteDeadband(), 0f);
+        Assert.assertEquals(0.01f, rule.getRelativeDeadband(), 0f);
+        Assert.assertEquals(250L, rule.getMinInterval());
+        Assert.assertEquals(5000L, rule.getMaxInterval());
+
+        rule = policy.getRule("MDC_CO2_RESP_RATE");
+        Assert.assertEquals(2f, rule.getAbsoluteDeadband(), 0f);
+        Assert.assertEquals(0L, rule.getMaxInterval());
+
+        Assert.assertSame(policy.getDefaultRule(), policy.getRule("MDC_BAD"));
+        Assert.assertSame(policy.getDefaultRule(), policy.getRule("MDC_WORSE"));
+        Assert.assertEquals(10000L, policy.getDefaultRule().getMaxInterval());
+
+        policy.setRule("MDC_PULS_OXIM_SAT_O2", null);
+        Assert.assertSame(policy.getDefaultRule(), policy.getRule("MDC_PULS_OXIM_SAT_O2"));
+    }
+}
@@ -0,0 +1,58 @@
+package org.mdpnp.devices;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PublishStatisticsTest {
+
+    @Test
+    public void testBuckets() throws Exception {
+        // Buckets are contiguous and each one holds the values up to its highest
+        long previous = -1L;
+        for (int i = 0; i < 400; i++) {
+            long lowest = previous + 1L;
+            long highest = PublishStatistics.highestInBucket(i);
+            Assert.assertTrue(highest >= lowest);
+            Assert.assertEquals(i, PublishStatistics.bucket(lowest));
+            Assert.assertEquals(i, PublishStatistics.bucket(highest));
+            // No wider than an eighth of the values in it
+            Assert.assertTrue(highest - lowest <= Math.max(0L, lowest / PublishStatistics.SUB_BUCKETS));
+            previous = highest;
+        }
+        int last = PublishStatistics.bucket(Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, PublishStatistics.highestInBucket(last));
+    }
+
+    @Test
+    public void testPercentiles() throws Exception {
+        PublishStatistics s = new PublishStatistics();
+        Assert.assertEquals(0L, s.getPercentileNanos(99.0));
+
+        for (long i = 1; i <= 1000; i++) {
+            s.record(i * 1000L);
+        }
+        Assert.assertEquals(1000L, s.getCount());
+        Assert.assertEquals(1000000L, s.getMaxNanos());
+        Assert.assertEquals(500500.0, s.getMeanNanos(), 0.0);
+
+        assertNear(500000L, s.getPercentileNanos(50.0));
+        assertNear(990000L, s.getPercentileNanos(99.0));
+        Assert.assertEquals(1000000L, s.getPercentileNanos(100.0));
+        assertNear(1000L, s.getPercentileNanos(0.0));
+
+        PublishStatistics sum = new PublishStatistics();
+        sum.add(s);
+        sum.record(5000000L);
+        sum.record(-1L);
+        Assert.assertEquals(1002L, sum.getCount());
+        Assert.assertEquals(5000000L, sum.getMaxNanos());
+        Assert.assertEquals(0L, sum.getPercentileNanos(0.0));
+        Assert.assertEquals(5000000L, sum.getPercentileNanos(100.0));
+        Assert.assertEquals(s.getPercentileNanos(50.0), sum.getPercentileNanos(50.0));
+    }
+
+    private static void assertNear(long expected, long actual) {
+        Assert.assertTrue("Expected about " + expected + " but was " + actual,
+                          actual >= expected && actual <= expected + expected / PublishStatistics.SUB_BUCKETS);
+    }
+}
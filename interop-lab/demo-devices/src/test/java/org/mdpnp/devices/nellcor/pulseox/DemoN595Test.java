@@ -0,0 +1,95 @@
+package org.mdpnp.devices.nellcor.pulseox;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mdpnp.devices.EventLoopHandler;
+import org.mdpnp.devices.PublisherFactory;
+import org.mdpnp.devices.SubscriberFactory;
+import org.mdpnp.devices.serial.TCPSerialProvider;
+import org.mdpnp.rtiapi.data.EventLoop;
+import org.mdpnp.rtiapi.qos.IceQos;
+
+/**
+ * Drives the chunked input of DemoN595 over a loopback connection
+ */
+public class DemoN595Test {
+
+    private static final int domainId = 0;
+
+    private static final String VERSION_LINE = "NPB-595 VERSION 1.2.3.4 INFO CRC:A1B2 SEC:12/34\r\n";
+
+    /**
+     * The channel is serviced by the shared NetworkLoopPool (ChunkedConnection.read)
+     */
+    @Test
+    public void testNonBlockingConnection() throws Exception {
+        runDevice(new TCPSerialProvider(true));
+    }
+
+    /**
+     * A thread reads the blocking stream and hands on chunks (processChunks)
+     */
+    @Test
+    public void testBlockingConnection() throws Exception {
+        runDevice(new TCPSerialProvider(false));
+    }
+
+    private void runDevice(TCPSerialProvider serialProvider) throws Exception {
+        IceQos.LoadStatus qosStatus = IceQos.loadAndSetIceQos();
+        if(qosStatus==IceQos.LoadStatus.NONE)
+            Assert.fail("Failed to load QOS settings");
+
+        EventLoop eventLoop = new EventLoop();
+        EventLoopHandler handler = new EventLoopHandler(eventLoop);
+        org.mdpnp.devices.DomainParticipantFactory dpf = new org.mdpnp.devices.DomainParticipantFactory(domainId);
+        SubscriberFactory sf = new SubscriberFactory(dpf.getObject());
+        PublisherFactory pf = new PublisherFactory(dpf.getObject());
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+        ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        server.setSoTimeout(10000);
+
+        DemoN595 device = new DemoN595(sf.getObject(), pf.getObject(), eventLoop);
+        device.setSerialProvider(0, serialProvider);
+        device.setExecutor(scheduler);
+        try {
+            device.connect(InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getLocalPort());
+
+            Socket s = server.accept();
+            s.setSoTimeout(10000);
+            InputStream in = s.getInputStream();
+            OutputStream out = s.getOutputStream();
+
+            // Negotiating begins with the command to enter interactive mode
+            Assert.assertEquals(0x03, in.read());
+            Assert.assertEquals(0x03, in.read());
+
+            // Split the identifying line across several chunks
+            byte[] line = VERSION_LINE.getBytes("US-ASCII");
+            for (int off = 0; off < line.length; off += 7) {
+                out.write(line, off, Math.min(7, line.length - off));
+                out.flush();
+                Thread.sleep(20L);
+            }
+
+            Assert.assertTrue("Device did not connect upon the VERSION line",
+                              device.awaitState(ice.ConnectionState.Connected, 5000L));
+            Assert.assertEquals("12/34", device.getDeviceIdentity().serial_number);
+            s.close();
+        } finally {
+            device.disconnect();
+            device.shutdown();
+            server.close();
+            handler.shutdown();
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.devices.philips.intellivue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mdpnp.devices.io.SplitBytesOutputStream;
+
+public class TestRS232Transport {
+
+    private static class Recorder extends Intellivue {
+        private final List<byte[]> received = new ArrayList<byte[]>();
+
+        @Override
+        public synchronized void receive(ByteBuffer datagram) throws IOException {
+            byte[] b = new byte[datagram.remaining()];
+            datagram.get(b);
+            received.add(b);
+        }
+    }
+
+    // Includes every byte that must be escaped
+    private static final byte[][] DATAGRAMS = { { 0x0D, (byte) 0xEC, 0x05, 0x08, 0x13, 0x01, 0x00, 0x16 },
+            { (byte) 0xC0, 0x7D, (byte) 0xC1, 0x20, 0x5D, (byte) 0xE1, (byte) 0xE0 }, { 0x01 } };
+
+    @Test
+    public void testFramingMatchesFCSOutputStream() throws IOException {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        RS232Transport transport = new RS232Transport(null, new ByteArrayInputStream(new byte[0]), actual, "test", new Recorder(), null);
+        transport.start();
+        for (byte[] d : DATAGRAMS) {
+            transport.send(ByteBuffer.wrap(d));
+        }
+        transport.shutdown();
+
+        // As framed by the streams the UDP bridge used
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        FCSOutputStream fcsout = new FCSOutputStream(new SplitBytesOutputStream(expected, new IntellivueByteSplitter()));
+        for (byte[] d : DATAGRAMS) {
+            expected.write(0xC0);
+            fcsout.resetFCS();
+            fcsout.write(0x11);
+            fcsout.write(0x01);
+            fcsout.write(0xFF & (d.length >> 8));
+            fcsout.write(0xFF & d.length);
+            fcsout.write(d);
+            fcsout.writeFCS();
+            expected.write(0xC1);
+        }
+        fcsout.flush();
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        RS232Transport sender = new RS232Transport(null, new ByteArrayInputStream(new byte[0]), wire, "sender", new Recorder(), null);
+        sender.start();
+        sender.send(ByteBuffer.wrap(DATAGRAMS[0]));
+        sender.send(ByteBuffer.wrap(DATAGRAMS[1]));
+        byte[] good = wire.toByteArray();
+        wire.reset();
+        sender.send(ByteBuffer.wrap(DATAGRAMS[2]));
+        byte[] last = wire.toByteArray();
+        sender.shutdown();
+
+        ByteArrayOutputStream in = new ByteArrayOutputStream();
+        // Noise between frames
+        in.write(new byte[] { 0x55, 0x7D, 0x00 });
+        in.write(good);
+        // A frame with a corrupted body
+        byte[] corrupt = good.clone();
+        corrupt[6] ^= 0x01;
+        in.write(corrupt);
+        // An aborted frame
+        in.write(new byte[] { (byte) 0xC0, 0x11, 0x01, 0x7D, (byte) 0xC1 });
+        in.write(last);
+
+        Recorder recorder = new Recorder();
+        RS232Transport receiver = new RS232Transport(null, new ByteArrayInputStream(in.toByteArray()), new ByteArrayOutputStream(), "receiver",
+                recorder, null);
+        receiver.start();
+        long giveUp = System.currentTimeMillis() + 2000L;
+        while (recorder.received.size() < 4 && System.currentTimeMillis() < giveUp) {
+            Thread.sleep(10L);
+        }
+        receiver.shutdown();
+
+        // The corrupted first frame is dropped, its second frame survives
+        assertEquals(4, recorder.received.size());
+        assertArrayEquals(DATAGRAMS[0], recorder.received.get(0));
+        assertArrayEquals(DATAGRAMS[1], recorder.received.get(1));
+        assertArrayEquals(DATAGRAMS[1], recorder.received.get(2));
+        assertArrayEquals(DATAGRAMS[2], recorder.received.get(3));
+    }
+
+    @Test
+    public void testFrameRate() throws Exception {
+        final List<Long> writeTimes = new ArrayList<Long>();
+        OutputStream wire = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public synchronized void write(byte[] b, int off, int len) throws IOException {
+                writeTimes.add(System.currentTimeMillis());
+            }
+        };
+        RS232Transport transport = new RS232Transport(null, new ByteArrayInputStream(new byte[0]), wire, "test", new Recorder(), null);
+        transport.start();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 8; i++) {
+            transport.send(ByteBuffer.wrap(DATAGRAMS[0]));
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        long giveUp = System.currentTimeMillis() + 2000L;
+        while (writeCount(wire, writeTimes) < 8 && System.currentTimeMillis() < giveUp) {
+            Thread.sleep(10L);
+        }
+        transport.shutdown();
+        // The sender, which may hold the Intellivue lock, does not wait for a frame slot
+        assertTrue("elapsed " + elapsed, elapsed < 128L);
+        // Four go immediately, the next four a period later
+        synchronized (wire) {
+            assertEquals(8, writeTimes.size());
+            long gap = writeTimes.get(4) - writeTimes.get(0);
+            // Allowing a millisecond between taking the slot and writing
+            assertTrue("gap " + gap, gap >= 127L && gap < 1000L);
+        }
+    }
+
+    private static int writeCount(OutputStream wire, List<Long> writeTimes) {
+        synchronized (wire) {
+            return writeTimes.size();
+        }
+    }
+}
@@ -2,8 +2,15 @@ package org.mdpnp.guis.waveform.javafx;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import javafx.scene.control.CheckMenuItem;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.input.ContextMenuEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.util.Duration;
@@ -24,6 +31,24 @@ public class JavaFXWaveformPane extends BorderPane implements WaveformPanel {
     private WaveformSource source; 
     private final JavaFXWaveformCanvas waveformCanvas;
     private Timeline waveformRender;
+    private final BooleanProperty decimate = new SimpleBooleanProperty(this, "decimate", false);
+    private final ContextMenu contextMenu = new ContextMenu();
+
+    /**
+     * Draw one min-max segment per pixel column rather than a line per sample;
+     * also offered on the context menu of the pane
+     */
+    public final BooleanProperty decimateProperty() {
+        return decimate;
+    }
+
+    public final boolean isDecimate() {
+        return decimate.get();
+    }
+
+    public final void setDecimate(boolean decimate) {
+        this.decimate.set(decimate);
+    }
  
     public ResizableCanvas getCanvas() {
         return canvas;
@@ -43,6 +68,24 @@ public class JavaFXWaveformPane extends BorderPane implements WaveformPanel {
             }
             
         });
+
+        decimate.addListener(new ChangeListener<Boolean>() {
+            @Override
+            public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
+                renderer.setDecimate(newValue);
+            }
+        });
+        CheckMenuItem decimateItem = new CheckMenuItem("Decimate");
+        decimateItem.selectedProperty().bindBidirectional(decimate);
+        contextMenu.getItems().add(decimateItem);
+        setOnContextMenuRequested(new EventHandler<ContextMenuEvent>() {
+
+            @Override
+            public void handle(ContextMenuEvent event) {
+                contextMenu.show(JavaFXWaveformPane.this, event.getScreenX(), event.getScreenY());
+            }
+
+        });
     }
  
     @Override protected void layoutChildren() {
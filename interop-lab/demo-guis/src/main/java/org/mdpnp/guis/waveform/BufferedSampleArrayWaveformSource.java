@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.guis.waveform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.rti.dds.infrastructure.InstanceHandle_t;
+import com.rti.dds.infrastructure.RETCODE_NO_DATA;
+import com.rti.dds.infrastructure.ResourceLimitsQosPolicy;
+import com.rti.dds.subscription.InstanceStateKind;
+import com.rti.dds.subscription.SampleInfo;
+import com.rti.dds.subscription.SampleInfoSeq;
+import com.rti.dds.subscription.SampleStateKind;
+import com.rti.dds.subscription.ViewStateKind;
+
+/**
+ * SampleArray waveform source that keeps its own history of samples.  The
+ * SampleArrays already held by the reader are decoded once, on first use,
+ * into a {@link TimeValueRing}.  After that the reader is not read again;
+ * whoever reads the shared reader (normally its fx list) hands each new
+ * SampleArray to {@link #append(ice.SampleArray, SampleInfo)}.  Rendering then
+ * visits only the requested window of time.  Per frame cost is proportional
+ * to what is new and what is visible rather than to the depth of the DDS
+ * history.
+ *
+ * The reader is shared with other consumers (fx lists, other sources) so the
+ * sample state of the reader is left alone; samples already in the history
+ * are recognized by their reception sequence number instead.  That is
+ * assigned by the reader as samples arrive so, unlike the source timestamp, a
+ * device clock stepping backwards cannot hide new samples.
+ */
+public class BufferedSampleArrayWaveformSource extends AbstractDdsWaveformSource<ice.SampleArrayDataReader, ice.SampleArray, ice.SampleArraySeq>
+        implements WindowedWaveformSource {
+    private static final Logger log = LoggerFactory.getLogger(BufferedSampleArrayWaveformSource.class);
+
+    /**
+     * About a minute of a 500Hz waveform
+     */
+    public static final int DEFAULT_CAPACITY = 32768;
+
+    static final long MAX_BACKWARDS_MS = 1000L;
+
+    private final TimeValueRing history;
+    // reception_sequence_number of the newest SampleArray already in the history
+    private long lastReceptionSequence = Long.MIN_VALUE;
+    // Set once the SampleArrays already in the reader are in the history
+    private boolean backfilled;
+
+    public BufferedSampleArrayWaveformSource(final ice.SampleArrayDataReader reader, InstanceHandle_t instanceHandle) {
+        this(reader, instanceHandle, DEFAULT_CAPACITY);
+    }
+
+    public BufferedSampleArrayWaveformSource(final ice.SampleArrayDataReader reader, InstanceHandle_t instanceHandle, int capacity) {
+        super(reader, instanceHandle, ice.SampleArray.class, ice.SampleArraySeq.class);
+        this.history = new TimeValueRing(capacity);
+    }
+
+    public BufferedSampleArrayWaveformSource(final ice.SampleArrayDataReader reader, ice.SampleArray keyHolder) {
+        this(reader, keyHolder, DEFAULT_CAPACITY);
+    }
+
+    public BufferedSampleArrayWaveformSource(final ice.SampleArrayDataReader reader, ice.SampleArray keyHolder, int capacity) {
+        super(reader, keyHolder, ice.SampleArray.class, ice.SampleArraySeq.class);
+        this.history = new TimeValueRing(capacity);
+        log.debug("Created a BufferedSampleArrayWaveformSource for " + keyHolder.unique_device_identifier + " " + keyHolder.metric_id + " "
+                + keyHolder.instance_id);
+    }
+
+    @Override
+    public void iterate(WaveformIterator itr) {
+        iterate(itr, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void iterate(WaveformIterator itr, long fromTime, long toTime) {
+        try {
+            itr.begin();
+
+            if (null == instanceHandle || instanceHandle.is_nil()) {
+                log.warn("Tried to iterate a null or nil instance ");
+                return;
+            }
+            refresh();
+            history.iterate(itr, fromTime, toTime);
+        } finally {
+            itr.end();
+        }
+    }
+
+    private static long receptionSequence(SampleInfo si) {
+        return ((long) si.reception_sequence_number.high << 32) | (si.reception_sequence_number.low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Appends a SampleArray just read from the shared reader.  SampleArrays of
+     * other instances, and any already in the history, are ignored.  The
+     * signature matches the sample listeners of the fx lists so that this can
+     * be registered as one.
+     */
+    public synchronized void append(ice.SampleArray sampleArray, SampleInfo sampleInfo) {
+        if (null == instanceHandle || !instanceHandle.equals(sampleInfo.instance_handle)) {
+            return;
+        }
+        refresh();
+        add(sampleArray, sampleInfo);
+    }
+
+    /**
+     * Reads the SampleArrays the reader already holds into the history; only
+     * the first call does anything.
+     */
+    protected void refresh() {
+        if (backfilled) {
+            return;
+        }
+        SampleInfoSeq sample_info_seq = this.sample_info_seq.get();
+        ice.SampleArraySeq sample_array_seq = this.data_seq.get();
+        try {
+            reader.read_instance(sample_array_seq, sample_info_seq, ResourceLimitsQosPolicy.LENGTH_UNLIMITED, instanceHandle,
+                    SampleStateKind.ANY_SAMPLE_STATE, ViewStateKind.ANY_VIEW_STATE, InstanceStateKind.ANY_INSTANCE_STATE);
+            for (int i = 0; i < sample_info_seq.size(); i++) {
+                add((ice.SampleArray) sample_array_seq.get(i), (SampleInfo) sample_info_seq.get(i));
+            }
+        } catch (RETCODE_NO_DATA noData) {
+
+        } finally {
+            reader.return_loan(sample_array_seq, sample_info_seq);
+        }
+        backfilled = true;
+    }
+
+    private void add(ice.SampleArray sampleArray, SampleInfo si) {
+        long receptionSequence = receptionSequence(si);
+        if (receptionSequence <= lastReceptionSequence) {
+            return;
+        }
+        lastReceptionSequence = receptionSequence;
+        if (!si.valid_data) {
+            // instance lifecycle event with no attached data.
+            return;
+        }
+        if (0 >= sampleArray.frequency) {
+            log.warn("Invalid frequency " + sampleArray.frequency + " for " + sampleArray.unique_device_identifier + " "
+                    + sampleArray.metric_id + " " + sampleArray.instance_id);
+            return;
+        }
+        ice.Time_t t = sampleArray.presentation_time;
+        long baseTime = t.sec * 1000L + t.nanosec / 1000000L;
+        int msPerSample = 1000 / sampleArray.frequency;
+        final int sz = sampleArray.values.userData.size();
+        // Small overlaps between arrays are absorbed by the history, a device clock going back is not
+        history.clearIfBefore(baseTime - sz * msPerSample, MAX_BACKWARDS_MS);
+        for (int j = 0; j < sz; j++) {
+            history.add(baseTime - (sz - j) * msPerSample, sampleArray.values.userData.getFloat(j));
+        }
+    }
+
+    @Override
+    public String getIdentifier() {
+        return keyHolder.instance_id + "-" + keyHolder.metric_id + "-" + keyHolder.unique_device_identifier;
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2014, MD PnP Program
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the documentation and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package org.mdpnp.guis.waveform;
+
+/**
+ * Fixed capacity ring of (time, value) pairs held in primitive arrays.  When
+ * full the oldest pair is overwritten.  Times are kept in non-decreasing
+ * order so that a window of time can be located by binary search; a pair
+ * appended with a time earlier than the newest is given the newest time.
+ *
+ * Not thread safe.
+ */
+public class TimeValueRing {
+    private final long[] times;
+    private final float[] values;
+    private final int mask;
+    // Total pairs ever appended; the newest is at (count-1) & mask
+    private long count;
+    private int size;
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public TimeValueRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive " + capacity);
+        }
+        int n = Integer.highestOneBit(capacity);
+        if (n < capacity) {
+            n <<= 1;
+        }
+        this.times = new long[n];
+        this.values = new float[n];
+        this.mask = n - 1;
+    }
+
+    public int capacity() {
+        return times.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        count = 0L;
+        size = 0;
+    }
+
+    /**
+     * Empties the ring when time is more than maxBackwards before the newest
+     * time, as when the clock of a source has been set back.  Anything closer
+     * is left to {@link #add(long, float)}.
+     *
+     * @return true if the ring was emptied
+     */
+    public boolean clearIfBefore(long time, long maxBackwards) {
+        if (size > 0 && time < getNewestTime() - maxBackwards) {
+            clear();
+            return true;
+        }
+        return false;
+    }
+
+    public void add(long time, float value) {
+        if (size > 0) {
+            time = Math.max(time, getNewestTime());
+        }
+        int idx = (int) (count & mask);
+        times[idx] = time;
+        values[idx] = value;
+        count++;
+        if (size < times.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @param i 0 is the oldest retained pair
+     */
+    public long getTime(int i) {
+        return times[physical(i)];
+    }
+
+    /**
+     * @param i 0 is the oldest retained pair
+     */
+    public float getValue(int i) {
+        return values[physical(i)];
+    }
+
+    public long getNewestTime() {
+        return times[(int) ((count - 1) & mask)];
+    }
+
+    /**
+     * @return index of the first pair with time >= t; size() if there is none
+     */
+    public int indexOf(long t) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getTime(mid) < t) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Hands pairs with fromTime <= time < toTime to the iterator, oldest first.
+     * Does not call begin or end.
+     */
+    public void iterate(WaveformSource.WaveformIterator itr, long fromTime, long toTime) {
+        for (int i = indexOf(fromTime); i < size; i++) {
+            int idx = physical(i);
+            if (times[idx] >= toTime) {
+                break;
+            }
+            itr.sample(times[idx], values[idx]);
+        }
+    }
+
+    private int physical(int i) {
+        return (int) ((count - size + i) & mask);
+    }
+}
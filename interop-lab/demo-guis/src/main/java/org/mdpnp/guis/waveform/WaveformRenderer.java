@@ -36,6 +36,47 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
     boolean aged_segment = true;
     boolean rendering = false;
 
+    // Extent of the current render, captured once rather than per sample
+    private double ext_min_x, ext_width, ext_min_y, ext_height;
+
+    private boolean decimate = false;
+    private double columnWidth = 1.0;
+
+    private static final long NO_COLUMN = Long.MIN_VALUE;
+    // The pixel column currently accumulating samples in decimate mode
+    private long col = NO_COLUMN;
+    private double col_x, col_first_y, col_last_y, col_min_y, col_max_y;
+
+    /**
+     * In decimate mode samples are bucketed by column of the extent and each
+     * column is drawn as a single vertical segment spanning the minimum and
+     * maximum of its samples (joined to the neighboring columns).  Drawing
+     * cost then depends upon the width of the canvas rather than upon the
+     * sample rate.
+     */
+    public void setDecimate(boolean decimate) {
+        this.decimate = decimate;
+    }
+
+    public boolean getDecimate() {
+        return decimate;
+    }
+
+    /**
+     * @param columnWidth width of a decimation column in extent units; the
+     * default of 1.0 is one pixel for the Swing and JavaFX canvases
+     */
+    public void setColumnWidth(double columnWidth) {
+        if (columnWidth <= 0.0) {
+            throw new IllegalArgumentException("columnWidth must be positive " + columnWidth);
+        }
+        this.columnWidth = columnWidth;
+    }
+
+    public double getColumnWidth() {
+        return columnWidth;
+    }
+
     public void setOverwrite(boolean overwrite) {
         this.overwrite = overwrite;
     }
@@ -82,6 +123,10 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
             if(time >= t0 && time < t2) {
                 // the newer data (left)
                 if(aged_segment) {
+                    if(decimate) {
+                        // finish the older segment before starting the newer one
+                        flushColumn();
+                    }
                     last_x = -1;
                     last_y = -1;
                     aged_segment = false;
@@ -106,10 +151,14 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
         
         double y_prop = 1.0 * (value - minY) / (maxY-minY);
         
-        double x = extent.getMinX() + x_prop * (extent.getMaxX()-extent.getMinX());
-        double y = extent.getMinY() + y_prop * (extent.getMaxY()-extent.getMinY());
+        double x = ext_min_x + x_prop * ext_width;
+        double y = ext_min_y + y_prop * ext_height;
         
         if(x_prop>=0.0&&x_prop<1.0&&y_prop>=0.0&&y_prop<1.0) {
+            if(decimate) {
+                column(x, y);
+                return;
+            }
             if(last_x>=0.0||last_y>=0.0&&x>last_x) {
                 count++;
                 canvas.drawLine(last_x, last_y, x, y);
@@ -124,6 +173,40 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
         
     }
     
+    private void column(double x, double y) {
+        long c = (long) Math.floor((x - ext_min_x) / columnWidth);
+        if(c != col) {
+            flushColumn();
+            col = c;
+            col_x = ext_min_x + c * columnWidth;
+            col_first_y = col_last_y = col_min_y = col_max_y = y;
+        } else {
+            col_last_y = y;
+            if(y < col_min_y) {
+                col_min_y = y;
+            } else if(y > col_max_y) {
+                col_max_y = y;
+            }
+        }
+    }
+    
+    private void flushColumn() {
+        if(NO_COLUMN == col) {
+            return;
+        }
+        if(last_x>=0.0||last_y>=0.0) {
+            count++;
+            canvas.drawLine(last_x, last_y, col_x, col_first_y);
+        }
+        if(col_max_y > col_min_y) {
+            count++;
+            canvas.drawLine(col_x, col_min_y, col_x, col_max_y);
+        }
+        last_x = col_x;
+        last_y = col_last_y;
+        col = NO_COLUMN;
+    }
+    
     public void render(WaveformSource source, WaveformCanvas canvas, long t1, long t2) {
         synchronized(this) {
             this.rendering = true;
@@ -141,6 +224,10 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
             }
     
             extent = canvas.getExtent();
+            ext_min_x = extent.getMinX();
+            ext_width = extent.getMaxX() - ext_min_x;
+            ext_min_y = extent.getMinY();
+            ext_height = extent.getMaxY() - ext_min_y;
             
             canvas.clearRect(extent.getMinX(), extent.getMinY(), extent.getMaxX(), extent.getMaxY());
     
@@ -161,8 +248,17 @@ public class WaveformRenderer implements WaveformSource.WaveformIterator {
     
             this.last_x = -1;
             this.last_y = -1;
+            this.col = NO_COLUMN;
             
-            source.iterate(this);
+            if(source instanceof WindowedWaveformSource) {
+                ((WindowedWaveformSource)source).iterate(this, t1, t2);
+            } else {
+                source.iterate(this);
+            }
+            
+            if(decimate) {
+                flushColumn();
+            }
         } finally {
             synchronized(this) {
                 rendering = false;
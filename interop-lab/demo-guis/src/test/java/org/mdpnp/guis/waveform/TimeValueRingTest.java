@@ -0,0 +1,175 @@
+package org.mdpnp.guis.waveform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeValueRingTest {
+
+    /**
+     * Records the samples handed to it as "time:value"
+     */
+    static class RecordingIterator implements WaveformSource.WaveformIterator {
+        final List<String> samples = new ArrayList<String>();
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void sample(long time, float value) {
+            samples.add(time + ":" + (int) value);
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    @Test
+    public void testWrapAround() {
+        TimeValueRing ring = new TimeValueRing(5);
+        Assert.assertEquals(8, ring.capacity());
+        Assert.assertEquals(0, ring.size());
+
+        for (int i = 0; i < 8; i++) {
+            ring.add(100L + i, i);
+        }
+        Assert.assertEquals(8, ring.size());
+        Assert.assertEquals(100L, ring.getTime(0));
+
+        // The oldest are overwritten once full
+        for (int i = 8; i < 11; i++) {
+            ring.add(100L + i, i);
+        }
+        Assert.assertEquals(8, ring.size());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(103L + i, ring.getTime(i));
+            Assert.assertEquals(3f + i, ring.getValue(i), 0f);
+        }
+        Assert.assertEquals(110L, ring.getNewestTime());
+    }
+
+    @Test
+    public void testTimeNeverDecreases() {
+        TimeValueRing ring = new TimeValueRing(4);
+        ring.add(100L, 1f);
+        ring.add(90L, 2f);
+        Assert.assertEquals(100L, ring.getTime(1));
+        Assert.assertEquals(2f, ring.getValue(1), 0f);
+    }
+
+    @Test
+    public void testClearWhenClockGoesBackwards() {
+        final long maxBackwards = BufferedSampleArrayWaveformSource.MAX_BACKWARDS_MS;
+        TimeValueRing ring = new TimeValueRing(16);
+        Assert.assertFalse(ring.clearIfBefore(0L, maxBackwards));
+
+        for (int i = 0; i < 10; i++) {
+            ring.add(10000L + 100L * i, i);
+        }
+        // Newest is 10900; an overlap of up to MAX_BACKWARDS_MS is kept
+        Assert.assertFalse(ring.clearIfBefore(10900L - maxBackwards, maxBackwards));
+        Assert.assertEquals(10, ring.size());
+
+        Assert.assertTrue(ring.clearIfBefore(10900L - maxBackwards - 1L, maxBackwards));
+        Assert.assertEquals(0, ring.size());
+
+        // Once cleared earlier times are accepted as they are
+        ring.add(5000L, 1f);
+        ring.add(5010L, 2f);
+        Assert.assertEquals(2, ring.size());
+        Assert.assertEquals(5000L, ring.getTime(0));
+        Assert.assertEquals(5010L, ring.getNewestTime());
+    }
+
+    @Test
+    public void testIndexOf() {
+        TimeValueRing ring = new TimeValueRing(16);
+        Assert.assertEquals(0, ring.indexOf(Long.MIN_VALUE));
+        Assert.assertEquals(0, ring.indexOf(0L));
+
+        long[] times = { 10L, 20L, 20L, 20L, 30L, 40L };
+        for (long t : times) {
+            ring.add(t, 0f);
+        }
+        Assert.assertEquals(0, ring.indexOf(Long.MIN_VALUE));
+        Assert.assertEquals(0, ring.indexOf(10L));
+        Assert.assertEquals(1, ring.indexOf(11L));
+        // The first of several equal times
+        Assert.assertEquals(1, ring.indexOf(20L));
+        Assert.assertEquals(4, ring.indexOf(21L));
+        Assert.assertEquals(5, ring.indexOf(40L));
+        Assert.assertEquals(6, ring.indexOf(41L));
+        Assert.assertEquals(6, ring.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testIndexOfAcrossWrap() {
+        TimeValueRing ring = new TimeValueRing(8);
+        for (int i = 0; i < 13; i++) {
+            ring.add(10L * i, i);
+        }
+        // Retains 50..120 with the oldest in the middle of the arrays
+        Assert.assertEquals(0, ring.indexOf(50L));
+        Assert.assertEquals(0, ring.indexOf(0L));
+        Assert.assertEquals(3, ring.indexOf(75L));
+        Assert.assertEquals(7, ring.indexOf(120L));
+        Assert.assertEquals(8, ring.indexOf(121L));
+    }
+
+    @Test
+    public void testIterateWindowAcrossWrap() {
+        TimeValueRing ring = new TimeValueRing(8);
+        for (int i = 0; i < 13; i++) {
+            ring.add(10L * i, i);
+        }
+
+        RecordingIterator itr = new RecordingIterator();
+        ring.iterate(itr, 70L, 110L);
+        // fromTime is inclusive and toTime exclusive
+        Assert.assertEquals("[70:7, 80:8, 90:9, 100:10]", itr.samples.toString());
+
+        itr = new RecordingIterator();
+        ring.iterate(itr, Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(8, itr.samples.size());
+        Assert.assertEquals("50:5", itr.samples.get(0));
+        Assert.assertEquals("120:12", itr.samples.get(7));
+
+        // Windows before, after and between the samples are empty
+        itr = new RecordingIterator();
+        ring.iterate(itr, 0L, 50L);
+        ring.iterate(itr, 121L, 200L);
+        ring.iterate(itr, 71L, 80L);
+        ring.iterate(itr, 80L, 80L);
+        Assert.assertTrue(itr.samples.isEmpty());
+    }
+
+    @Test
+    public void testIterateDuplicateTimes() {
+        TimeValueRing ring = new TimeValueRing(8);
+        ring.add(10L, 1f);
+        ring.add(20L, 2f);
+        ring.add(20L, 3f);
+        ring.add(30L, 4f);
+
+        RecordingIterator itr = new RecordingIterator();
+        ring.iterate(itr, 20L, 30L);
+        Assert.assertEquals("[20:2, 20:3]", itr.samples.toString());
+    }
+
+    @Test
+    public void testIterateEmpty() {
+        TimeValueRing ring = new TimeValueRing(8);
+        RecordingIterator itr = new RecordingIterator();
+        ring.iterate(itr, Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertTrue(itr.samples.isEmpty());
+
+        ring.add(10L, 1f);
+        ring.clear();
+        ring.iterate(itr, Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertTrue(itr.samples.isEmpty());
+    }
+}
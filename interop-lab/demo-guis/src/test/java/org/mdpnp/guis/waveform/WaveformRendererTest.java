@@ -0,0 +1,174 @@
+package org.mdpnp.guis.waveform;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WaveformRendererTest {
+
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Records what is drawn on a 1000x100 extent
+     */
+    static class RecordingCanvas implements WaveformCanvas {
+        final List<double[]> lines = new ArrayList<double[]>();
+        private final Extent extent = new ExtentImpl(0, 1000, 0, 100);
+
+        @Override
+        public void drawLine(double x0, double y0, double x1, double y1) {
+            lines.add(new double[] { x0, y0, x1, y1 });
+        }
+
+        @Override
+        public void clearRect(double x, double y, double width, double height) {
+            lines.clear();
+        }
+
+        @Override
+        public void drawString(String str, double x, double y) {
+        }
+
+        @Override
+        public Extent getExtent() {
+            return extent;
+        }
+    }
+
+    static abstract class Source implements WaveformSource {
+        @Override
+        public void iterate(WaveformIterator itr) {
+            itr.begin();
+            samples(itr);
+            itr.end();
+        }
+
+        abstract void samples(WaveformIterator itr);
+
+        @Override
+        public String getIdentifier() {
+            return "test";
+        }
+
+        @Override
+        public boolean loadingHistoricalData() {
+            return false;
+        }
+    }
+
+    private static final int COLUMNS = 100;
+
+    // Values within a column climb from its minimum to its maximum
+    private static float value(int column, int i) {
+        return 10 + (column % 3) * 10 + 2 * i;
+    }
+
+    private static double min(int column) {
+        return value(column, 1);
+    }
+
+    private static double max(int column) {
+        return value(column, 9);
+    }
+
+    /**
+     * With [t1, t2) = [0, 1000) ms over 1000 pixels a sample at t ms is at x=t.
+     * Samples fall strictly inside each column of 10 pixels.
+     */
+    private static final Source WAVE = new Source() {
+        @Override
+        void samples(WaveformIterator itr) {
+            for (int c = 0; c < COLUMNS; c++) {
+                for (int i = 1; i < 10; i++) {
+                    itr.sample(10L * c + i, value(c, i));
+                }
+            }
+        }
+    };
+
+    private static WaveformRenderer scaledRenderer(RecordingCanvas canvas) {
+        WaveformRenderer renderer = new WaveformRenderer();
+        renderer.setOverwrite(false);
+        // Establish a vertical scale of 0 to 100 so that y equals the value
+        renderer.render(new Source() {
+            @Override
+            void samples(WaveformIterator itr) {
+                itr.sample(0L, 0f);
+                itr.sample(500L, 100f);
+            }
+        }, canvas, 0L, 1000L);
+        return renderer;
+    }
+
+    @Test
+    public void testOneSegmentPerColumn() {
+        RecordingCanvas canvas = new RecordingCanvas();
+        WaveformRenderer renderer = scaledRenderer(canvas);
+        renderer.setDecimate(true);
+        renderer.setColumnWidth(10.0);
+        renderer.render(WAVE, canvas, 0L, 1000L);
+
+        // One vertical segment per column and a join between each pair of columns
+        Assert.assertEquals(COLUMNS + COLUMNS - 1, canvas.lines.size());
+
+        int idx = 0;
+        for (int c = 0; c < COLUMNS; c++) {
+            double x = 10.0 * c;
+            if (c > 0) {
+                // From the last sample of the previous column to the first of this one
+                assertLine(canvas.lines.get(idx++), x - 10.0, max(c - 1), x, min(c));
+            }
+            assertLine(canvas.lines.get(idx++), x, min(c), x, max(c));
+        }
+    }
+
+    @Test
+    public void testLinePerSample() {
+        RecordingCanvas canvas = new RecordingCanvas();
+        WaveformRenderer renderer = scaledRenderer(canvas);
+        renderer.render(WAVE, canvas, 0L, 1000L);
+        Assert.assertEquals(9 * COLUMNS - 1, canvas.lines.size());
+    }
+
+    @Test
+    public void testWindowedSource() {
+        final long[] window = new long[2];
+        WindowedWaveformSource source = new WindowedWaveformSource() {
+            @Override
+            public void iterate(WaveformIterator itr) {
+                Assert.fail("A windowed source is asked for the window only");
+            }
+
+            @Override
+            public void iterate(WaveformIterator itr, long fromTime, long toTime) {
+                window[0] = fromTime;
+                window[1] = toTime;
+                WAVE.iterate(itr);
+            }
+
+            @Override
+            public String getIdentifier() {
+                return "windowed";
+            }
+
+            @Override
+            public boolean loadingHistoricalData() {
+                return false;
+            }
+        };
+        RecordingCanvas canvas = new RecordingCanvas();
+        WaveformRenderer renderer = scaledRenderer(canvas);
+        renderer.render(source, canvas, 0L, 1000L);
+        Assert.assertArrayEquals(new long[] { 0L, 1000L }, window);
+        Assert.assertEquals(9 * COLUMNS - 1, canvas.lines.size());
+    }
+
+    private static void assertLine(double[] line, double x0, double y0, double x1, double y1) {
+        Assert.assertEquals(x0, line[0], EPSILON);
+        Assert.assertEquals(y0, line[1], EPSILON);
+        Assert.assertEquals(x1, line[2], EPSILON);
+        Assert.assertEquals(y1, line[3], EPSILON);
+    }
+}